@@ -1,6 +1,7 @@
 package com.pp.netty.bootstrap;
 
 import com.pp.netty.channel.*;
+import com.pp.netty.util.AttributeKey;
 import com.pp.netty.util.concurrent.EventExecutor;
 import com.pp.netty.util.internal.ObjectUtil;
 import org.slf4j.Logger;
@@ -8,6 +9,8 @@ import org.slf4j.LoggerFactory;
 
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class Bootstrap<C extends Channel> {
 
@@ -17,21 +20,67 @@ public class Bootstrap<C extends Channel> {
 
     private volatile ChannelFactory<? extends Channel> channelFactory;
 
+    //添加到channel的pipeline中的handler，一般是一个ChannelInitializer，由它添加用户真正的handler
+    private volatile ChannelHandler handler;
+
+    //客户端channel的参数，比如CONNECT_TIMEOUT_MILLIS
+    private final Map<ChannelOption<?>, Object> options = new LinkedHashMap<ChannelOption<?>, Object>();
+
+    //客户端channel的属性
+    private final Map<AttributeKey<?>, Object> attrs = new LinkedHashMap<AttributeKey<?>, Object>();
+
 
     public Bootstrap() {
 
     }
 
-    public Bootstrap group(EventLoopGroup childGroup) {
+    public Bootstrap<C> group(EventLoopGroup childGroup) {
         this.workerGroup = childGroup;
         return this;
     }
 
-    public Bootstrap channel(Class<? extends C> channelClass) {
+    public Bootstrap<C> channel(Class<? extends C> channelClass) {
         this.channelFactory = new ReflectiveChannelFactory<C>(channelClass);
         return this;
     }
 
+    public Bootstrap<C> handler(ChannelHandler handler) {
+        this.handler = ObjectUtil.checkNotNull(handler, "handler");
+        return this;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:给客户端channel设置参数，value为null的时候删除这个参数
+     */
+    public <T> Bootstrap<C> option(ChannelOption<T> option, T value) {
+        ObjectUtil.checkNotNull(option, "option");
+        synchronized (options) {
+            if (value == null) {
+                options.remove(option);
+            } else {
+                options.put(option, value);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:给客户端channel设置属性，value为null的时候删除这个属性
+     */
+    public <T> Bootstrap<C> attr(AttributeKey<T> key, T value) {
+        ObjectUtil.checkNotNull(key, "key");
+        synchronized (attrs) {
+            if (value == null) {
+                attrs.remove(key);
+            } else {
+                attrs.put(key, value);
+            }
+        }
+        return this;
+    }
+
     public ChannelFuture connect(String inetHost, int inetPort) {
         return connect(new InetSocketAddress(inetHost, inetPort));
     }
@@ -110,6 +159,13 @@ public class Bootstrap<C extends Channel> {
         //在这里初始化服务端channel，反射创建对象调用的无参构造器，
         //可以去NioServerSocketChannel类中看看无参构造器中做了什么
         channel = channelFactory.newChannel();
+        //注册之前就把handler添加到pipeline中，这时候handler的handlerAdded方法还不会被调用，要等到channel注册成功之后
+        ChannelHandler handler = this.handler;
+        if (handler != null) {
+            channel.pipeline().addLast(handler);
+        }
+        ServerBootstrap.setChannelOptions(channel, options);
+        ServerBootstrap.setAttributes(channel, attrs);
         //这里是异步注册的，一般来说，workerGroup设置的也是一个线程执行器。只有在服务端的workerGroup中，才会设置多个线程执行器
         ChannelFuture regFuture = workerGroup.next().register(channel);
         return regFuture;
@@ -1,6 +1,7 @@
 package com.pp.netty.bootstrap;
 
 import com.pp.netty.channel.*;
+import com.pp.netty.util.AttributeKey;
 import com.pp.netty.util.concurrent.EventExecutor;
 import com.pp.netty.util.internal.ObjectUtil;
 import com.pp.netty.util.internal.SocketUtils;
@@ -10,6 +11,9 @@ import org.slf4j.LoggerFactory;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ServerBootstrap<C extends Channel> {
 
@@ -21,11 +25,29 @@ public class ServerBootstrap<C extends Channel> {
 
     private volatile ChannelFactory<? extends Channel> channelFactory;
 
+    //添加到服务端channel的pipeline中的handler
+    private volatile ChannelHandler handler;
+
+    //添加到每一个客户端channel的pipeline中的handler，一般是一个ChannelInitializer，由它添加用户真正的handler
+    private volatile ChannelHandler childHandler;
+
+    //服务端channel的参数
+    private final Map<ChannelOption<?>, Object> options = new LinkedHashMap<ChannelOption<?>, Object>();
+
+    //每一个客户端channel的参数，和childAttrs一样用线程安全的map
+    private final Map<ChannelOption<?>, Object> childOptions = new ConcurrentHashMap<ChannelOption<?>, Object>();
+
+    //服务端channel的属性
+    private final Map<AttributeKey<?>, Object> attrs = new LinkedHashMap<AttributeKey<?>, Object>();
+
+    //每一个客户端channel的属性，服务端运行的时候也可能被修改，所以用线程安全的map
+    private final Map<AttributeKey<?>, Object> childAttrs = new ConcurrentHashMap<AttributeKey<?>, Object>();
+
     public ServerBootstrap() {
 
     }
 
-    public ServerBootstrap group(EventLoopGroup parentGroup, EventLoopGroup childGroup) {
+    public ServerBootstrap<C> group(EventLoopGroup parentGroup, EventLoopGroup childGroup) {
         this.bossGroup = parentGroup;
         this.workerGroup = childGroup;
         return this;
@@ -35,11 +57,89 @@ public class ServerBootstrap<C extends Channel> {
      * @Author: PP-jessica
      * @Description:创建channel的工厂
      */
-    public ServerBootstrap channel(Class<? extends C> channelClass) {
+    public ServerBootstrap<C> channel(Class<? extends C> channelClass) {
         this.channelFactory = new ReflectiveChannelFactory<C>(channelClass);
         return this;
     }
 
+    /**
+     * @Author: PP-jessica
+     * @Description:服务端channel的handler，接收到的客户端channel会交给它处理
+     */
+    public ServerBootstrap<C> handler(ChannelHandler handler) {
+        this.handler = ObjectUtil.checkNotNull(handler, "handler");
+        return this;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:接收到的每一个客户端channel都会添加这个handler，所以它一般是可以共享的ChannelInitializer
+     */
+    public ServerBootstrap<C> childHandler(ChannelHandler childHandler) {
+        this.childHandler = ObjectUtil.checkNotNull(childHandler, "childHandler");
+        return this;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:给服务端channel设置参数，比如SO_BACKLOG，value为null的时候删除这个参数
+     */
+    public <T> ServerBootstrap<C> option(ChannelOption<T> option, T value) {
+        ObjectUtil.checkNotNull(option, "option");
+        synchronized (options) {
+            if (value == null) {
+                options.remove(option);
+            } else {
+                options.put(option, value);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:给每一个客户端channel设置参数，比如TCP_NODELAY、SO_SNDBUF，value为null的时候删除这个参数
+     */
+    public <T> ServerBootstrap<C> childOption(ChannelOption<T> childOption, T value) {
+        ObjectUtil.checkNotNull(childOption, "childOption");
+        if (value == null) {
+            childOptions.remove(childOption);
+        } else {
+            childOptions.put(childOption, value);
+        }
+        return this;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:给服务端channel设置属性，value为null的时候删除这个属性
+     */
+    public <T> ServerBootstrap<C> attr(AttributeKey<T> key, T value) {
+        ObjectUtil.checkNotNull(key, "key");
+        synchronized (attrs) {
+            if (value == null) {
+                attrs.remove(key);
+            } else {
+                attrs.put(key, value);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:给每一个客户端channel设置属性，value为null的时候删除这个属性
+     */
+    public <T> ServerBootstrap<C> childAttr(AttributeKey<T> childKey, T value) {
+        ObjectUtil.checkNotNull(childKey, "childKey");
+        if (value == null) {
+            childAttrs.remove(childKey);
+        } else {
+            childAttrs.put(childKey, value);
+        }
+        return this;
+    }
+
     public ChannelFuture bind(int inetPort) {
         return bind(new InetSocketAddress(inetPort));
     }
@@ -53,6 +153,7 @@ public class ServerBootstrap<C extends Channel> {
     }
 
     public ChannelFuture bind(SocketAddress localAddress) {
+        validate();
         return doBind(ObjectUtil.checkNotNull(localAddress, "localAddress"));
     }
 
@@ -115,11 +216,153 @@ public class ServerBootstrap<C extends Channel> {
         //在这里初始化服务端channel，反射创建对象调用的无参构造器，
         //可以去NioServerSocketChannel类中看看无参构造器中做了什么
         channel = channelFactory.newChannel();
+        init(channel);
         //这里是异步注册的，一般来说，bossGroup设置的都是一个线程。
         ChannelFuture regFuture = bossGroup.next().register(channel);
         return regFuture;
     }
 
+    private void validate() {
+        if (bossGroup == null) {
+            throw new IllegalStateException("group not set");
+        }
+        if (channelFactory == null) {
+            throw new IllegalStateException("channel or channelFactory not set");
+        }
+        if (childHandler == null) {
+            throw new IllegalStateException("childHandler not set");
+        }
+        if (workerGroup == null) {
+            logger.warn("childGroup is not set. Using parentGroup instead.");
+            workerGroup = bossGroup;
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:初始化服务端channel。注册之前先向pipeline中添加一个ChannelInitializer，注册成功之后由它添加用户的handler，
+     * 再添加ServerBootstrapAcceptor，接收到的客户端channel就是由ServerBootstrapAcceptor注册到工作线程上的
+     */
+    void init(Channel channel) {
+        setChannelOptions(channel, options);
+        setAttributes(channel, attrs);
+        final EventLoopGroup currentChildGroup = workerGroup;
+        final ChannelHandler currentChildHandler = childHandler;
+        //客户端channel的参数也复制一份
+        final Map<ChannelOption<?>, Object> currentChildOptions = new LinkedHashMap<ChannelOption<?>, Object>(childOptions);
+        //把客户端channel的属性复制一份，之后再修改childAttrs也不会影响已经启动的服务端
+        final Map<AttributeKey<?>, Object> currentChildAttrs = new LinkedHashMap<AttributeKey<?>, Object>(childAttrs);
+        channel.pipeline().addLast(new ChannelInitializer<Channel>() {
+            @Override
+            protected void initChannel(final Channel ch) throws Exception {
+                final ChannelPipeline pipeline = ch.pipeline();
+                ChannelHandler handler = ServerBootstrap.this.handler;
+                if (handler != null) {
+                    pipeline.addLast(handler);
+                }
+                //用户的handler也可能是一个ChannelInitializer，它添加的handler要在ServerBootstrapAcceptor前面，
+                //所以这里提交一个任务，等用户的handler都添加完了再添加ServerBootstrapAcceptor
+                ch.eventLoop().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        pipeline.addLast(new ServerBootstrapAcceptor(
+                                currentChildGroup, currentChildHandler, currentChildOptions, currentChildAttrs));
+                    }
+                });
+            }
+        });
+    }
+
+    static void setChannelOptions(Channel channel, Map<ChannelOption<?>, Object> options) {
+        synchronized (options) {
+            for (Map.Entry<ChannelOption<?>, Object> e: options.entrySet()) {
+                setChannelOption(channel, e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:设置单个参数，参数不被支持或者设置失败都只打印警告，不影响channel的启动
+     */
+    @SuppressWarnings("unchecked")
+    private static void setChannelOption(Channel channel, ChannelOption<?> option, Object value) {
+        try {
+            if (!channel.config().setOption((ChannelOption<Object>) option, value)) {
+                logger.warn("Unknown channel option '{}' for channel '{}'", option, channel);
+            }
+        } catch (Throwable t) {
+            logger.warn("Failed to set channel option '{}' with value '{}' for channel '{}'", option, value, channel, t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static void setAttributes(Channel channel, Map<AttributeKey<?>, Object> attrs) {
+        synchronized (attrs) {
+            for (Map.Entry<AttributeKey<?>, Object> e: attrs.entrySet()) {
+                channel.attr((AttributeKey<Object>) e.getKey()).set(e.getValue());
+            }
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:服务端channel的pipeline中的最后一个handler，服务端channel接收到的客户端channel会传到这里。
+     * 它给客户端channel添加childHandler、设置参数和属性，然后注册到工作线程组的一个工作线程上，
+     * 工作线程是轮询选出来的，一次唤醒接收的一批连接会被分散到所有的工作线程上
+     */
+    private static class ServerBootstrapAcceptor extends ChannelInboundHandlerAdapter {
+
+        private final EventLoopGroup childGroup;
+        private final ChannelHandler childHandler;
+        private final Map<ChannelOption<?>, Object> childOptions;
+        private final Map<AttributeKey<?>, Object> childAttrs;
+
+        ServerBootstrapAcceptor(EventLoopGroup childGroup, ChannelHandler childHandler,
+                                Map<ChannelOption<?>, Object> childOptions, Map<AttributeKey<?>, Object> childAttrs) {
+            this.childGroup = childGroup;
+            this.childHandler = childHandler;
+            this.childOptions = childOptions;
+            this.childAttrs = childAttrs;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            final Channel child = (Channel) msg;
+            child.pipeline().addLast(childHandler);
+            setChannelOptions(child, childOptions);
+            setAttributes(child, childAttrs);
+            try {
+                //childGroup.register内部会调用next方法选出一个工作线程
+                childGroup.register(child).addListener(new ChannelFutureListener() {
+                    @Override
+                    public void operationComplete(ChannelFuture future) throws Exception {
+                        if (!future.isSuccess()) {
+                            forceClose(child, future.cause());
+                        }
+                    }
+                });
+            } catch (Throwable t) {
+                forceClose(child, t);
+            }
+        }
+
+        private static void forceClose(Channel child, Throwable t) {
+            child.unsafe().closeForcibly();
+            logger.warn("Failed to register an accepted channel: {}", child, t);
+        }
+
+        /**
+         * @Author: PP-jessica
+         * @Description:接收连接出现了异常，比如文件描述符用完了，这种异常不应该关闭服务端channel，打印日志之后继续向后传播
+         */
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+            logger.warn("Exception occurred while accepting a connection: {}", ctx.channel(), cause);
+            ctx.fireExceptionCaught(cause);
+        }
+    }
+
     static final class PendingRegistrationPromise extends DefaultChannelPromise {
 
         private volatile boolean registered;
@@ -0,0 +1,956 @@
+package com.pp.netty.buffer;
+
+import com.pp.netty.util.ByteProcessor;
+import com.pp.netty.util.IllegalReferenceCountException;
+import com.pp.netty.util.internal.ObjectUtil;
+import com.pp.netty.util.internal.StringUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * @Author: PP-jessica
+ * @Description:ByteBuf的骨架实现，读写索引、标记、边界检查、扩容这些和具体内存无关的逻辑都在这里实现了，
+ * 子类只需要实现按下标读写基本类型的那几个_getXXX和_setXXX方法，以及批量拷贝字节的方法
+ */
+public abstract class AbstractByteBuf extends ByteBuf {
+
+    int readerIndex;
+    int writerIndex;
+    private int markedReaderIndex;
+    private int markedWriterIndex;
+    private int maxCapacity;
+
+    protected AbstractByteBuf(int maxCapacity) {
+        ObjectUtil.checkPositiveOrZero(maxCapacity, "maxCapacity");
+        this.maxCapacity = maxCapacity;
+    }
+
+    @Override
+    public int maxCapacity() {
+        return maxCapacity;
+    }
+
+    protected final void maxCapacity(int maxCapacity) {
+        this.maxCapacity = maxCapacity;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return false;
+    }
+
+    @Override
+    public int readerIndex() {
+        return readerIndex;
+    }
+
+    @Override
+    public ByteBuf readerIndex(int readerIndex) {
+        if (readerIndex < 0 || readerIndex > writerIndex) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "readerIndex: %d (expected: 0 <= readerIndex <= writerIndex(%d))", readerIndex, writerIndex));
+        }
+        this.readerIndex = readerIndex;
+        return this;
+    }
+
+    @Override
+    public int writerIndex() {
+        return writerIndex;
+    }
+
+    @Override
+    public ByteBuf writerIndex(int writerIndex) {
+        if (writerIndex < readerIndex || writerIndex > capacity()) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "writerIndex: %d (expected: readerIndex(%d) <= writerIndex <= capacity(%d))",
+                    writerIndex, readerIndex, capacity()));
+        }
+        this.writerIndex = writerIndex;
+        return this;
+    }
+
+    @Override
+    public ByteBuf setIndex(int readerIndex, int writerIndex) {
+        if (readerIndex < 0 || readerIndex > writerIndex || writerIndex > capacity()) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "readerIndex: %d, writerIndex: %d (expected: 0 <= readerIndex <= writerIndex <= capacity(%d))",
+                    readerIndex, writerIndex, capacity()));
+        }
+        setIndex0(readerIndex, writerIndex);
+        return this;
+    }
+
+    final void setIndex0(int readerIndex, int writerIndex) {
+        this.readerIndex = readerIndex;
+        this.writerIndex = writerIndex;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:缩容之后，超出新容量的读写索引要截断到新容量
+     */
+    final void trimIndicesToCapacity(int newCapacity) {
+        if (writerIndex() > newCapacity) {
+            setIndex0(Math.min(readerIndex(), newCapacity), newCapacity);
+        }
+    }
+
+    @Override
+    public ByteBuf clear() {
+        readerIndex = writerIndex = 0;
+        return this;
+    }
+
+    @Override
+    public boolean isReadable() {
+        return writerIndex > readerIndex;
+    }
+
+    @Override
+    public boolean isReadable(int numBytes) {
+        return writerIndex - readerIndex >= numBytes;
+    }
+
+    @Override
+    public boolean isWritable() {
+        return capacity() > writerIndex;
+    }
+
+    @Override
+    public boolean isWritable(int numBytes) {
+        return capacity() - writerIndex >= numBytes;
+    }
+
+    @Override
+    public int readableBytes() {
+        return writerIndex - readerIndex;
+    }
+
+    @Override
+    public int writableBytes() {
+        return capacity() - writerIndex;
+    }
+
+    @Override
+    public int maxWritableBytes() {
+        return maxCapacity() - writerIndex;
+    }
+
+    @Override
+    public ByteBuf markReaderIndex() {
+        markedReaderIndex = readerIndex;
+        return this;
+    }
+
+    @Override
+    public ByteBuf resetReaderIndex() {
+        readerIndex(markedReaderIndex);
+        return this;
+    }
+
+    @Override
+    public ByteBuf markWriterIndex() {
+        markedWriterIndex = writerIndex;
+        return this;
+    }
+
+    @Override
+    public ByteBuf resetWriterIndex() {
+        writerIndex(markedWriterIndex);
+        return this;
+    }
+
+    @Override
+    public ByteBuf discardReadBytes() {
+        ensureAccessible();
+        if (readerIndex == 0) {
+            return this;
+        }
+        if (readerIndex != writerIndex) {
+            //把可读的字节移动到开头
+            setBytes(0, this, readerIndex, writerIndex - readerIndex);
+            writerIndex -= readerIndex;
+            adjustMarkers(readerIndex);
+            readerIndex = 0;
+        } else {
+            adjustMarkers(readerIndex);
+            writerIndex = readerIndex = 0;
+        }
+        return this;
+    }
+
+    @Override
+    public ByteBuf discardSomeReadBytes() {
+        ensureAccessible();
+        if (readerIndex == 0) {
+            return this;
+        }
+        if (readerIndex == writerIndex) {
+            //数据都读完了，不需要移动任何字节
+            adjustMarkers(readerIndex);
+            writerIndex = readerIndex = 0;
+            return this;
+        }
+        //已经读过的字节超过了容量的一半才移动数据，否则移动的代价比浪费的空间还大
+        if (readerIndex >= capacity() >>> 1) {
+            setBytes(0, this, readerIndex, writerIndex - readerIndex);
+            writerIndex -= readerIndex;
+            adjustMarkers(readerIndex);
+            readerIndex = 0;
+        }
+        return this;
+    }
+
+    protected final void adjustMarkers(int decrement) {
+        int markedReaderIndex = this.markedReaderIndex;
+        if (markedReaderIndex <= decrement) {
+            this.markedReaderIndex = 0;
+            int markedWriterIndex = this.markedWriterIndex;
+            if (markedWriterIndex <= decrement) {
+                this.markedWriterIndex = 0;
+            } else {
+                this.markedWriterIndex = markedWriterIndex - decrement;
+            }
+        } else {
+            this.markedReaderIndex = markedReaderIndex - decrement;
+            markedWriterIndex -= decrement;
+        }
+    }
+
+    @Override
+    public ByteBuf ensureWritable(int minWritableBytes) {
+        ObjectUtil.checkPositiveOrZero(minWritableBytes, "minWritableBytes");
+        ensureWritable0(minWritableBytes);
+        return this;
+    }
+
+    final void ensureWritable0(int minWritableBytes) {
+        ensureAccessible();
+        if (isReadOnly()) {
+            //只读的ByteBuf不能写，也不能扩容
+            throw new ReadOnlyBufferException();
+        }
+        if (minWritableBytes <= writableBytes()) {
+            return;
+        }
+        if (minWritableBytes > maxCapacity - writerIndex) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "writerIndex(%d) + minWritableBytes(%d) exceeds maxCapacity(%d): %s",
+                    writerIndex, minWritableBytes, maxCapacity, this));
+        }
+        //扩容的策略交给分配器来决定
+        int newCapacity = alloc().calculateNewCapacity(writerIndex + minWritableBytes, maxCapacity);
+        capacity(newCapacity);
+    }
+
+    @Override
+    public boolean getBoolean(int index) {
+        return getByte(index) != 0;
+    }
+
+    @Override
+    public byte getByte(int index) {
+        checkIndex(index);
+        return _getByte(index);
+    }
+
+    protected abstract byte _getByte(int index);
+
+    @Override
+    public short getUnsignedByte(int index) {
+        return (short) (getByte(index) & 0xFF);
+    }
+
+    @Override
+    public short getShort(int index) {
+        checkIndex(index, 2);
+        return _getShort(index);
+    }
+
+    protected abstract short _getShort(int index);
+
+    @Override
+    public int getUnsignedShort(int index) {
+        return getShort(index) & 0xFFFF;
+    }
+
+    @Override
+    public int getUnsignedMedium(int index) {
+        checkIndex(index, 3);
+        return _getUnsignedMedium(index);
+    }
+
+    protected abstract int _getUnsignedMedium(int index);
+
+    @Override
+    public int getMedium(int index) {
+        int value = getUnsignedMedium(index);
+        //最高位是1的话，要把高8位补成1
+        if ((value & 0x800000) != 0) {
+            value |= 0xff000000;
+        }
+        return value;
+    }
+
+    @Override
+    public int getInt(int index) {
+        checkIndex(index, 4);
+        return _getInt(index);
+    }
+
+    protected abstract int _getInt(int index);
+
+    @Override
+    public long getUnsignedInt(int index) {
+        return getInt(index) & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public long getLong(int index) {
+        checkIndex(index, 8);
+        return _getLong(index);
+    }
+
+    protected abstract long _getLong(int index);
+
+    @Override
+    public char getChar(int index) {
+        return (char) getShort(index);
+    }
+
+    @Override
+    public ByteBuf getBytes(int index, byte[] dst) {
+        getBytes(index, dst, 0, dst.length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf getBytes(int index, ByteBuf dst) {
+        getBytes(index, dst, dst.writableBytes());
+        return this;
+    }
+
+    @Override
+    public ByteBuf getBytes(int index, ByteBuf dst, int length) {
+        getBytes(index, dst, dst.writerIndex(), length);
+        dst.writerIndex(dst.writerIndex() + length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf setBoolean(int index, boolean value) {
+        setByte(index, value? 1 : 0);
+        return this;
+    }
+
+    @Override
+    public ByteBuf setByte(int index, int value) {
+        checkIndex(index);
+        _setByte(index, value);
+        return this;
+    }
+
+    protected abstract void _setByte(int index, int value);
+
+    @Override
+    public ByteBuf setShort(int index, int value) {
+        checkIndex(index, 2);
+        _setShort(index, value);
+        return this;
+    }
+
+    protected abstract void _setShort(int index, int value);
+
+    @Override
+    public ByteBuf setChar(int index, int value) {
+        setShort(index, value);
+        return this;
+    }
+
+    @Override
+    public ByteBuf setMedium(int index, int value) {
+        checkIndex(index, 3);
+        _setMedium(index, value);
+        return this;
+    }
+
+    protected abstract void _setMedium(int index, int value);
+
+    @Override
+    public ByteBuf setInt(int index, int value) {
+        checkIndex(index, 4);
+        _setInt(index, value);
+        return this;
+    }
+
+    protected abstract void _setInt(int index, int value);
+
+    @Override
+    public ByteBuf setLong(int index, long value) {
+        checkIndex(index, 8);
+        _setLong(index, value);
+        return this;
+    }
+
+    protected abstract void _setLong(int index, long value);
+
+    @Override
+    public ByteBuf setBytes(int index, byte[] src) {
+        setBytes(index, src, 0, src.length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf setBytes(int index, ByteBuf src) {
+        setBytes(index, src, src.readableBytes());
+        return this;
+    }
+
+    @Override
+    public ByteBuf setBytes(int index, ByteBuf src, int length) {
+        checkIndex(index, length);
+        ObjectUtil.checkNotNull(src, "src");
+        if (length > src.readableBytes()) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "length(%d) exceeds src.readableBytes(%d) where src is: %s", length, src.readableBytes(), src));
+        }
+        setBytes(index, src, src.readerIndex(), length);
+        src.readerIndex(src.readerIndex() + length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf setZero(int index, int length) {
+        if (length == 0) {
+            return this;
+        }
+        checkIndex(index, length);
+        //先8个字节8个字节地写，剩下的再一个字节一个字节地写
+        int nLong = length >>> 3;
+        int nBytes = length & 7;
+        for (int i = nLong; i > 0; i --) {
+            _setLong(index, 0);
+            index += 8;
+        }
+        for (int i = nBytes; i > 0; i --) {
+            _setByte(index, 0);
+            index ++;
+        }
+        return this;
+    }
+
+    @Override
+    public boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    @Override
+    public byte readByte() {
+        checkReadableBytes0(1);
+        int i = readerIndex;
+        byte b = _getByte(i);
+        readerIndex = i + 1;
+        return b;
+    }
+
+    @Override
+    public short readUnsignedByte() {
+        return (short) (readByte() & 0xFF);
+    }
+
+    @Override
+    public short readShort() {
+        checkReadableBytes0(2);
+        short v = _getShort(readerIndex);
+        readerIndex += 2;
+        return v;
+    }
+
+    @Override
+    public int readUnsignedShort() {
+        return readShort() & 0xFFFF;
+    }
+
+    @Override
+    public int readMedium() {
+        int value = readUnsignedMedium();
+        if ((value & 0x800000) != 0) {
+            value |= 0xff000000;
+        }
+        return value;
+    }
+
+    @Override
+    public int readUnsignedMedium() {
+        checkReadableBytes0(3);
+        int v = _getUnsignedMedium(readerIndex);
+        readerIndex += 3;
+        return v;
+    }
+
+    @Override
+    public int readInt() {
+        checkReadableBytes0(4);
+        int v = _getInt(readerIndex);
+        readerIndex += 4;
+        return v;
+    }
+
+    @Override
+    public long readUnsignedInt() {
+        return readInt() & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public long readLong() {
+        checkReadableBytes0(8);
+        long v = _getLong(readerIndex);
+        readerIndex += 8;
+        return v;
+    }
+
+    @Override
+    public char readChar() {
+        return (char) readShort();
+    }
+
+    @Override
+    public ByteBuf readBytes(int length) {
+        checkReadableBytes(length);
+        if (length == 0) {
+            return Unpooled.EMPTY_BUFFER;
+        }
+        ByteBuf buf = alloc().buffer(length, maxCapacity);
+        buf.writeBytes(this, readerIndex, length);
+        readerIndex += length;
+        return buf;
+    }
+
+    @Override
+    public ByteBuf readSlice(int length) {
+        checkReadableBytes(length);
+        ByteBuf slice = slice(readerIndex, length);
+        readerIndex += length;
+        return slice;
+    }
+
+    @Override
+    public ByteBuf readRetainedSlice(int length) {
+        checkReadableBytes(length);
+        ByteBuf slice = retainedSlice(readerIndex, length);
+        readerIndex += length;
+        return slice;
+    }
+
+    @Override
+    public ByteBuf readBytes(byte[] dst, int dstIndex, int length) {
+        checkReadableBytes(length);
+        getBytes(readerIndex, dst, dstIndex, length);
+        readerIndex += length;
+        return this;
+    }
+
+    @Override
+    public ByteBuf readBytes(byte[] dst) {
+        readBytes(dst, 0, dst.length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf readBytes(ByteBuf dst) {
+        readBytes(dst, dst.writableBytes());
+        return this;
+    }
+
+    @Override
+    public ByteBuf readBytes(ByteBuf dst, int length) {
+        if (length > dst.writableBytes()) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "length(%d) exceeds dst.writableBytes(%d) where dst is: %s", length, dst.writableBytes(), dst));
+        }
+        readBytes(dst, dst.writerIndex(), length);
+        dst.writerIndex(dst.writerIndex() + length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf readBytes(ByteBuf dst, int dstIndex, int length) {
+        checkReadableBytes(length);
+        getBytes(readerIndex, dst, dstIndex, length);
+        readerIndex += length;
+        return this;
+    }
+
+    @Override
+    public ByteBuf readBytes(ByteBuffer dst) {
+        int length = dst.remaining();
+        checkReadableBytes(length);
+        getBytes(readerIndex, dst);
+        readerIndex += length;
+        return this;
+    }
+
+    @Override
+    public int readBytes(GatheringByteChannel out, int length) throws IOException {
+        checkReadableBytes(length);
+        //写到channel中的字节数可能比length少，所以只移动实际写出的字节数
+        int readBytes = getBytes(readerIndex, out, length);
+        readerIndex += readBytes;
+        return readBytes;
+    }
+
+    @Override
+    public ByteBuf skipBytes(int length) {
+        checkReadableBytes(length);
+        readerIndex += length;
+        return this;
+    }
+
+    @Override
+    public ByteBuf writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+        return this;
+    }
+
+    @Override
+    public ByteBuf writeByte(int value) {
+        ensureWritable0(1);
+        _setByte(writerIndex++, value);
+        return this;
+    }
+
+    @Override
+    public ByteBuf writeShort(int value) {
+        ensureWritable0(2);
+        _setShort(writerIndex, value);
+        writerIndex += 2;
+        return this;
+    }
+
+    @Override
+    public ByteBuf writeMedium(int value) {
+        ensureWritable0(3);
+        _setMedium(writerIndex, value);
+        writerIndex += 3;
+        return this;
+    }
+
+    @Override
+    public ByteBuf writeInt(int value) {
+        ensureWritable0(4);
+        _setInt(writerIndex, value);
+        writerIndex += 4;
+        return this;
+    }
+
+    @Override
+    public ByteBuf writeLong(long value) {
+        ensureWritable0(8);
+        _setLong(writerIndex, value);
+        writerIndex += 8;
+        return this;
+    }
+
+    @Override
+    public ByteBuf writeChar(int value) {
+        writeShort(value);
+        return this;
+    }
+
+    @Override
+    public ByteBuf writeBytes(byte[] src, int srcIndex, int length) {
+        ensureWritable(length);
+        setBytes(writerIndex, src, srcIndex, length);
+        writerIndex += length;
+        return this;
+    }
+
+    @Override
+    public ByteBuf writeBytes(byte[] src) {
+        writeBytes(src, 0, src.length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf writeBytes(ByteBuf src) {
+        writeBytes(src, src.readableBytes());
+        return this;
+    }
+
+    @Override
+    public ByteBuf writeBytes(ByteBuf src, int length) {
+        if (length > src.readableBytes()) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "length(%d) exceeds src.readableBytes(%d) where src is: %s", length, src.readableBytes(), src));
+        }
+        writeBytes(src, src.readerIndex(), length);
+        src.readerIndex(src.readerIndex() + length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf writeBytes(ByteBuf src, int srcIndex, int length) {
+        ensureWritable(length);
+        setBytes(writerIndex, src, srcIndex, length);
+        writerIndex += length;
+        return this;
+    }
+
+    @Override
+    public ByteBuf writeBytes(ByteBuffer src) {
+        int length = src.remaining();
+        ensureWritable0(length);
+        setBytes(writerIndex, src);
+        writerIndex += length;
+        return this;
+    }
+
+    @Override
+    public int writeBytes(ScatteringByteChannel in, int length) throws IOException {
+        ensureWritable(length);
+        int writtenBytes = setBytes(writerIndex, in, length);
+        if (writtenBytes > 0) {
+            writerIndex += writtenBytes;
+        }
+        return writtenBytes;
+    }
+
+    @Override
+    public ByteBuf writeZero(int length) {
+        if (length == 0) {
+            return this;
+        }
+        ensureWritable(length);
+        int wIndex = writerIndex;
+        checkIndex0(wIndex, length);
+        setZero(wIndex, length);
+        writerIndex = wIndex + length;
+        return this;
+    }
+
+    @Override
+    public int writeCharSequence(CharSequence sequence, Charset charset) {
+        byte[] bytes = sequence.toString().getBytes(charset);
+        writeBytes(bytes);
+        return bytes.length;
+    }
+
+    @Override
+    public ByteBuf copy() {
+        return copy(readerIndex, readableBytes());
+    }
+
+    @Override
+    public ByteBuf duplicate() {
+        ensureAccessible();
+        return new DuplicatedByteBuf(this);
+    }
+
+    @Override
+    public ByteBuf retainedDuplicate() {
+        return duplicate().retain();
+    }
+
+    @Override
+    public ByteBuf slice() {
+        return slice(readerIndex, readableBytes());
+    }
+
+    @Override
+    public ByteBuf retainedSlice() {
+        return slice().retain();
+    }
+
+    @Override
+    public ByteBuf slice(int index, int length) {
+        ensureAccessible();
+        return new SlicedByteBuf(this, index, length);
+    }
+
+    @Override
+    public ByteBuf retainedSlice(int index, int length) {
+        return slice(index, length).retain();
+    }
+
+    @Override
+    public ByteBuffer nioBuffer() {
+        return nioBuffer(readerIndex, readableBytes());
+    }
+
+    @Override
+    public ByteBuffer[] nioBuffers() {
+        return nioBuffers(readerIndex, readableBytes());
+    }
+
+    @Override
+    public String toString(Charset charset) {
+        return toString(readerIndex, readableBytes(), charset);
+    }
+
+    @Override
+    public String toString(int index, int length, Charset charset) {
+        return ByteBufUtil.decodeString(this, index, length, charset);
+    }
+
+    @Override
+    public int indexOf(int fromIndex, int toIndex, byte value) {
+        return ByteBufUtil.indexOf(this, fromIndex, toIndex, value);
+    }
+
+    @Override
+    public int bytesBefore(byte value) {
+        return bytesBefore(readerIndex(), readableBytes(), value);
+    }
+
+    @Override
+    public int bytesBefore(int index, int length, byte value) {
+        int endIndex = indexOf(index, index + length, value);
+        if (endIndex < 0) {
+            return -1;
+        }
+        return endIndex - index;
+    }
+
+    @Override
+    public int forEachByte(ByteProcessor processor) {
+        ensureAccessible();
+        try {
+            return forEachByteAsc0(readerIndex, writerIndex, processor);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public int forEachByte(int index, int length, ByteProcessor processor) {
+        checkIndex(index, length);
+        try {
+            return forEachByteAsc0(index, index + length, processor);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    int forEachByteAsc0(int start, int end, ByteProcessor processor) throws Exception {
+        for (; start < end; ++start) {
+            if (!processor.process(_getByte(start))) {
+                return start;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int hashCode() {
+        return ByteBufUtil.hashCode(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof ByteBuf && ByteBufUtil.equals(this, (ByteBuf) o));
+    }
+
+    @Override
+    public int compareTo(ByteBuf that) {
+        return ByteBufUtil.compare(this, that);
+    }
+
+    @Override
+    public String toString() {
+        if (refCnt() == 0) {
+            return StringUtil.simpleClassName(this) + "(freed)";
+        }
+        StringBuilder buf = new StringBuilder()
+                .append(StringUtil.simpleClassName(this))
+                .append("(ridx: ").append(readerIndex)
+                .append(", widx: ").append(writerIndex)
+                .append(", cap: ").append(capacity());
+        if (maxCapacity != Integer.MAX_VALUE) {
+            buf.append('/').append(maxCapacity);
+        }
+        ByteBuf unwrapped = unwrap();
+        if (unwrapped != null) {
+            buf.append(", unwrapped: ").append(unwrapped);
+        }
+        buf.append(')');
+        return buf.toString();
+    }
+
+    protected final void checkIndex(int index) {
+        checkIndex(index, 1);
+    }
+
+    protected final void checkIndex(int index, int fieldLength) {
+        ensureAccessible();
+        checkIndex0(index, fieldLength);
+    }
+
+    final void checkIndex0(int index, int fieldLength) {
+        if (isOutOfBounds(index, fieldLength, capacity())) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "index: %d, length: %d (expected: range(0, %d))", index, fieldLength, capacity()));
+        }
+    }
+
+    protected final void checkSrcIndex(int index, int length, int srcIndex, int srcCapacity) {
+        checkIndex(index, length);
+        if (isOutOfBounds(srcIndex, length, srcCapacity)) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "srcIndex: %d, length: %d (expected: range(0, %d))", srcIndex, length, srcCapacity));
+        }
+    }
+
+    protected final void checkDstIndex(int index, int length, int dstIndex, int dstCapacity) {
+        checkIndex(index, length);
+        if (isOutOfBounds(dstIndex, length, dstCapacity)) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "dstIndex: %d, length: %d (expected: range(0, %d))", dstIndex, length, dstCapacity));
+        }
+    }
+
+    protected final void checkReadableBytes(int minimumReadableBytes) {
+        ObjectUtil.checkPositiveOrZero(minimumReadableBytes, "minimumReadableBytes");
+        checkReadableBytes0(minimumReadableBytes);
+    }
+
+    protected final void checkNewCapacity(int newCapacity) {
+        ensureAccessible();
+        if (newCapacity < 0 || newCapacity > maxCapacity()) {
+            throw new IllegalArgumentException("newCapacity: " + newCapacity +
+                    " (expected: 0-" + maxCapacity() + ')');
+        }
+    }
+
+    private void checkReadableBytes0(int minimumReadableBytes) {
+        ensureAccessible();
+        if (readerIndex > writerIndex - minimumReadableBytes) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "readerIndex(%d) + length(%d) exceeds writerIndex(%d): %s",
+                    readerIndex, minimumReadableBytes, writerIndex, this));
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:引用计数已经为0的ByteBuf，内存可能已经被释放或者回到内存池中了，这时候再访问就要抛出异常
+     */
+    protected final void ensureAccessible() {
+        if (refCnt() == 0) {
+            throw new IllegalReferenceCountException(0);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:判断[index, index + length)是否超出了[0, capacity)，用位运算一次判断所有的情况，包括溢出
+     */
+    static boolean isOutOfBounds(int index, int length, int capacity) {
+        return (index | length | (index + length) | (capacity - (index + length))) < 0;
+    }
+}
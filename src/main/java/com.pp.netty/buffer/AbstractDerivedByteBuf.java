@@ -0,0 +1,47 @@
+package com.pp.netty.buffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * @Author: PP-jessica
+ * @Description:派生出来的ByteBuf的父类，slice和duplicate得到的ByteBuf都继承它。派生的ByteBuf没有自己的内存，
+ * 也没有自己的引用计数，retain和release都直接作用在原来的ByteBuf上
+ */
+public abstract class AbstractDerivedByteBuf extends AbstractByteBuf {
+
+    protected AbstractDerivedByteBuf(int maxCapacity) {
+        super(maxCapacity);
+    }
+
+    @Override
+    public final int refCnt() {
+        return unwrap().refCnt();
+    }
+
+    @Override
+    public final ByteBuf retain() {
+        unwrap().retain();
+        return this;
+    }
+
+    @Override
+    public final ByteBuf retain(int increment) {
+        unwrap().retain(increment);
+        return this;
+    }
+
+    @Override
+    public final boolean release() {
+        return unwrap().release();
+    }
+
+    @Override
+    public final boolean release(int decrement) {
+        return unwrap().release(decrement);
+    }
+
+    @Override
+    public ByteBuffer internalNioBuffer(int index, int length) {
+        return nioBuffer(index, length);
+    }
+}
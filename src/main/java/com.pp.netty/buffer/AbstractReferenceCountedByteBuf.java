@@ -0,0 +1,94 @@
+package com.pp.netty.buffer;
+
+import com.pp.netty.util.IllegalReferenceCountException;
+import com.pp.netty.util.internal.ObjectUtil;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * @Author: PP-jessica
+ * @Description:实现了引用计数的ByteBuf，引用计数用原子更新器来修改，这样每个ByteBuf对象就不用再持有一个AtomicInteger对象了，
+ * ByteBuf的数量非常多，能省下不少内存。引用计数减到0的时候调用deallocate方法释放内存
+ */
+public abstract class AbstractReferenceCountedByteBuf extends AbstractByteBuf {
+
+    private static final AtomicIntegerFieldUpdater<AbstractReferenceCountedByteBuf> REFCNT_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(AbstractReferenceCountedByteBuf.class, "refCnt");
+
+    private volatile int refCnt;
+
+    protected AbstractReferenceCountedByteBuf(int maxCapacity) {
+        super(maxCapacity);
+        REFCNT_UPDATER.set(this, 1);
+    }
+
+    @Override
+    public int refCnt() {
+        return refCnt;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:直接设置引用计数，池化的ByteBuf被重新分配出去的时候会用到
+     */
+    protected final void setRefCnt(int refCnt) {
+        REFCNT_UPDATER.set(this, refCnt);
+    }
+
+    @Override
+    public ByteBuf retain() {
+        return retain0(1);
+    }
+
+    @Override
+    public ByteBuf retain(int increment) {
+        return retain0(ObjectUtil.checkPositive(increment, "increment"));
+    }
+
+    private ByteBuf retain0(final int increment) {
+        for (;;) {
+            int refCnt = this.refCnt;
+            final int nextCnt = refCnt + increment;
+            //引用计数已经是0了，或者加上之后溢出了，都要抛出异常
+            if (refCnt <= 0 || nextCnt <= 0) {
+                throw new IllegalReferenceCountException(refCnt, increment);
+            }
+            if (REFCNT_UPDATER.compareAndSet(this, refCnt, nextCnt)) {
+                break;
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        return release0(1);
+    }
+
+    @Override
+    public boolean release(int decrement) {
+        return release0(ObjectUtil.checkPositive(decrement, "decrement"));
+    }
+
+    private boolean release0(int decrement) {
+        for (;;) {
+            int refCnt = this.refCnt;
+            if (refCnt < decrement) {
+                throw new IllegalReferenceCountException(refCnt, -decrement);
+            }
+            if (REFCNT_UPDATER.compareAndSet(this, refCnt, refCnt - decrement)) {
+                if (refCnt == decrement) {
+                    deallocate();
+                    return true;
+                }
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:引用计数减到0的时候调用，释放ByteBuf占用的内存
+     */
+    protected abstract void deallocate();
+}
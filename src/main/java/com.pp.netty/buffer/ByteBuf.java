@@ -0,0 +1,400 @@
+package com.pp.netty.buffer;
+
+import com.pp.netty.util.ByteProcessor;
+import com.pp.netty.util.ReferenceCounted;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * @Author: PP-jessica
+ * @Description:netty自己的缓冲区。jdk的ByteBuffer只有一个position，读写切换的时候要flip，非常容易出错，
+ * 而ByteBuf有两个独立的索引，readerIndex和writerIndex，读数据移动readerIndex，写数据移动writerIndex，
+ * 所以不需要flip。它们把缓冲区分成了三段：
+ *
+ *      +-------------------+------------------+------------------+
+ *      | discardable bytes |  readable bytes  |  writable bytes  |
+ *      |                   |     (CONTENT)    |                  |
+ *      +-------------------+------------------+------------------+
+ *      |                   |                  |                  |
+ *      0      <=      readerIndex   <=   writerIndex    <=    capacity
+ *
+ * ByteBuf还实现了引用计数，引用计数减到0的时候会立刻释放内存，直接内存不用再等垃圾回收，池化的内存也可以立刻回到内存池中。
+ * slice和duplicate得到的ByteBuf和原来的ByteBuf共享同一块内存，也共享同一个引用计数，这样切分数据的时候就不用拷贝了。
+ * 所有的多字节读写都是大端的
+ */
+public abstract class ByteBuf implements ReferenceCounted, Comparable<ByteBuf> {
+
+    /**
+     * @Author: PP-jessica
+     * @Description:当前的容量
+     */
+    public abstract int capacity();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:调整容量，变小的时候会截断数据
+     */
+    public abstract ByteBuf capacity(int newCapacity);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:最大容量，写数据的时候容量不够会自动扩容，但不会超过最大容量
+     */
+    public abstract int maxCapacity();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:创建这个ByteBuf的分配器
+     */
+    public abstract ByteBufAllocator alloc();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:如果这是一个slice或者duplicate得到的ByteBuf，返回原来的ByteBuf，否则返回null
+     */
+    public abstract ByteBuf unwrap();
+
+    public abstract boolean isDirect();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:是否是只读的ByteBuf，只读的ByteBuf调用set和write方法会抛出ReadOnlyBufferException
+     */
+    public abstract boolean isReadOnly();
+
+    public abstract int readerIndex();
+
+    public abstract ByteBuf readerIndex(int readerIndex);
+
+    public abstract int writerIndex();
+
+    public abstract ByteBuf writerIndex(int writerIndex);
+
+    public abstract ByteBuf setIndex(int readerIndex, int writerIndex);
+
+    public abstract int readableBytes();
+
+    public abstract int writableBytes();
+
+    public abstract int maxWritableBytes();
+
+    public abstract boolean isReadable();
+
+    public abstract boolean isReadable(int size);
+
+    public abstract boolean isWritable();
+
+    public abstract boolean isWritable(int size);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把读写索引都置为0，并不会清除数据
+     */
+    public abstract ByteBuf clear();
+
+    public abstract ByteBuf markReaderIndex();
+
+    public abstract ByteBuf resetReaderIndex();
+
+    public abstract ByteBuf markWriterIndex();
+
+    public abstract ByteBuf resetWriterIndex();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:丢弃已经读过的字节，把可读的字节移动到缓冲区的开头
+     */
+    public abstract ByteBuf discardReadBytes();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:和discardReadBytes类似，但只有在已读的字节足够多的时候才会移动数据，避免频繁的内存拷贝
+     */
+    public abstract ByteBuf discardSomeReadBytes();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:确保至少有minWritableBytes个可写字节，不够就扩容，超过最大容量抛出IndexOutOfBoundsException
+     */
+    public abstract ByteBuf ensureWritable(int minWritableBytes);
+
+    //下面这些get和set方法都是根据绝对下标读写数据，不会改变读写索引
+
+    public abstract boolean getBoolean(int index);
+
+    public abstract byte getByte(int index);
+
+    public abstract short getUnsignedByte(int index);
+
+    public abstract short getShort(int index);
+
+    public abstract int getUnsignedShort(int index);
+
+    public abstract int getMedium(int index);
+
+    public abstract int getUnsignedMedium(int index);
+
+    public abstract int getInt(int index);
+
+    public abstract long getUnsignedInt(int index);
+
+    public abstract long getLong(int index);
+
+    public abstract char getChar(int index);
+
+    public abstract ByteBuf getBytes(int index, ByteBuf dst);
+
+    public abstract ByteBuf getBytes(int index, ByteBuf dst, int length);
+
+    public abstract ByteBuf getBytes(int index, ByteBuf dst, int dstIndex, int length);
+
+    public abstract ByteBuf getBytes(int index, byte[] dst);
+
+    public abstract ByteBuf getBytes(int index, byte[] dst, int dstIndex, int length);
+
+    public abstract ByteBuf getBytes(int index, ByteBuffer dst);
+
+    public abstract int getBytes(int index, GatheringByteChannel out, int length) throws IOException;
+
+    public abstract ByteBuf setBoolean(int index, boolean value);
+
+    public abstract ByteBuf setByte(int index, int value);
+
+    public abstract ByteBuf setShort(int index, int value);
+
+    public abstract ByteBuf setMedium(int index, int value);
+
+    public abstract ByteBuf setInt(int index, int value);
+
+    public abstract ByteBuf setLong(int index, long value);
+
+    public abstract ByteBuf setChar(int index, int value);
+
+    public abstract ByteBuf setBytes(int index, ByteBuf src);
+
+    public abstract ByteBuf setBytes(int index, ByteBuf src, int length);
+
+    public abstract ByteBuf setBytes(int index, ByteBuf src, int srcIndex, int length);
+
+    public abstract ByteBuf setBytes(int index, byte[] src);
+
+    public abstract ByteBuf setBytes(int index, byte[] src, int srcIndex, int length);
+
+    public abstract ByteBuf setBytes(int index, ByteBuffer src);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:从channel中读取数据写到指定的下标处，返回读到的字节数，返回-1说明对端关闭了连接
+     */
+    public abstract int setBytes(int index, ScatteringByteChannel in, int length) throws IOException;
+
+    public abstract ByteBuf setZero(int index, int length);
+
+    //下面这些read和write方法会从readerIndex读数据，向writerIndex写数据，并且移动对应的索引
+
+    public abstract boolean readBoolean();
+
+    public abstract byte readByte();
+
+    public abstract short readUnsignedByte();
+
+    public abstract short readShort();
+
+    public abstract int readUnsignedShort();
+
+    public abstract int readMedium();
+
+    public abstract int readUnsignedMedium();
+
+    public abstract int readInt();
+
+    public abstract long readUnsignedInt();
+
+    public abstract long readLong();
+
+    public abstract char readChar();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:读取length个字节到一个新的ByteBuf中，这个方法会拷贝数据
+     */
+    public abstract ByteBuf readBytes(int length);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:读取length个字节，返回的是共享内存的slice，不会拷贝数据，也不会增加引用计数
+     */
+    public abstract ByteBuf readSlice(int length);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:和readSlice一样，但返回的slice的引用计数会加一，用完之后需要release
+     */
+    public abstract ByteBuf readRetainedSlice(int length);
+
+    public abstract ByteBuf readBytes(ByteBuf dst);
+
+    public abstract ByteBuf readBytes(ByteBuf dst, int length);
+
+    public abstract ByteBuf readBytes(ByteBuf dst, int dstIndex, int length);
+
+    public abstract ByteBuf readBytes(byte[] dst);
+
+    public abstract ByteBuf readBytes(byte[] dst, int dstIndex, int length);
+
+    public abstract ByteBuf readBytes(ByteBuffer dst);
+
+    public abstract int readBytes(GatheringByteChannel out, int length) throws IOException;
+
+    public abstract ByteBuf skipBytes(int length);
+
+    public abstract ByteBuf writeBoolean(boolean value);
+
+    public abstract ByteBuf writeByte(int value);
+
+    public abstract ByteBuf writeShort(int value);
+
+    public abstract ByteBuf writeMedium(int value);
+
+    public abstract ByteBuf writeInt(int value);
+
+    public abstract ByteBuf writeLong(long value);
+
+    public abstract ByteBuf writeChar(int value);
+
+    public abstract ByteBuf writeBytes(ByteBuf src);
+
+    public abstract ByteBuf writeBytes(ByteBuf src, int length);
+
+    public abstract ByteBuf writeBytes(ByteBuf src, int srcIndex, int length);
+
+    public abstract ByteBuf writeBytes(byte[] src);
+
+    public abstract ByteBuf writeBytes(byte[] src, int srcIndex, int length);
+
+    public abstract ByteBuf writeBytes(ByteBuffer src);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:从channel中最多读取length个字节写到ByteBuf中，返回读到的字节数
+     */
+    public abstract int writeBytes(ScatteringByteChannel in, int length) throws IOException;
+
+    public abstract ByteBuf writeZero(int length);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:按照指定的字符集写入字符串，返回写入的字节数
+     */
+    public abstract int writeCharSequence(CharSequence sequence, Charset charset);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:在[fromIndex, toIndex)中查找value第一次出现的下标，toIndex小于fromIndex时反向查找，找不到返回-1
+     */
+    public abstract int indexOf(int fromIndex, int toIndex, byte value);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:从readerIndex开始查找value，返回value之前有多少个字节，找不到返回-1
+     */
+    public abstract int bytesBefore(byte value);
+
+    public abstract int bytesBefore(int index, int length, byte value);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:遍历可读的字节，直到处理器返回false，返回停止的下标，遍历完了都没有停止就返回-1
+     */
+    public abstract int forEachByte(ByteProcessor processor);
+
+    public abstract int forEachByte(int index, int length, ByteProcessor processor);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:拷贝可读的字节到一个新的ByteBuf中
+     */
+    public abstract ByteBuf copy();
+
+    public abstract ByteBuf copy(int index, int length);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:返回可读字节的切片，和原来的ByteBuf共享内存和引用计数，但有自己的读写索引
+     */
+    public abstract ByteBuf slice();
+
+    public abstract ByteBuf retainedSlice();
+
+    public abstract ByteBuf slice(int index, int length);
+
+    public abstract ByteBuf retainedSlice(int index, int length);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:返回整个ByteBuf的副本，和原来的ByteBuf共享内存和引用计数，但有自己的读写索引
+     */
+    public abstract ByteBuf duplicate();
+
+    public abstract ByteBuf retainedDuplicate();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:这个ByteBuf底层由几个jdk的ByteBuffer组成，普通的ByteBuf是1个，CompositeByteBuf可能是多个
+     */
+    public abstract int nioBufferCount();
+
+    public abstract ByteBuffer nioBuffer();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把指定区域包装成jdk的ByteBuffer，和ByteBuf共享内存，修改ByteBuffer的position和limit不会影响ByteBuf的索引
+     */
+    public abstract ByteBuffer nioBuffer(int index, int length);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:和nioBuffer一样，但返回的是ByteBuf内部缓存的ByteBuffer对象，不会每次都创建新的对象，只能在单线程中临时使用
+     */
+    public abstract ByteBuffer internalNioBuffer(int index, int length);
+
+    public abstract ByteBuffer[] nioBuffers();
+
+    public abstract ByteBuffer[] nioBuffers(int index, int length);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:是否是由字节数组实现的，只有返回true的时候才能调用array和arrayOffset
+     */
+    public abstract boolean hasArray();
+
+    public abstract byte[] array();
+
+    public abstract int arrayOffset();
+
+    public abstract String toString(Charset charset);
+
+    public abstract String toString(int index, int length, Charset charset);
+
+    @Override
+    public abstract int hashCode();
+
+    @Override
+    public abstract boolean equals(Object obj);
+
+    @Override
+    public abstract int compareTo(ByteBuf buffer);
+
+    @Override
+    public abstract String toString();
+
+    @Override
+    public abstract ByteBuf retain(int increment);
+
+    @Override
+    public abstract ByteBuf retain();
+}
@@ -0,0 +1,71 @@
+package com.pp.netty.buffer;
+
+/**
+ * @Author: PP-jessica
+ * @Description:ByteBuf的分配器，ByteBuf只能从这里创建，这样以后换成池化的实现时，使用ByteBuf的代码一行都不用改
+ */
+public interface ByteBufAllocator {
+
+    ByteBufAllocator DEFAULT = ByteBufUtil.DEFAULT_ALLOCATOR;
+
+    /**
+     * @Author: PP-jessica
+     * @Description:分配一个ByteBuf，是直接内存还是堆内存由分配器自己决定
+     */
+    ByteBuf buffer();
+
+    ByteBuf buffer(int initialCapacity);
+
+    ByteBuf buffer(int initialCapacity, int maxCapacity);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:分配一个用来做socket读写的ByteBuf，只要平台支持就优先使用直接内存，
+     * 这样jdk就不用在堆内存和直接内存之间再拷贝一次了
+     */
+    ByteBuf ioBuffer();
+
+    ByteBuf ioBuffer(int initialCapacity);
+
+    ByteBuf ioBuffer(int initialCapacity, int maxCapacity);
+
+    ByteBuf heapBuffer();
+
+    ByteBuf heapBuffer(int initialCapacity);
+
+    ByteBuf heapBuffer(int initialCapacity, int maxCapacity);
+
+    ByteBuf directBuffer();
+
+    ByteBuf directBuffer(int initialCapacity);
+
+    ByteBuf directBuffer(int initialCapacity, int maxCapacity);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:创建一个CompositeByteBuf，把多个ByteBuf组合在一起，不用拷贝数据
+     */
+    CompositeByteBuf compositeBuffer();
+
+    CompositeByteBuf compositeBuffer(int maxNumComponents);
+
+    CompositeByteBuf compositeHeapBuffer();
+
+    CompositeByteBuf compositeHeapBuffer(int maxNumComponents);
+
+    CompositeByteBuf compositeDirectBuffer();
+
+    CompositeByteBuf compositeDirectBuffer(int maxNumComponents);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:直接内存的ByteBuf是不是从内存池中分配的
+     */
+    boolean isDirectBufferPooled();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:ByteBuf扩容的时候计算新的容量
+     */
+    int calculateNewCapacity(int minNewCapacity, int maxCapacity);
+}
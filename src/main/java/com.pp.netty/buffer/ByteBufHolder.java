@@ -0,0 +1,38 @@
+package com.pp.netty.buffer;
+
+import com.pp.netty.util.ReferenceCounted;
+
+/**
+ * @Author: PP-jessica
+ * @Description:持有一个ByteBuf的消息，比如HTTP的消息体、WebSocket的帧。它的引用计数就是内部ByteBuf的引用计数
+ */
+public interface ByteBufHolder extends ReferenceCounted {
+
+    ByteBuf content();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:深拷贝，新的消息有自己的ByteBuf
+     */
+    ByteBufHolder copy();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:浅拷贝，新的消息和原来的消息共用同一块内存，引用计数不变
+     */
+    ByteBufHolder duplicate();
+
+    ByteBufHolder retainedDuplicate();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:用新的ByteBuf创建一个同类型的消息，其他的属性保持不变
+     */
+    ByteBufHolder replace(ByteBuf content);
+
+    @Override
+    ByteBufHolder retain();
+
+    @Override
+    ByteBufHolder retain(int increment);
+}
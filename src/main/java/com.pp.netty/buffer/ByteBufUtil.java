@@ -0,0 +1,285 @@
+package com.pp.netty.buffer;
+
+import com.pp.netty.util.ByteProcessor;
+import com.pp.netty.util.internal.SWARUtil;
+import com.pp.netty.util.internal.StringUtil;
+import com.pp.netty.util.internal.SystemPropertyUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Locale;
+
+/**
+ * @Author: PP-jessica
+ * @Description:ByteBuf的工具类
+ */
+public final class ByteBufUtil {
+
+    private static final Logger logger = LoggerFactory.getLogger(ByteBufUtil.class);
+
+    //默认的分配器，默认使用池化的分配器，可以通过io.netty.allocator.type换成非池化的
+    static final ByteBufAllocator DEFAULT_ALLOCATOR;
+
+    static {
+        String allocType = SystemPropertyUtil.get("io.netty.allocator.type", "pooled").toLowerCase(Locale.ROOT).trim();
+        ByteBufAllocator alloc;
+        if ("unpooled".equals(allocType)) {
+            alloc = UnpooledByteBufAllocator.DEFAULT;
+            logger.debug("-Dio.netty.allocator.type: {}", allocType);
+        } else if ("pooled".equals(allocType)) {
+            alloc = PooledByteBufAllocator.DEFAULT;
+            logger.debug("-Dio.netty.allocator.type: {}", allocType);
+        } else {
+            alloc = PooledByteBufAllocator.DEFAULT;
+            logger.debug("-Dio.netty.allocator.type: pooled (unknown: {})", allocType);
+        }
+        DEFAULT_ALLOCATOR = alloc;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把可读的字节转换成十六进制的字符串，调试的时候很有用
+     */
+    public static String hexDump(ByteBuf buffer) {
+        return hexDump(buffer, buffer.readerIndex(), buffer.readableBytes());
+    }
+
+    public static String hexDump(ByteBuf buffer, int fromIndex, int length) {
+        if (length == 0) {
+            return StringUtil.EMPTY_STRING;
+        }
+        byte[] bytes = new byte[length];
+        buffer.getBytes(fromIndex, bytes);
+        return StringUtil.toHexStringPadded(bytes);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:计算可读字节的哈希值，内容相同的ByteBuf哈希值一定相同
+     */
+    public static int hashCode(ByteBuf buffer) {
+        final int aLen = buffer.readableBytes();
+        final int intCount = aLen >>> 2;
+        final int byteCount = aLen & 3;
+        int hashCode = 1;
+        int arrayIndex = buffer.readerIndex();
+        for (int i = intCount; i > 0; i --) {
+            hashCode = 31 * hashCode + buffer.getInt(arrayIndex);
+            arrayIndex += 4;
+        }
+        for (int i = byteCount; i > 0; i --) {
+            hashCode = 31 * hashCode + buffer.getByte(arrayIndex ++);
+        }
+        if (hashCode == 0) {
+            hashCode = 1;
+        }
+        return hashCode;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:比较两个ByteBuf可读的字节是否完全相同，先8个字节8个字节地比较，剩下的再一个字节一个字节地比较
+     */
+    public static boolean equals(ByteBuf bufferA, ByteBuf bufferB) {
+        final int aLen = bufferA.readableBytes();
+        if (aLen != bufferB.readableBytes()) {
+            return false;
+        }
+        return equals(bufferA, bufferA.readerIndex(), bufferB, bufferB.readerIndex(), aLen);
+    }
+
+    public static boolean equals(ByteBuf a, int aStartIndex, ByteBuf b, int bStartIndex, int length) {
+        if (aStartIndex < 0 || bStartIndex < 0 || length < 0) {
+            throw new IllegalArgumentException("All indexes and lengths must be non-negative");
+        }
+        if (a.writerIndex() - length < aStartIndex || b.writerIndex() - length < bStartIndex) {
+            return false;
+        }
+        final int longCount = length >>> 3;
+        final int byteCount = length & 7;
+        for (int i = longCount; i > 0; i --) {
+            if (a.getLong(aStartIndex) != b.getLong(bStartIndex)) {
+                return false;
+            }
+            aStartIndex += 8;
+            bStartIndex += 8;
+        }
+        for (int i = byteCount; i > 0; i --) {
+            if (a.getByte(aStartIndex) != b.getByte(bStartIndex)) {
+                return false;
+            }
+            aStartIndex ++;
+            bStartIndex ++;
+        }
+        return true;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:按无符号字节的字典序比较两个ByteBuf的可读字节
+     */
+    public static int compare(ByteBuf bufferA, ByteBuf bufferB) {
+        final int aLen = bufferA.readableBytes();
+        final int bLen = bufferB.readableBytes();
+        final int minLength = Math.min(aLen, bLen);
+        int aIndex = bufferA.readerIndex();
+        int bIndex = bufferB.readerIndex();
+        for (int i = minLength; i > 0; i --) {
+            short va = bufferA.getUnsignedByte(aIndex ++);
+            short vb = bufferB.getUnsignedByte(bIndex ++);
+            if (va != vb) {
+                return va - vb;
+            }
+        }
+        return aLen - bLen;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:在[fromIndex, toIndex)中查找value，toIndex小于fromIndex时从后往前查找
+     */
+    public static int indexOf(ByteBuf buffer, int fromIndex, int toIndex, byte value) {
+        if (fromIndex <= toIndex) {
+            fromIndex = Math.max(fromIndex, 0);
+            if (fromIndex >= toIndex || buffer.capacity() == 0) {
+                return -1;
+            }
+            toIndex = Math.min(toIndex, buffer.capacity());
+            if (fromIndex >= toIndex) {
+                return -1;
+            }
+            if (buffer instanceof AbstractByteBuf) {
+                return firstIndexOf((AbstractByteBuf) buffer, fromIndex, toIndex, value);
+            }
+            return buffer.forEachByte(fromIndex, toIndex - fromIndex, new ByteProcessor.IndexOfProcessor(value));
+        } else {
+            fromIndex = Math.min(fromIndex, buffer.capacity());
+            if (fromIndex < 0 || buffer.capacity() == 0) {
+                return -1;
+            }
+            toIndex = Math.max(toIndex, 0);
+            for (int i = fromIndex - 1; i >= toIndex; i --) {
+                if (buffer.getByte(i) == value) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:正向查找用SWAR的方式，一次读出8个字节比较。区域的长度不是8的整数倍的时候，先逐个比较前面多出来的几个字节，
+     * 剩下的都按long读取。ByteBuf是大端的，所以long中的第一个字节在最高位
+     */
+    private static int firstIndexOf(AbstractByteBuf buffer, int fromIndex, int toIndex, byte value) {
+        final int length = toIndex - fromIndex;
+        buffer.checkIndex(fromIndex, length);
+        int offset = fromIndex;
+        final int byteCount = length & 7;
+        if (byteCount > 0) {
+            final int index = unrolledFirstIndexOf(buffer, fromIndex, byteCount, value);
+            if (index != -1) {
+                return index;
+            }
+            offset += byteCount;
+            if (offset == toIndex) {
+                return -1;
+            }
+        }
+        final int longCount = length >>> 3;
+        final long pattern = SWARUtil.compilePattern(value);
+        for (int i = 0; i < longCount; i++) {
+            final long word = buffer._getLong(offset);
+            final long result = SWARUtil.applyPattern(word, pattern);
+            if (result != 0) {
+                return offset + SWARUtil.getIndex(result, true);
+            }
+            offset += 8;
+        }
+        return -1;
+    }
+
+    private static int unrolledFirstIndexOf(AbstractByteBuf buffer, int fromIndex, int byteCount, byte value) {
+        assert byteCount > 0 && byteCount < 8;
+        if (buffer._getByte(fromIndex) == value) {
+            return fromIndex;
+        }
+        if (byteCount == 1) {
+            return -1;
+        }
+        if (buffer._getByte(fromIndex + 1) == value) {
+            return fromIndex + 1;
+        }
+        if (byteCount == 2) {
+            return -1;
+        }
+        if (buffer._getByte(fromIndex + 2) == value) {
+            return fromIndex + 2;
+        }
+        if (byteCount == 3) {
+            return -1;
+        }
+        if (buffer._getByte(fromIndex + 3) == value) {
+            return fromIndex + 3;
+        }
+        if (byteCount == 4) {
+            return -1;
+        }
+        if (buffer._getByte(fromIndex + 4) == value) {
+            return fromIndex + 4;
+        }
+        if (byteCount == 5) {
+            return -1;
+        }
+        if (buffer._getByte(fromIndex + 5) == value) {
+            return fromIndex + 5;
+        }
+        if (byteCount == 6) {
+            return -1;
+        }
+        if (buffer._getByte(fromIndex + 6) == value) {
+            return fromIndex + 6;
+        }
+        return -1;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把指定区域的字节按字符集解码成字符串，有数组的直接用数组解码，否则先拷贝到临时的数组中
+     */
+    static String decodeString(ByteBuf src, int readerIndex, int len, Charset charset) {
+        if (len == 0) {
+            return StringUtil.EMPTY_STRING;
+        }
+        if (src.hasArray()) {
+            return new String(src.array(), src.arrayOffset() + readerIndex, len, charset);
+        }
+        if (src.nioBufferCount() == 1) {
+            ByteBuffer buffer = src.nioBuffer(readerIndex, len);
+            return charset.decode(buffer).toString();
+        }
+        byte[] array = new byte[len];
+        src.getBytes(readerIndex, array, 0, len);
+        return new String(array, 0, len, charset);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:读取length个字节到一个新的字节数组中，不会改变ByteBuf的索引
+     */
+    public static byte[] getBytes(ByteBuf buf, int start, int length) {
+        byte[] bytes = new byte[length];
+        buf.getBytes(start, bytes);
+        return bytes;
+    }
+
+    public static byte[] getBytes(ByteBuf buf) {
+        return getBytes(buf, buf.readerIndex(), buf.readableBytes());
+    }
+
+    private ByteBufUtil() {
+    }
+}
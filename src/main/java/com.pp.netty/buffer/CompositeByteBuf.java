@@ -0,0 +1,1118 @@
+package com.pp.netty.buffer;
+
+import com.pp.netty.util.ReferenceCountUtil;
+import com.pp.netty.util.internal.ObjectUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @Author: PP-jessica
+ * @Description:把多个ByteBuf组合成一个逻辑上的ByteBuf，不拷贝任何数据。比如协议头和消息体分别在两个ByteBuf中，
+ * 组合之后就可以当成一个ByteBuf来读写，写到socket的时候，nioBuffers方法会返回每个组件的ByteBuffer，
+ * 直接交给SocketChannel的gathering write一次写出去。组件的数量超过maxNumComponents的时候，会合并成一个组件
+ */
+public class CompositeByteBuf extends AbstractReferenceCountedByteBuf {
+
+    private static final ByteBuffer EMPTY_NIO_BUFFER = Unpooled.EMPTY_BUFFER.nioBuffer();
+
+    private static final byte[] EMPTY_ARRAY = {};
+
+    private final ByteBufAllocator alloc;
+    //组件为空或者扩容的时候用直接内存还是堆内存
+    private final boolean direct;
+    private final int maxNumComponents;
+
+    private int componentCount;
+    private Component[] components;
+
+    //上一次访问的组件，顺序读写的时候大部分访问都落在同一个组件上，不用每次都二分查找
+    private Component lastAccessed;
+
+    public CompositeByteBuf(ByteBufAllocator alloc, boolean direct, int maxNumComponents) {
+        this(alloc, direct, maxNumComponents, 0);
+    }
+
+    private CompositeByteBuf(ByteBufAllocator alloc, boolean direct, int maxNumComponents, int initSize) {
+        super(AbstractByteBufAllocator.DEFAULT_MAX_CAPACITY);
+        this.alloc = ObjectUtil.checkNotNull(alloc, "alloc");
+        if (maxNumComponents < 1) {
+            throw new IllegalArgumentException(
+                    "maxNumComponents: " + maxNumComponents + " (expected: >= 1)");
+        }
+        this.direct = direct;
+        this.maxNumComponents = maxNumComponents;
+        components = newCompArray(initSize, maxNumComponents);
+    }
+
+    public CompositeByteBuf(ByteBufAllocator alloc, boolean direct, int maxNumComponents, ByteBuf... buffers) {
+        this(alloc, direct, maxNumComponents, buffers, 0);
+    }
+
+    CompositeByteBuf(ByteBufAllocator alloc, boolean direct, int maxNumComponents,
+                     ByteBuf[] buffers, int offset) {
+        this(alloc, direct, maxNumComponents, buffers.length - offset);
+        addComponents0(false, 0, buffers, offset);
+        consolidateIfNeeded();
+        setIndex0(0, capacity());
+    }
+
+    private static Component[] newCompArray(int initComponents, int maxNumComponents) {
+        int capacityGuess = Math.min(16, maxNumComponents);
+        return new Component[Math.max(initComponents, capacityGuess)];
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:添加一个组件，组件的内容是buffer中可读的那部分字节。buffer的所有权转移给CompositeByteBuf，
+     * 调用者不需要再释放它。注意这个方法不会增加writerIndex，需要的话使用addComponent(true, buffer)
+     */
+    public CompositeByteBuf addComponent(ByteBuf buffer) {
+        return addComponent(false, buffer);
+    }
+
+    public CompositeByteBuf addComponents(ByteBuf... buffers) {
+        return addComponents(false, buffers);
+    }
+
+    public CompositeByteBuf addComponent(int cIndex, ByteBuf buffer) {
+        return addComponent(false, cIndex, buffer);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:increaseWriterIndex为true的时候，writerIndex会增加buffer的可读字节数，添加进来的数据马上就可以读到
+     */
+    public CompositeByteBuf addComponent(boolean increaseWriterIndex, ByteBuf buffer) {
+        return addComponent(increaseWriterIndex, componentCount, buffer);
+    }
+
+    public CompositeByteBuf addComponents(boolean increaseWriterIndex, ByteBuf... buffers) {
+        ObjectUtil.checkNotNull(buffers, "buffers");
+        addComponents0(increaseWriterIndex, componentCount, buffers, 0);
+        consolidateIfNeeded();
+        return this;
+    }
+
+    public CompositeByteBuf addComponent(boolean increaseWriterIndex, int cIndex, ByteBuf buffer) {
+        ObjectUtil.checkNotNull(buffer, "buffer");
+        addComponent0(increaseWriterIndex, cIndex, buffer);
+        consolidateIfNeeded();
+        return this;
+    }
+
+    private int addComponent0(boolean increaseWriterIndex, int cIndex, ByteBuf buffer) {
+        assert buffer != null;
+        boolean wasAdded = false;
+        try {
+            checkComponentIndex(cIndex);
+            Component c = newComponent(buffer, 0);
+            int readableBytes = c.length();
+            addComp(cIndex, c);
+            wasAdded = true;
+            if (readableBytes > 0 && cIndex < componentCount - 1) {
+                updateComponentOffsets(cIndex);
+            } else if (cIndex > 0) {
+                c.reposition(components[cIndex - 1].endOffset);
+            }
+            if (increaseWriterIndex) {
+                writerIndex += readableBytes;
+            }
+            return cIndex;
+        } finally {
+            if (!wasAdded) {
+                buffer.release();
+            }
+        }
+    }
+
+    private CompositeByteBuf addComponents0(boolean increaseWriterIndex,
+                                            final int cIndex, ByteBuf[] buffers, int arrOffset) {
+        final int len = buffers.length;
+        final int count = len - arrOffset;
+        int readableBytes = 0;
+        int capacity = capacity();
+        for (int i = arrOffset; i < buffers.length; i++) {
+            ByteBuf b = buffers[i];
+            if (b == null) {
+                break;
+            }
+            readableBytes += b.readableBytes();
+            //先检查一遍，避免加到一半发现溢出
+            if (Integer.MAX_VALUE - capacity < readableBytes) {
+                throw new IllegalArgumentException("Can't increase by " + readableBytes);
+            }
+        }
+        int ci = Integer.MAX_VALUE;
+        try {
+            checkComponentIndex(cIndex);
+            shiftComps(cIndex, count);
+            int nextOffset = cIndex > 0 ? components[cIndex - 1].endOffset : 0;
+            for (ci = cIndex; arrOffset < len; arrOffset++, ci++) {
+                ByteBuf b = buffers[arrOffset];
+                if (b == null) {
+                    break;
+                }
+                Component c = newComponent(b, nextOffset);
+                components[ci] = c;
+                nextOffset = c.endOffset;
+            }
+            return this;
+        } finally {
+            if (ci < componentCount) {
+                if (ci < cIndex + count) {
+                    //数组中有null，把多留出来的位置删掉
+                    removeCompRange(ci, cIndex + count);
+                    for (; arrOffset < len; ++arrOffset) {
+                        ReferenceCountUtil.safeRelease(buffers[arrOffset]);
+                    }
+                }
+                updateComponentOffsets(ci);
+            }
+            if (increaseWriterIndex && ci > cIndex && ci <= componentCount) {
+                writerIndex += components[ci - 1].endOffset - components[cIndex].offset;
+            }
+        }
+    }
+
+    private Component newComponent(final ByteBuf buf, final int offset) {
+        final int srcIndex = buf.readerIndex();
+        final int len = buf.readableBytes();
+        return new Component(buf, srcIndex, offset, len);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:组件太多的时候，每次访问都要查找组件，gathering write的ByteBuffer数组也会很长，所以超过上限就合并成一个
+     */
+    private void consolidateIfNeeded() {
+        final int size = componentCount;
+        if (size > maxNumComponents) {
+            consolidate0(0, size);
+        }
+    }
+
+    private void checkComponentIndex(int cIndex) {
+        ensureAccessible();
+        if (cIndex < 0 || cIndex > componentCount) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "cIndex: %d (expected: >= 0 && <= numComponents(%d))",
+                    cIndex, componentCount));
+        }
+    }
+
+    private void checkComponentIndex(int cIndex, int numComponents) {
+        ensureAccessible();
+        if (cIndex < 0 || cIndex + numComponents > componentCount) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "cIndex: %d, numComponents: %d " +
+                    "(expected: cIndex >= 0 && cIndex + numComponents <= totalNumComponents(%d))",
+                    cIndex, numComponents, componentCount));
+        }
+    }
+
+    private void updateComponentOffsets(int cIndex) {
+        int size = componentCount;
+        if (size <= cIndex) {
+            return;
+        }
+        int nextIndex = cIndex > 0 ? components[cIndex - 1].endOffset : 0;
+        for (; cIndex < size; cIndex++) {
+            Component c = components[cIndex];
+            c.reposition(nextIndex);
+            nextIndex = c.endOffset;
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:删除一个组件并且释放它，readerIndex和writerIndex不会改变
+     */
+    public CompositeByteBuf removeComponent(int cIndex) {
+        checkComponentIndex(cIndex);
+        Component comp = components[cIndex];
+        if (lastAccessed == comp) {
+            lastAccessed = null;
+        }
+        comp.free();
+        removeComp(cIndex);
+        if (comp.length() > 0) {
+            updateComponentOffsets(cIndex);
+        }
+        return this;
+    }
+
+    public CompositeByteBuf removeComponents(int cIndex, int numComponents) {
+        checkComponentIndex(cIndex, numComponents);
+        if (numComponents == 0) {
+            return this;
+        }
+        int endIndex = cIndex + numComponents;
+        boolean needsUpdate = false;
+        for (int i = cIndex; i < endIndex; ++i) {
+            Component c = components[i];
+            if (c.length() > 0) {
+                needsUpdate = true;
+            }
+            if (lastAccessed == c) {
+                lastAccessed = null;
+            }
+            c.free();
+        }
+        removeCompRange(cIndex, endIndex);
+        if (needsUpdate) {
+            updateComponentOffsets(cIndex);
+        }
+        return this;
+    }
+
+    public int numComponents() {
+        return componentCount;
+    }
+
+    public int maxNumComponents() {
+        return maxNumComponents;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:得到offset所在的组件的下标
+     */
+    public int toComponentIndex(int offset) {
+        checkIndex(offset);
+        return toComponentIndex0(offset);
+    }
+
+    private int toComponentIndex0(int offset) {
+        int size = componentCount;
+        if (offset == 0) {
+            for (int i = 0; i < size; i++) {
+                if (components[i].endOffset > 0) {
+                    return i;
+                }
+            }
+        }
+        if (size <= 2) {
+            return size == 1 || offset < components[0].endOffset ? 0 : 1;
+        }
+        for (int low = 0, high = size; low <= high;) {
+            int mid = low + high >>> 1;
+            Component c = components[mid];
+            if (offset >= c.endOffset) {
+                low = mid + 1;
+            } else if (offset < c.offset) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        throw new Error("should not reach here");
+    }
+
+    public int toByteIndex(int cIndex) {
+        checkComponentIndex(cIndex);
+        return components[cIndex].offset;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:返回组件内容的一个切片，和组件共享内存和引用计数
+     */
+    public ByteBuf component(int cIndex) {
+        checkComponentIndex(cIndex);
+        return components[cIndex].slice();
+    }
+
+    public ByteBuf componentAtOffset(int offset) {
+        return findComponent(offset).slice();
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把所有组件合并成一个，合并的时候会拷贝数据，之后的访问就不需要再查找组件了
+     */
+    public CompositeByteBuf consolidate() {
+        ensureAccessible();
+        consolidate0(0, componentCount);
+        return this;
+    }
+
+    public CompositeByteBuf consolidate(int cIndex, int numComponents) {
+        checkComponentIndex(cIndex, numComponents);
+        consolidate0(cIndex, numComponents);
+        return this;
+    }
+
+    private void consolidate0(int cIndex, int numComponents) {
+        if (numComponents <= 1) {
+            return;
+        }
+        final int endCIndex = cIndex + numComponents;
+        final int startOffset = cIndex != 0 ? components[cIndex].offset : 0;
+        final int capacity = components[endCIndex - 1].endOffset - startOffset;
+        final ByteBuf consolidated = allocBuffer(capacity);
+        for (int i = cIndex; i < endCIndex; i ++) {
+            components[i].transferTo(consolidated);
+        }
+        lastAccessed = null;
+        removeCompRange(cIndex + 1, endCIndex);
+        components[cIndex] = new Component(consolidated, 0, startOffset, capacity);
+        if (cIndex != 0 || numComponents != componentCount) {
+            updateComponentOffsets(cIndex);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:释放已经完全读完的组件
+     */
+    public CompositeByteBuf discardReadComponents() {
+        ensureAccessible();
+        final int readerIndex = readerIndex();
+        if (readerIndex == 0) {
+            return this;
+        }
+        int writerIndex = writerIndex();
+        if (readerIndex == writerIndex && writerIndex == capacity()) {
+            for (int i = 0, size = componentCount; i < size; i++) {
+                components[i].free();
+            }
+            lastAccessed = null;
+            clearComps();
+            setIndex(0, 0);
+            adjustMarkers(readerIndex);
+            return this;
+        }
+        int firstComponentId = 0;
+        Component c = null;
+        for (int size = componentCount; firstComponentId < size; firstComponentId++) {
+            c = components[firstComponentId];
+            if (c.endOffset > readerIndex) {
+                break;
+            }
+            c.free();
+        }
+        if (firstComponentId == 0) {
+            return this;
+        }
+        Component la = lastAccessed;
+        if (la != null && la.endOffset <= readerIndex) {
+            lastAccessed = null;
+        }
+        removeCompRange(0, firstComponentId);
+        int offset = c.offset;
+        updateComponentOffsets(0);
+        setIndex(readerIndex - offset, writerIndex - offset);
+        adjustMarkers(offset);
+        return this;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:丢弃已读的字节，完全读完的组件直接释放，读了一部分的组件只调整偏移量，不拷贝数据
+     */
+    @Override
+    public CompositeByteBuf discardReadBytes() {
+        ensureAccessible();
+        final int readerIndex = readerIndex();
+        if (readerIndex == 0) {
+            return this;
+        }
+        int writerIndex = writerIndex();
+        if (readerIndex == writerIndex && writerIndex == capacity()) {
+            for (int i = 0, size = componentCount; i < size; i++) {
+                components[i].free();
+            }
+            lastAccessed = null;
+            clearComps();
+            setIndex(0, 0);
+            adjustMarkers(readerIndex);
+            return this;
+        }
+        int firstComponentId = 0;
+        Component c = null;
+        for (int size = componentCount; firstComponentId < size; firstComponentId++) {
+            c = components[firstComponentId];
+            if (c.endOffset > readerIndex) {
+                break;
+            }
+            c.free();
+        }
+        //读了一部分的组件，把已读的部分从组件的范围中去掉
+        c.offset = 0;
+        c.endOffset -= readerIndex;
+        c.adjustment += readerIndex;
+        Component la = lastAccessed;
+        if (la != null && la.endOffset <= readerIndex) {
+            lastAccessed = null;
+        }
+        removeCompRange(0, firstComponentId);
+        updateComponentOffsets(0);
+        setIndex(0, writerIndex - readerIndex);
+        adjustMarkers(readerIndex);
+        return this;
+    }
+
+    @Override
+    public CompositeByteBuf discardSomeReadBytes() {
+        return discardReadComponents();
+    }
+
+    @Override
+    public boolean isDirect() {
+        int size = componentCount;
+        if (size == 0) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (!components[i].buf.isDirect()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean hasArray() {
+        switch (componentCount) {
+        case 0:
+            return true;
+        case 1:
+            return components[0].buf.hasArray();
+        default:
+            return false;
+        }
+    }
+
+    @Override
+    public byte[] array() {
+        switch (componentCount) {
+        case 0:
+            return EMPTY_ARRAY;
+        case 1:
+            return components[0].buf.array();
+        default:
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Override
+    public int arrayOffset() {
+        switch (componentCount) {
+        case 0:
+            return 0;
+        case 1:
+            Component c = components[0];
+            return c.idx(c.buf.arrayOffset());
+        default:
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Override
+    public int capacity() {
+        int size = componentCount;
+        return size > 0 ? components[size - 1].endOffset : 0;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:扩容的时候在最后添加一个新分配的组件，缩容的时候从后往前释放或者截断组件
+     */
+    @Override
+    public CompositeByteBuf capacity(int newCapacity) {
+        checkNewCapacity(newCapacity);
+        final int size = componentCount, oldCapacity = capacity();
+        if (newCapacity > oldCapacity) {
+            final int paddingLength = newCapacity - oldCapacity;
+            ByteBuf padding = allocBuffer(paddingLength).setIndex(0, paddingLength);
+            addComponent0(false, size, padding);
+            if (componentCount >= maxNumComponents) {
+                consolidateIfNeeded();
+            }
+        } else if (newCapacity < oldCapacity) {
+            lastAccessed = null;
+            int i = size - 1;
+            for (int bytesToTrim = oldCapacity - newCapacity; i >= 0; i--) {
+                Component c = components[i];
+                final int cLength = c.length();
+                if (bytesToTrim < cLength) {
+                    c.endOffset -= bytesToTrim;
+                    break;
+                }
+                c.free();
+                bytesToTrim -= cLength;
+            }
+            removeCompRange(i + 1, size);
+            trimIndicesToCapacity(newCapacity);
+        }
+        return this;
+    }
+
+    @Override
+    public ByteBufAllocator alloc() {
+        return alloc;
+    }
+
+    @Override
+    public ByteBuf unwrap() {
+        return null;
+    }
+
+    private Component findComponent(int offset) {
+        Component la = lastAccessed;
+        if (la != null && offset >= la.offset && offset < la.endOffset) {
+            ensureAccessible();
+            return la;
+        }
+        checkIndex(offset);
+        return findIt(offset);
+    }
+
+    private Component findComponent0(int offset) {
+        Component la = lastAccessed;
+        if (la != null && offset >= la.offset && offset < la.endOffset) {
+            return la;
+        }
+        return findIt(offset);
+    }
+
+    private Component findIt(int offset) {
+        for (int low = 0, high = componentCount; low <= high;) {
+            int mid = low + high >>> 1;
+            Component c = components[mid];
+            if (c == null) {
+                throw new IllegalStateException("No component found for offset. " +
+                        "Composite buffer layout might be outdated, e.g. from a discardReadBytes call.");
+            }
+            if (offset >= c.endOffset) {
+                low = mid + 1;
+            } else if (offset < c.offset) {
+                high = mid - 1;
+            } else {
+                lastAccessed = c;
+                return c;
+            }
+        }
+        throw new Error("should not reach here");
+    }
+
+    @Override
+    protected byte _getByte(int index) {
+        Component c = findComponent0(index);
+        return c.buf.getByte(c.idx(index));
+    }
+
+    @Override
+    protected short _getShort(int index) {
+        Component c = findComponent0(index);
+        if (index + 2 <= c.endOffset) {
+            return c.buf.getShort(c.idx(index));
+        }
+        //跨越了两个组件，只能一个字节一个字节地拼起来
+        return (short) ((_getByte(index) & 0xff) << 8 | _getByte(index + 1) & 0xff);
+    }
+
+    @Override
+    protected int _getUnsignedMedium(int index) {
+        Component c = findComponent0(index);
+        if (index + 3 <= c.endOffset) {
+            return c.buf.getUnsignedMedium(c.idx(index));
+        }
+        return (_getShort(index) & 0xffff) << 8 | _getByte(index + 2) & 0xff;
+    }
+
+    @Override
+    protected int _getInt(int index) {
+        Component c = findComponent0(index);
+        if (index + 4 <= c.endOffset) {
+            return c.buf.getInt(c.idx(index));
+        }
+        return (_getShort(index) & 0xffff) << 16 | _getShort(index + 2) & 0xffff;
+    }
+
+    @Override
+    protected long _getLong(int index) {
+        Component c = findComponent0(index);
+        if (index + 8 <= c.endOffset) {
+            return c.buf.getLong(c.idx(index));
+        }
+        return (_getInt(index) & 0xffffffffL) << 32 | _getInt(index + 4) & 0xffffffffL;
+    }
+
+    @Override
+    protected void _setByte(int index, int value) {
+        Component c = findComponent0(index);
+        c.buf.setByte(c.idx(index), value);
+    }
+
+    @Override
+    protected void _setShort(int index, int value) {
+        Component c = findComponent0(index);
+        if (index + 2 <= c.endOffset) {
+            c.buf.setShort(c.idx(index), value);
+        } else {
+            _setByte(index, (byte) (value >>> 8));
+            _setByte(index + 1, (byte) value);
+        }
+    }
+
+    @Override
+    protected void _setMedium(int index, int value) {
+        Component c = findComponent0(index);
+        if (index + 3 <= c.endOffset) {
+            c.buf.setMedium(c.idx(index), value);
+        } else {
+            _setShort(index, (short) (value >> 8));
+            _setByte(index + 2, (byte) value);
+        }
+    }
+
+    @Override
+    protected void _setInt(int index, int value) {
+        Component c = findComponent0(index);
+        if (index + 4 <= c.endOffset) {
+            c.buf.setInt(c.idx(index), value);
+        } else {
+            _setShort(index, (short) (value >>> 16));
+            _setShort(index + 2, (short) value);
+        }
+    }
+
+    @Override
+    protected void _setLong(int index, long value) {
+        Component c = findComponent0(index);
+        if (index + 8 <= c.endOffset) {
+            c.buf.setLong(c.idx(index), value);
+        } else {
+            _setInt(index, (int) (value >>> 32));
+            _setInt(index + 4, (int) value);
+        }
+    }
+
+    @Override
+    public ByteBuf getBytes(int index, byte[] dst, int dstIndex, int length) {
+        checkDstIndex(index, length, dstIndex, dst.length);
+        if (length == 0) {
+            return this;
+        }
+        int i = toComponentIndex0(index);
+        while (length > 0) {
+            Component c = components[i];
+            int localLength = Math.min(length, c.endOffset - index);
+            c.buf.getBytes(c.idx(index), dst, dstIndex, localLength);
+            index += localLength;
+            dstIndex += localLength;
+            length -= localLength;
+            i ++;
+        }
+        return this;
+    }
+
+    @Override
+    public ByteBuf getBytes(int index, ByteBuffer dst) {
+        int limit = dst.limit();
+        int length = dst.remaining();
+        checkIndex(index, length);
+        if (length == 0) {
+            return this;
+        }
+        int i = toComponentIndex0(index);
+        try {
+            while (length > 0) {
+                Component c = components[i];
+                int localLength = Math.min(length, c.endOffset - index);
+                dst.limit(dst.position() + localLength);
+                c.buf.getBytes(c.idx(index), dst);
+                index += localLength;
+                length -= localLength;
+                i ++;
+            }
+        } finally {
+            dst.limit(limit);
+        }
+        return this;
+    }
+
+    @Override
+    public ByteBuf getBytes(int index, ByteBuf dst, int dstIndex, int length) {
+        checkDstIndex(index, length, dstIndex, dst.capacity());
+        if (length == 0) {
+            return this;
+        }
+        int i = toComponentIndex0(index);
+        while (length > 0) {
+            Component c = components[i];
+            int localLength = Math.min(length, c.endOffset - index);
+            c.buf.getBytes(c.idx(index), dst, dstIndex, localLength);
+            index += localLength;
+            dstIndex += localLength;
+            length -= localLength;
+            i ++;
+        }
+        return this;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:有多个ByteBuffer的时候用gathering write一次写出去，不用先拷贝到一个ByteBuffer中
+     */
+    @Override
+    public int getBytes(int index, GatheringByteChannel out, int length) throws IOException {
+        int count = nioBufferCount();
+        if (count == 1) {
+            return out.write(internalNioBuffer(index, length));
+        } else {
+            long writtenBytes = out.write(nioBuffers(index, length));
+            if (writtenBytes > Integer.MAX_VALUE) {
+                return Integer.MAX_VALUE;
+            } else {
+                return (int) writtenBytes;
+            }
+        }
+    }
+
+    @Override
+    public ByteBuf setBytes(int index, byte[] src, int srcIndex, int length) {
+        checkSrcIndex(index, length, srcIndex, src.length);
+        if (length == 0) {
+            return this;
+        }
+        int i = toComponentIndex0(index);
+        while (length > 0) {
+            Component c = components[i];
+            int localLength = Math.min(length, c.endOffset - index);
+            c.buf.setBytes(c.idx(index), src, srcIndex, localLength);
+            index += localLength;
+            srcIndex += localLength;
+            length -= localLength;
+            i ++;
+        }
+        return this;
+    }
+
+    @Override
+    public ByteBuf setBytes(int index, ByteBuffer src) {
+        int limit = src.limit();
+        int length = src.remaining();
+        checkIndex(index, length);
+        if (length == 0) {
+            return this;
+        }
+        int i = toComponentIndex0(index);
+        try {
+            while (length > 0) {
+                Component c = components[i];
+                int localLength = Math.min(length, c.endOffset - index);
+                src.limit(src.position() + localLength);
+                c.buf.setBytes(c.idx(index), src);
+                index += localLength;
+                length -= localLength;
+                i ++;
+            }
+        } finally {
+            src.limit(limit);
+        }
+        return this;
+    }
+
+    @Override
+    public ByteBuf setBytes(int index, ByteBuf src, int srcIndex, int length) {
+        checkSrcIndex(index, length, srcIndex, src.capacity());
+        if (length == 0) {
+            return this;
+        }
+        int i = toComponentIndex0(index);
+        while (length > 0) {
+            Component c = components[i];
+            int localLength = Math.min(length, c.endOffset - index);
+            c.buf.setBytes(c.idx(index), src, srcIndex, localLength);
+            index += localLength;
+            srcIndex += localLength;
+            length -= localLength;
+            i ++;
+        }
+        return this;
+    }
+
+    @Override
+    public int setBytes(int index, ScatteringByteChannel in, int length) throws IOException {
+        checkIndex(index, length);
+        if (length == 0) {
+            return in.read(EMPTY_NIO_BUFFER);
+        }
+        int i = toComponentIndex0(index);
+        int readBytes = 0;
+        do {
+            Component c = components[i];
+            int localLength = Math.min(length, c.endOffset - index);
+            if (localLength == 0) {
+                i ++;
+                continue;
+            }
+            int localReadBytes = c.buf.setBytes(c.idx(index), in, localLength);
+            if (localReadBytes == 0) {
+                break;
+            }
+            if (localReadBytes < 0) {
+                if (readBytes == 0) {
+                    return -1;
+                } else {
+                    break;
+                }
+            }
+            index += localReadBytes;
+            length -= localReadBytes;
+            readBytes += localReadBytes;
+            if (localReadBytes == localLength) {
+                i ++;
+            }
+        } while (length > 0);
+        return readBytes;
+    }
+
+    @Override
+    public ByteBuf copy(int index, int length) {
+        checkIndex(index, length);
+        ByteBuf dst = allocBuffer(length);
+        if (length != 0) {
+            int i = toComponentIndex0(index);
+            int dstIndex = 0;
+            while (length > 0) {
+                Component c = components[i];
+                int localLength = Math.min(length, c.endOffset - index);
+                c.buf.getBytes(c.idx(index), dst, dstIndex, localLength);
+                index += localLength;
+                dstIndex += localLength;
+                length -= localLength;
+                i ++;
+            }
+            dst.writerIndex(dst.capacity());
+        }
+        return dst;
+    }
+
+    @Override
+    public int nioBufferCount() {
+        int size = componentCount;
+        switch (size) {
+        case 0:
+            return 1;
+        case 1:
+            return components[0].buf.nioBufferCount();
+        default:
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                count += components[i].buf.nioBufferCount();
+            }
+            return count;
+        }
+    }
+
+    @Override
+    public ByteBuffer internalNioBuffer(int index, int length) {
+        switch (componentCount) {
+        case 0:
+            return EMPTY_NIO_BUFFER;
+        case 1:
+            return components[0].internalNioBuffer(index, length);
+        default:
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:多个组件的时候只能把数据拷贝到一个新的ByteBuffer中，写socket的时候应该用nioBuffers
+     */
+    @Override
+    public ByteBuffer nioBuffer(int index, int length) {
+        checkIndex(index, length);
+        switch (componentCount) {
+        case 0:
+            return EMPTY_NIO_BUFFER;
+        case 1:
+            Component c = components[0];
+            ByteBuf buf = c.buf;
+            if (buf.nioBufferCount() == 1) {
+                return buf.nioBuffer(c.idx(index), length);
+            }
+            break;
+        default:
+            break;
+        }
+        ByteBuffer[] buffers = nioBuffers(index, length);
+        if (buffers.length == 1) {
+            return buffers[0];
+        }
+        ByteBuffer merged = isDirect() ? ByteBuffer.allocateDirect(length) : ByteBuffer.allocate(length);
+        for (ByteBuffer b: buffers) {
+            merged.put(b);
+        }
+        merged.flip();
+        return merged;
+    }
+
+    @Override
+    public ByteBuffer[] nioBuffers(int index, int length) {
+        checkIndex(index, length);
+        if (length == 0) {
+            return new ByteBuffer[] { EMPTY_NIO_BUFFER };
+        }
+        List<ByteBuffer> buffers = new ArrayList<ByteBuffer>(componentCount);
+        int i = toComponentIndex0(index);
+        while (length > 0) {
+            Component c = components[i];
+            ByteBuf s = c.buf;
+            int localLength = Math.min(length, c.endOffset - index);
+            switch (s.nioBufferCount()) {
+            case 0:
+                throw new UnsupportedOperationException();
+            case 1:
+                buffers.add(s.nioBuffer(c.idx(index), localLength));
+                break;
+            default:
+                Collections.addAll(buffers, s.nioBuffers(c.idx(index), localLength));
+            }
+            index += localLength;
+            length -= localLength;
+            i ++;
+        }
+        return buffers.toArray(new ByteBuffer[0]);
+    }
+
+    private ByteBuf allocBuffer(int capacity) {
+        return direct ? alloc().directBuffer(capacity) : alloc().heapBuffer(capacity);
+    }
+
+    @Override
+    protected void deallocate() {
+        int size = componentCount;
+        for (int i = 0; i < size; i++) {
+            components[i].free();
+        }
+        lastAccessed = null;
+        clearComps();
+    }
+
+    @Override
+    public String toString() {
+        String result = super.toString();
+        result = result.substring(0, result.length() - 1);
+        return result + ", components=" + componentCount + ')';
+    }
+
+    private void clearComps() {
+        removeCompRange(0, componentCount);
+    }
+
+    private void removeComp(int i) {
+        removeCompRange(i, i + 1);
+    }
+
+    private void removeCompRange(int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        final int size = componentCount;
+        assert from >= 0 && to <= size;
+        if (to < size) {
+            System.arraycopy(components, to, components, from, size - to);
+        }
+        int newSize = size - to + from;
+        for (int i = newSize; i < size; i++) {
+            components[i] = null;
+        }
+        componentCount = newSize;
+    }
+
+    private void addComp(int i, Component c) {
+        shiftComps(i, 1);
+        components[i] = c;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:在下标i的位置腾出count个位置，数组不够的时候扩容1.5倍
+     */
+    private void shiftComps(int i, int count) {
+        final int size = componentCount, newSize = size + count;
+        assert i >= 0 && i <= size && count > 0;
+        if (newSize > components.length) {
+            int newArrSize = Math.max(size + (size >> 1), newSize);
+            Component[] newArr;
+            if (i == size) {
+                newArr = new Component[newArrSize];
+                System.arraycopy(components, 0, newArr, 0, size);
+            } else {
+                newArr = new Component[newArrSize];
+                if (i > 0) {
+                    System.arraycopy(components, 0, newArr, 0, i);
+                }
+                if (i < size) {
+                    System.arraycopy(components, i, newArr, i + count, size - i);
+                }
+            }
+            components = newArr;
+        } else if (i < size) {
+            System.arraycopy(components, i, components, i + count, size - i);
+        }
+        componentCount = newSize;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:组件。offset和endOffset是组件在CompositeByteBuf中的范围，
+     * 加上adjustment就是在组件自己的ByteBuf中的下标
+     */
+    private static final class Component {
+        final ByteBuf buf;
+        int adjustment;
+        int offset;
+        int endOffset;
+
+        Component(ByteBuf buf, int srcOffset, int offset, int len) {
+            this.buf = buf;
+            adjustment = srcOffset - offset;
+            this.offset = offset;
+            endOffset = offset + len;
+        }
+
+        int idx(int index) {
+            return index + adjustment;
+        }
+
+        int length() {
+            return endOffset - offset;
+        }
+
+        void reposition(int newOffset) {
+            int move = newOffset - offset;
+            endOffset += move;
+            adjustment -= move;
+            offset = newOffset;
+        }
+
+        void transferTo(ByteBuf dst) {
+            dst.writeBytes(buf, idx(offset), length());
+            free();
+        }
+
+        ByteBuf slice() {
+            return buf.slice(idx(offset), length());
+        }
+
+        ByteBuffer internalNioBuffer(int index, int length) {
+            return buf.internalNioBuffer(idx(index), length);
+        }
+
+        void free() {
+            buf.release();
+        }
+    }
+}
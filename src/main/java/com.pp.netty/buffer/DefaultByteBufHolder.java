@@ -0,0 +1,82 @@
+package com.pp.netty.buffer;
+
+import com.pp.netty.util.IllegalReferenceCountException;
+import com.pp.netty.util.internal.ObjectUtil;
+import com.pp.netty.util.internal.StringUtil;
+
+/**
+ * @Author: PP-jessica
+ * @Description:ByteBufHolder的默认实现，引用计数的操作都直接交给内部的ByteBuf
+ */
+public class DefaultByteBufHolder implements ByteBufHolder {
+
+    private final ByteBuf data;
+
+    public DefaultByteBufHolder(ByteBuf data) {
+        this.data = ObjectUtil.checkNotNull(data, "data");
+    }
+
+    @Override
+    public ByteBuf content() {
+        if (data.refCnt() <= 0) {
+            throw new IllegalReferenceCountException(data.refCnt());
+        }
+        return data;
+    }
+
+    @Override
+    public ByteBufHolder copy() {
+        return replace(data.copy());
+    }
+
+    @Override
+    public ByteBufHolder duplicate() {
+        return replace(data.duplicate());
+    }
+
+    @Override
+    public ByteBufHolder retainedDuplicate() {
+        return replace(data.retainedDuplicate());
+    }
+
+    @Override
+    public ByteBufHolder replace(ByteBuf content) {
+        return new DefaultByteBufHolder(content);
+    }
+
+    @Override
+    public int refCnt() {
+        return data.refCnt();
+    }
+
+    @Override
+    public ByteBufHolder retain() {
+        data.retain();
+        return this;
+    }
+
+    @Override
+    public ByteBufHolder retain(int increment) {
+        data.retain(increment);
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        return data.release();
+    }
+
+    @Override
+    public boolean release(int decrement) {
+        return data.release(decrement);
+    }
+
+    protected final String contentToString() {
+        return data.toString();
+    }
+
+    @Override
+    public String toString() {
+        return StringUtil.simpleClassName(this) + '(' + contentToString() + ')';
+    }
+}
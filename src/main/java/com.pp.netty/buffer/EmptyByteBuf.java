@@ -0,0 +1,39 @@
+package com.pp.netty.buffer;
+
+/**
+ * @Author: PP-jessica
+ * @Description:容量为0的ByteBuf，可以被任意地共享，所以它的引用计数永远是1，retain和release都不做任何事情
+ */
+final class EmptyByteBuf extends UnpooledHeapByteBuf {
+
+    private static final byte[] EMPTY_ARRAY = {};
+
+    EmptyByteBuf(ByteBufAllocator alloc) {
+        super(alloc, EMPTY_ARRAY, 0);
+    }
+
+    @Override
+    public int refCnt() {
+        return 1;
+    }
+
+    @Override
+    public ByteBuf retain() {
+        return this;
+    }
+
+    @Override
+    public ByteBuf retain(int increment) {
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        return false;
+    }
+
+    @Override
+    public boolean release(int decrement) {
+        return false;
+    }
+}
@@ -0,0 +1,136 @@
+package com.pp.netty.buffer;
+
+import com.pp.netty.util.internal.PlatformDependent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+
+/**
+ * @Author: PP-jessica
+ * @Description:包装了FileChannel.map得到的MappedByteBuffer的ByteBuf，文件的内容直接映射到进程的地址空间中，
+ * 写到socket的时候数据从页缓存直接拷贝到内核的发送缓冲区，不经过堆内存。映射是只读的，容量固定，不能扩容。
+ * 一般不直接使用，而是通过MappedByteBufCache得到它的duplicate，多个channel共享同一个映射，引用计数减到0的时候立刻解除映射，
+ * 不用等MappedByteBuffer被垃圾回收。
+ * 因为会被多个线程同时读，读取数据的时候不能用父类中共享的tmpNioBuf，每次都要duplicate一个新的ByteBuffer，
+ * 否则不同线程设置的position和limit会互相覆盖。映射是只读的，所有写的方法都直接抛出ReadOnlyBufferException
+ */
+public final class MappedByteBuf extends UnpooledDirectByteBuf {
+
+    //原始的映射，解除映射只能用这个对象，slice或者duplicate出来的ByteBuffer是不行的
+    private MappedByteBuffer mapped;
+
+    MappedByteBuf(ByteBufAllocator alloc, MappedByteBuffer mapped) {
+        super(alloc, mapped, mapped.remaining());
+        this.mapped = mapped;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    public ByteBuf capacity(int newCapacity) {
+        throw new ReadOnlyBufferException();
+    }
+
+    @Override
+    public ByteBuf getBytes(int index, byte[] dst, int dstIndex, int length) {
+        checkDstIndex(index, length, dstIndex, dst.length);
+        duplicateNioBuffer(index, length).get(dst, dstIndex, length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf getBytes(int index, ByteBuffer dst) {
+        checkIndex(index, dst.remaining());
+        dst.put(duplicateNioBuffer(index, dst.remaining()));
+        return this;
+    }
+
+    @Override
+    public int getBytes(int index, GatheringByteChannel out, int length) throws IOException {
+        ensureAccessible();
+        if (length == 0) {
+            return 0;
+        }
+        checkIndex(index, length);
+        return out.write(duplicateNioBuffer(index, length));
+    }
+
+    @Override
+    public ByteBuffer internalNioBuffer(int index, int length) {
+        checkIndex(index, length);
+        return duplicateNioBuffer(index, length);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:每次都创建一个新的ByteBuffer，position和limit只属于当前这一次调用。
+     * getBytes(int, ByteBuf, int, int)和所有的readBytes方法最终都会调用到上面这几个方法，所以不用再单独重写
+     */
+    private ByteBuffer duplicateNioBuffer(int index, int length) {
+        return (ByteBuffer) buffer.duplicate().clear().position(index).limit(index + length);
+    }
+
+    @Override
+    protected void _setByte(int index, int value) {
+        throw new ReadOnlyBufferException();
+    }
+
+    @Override
+    protected void _setShort(int index, int value) {
+        throw new ReadOnlyBufferException();
+    }
+
+    @Override
+    protected void _setMedium(int index, int value) {
+        throw new ReadOnlyBufferException();
+    }
+
+    @Override
+    protected void _setInt(int index, int value) {
+        throw new ReadOnlyBufferException();
+    }
+
+    @Override
+    protected void _setLong(int index, long value) {
+        throw new ReadOnlyBufferException();
+    }
+
+    @Override
+    public ByteBuf setBytes(int index, ByteBuf src, int srcIndex, int length) {
+        throw new ReadOnlyBufferException();
+    }
+
+    @Override
+    public ByteBuf setBytes(int index, byte[] src, int srcIndex, int length) {
+        throw new ReadOnlyBufferException();
+    }
+
+    @Override
+    public ByteBuf setBytes(int index, ByteBuffer src) {
+        throw new ReadOnlyBufferException();
+    }
+
+    @Override
+    public int setBytes(int index, ScatteringByteChannel in, int length) throws IOException {
+        throw new ReadOnlyBufferException();
+    }
+
+    @Override
+    protected void deallocate() {
+        super.deallocate();
+        MappedByteBuffer mapped = this.mapped;
+        if (mapped == null) {
+            return;
+        }
+        this.mapped = null;
+        //解除映射，文件占用的虚拟内存和页缓存的引用立刻就释放了
+        PlatformDependent.freeDirectBuffer(mapped);
+    }
+}
@@ -0,0 +1,208 @@
+package com.pp.netty.buffer;
+
+import com.pp.netty.util.internal.ObjectUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @Author: PP-jessica
+ * @Description:内存映射文件的缓存，用来发送那些经常被请求、又很少修改的文件。同一个文件的同一段区域只映射一次，所有channel共享，
+ * 重复发送的时候既不用再打开文件，也不用把数据读到堆内存中。
+ * 缓存按照最近最少使用的顺序淘汰，映射的总字节数和映射的个数都有上限。缓存自己持有每个映射的一个引用计数，
+ * acquire方法返回的是共享内存和引用计数的duplicate，交给channel写出去之后由写缓冲区负责释放。
+ * 被淘汰的映射只是释放了缓存持有的那个引用计数，还在写的channel用完之后，引用计数减到0，映射才真正解除
+ * 该类的方法可能被多个单线程执行器同时调用，所以都加了锁
+ */
+public final class MappedByteBufCache {
+
+    private final long maxMappedBytes;
+
+    private final int maxEntries;
+
+    //accessOrder为true，每次get都会把节点移动到链表的尾部，链表的头部就是最近最少使用的映射
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+
+    //所有缓存的映射的总字节数
+    private long mappedBytes;
+
+    public MappedByteBufCache(long maxMappedBytes, int maxEntries) {
+        this.maxMappedBytes = ObjectUtil.checkPositive(maxMappedBytes, "maxMappedBytes");
+        this.maxEntries = ObjectUtil.checkPositive(maxEntries, "maxEntries");
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:得到整个文件的映射
+     */
+    public ByteBuf acquire(File file) throws IOException {
+        return acquire(file, 0, file.length());
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:得到文件中从position开始、长度为length的区域的映射。缓存中没有的话就映射一次放进缓存，
+     * 文件在映射之后被修改过的话，旧的映射会被淘汰，重新映射。返回的ByteBuf用完之后要release，交给channel写出去的话channel会负责释放
+     */
+    public ByteBuf acquire(File file, long position, long length) throws IOException {
+        ObjectUtil.checkNotNull(file, "file");
+        ObjectUtil.checkPositiveOrZero(position, "position");
+        ObjectUtil.checkPositiveOrZero(length, "length");
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("length: " + length + " (expected: <= " + Integer.MAX_VALUE + ')');
+        }
+        Key key = new Key(file.getCanonicalPath(), position, length);
+        long lastModified = file.lastModified();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.lastModified == lastModified) {
+                    return entry.buf.retainedDuplicate();
+                }
+                //文件被修改过了，旧的映射不能再用了
+                remove0(key);
+            }
+        }
+        //映射文件是比较慢的系统调用，放在锁的外面
+        MappedByteBuf buf = map(file, position, (int) length);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.lastModified == lastModified) {
+                //别的线程已经映射好了，用它的，自己的直接解除映射
+                buf.release();
+                return entry.buf.retainedDuplicate();
+            }
+            if (entry != null) {
+                remove0(key);
+            }
+            entries.put(key, new Entry(buf, lastModified));
+            mappedBytes += length;
+            ByteBuf result = buf.retainedDuplicate();
+            evict();
+            return result;
+        }
+    }
+
+    private static MappedByteBuf map(File file, long position, int length) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            if (position + length > channel.size()) {
+                throw new IOException("Underlying file size " + channel.size() + " smaller then requested region " +
+                        position + '+' + length);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            //文件关闭之后映射仍然有效，所以不用一直占着文件描述符
+            return new MappedByteBuf(UnpooledByteBufAllocator.DEFAULT, mapped);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:映射的总字节数或者个数超过上限的时候，从最近最少使用的映射开始淘汰。刚放进去的映射至少会留下
+     */
+    private void evict() {
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while ((mappedBytes > maxMappedBytes || entries.size() > maxEntries) && entries.size() > 1) {
+            Map.Entry<Key, Entry> eldest = it.next();
+            it.remove();
+            mappedBytes -= eldest.getKey().length;
+            eldest.getValue().buf.release();
+        }
+    }
+
+    private void remove0(Key key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            mappedBytes -= key.length;
+            entry.buf.release();
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把文件的某段区域的映射从缓存中移除
+     */
+    public synchronized boolean remove(File file, long position, long length) throws IOException {
+        Key key = new Key(file.getCanonicalPath(), position, length);
+        if (!entries.containsKey(key)) {
+            return false;
+        }
+        remove0(key);
+        return true;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:清空缓存，释放缓存持有的所有映射
+     */
+    public synchronized void clear() {
+        for (Entry entry : entries.values()) {
+            entry.buf.release();
+        }
+        entries.clear();
+        mappedBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long mappedBytes() {
+        return mappedBytes;
+    }
+
+    private static final class Entry {
+        final MappedByteBuf buf;
+        final long lastModified;
+
+        Entry(MappedByteBuf buf, long lastModified) {
+            this.buf = buf;
+            this.lastModified = lastModified;
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:缓存的key，由文件的规范路径和区域组成
+     */
+    private static final class Key {
+        final String path;
+        final long position;
+        final long length;
+
+        Key(String path, long position, long length) {
+            this.path = path;
+            this.position = position;
+            this.length = length;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return position == key.position && length == key.length && path.equals(key.path);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = path.hashCode();
+            result = 31 * result + (int) (position ^ (position >>> 32));
+            result = 31 * result + (int) (length ^ (length >>> 32));
+            return result;
+        }
+    }
+}
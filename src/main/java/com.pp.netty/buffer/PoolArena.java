@@ -0,0 +1,625 @@
+package com.pp.netty.buffer;
+
+import com.pp.netty.util.internal.PlatformDependent;
+import com.pp.netty.util.internal.StringUtil;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @Author: PP-jessica
+ * @Description:内存池的核心，一个arena管理着若干个内存块。申请的内存按大小分成四类：
+ * tiny是小于512字节的，按16字节对齐；small是512字节到一页之间的，按2的幂对齐，这两类都由子页分配；
+ * normal是一页到一个内存块大小之间的，按2的幂对齐，由内存块按页分配；huge是超过内存块大小的，不池化。
+ * 每个线程都会绑定一个arena，事件循环线程的数量和arena的数量默认是一样的，所以每个arena基本只会被一个线程使用，
+ * 再加上线程缓存，分配和释放内存的时候几乎不会出现锁竞争
+ */
+abstract class PoolArena<T> implements PoolArenaMetric {
+
+    enum SizeClass {
+        Tiny,
+        Small,
+        Normal
+    }
+
+    //tiny规格按16字节递增，一共512 / 16 = 32种
+    static final int numTinySubpagePools = 512 >>> 4;
+
+    final PooledByteBufAllocator parent;
+
+    private final int maxOrder;
+    final int pageSize;
+    final int pageShifts;
+    final int chunkSize;
+    final int subpageOverflowMask;
+    final int numSmallSubpagePools;
+    private final PoolSubpage<T>[] tinySubpagePools;
+    private final PoolSubpage<T>[] smallSubpagePools;
+
+    private final PoolChunkList<T> q050;
+    private final PoolChunkList<T> q025;
+    private final PoolChunkList<T> q000;
+    private final PoolChunkList<T> qInit;
+    private final PoolChunkList<T> q075;
+    private final PoolChunkList<T> q100;
+
+    private final List<PoolChunkListMetric> chunkListMetrics;
+
+    //下面这些统计数据，在arena的锁中修改的用普通的long，不在锁中修改的用LongAdder
+    private long allocationsNormal;
+    private final LongAdder allocationsTiny = new LongAdder();
+    private final LongAdder allocationsSmall = new LongAdder();
+    private final LongAdder allocationsHuge = new LongAdder();
+    private final LongAdder activeBytesHuge = new LongAdder();
+
+    private long deallocationsTiny;
+    private long deallocationsSmall;
+    private long deallocationsNormal;
+    private final LongAdder deallocationsHuge = new LongAdder();
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    //有多少个线程缓存使用了这个arena，新的线程会选择使用者最少的arena
+    final AtomicInteger numThreadCaches = new AtomicInteger();
+
+    protected PoolArena(PooledByteBufAllocator parent, int pageSize, int maxOrder, int pageShifts, int chunkSize) {
+        this.parent = parent;
+        this.pageSize = pageSize;
+        this.maxOrder = maxOrder;
+        this.pageShifts = pageShifts;
+        this.chunkSize = chunkSize;
+        subpageOverflowMask = ~(pageSize - 1);
+        tinySubpagePools = newSubpagePoolArray(numTinySubpagePools);
+        for (int i = 0; i < tinySubpagePools.length; i ++) {
+            tinySubpagePools[i] = newSubpagePoolHead(pageSize);
+        }
+        //small规格从512开始翻倍，直到一页，8KB的页一共有512、1K、2K、4K四种
+        numSmallSubpagePools = pageShifts - 9;
+        smallSubpagePools = newSubpagePoolArray(numSmallSubpagePools);
+        for (int i = 0; i < smallSubpagePools.length; i ++) {
+            smallSubpagePools[i] = newSubpagePoolHead(pageSize);
+        }
+
+        q100 = new PoolChunkList<T>(this, null, 100, Integer.MAX_VALUE, chunkSize);
+        q075 = new PoolChunkList<T>(this, q100, 75, 100, chunkSize);
+        q050 = new PoolChunkList<T>(this, q075, 50, 100, chunkSize);
+        q025 = new PoolChunkList<T>(this, q050, 25, 75, chunkSize);
+        q000 = new PoolChunkList<T>(this, q025, 1, 50, chunkSize);
+        qInit = new PoolChunkList<T>(this, q000, Integer.MIN_VALUE, 25, chunkSize);
+
+        q100.prevList(q075);
+        q075.prevList(q050);
+        q050.prevList(q025);
+        q025.prevList(q000);
+        //q000没有前一个链表，使用率降到0的内存块会被销毁，而qInit的前一个链表是自己，新创建的内存块不会被销毁
+        q000.prevList(null);
+        qInit.prevList(qInit);
+
+        List<PoolChunkListMetric> metrics = new ArrayList<PoolChunkListMetric>(6);
+        metrics.add(qInit);
+        metrics.add(q000);
+        metrics.add(q025);
+        metrics.add(q050);
+        metrics.add(q075);
+        metrics.add(q100);
+        chunkListMetrics = Collections.unmodifiableList(metrics);
+    }
+
+    private PoolSubpage<T> newSubpagePoolHead(int pageSize) {
+        PoolSubpage<T> head = new PoolSubpage<T>(pageSize);
+        head.prev = head;
+        head.next = head;
+        return head;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private PoolSubpage<T>[] newSubpagePoolArray(int size) {
+        return new PoolSubpage[size];
+    }
+
+    abstract boolean isDirect();
+
+    PooledByteBuf<T> allocate(PoolThreadCache cache, int reqCapacity, int maxCapacity) {
+        PooledByteBuf<T> buf = newByteBuf(maxCapacity);
+        allocate(cache, buf, reqCapacity);
+        return buf;
+    }
+
+    static int tinyIdx(int normCapacity) {
+        return normCapacity >>> 4;
+    }
+
+    static int smallIdx(int normCapacity) {
+        int tableIdx = 0;
+        int i = normCapacity >>> 10;
+        while (i != 0) {
+            i >>>= 1;
+            tableIdx ++;
+        }
+        return tableIdx;
+    }
+
+    boolean isTinyOrSmall(int normCapacity) {
+        return (normCapacity & subpageOverflowMask) == 0;
+    }
+
+    static boolean isTiny(int normCapacity) {
+        return (normCapacity & 0xFFFFFE00) == 0;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:分配内存，先从线程缓存中分配，线程缓存中没有再加锁从arena中分配
+     */
+    private void allocate(PoolThreadCache cache, PooledByteBuf<T> buf, final int reqCapacity) {
+        final int normCapacity = normalizeCapacity(reqCapacity);
+        if (isTinyOrSmall(normCapacity)) {
+            int tableIdx;
+            PoolSubpage<T>[] table;
+            boolean tiny = isTiny(normCapacity);
+            if (tiny) {
+                if (cache.allocateTiny(this, buf, reqCapacity, normCapacity)) {
+                    return;
+                }
+                tableIdx = tinyIdx(normCapacity);
+                table = tinySubpagePools;
+            } else {
+                if (cache.allocateSmall(this, buf, reqCapacity, normCapacity)) {
+                    return;
+                }
+                tableIdx = smallIdx(normCapacity);
+                table = smallSubpagePools;
+            }
+            final PoolSubpage<T> head = table[tableIdx];
+            //已经有这个规格的子页了，只需要锁住子页链表的头节点，不需要锁住整个arena
+            synchronized (head) {
+                final PoolSubpage<T> s = head.next;
+                if (s != head) {
+                    assert s.doNotDestroy && s.elemSize == normCapacity;
+                    long handle = s.allocate();
+                    assert handle >= 0;
+                    s.chunk.initBufWithSubpage(buf, handle, reqCapacity);
+                    incTinySmallAllocation(tiny);
+                    return;
+                }
+            }
+            synchronized (this) {
+                allocateNormal(buf, reqCapacity, normCapacity);
+            }
+            incTinySmallAllocation(tiny);
+            return;
+        }
+        if (normCapacity <= chunkSize) {
+            if (cache.allocateNormal(this, buf, reqCapacity, normCapacity)) {
+                return;
+            }
+            synchronized (this) {
+                allocateNormal(buf, reqCapacity, normCapacity);
+                ++ allocationsNormal;
+            }
+        } else {
+            allocateHuge(buf, reqCapacity);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:按照q050、q025、q000、qInit、q075的顺序查找可以分配的内存块，都分配不了就创建一个新的内存块。
+     * 从使用率适中的链表开始找，既能提高内存的利用率，又能让使用率低的内存块有机会被完全释放
+     */
+    private void allocateNormal(PooledByteBuf<T> buf, int reqCapacity, int normCapacity) {
+        if (q050.allocate(buf, reqCapacity, normCapacity) || q025.allocate(buf, reqCapacity, normCapacity) ||
+            q000.allocate(buf, reqCapacity, normCapacity) || qInit.allocate(buf, reqCapacity, normCapacity) ||
+            q075.allocate(buf, reqCapacity, normCapacity)) {
+            return;
+        }
+        PoolChunk<T> c = newChunk(pageSize, maxOrder, pageShifts, chunkSize);
+        boolean success = c.allocate(buf, reqCapacity, normCapacity);
+        assert success;
+        qInit.add(c);
+    }
+
+    private void incTinySmallAllocation(boolean tiny) {
+        if (tiny) {
+            allocationsTiny.increment();
+        } else {
+            allocationsSmall.increment();
+        }
+    }
+
+    private void allocateHuge(PooledByteBuf<T> buf, int reqCapacity) {
+        PoolChunk<T> chunk = newUnpooledChunk(reqCapacity);
+        activeBytesHuge.add(chunk.chunkSize());
+        buf.initUnpooled(chunk, reqCapacity);
+        allocationsHuge.increment();
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:释放内存，优先放到分配这块内存的线程的缓存中，缓存满了再还给arena
+     */
+    void free(PoolChunk<T> chunk, long handle, int normCapacity, PoolThreadCache cache) {
+        if (chunk.unpooled) {
+            int size = chunk.chunkSize();
+            destroyChunk(chunk);
+            activeBytesHuge.add(-size);
+            deallocationsHuge.increment();
+        } else {
+            SizeClass sizeClass = sizeClass(normCapacity);
+            if (cache != null && cache.add(this, chunk, handle, normCapacity, sizeClass)) {
+                return;
+            }
+            freeChunk(chunk, handle, sizeClass);
+        }
+    }
+
+    private SizeClass sizeClass(int normCapacity) {
+        if (!isTinyOrSmall(normCapacity)) {
+            return SizeClass.Normal;
+        }
+        return isTiny(normCapacity) ? SizeClass.Tiny : SizeClass.Small;
+    }
+
+    void freeChunk(PoolChunk<T> chunk, long handle, SizeClass sizeClass) {
+        final boolean destroyChunk;
+        synchronized (this) {
+            switch (sizeClass) {
+            case Normal:
+                ++ deallocationsNormal;
+                break;
+            case Small:
+                ++ deallocationsSmall;
+                break;
+            case Tiny:
+                ++ deallocationsTiny;
+                break;
+            default:
+                throw new Error();
+            }
+            destroyChunk = !chunk.parent.free(chunk, handle);
+        }
+        if (destroyChunk) {
+            //销毁内存块不需要持有锁
+            destroyChunk(chunk);
+        }
+    }
+
+    PoolSubpage<T> findSubpagePoolHead(int elemSize) {
+        int tableIdx;
+        PoolSubpage<T>[] table;
+        if (isTiny(elemSize)) {
+            tableIdx = elemSize >>> 4;
+            table = tinySubpagePools;
+        } else {
+            tableIdx = 0;
+            elemSize >>>= 10;
+            while (elemSize != 0) {
+                elemSize >>>= 1;
+                tableIdx ++;
+            }
+            table = smallSubpagePools;
+        }
+        return table[tableIdx];
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把申请的容量规格化，tiny按16字节对齐，其他的向上取到2的幂，huge不做处理
+     */
+    int normalizeCapacity(int reqCapacity) {
+        if (reqCapacity < 0) {
+            throw new IllegalArgumentException("capacity: " + reqCapacity + " (expected: 0+)");
+        }
+        if (reqCapacity >= chunkSize) {
+            return reqCapacity;
+        }
+        if (!isTiny(reqCapacity)) {
+            int normalizedCapacity = reqCapacity;
+            normalizedCapacity --;
+            normalizedCapacity |= normalizedCapacity >>>  1;
+            normalizedCapacity |= normalizedCapacity >>>  2;
+            normalizedCapacity |= normalizedCapacity >>>  4;
+            normalizedCapacity |= normalizedCapacity >>>  8;
+            normalizedCapacity |= normalizedCapacity >>> 16;
+            normalizedCapacity ++;
+            if (normalizedCapacity < 0) {
+                normalizedCapacity >>>= 1;
+            }
+            return normalizedCapacity;
+        }
+        if ((reqCapacity & 15) == 0) {
+            return reqCapacity;
+        }
+        return (reqCapacity & ~15) + 16;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:ByteBuf扩容或者缩容，重新分配一块内存，把数据拷贝过去，再释放原来的内存
+     */
+    void reallocate(PooledByteBuf<T> buf, int newCapacity) {
+        final int oldCapacity = buf.length;
+        if (oldCapacity == newCapacity) {
+            return;
+        }
+        PoolChunk<T> oldChunk = buf.chunk;
+        long oldHandle = buf.handle;
+        T oldMemory = buf.memory;
+        int oldOffset = buf.offset;
+        int oldMaxLength = buf.maxLength;
+        PoolThreadCache oldCache = buf.cache;
+        int readerIndex = buf.readerIndex();
+        int writerIndex = buf.writerIndex();
+
+        allocate(parent.threadCache(), buf, newCapacity);
+        int bytesToCopy;
+        if (newCapacity > oldCapacity) {
+            bytesToCopy = oldCapacity;
+        } else {
+            readerIndex = Math.min(readerIndex, newCapacity);
+            writerIndex = Math.min(writerIndex, newCapacity);
+            bytesToCopy = newCapacity;
+        }
+        memoryCopy(oldMemory, oldOffset, buf.memory, buf.offset, bytesToCopy);
+        buf.setIndex(readerIndex, writerIndex);
+        free(oldChunk, oldHandle, oldMaxLength, oldCache);
+    }
+
+    void cacheHit() {
+        cacheHits.increment();
+    }
+
+    void cacheMiss() {
+        cacheMisses.increment();
+    }
+
+    @Override
+    public int numThreadCaches() {
+        return numThreadCaches.get();
+    }
+
+    @Override
+    public List<PoolChunkListMetric> chunkLists() {
+        return chunkListMetrics;
+    }
+
+    @Override
+    public int numUsedChunks() {
+        return countChunks()[0];
+    }
+
+    @Override
+    public int numFreeChunks() {
+        return countChunks()[1];
+    }
+
+    private int[] countChunks() {
+        int[] usedAndFree = new int[2];
+        synchronized (this) {
+            qInit.countChunks(usedAndFree);
+            q000.countChunks(usedAndFree);
+            q025.countChunks(usedAndFree);
+            q050.countChunks(usedAndFree);
+            q075.countChunks(usedAndFree);
+            q100.countChunks(usedAndFree);
+        }
+        return usedAndFree;
+    }
+
+    @Override
+    public long numAllocations() {
+        final long allocsNormal;
+        synchronized (this) {
+            allocsNormal = allocationsNormal;
+        }
+        return allocationsTiny.sum() + allocationsSmall.sum() + allocsNormal + allocationsHuge.sum();
+    }
+
+    @Override
+    public long numTinyAllocations() {
+        return allocationsTiny.sum();
+    }
+
+    @Override
+    public long numSmallAllocations() {
+        return allocationsSmall.sum();
+    }
+
+    @Override
+    public synchronized long numNormalAllocations() {
+        return allocationsNormal;
+    }
+
+    @Override
+    public long numHugeAllocations() {
+        return allocationsHuge.sum();
+    }
+
+    @Override
+    public long numDeallocations() {
+        final long deallocs;
+        synchronized (this) {
+            deallocs = deallocationsTiny + deallocationsSmall + deallocationsNormal;
+        }
+        return deallocs + deallocationsHuge.sum();
+    }
+
+    @Override
+    public synchronized long numTinyDeallocations() {
+        return deallocationsTiny;
+    }
+
+    @Override
+    public synchronized long numSmallDeallocations() {
+        return deallocationsSmall;
+    }
+
+    @Override
+    public synchronized long numNormalDeallocations() {
+        return deallocationsNormal;
+    }
+
+    @Override
+    public long numHugeDeallocations() {
+        return deallocationsHuge.sum();
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:被线程缓存持有的内存也算作活跃的，因为它们还没有还给arena
+     */
+    @Override
+    public long numActiveAllocations() {
+        long val = allocationsTiny.sum() + allocationsSmall.sum() + allocationsHuge.sum()
+                - deallocationsHuge.sum();
+        synchronized (this) {
+            val += allocationsNormal - (deallocationsTiny + deallocationsSmall + deallocationsNormal);
+        }
+        return Math.max(val, 0);
+    }
+
+    @Override
+    public long numActiveBytes() {
+        long val = activeBytesHuge.sum();
+        synchronized (this) {
+            for (int i = 0; i < chunkListMetrics.size(); i++) {
+                for (PoolChunkMetric m: chunkListMetrics.get(i)) {
+                    val += m.chunkSize() - m.freeBytes();
+                }
+            }
+        }
+        return Math.max(0, val);
+    }
+
+    @Override
+    public long numCacheHits() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long numCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    protected abstract PoolChunk<T> newChunk(int pageSize, int maxOrder, int pageShifts, int chunkSize);
+
+    protected abstract PoolChunk<T> newUnpooledChunk(int capacity);
+
+    protected abstract PooledByteBuf<T> newByteBuf(int maxCapacity);
+
+    protected abstract void memoryCopy(T src, int srcOffset, T dst, int dstOffset, int length);
+
+    protected abstract void destroyChunk(PoolChunk<T> chunk);
+
+    @Override
+    public synchronized String toString() {
+        return StringUtil.simpleClassName(this) +
+                "(chunk lists: qInit: " + qInit + ", q000: " + q000 + ", q025: " + q025 +
+                ", q050: " + q050 + ", q075: " + q075 + ", q100: " + q100 + ')';
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:arena被回收之前，把所有的内存块都销毁，直接内存就会被释放
+     */
+    void destroy() {
+        destroyPoolChunkLists(qInit, q000, q025, q050, q075, q100);
+    }
+
+    @SafeVarargs
+    private final void destroyPoolChunkLists(PoolChunkList<T>... chunkLists) {
+        for (PoolChunkList<T> chunkList: chunkLists) {
+            chunkList.destroy(this);
+        }
+    }
+
+    static final class HeapArena extends PoolArena<byte[]> {
+
+        HeapArena(PooledByteBufAllocator parent, int pageSize, int maxOrder, int pageShifts, int chunkSize) {
+            super(parent, pageSize, maxOrder, pageShifts, chunkSize);
+        }
+
+        @Override
+        boolean isDirect() {
+            return false;
+        }
+
+        @Override
+        protected PoolChunk<byte[]> newChunk(int pageSize, int maxOrder, int pageShifts, int chunkSize) {
+            return new PoolChunk<byte[]>(this, new byte[chunkSize], pageSize, maxOrder, pageShifts, chunkSize, 0);
+        }
+
+        @Override
+        protected PoolChunk<byte[]> newUnpooledChunk(int capacity) {
+            return new PoolChunk<byte[]>(this, new byte[capacity], capacity, 0);
+        }
+
+        @Override
+        protected void destroyChunk(PoolChunk<byte[]> chunk) {
+            //堆内存交给垃圾回收就好了
+        }
+
+        @Override
+        protected PooledByteBuf<byte[]> newByteBuf(int maxCapacity) {
+            return new PooledHeapByteBuf(maxCapacity);
+        }
+
+        @Override
+        protected void memoryCopy(byte[] src, int srcOffset, byte[] dst, int dstOffset, int length) {
+            if (length == 0) {
+                return;
+            }
+            System.arraycopy(src, srcOffset, dst, dstOffset, length);
+        }
+    }
+
+    static final class DirectArena extends PoolArena<ByteBuffer> {
+
+        DirectArena(PooledByteBufAllocator parent, int pageSize, int maxOrder, int pageShifts, int chunkSize) {
+            super(parent, pageSize, maxOrder, pageShifts, chunkSize);
+        }
+
+        @Override
+        boolean isDirect() {
+            return true;
+        }
+
+        @Override
+        protected PoolChunk<ByteBuffer> newChunk(int pageSize, int maxOrder, int pageShifts, int chunkSize) {
+            return new PoolChunk<ByteBuffer>(this, ByteBuffer.allocateDirect(chunkSize),
+                    pageSize, maxOrder, pageShifts, chunkSize, 0);
+        }
+
+        @Override
+        protected PoolChunk<ByteBuffer> newUnpooledChunk(int capacity) {
+            return new PoolChunk<ByteBuffer>(this, ByteBuffer.allocateDirect(capacity), capacity, 0);
+        }
+
+        @Override
+        protected void destroyChunk(PoolChunk<ByteBuffer> chunk) {
+            PlatformDependent.freeDirectBuffer(chunk.memory);
+        }
+
+        @Override
+        protected PooledByteBuf<ByteBuffer> newByteBuf(int maxCapacity) {
+            return new PooledDirectByteBuf(maxCapacity);
+        }
+
+        @Override
+        protected void memoryCopy(ByteBuffer src, int srcOffset, ByteBuffer dst, int dstOffset, int length) {
+            if (length == 0) {
+                return;
+            }
+            src = src.duplicate();
+            dst = dst.duplicate();
+            src.position(srcOffset).limit(srcOffset + length);
+            dst.position(dstOffset);
+            dst.put(src);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.pp.netty.buffer;
+
+import java.util.List;
+
+/**
+ * @Author: PP-jessica
+ * @Description:内存池中一个arena的统计数据
+ */
+public interface PoolArenaMetric {
+
+    /**
+     * @Author: PP-jessica
+     * @Description:有多少个线程缓存绑定在这个arena上，也就是有多少个线程从这个arena分配内存
+     */
+    int numThreadCaches();
+
+    List<PoolChunkListMetric> chunkLists();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:已经分配出去内存的内存块的个数
+     */
+    int numUsedChunks();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:还留在内存池中，但一点内存都没有分配出去的内存块的个数
+     */
+    int numFreeChunks();
+
+    long numAllocations();
+
+    long numTinyAllocations();
+
+    long numSmallAllocations();
+
+    long numNormalAllocations();
+
+    long numHugeAllocations();
+
+    long numDeallocations();
+
+    long numTinyDeallocations();
+
+    long numSmallDeallocations();
+
+    long numNormalDeallocations();
+
+    long numHugeDeallocations();
+
+    long numActiveAllocations();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:已经分配出去的字节数，包括被线程缓存持有的内存
+     */
+    long numActiveBytes();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:线程缓存命中的次数，命中的时候不需要访问arena，也就不需要加锁
+     */
+    long numCacheHits();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:线程缓存没有命中的次数，这时候要加锁从arena中分配
+     */
+    long numCacheMisses();
+}
@@ -0,0 +1,353 @@
+package com.pp.netty.buffer;
+
+/**
+ * @Author: PP-jessica
+ * @Description:内存池中的内存块，默认16MB，每次都向操作系统申请一整块，然后按页切分出去。
+ * 内存块用一棵完全二叉树来管理，叶子节点是页，一共2048页，每页8KB，父节点代表两个子节点合起来的那段连续内存。
+ * memoryMap记录每个节点下面还能分配的最大连续内存所在的深度，分配n页的时候，只需要从根节点往下找到一个
+ * 深度为d并且完全空闲的节点，这就是伙伴算法。小于一页的内存，先分配一页再交给PoolSubpage切分
+ */
+final class PoolChunk<T> implements PoolChunkMetric {
+
+    private static final int INTEGER_SIZE_MINUS_ONE = Integer.SIZE - 1;
+
+    final PoolArena<T> arena;
+    //真正的内存，堆内存是byte[]，直接内存是ByteBuffer
+    final T memory;
+    //超过内存块大小的内存不会被池化，单独创建一个内存块，释放的时候直接销毁
+    final boolean unpooled;
+    final int offset;
+
+    private final byte[] memoryMap;
+    private final byte[] depthMap;
+    private final PoolSubpage<T>[] subpages;
+    //用来判断申请的内存是否小于一页
+    private final int subpageOverflowMask;
+    private final int pageSize;
+    private final int pageShifts;
+    private final int maxOrder;
+    private final int chunkSize;
+    private final int log2ChunkSize;
+    private final int maxSubpageAllocs;
+    //节点被分配出去之后，在memoryMap中的值就被设置成这个值，比最大的深度还大1
+    private final byte unusable;
+
+    private int freeBytes;
+
+    PoolChunkList<T> parent;
+    PoolChunk<T> prev;
+    PoolChunk<T> next;
+
+    PoolChunk(PoolArena<T> arena, T memory, int pageSize, int maxOrder, int pageShifts, int chunkSize, int offset) {
+        unpooled = false;
+        this.arena = arena;
+        this.memory = memory;
+        this.pageSize = pageSize;
+        this.pageShifts = pageShifts;
+        this.maxOrder = maxOrder;
+        this.chunkSize = chunkSize;
+        this.offset = offset;
+        unusable = (byte) (maxOrder + 1);
+        log2ChunkSize = log2(chunkSize);
+        subpageOverflowMask = ~(pageSize - 1);
+        freeBytes = chunkSize;
+
+        assert maxOrder < 30 : "maxOrder should be < 30, but is: " + maxOrder;
+        maxSubpageAllocs = 1 << maxOrder;
+
+        //下标从1开始，节点id的子节点是2 * id和2 * id + 1
+        memoryMap = new byte[maxSubpageAllocs << 1];
+        depthMap = new byte[memoryMap.length];
+        int memoryMapIndex = 1;
+        for (int d = 0; d <= maxOrder; ++ d) {
+            int depth = 1 << d;
+            for (int p = 0; p < depth; ++ p) {
+                memoryMap[memoryMapIndex] = (byte) d;
+                depthMap[memoryMapIndex] = (byte) d;
+                memoryMapIndex ++;
+            }
+        }
+        subpages = newSubpageArray(maxSubpageAllocs);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:创建一个不池化的内存块，用来分配超过内存块大小的内存
+     */
+    PoolChunk(PoolArena<T> arena, T memory, int size, int offset) {
+        unpooled = true;
+        this.arena = arena;
+        this.memory = memory;
+        this.offset = offset;
+        memoryMap = null;
+        depthMap = null;
+        subpages = null;
+        subpageOverflowMask = 0;
+        pageSize = 0;
+        pageShifts = 0;
+        maxOrder = 0;
+        unusable = (byte) (maxOrder + 1);
+        chunkSize = size;
+        log2ChunkSize = log2(chunkSize);
+        maxSubpageAllocs = 0;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private PoolSubpage<T>[] newSubpageArray(int size) {
+        return new PoolSubpage[size];
+    }
+
+    @Override
+    public int usage() {
+        final int freeBytes;
+        synchronized (arena) {
+            freeBytes = this.freeBytes;
+        }
+        return usage(freeBytes);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:在arena的锁中调用，不需要再加锁
+     */
+    int usage0() {
+        return usage(freeBytes);
+    }
+
+    private int usage(int freeBytes) {
+        if (freeBytes == 0) {
+            return 100;
+        }
+        int freePercentage = (int) (freeBytes * 100L / chunkSize);
+        if (freePercentage == 0) {
+            return 99;
+        }
+        return 100 - freePercentage;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:大于等于一页的内存按页分配，小于一页的内存交给子页分配，分配成功就初始化ByteBuf
+     */
+    boolean allocate(PooledByteBuf<T> buf, int reqCapacity, int normCapacity) {
+        final long handle;
+        if ((normCapacity & subpageOverflowMask) != 0) {
+            handle = allocateRun(normCapacity);
+        } else {
+            handle = allocateSubpage(normCapacity);
+        }
+        if (handle < 0) {
+            return false;
+        }
+        initBuf(buf, handle, reqCapacity);
+        return true;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:节点被分配之后，沿着父节点一路向上更新，父节点的值是两个子节点中较小的那个值
+     */
+    private void updateParentsAlloc(int id) {
+        while (id > 1) {
+            int parentId = id >>> 1;
+            byte val1 = value(id);
+            byte val2 = value(id ^ 1);
+            byte val = val1 < val2 ? val1 : val2;
+            setValue(parentId, val);
+            id = parentId;
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:节点被释放之后，沿着父节点一路向上更新，如果两个子节点都完全空闲了，父节点也就完全空闲了
+     */
+    private void updateParentsFree(int id) {
+        int logChild = depth(id) + 1;
+        while (id > 1) {
+            int parentId = id >>> 1;
+            byte val1 = value(id);
+            byte val2 = value(id ^ 1);
+            logChild -= 1;
+            if (val1 == logChild && val2 == logChild) {
+                setValue(parentId, (byte) (logChild - 1));
+            } else {
+                byte val = val1 < val2 ? val1 : val2;
+                setValue(parentId, val);
+            }
+            id = parentId;
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:在深度为d的那一层找到一个完全空闲的节点，找不到返回-1
+     */
+    private int allocateNode(int d) {
+        int id = 1;
+        int initial = - (1 << d);
+        byte val = value(id);
+        //根节点的值大于d，说明整个内存块都没有这么大的连续内存了
+        if (val > d) {
+            return -1;
+        }
+        //(id & initial) == 0说明还没有到第d层
+        while (val < d || (id & initial) == 0) {
+            id <<= 1;
+            val = value(id);
+            if (val > d) {
+                //左子节点不够，就去右子节点
+                id ^= 1;
+                val = value(id);
+            }
+        }
+        setValue(id, unusable);
+        updateParentsAlloc(id);
+        return id;
+    }
+
+    private long allocateRun(int normCapacity) {
+        int d = maxOrder - (log2(normCapacity) - pageShifts);
+        int id = allocateNode(d);
+        if (id < 0) {
+            return id;
+        }
+        freeBytes -= runLength(id);
+        return id;
+    }
+
+    private long allocateSubpage(int normCapacity) {
+        PoolSubpage<T> head = arena.findSubpagePoolHead(normCapacity);
+        //子页只占用一页，所以在最底层分配
+        int d = maxOrder;
+        synchronized (head) {
+            int id = allocateNode(d);
+            if (id < 0) {
+                return id;
+            }
+            final PoolSubpage<T>[] subpages = this.subpages;
+            final int pageSize = this.pageSize;
+            freeBytes -= pageSize;
+            int subpageIdx = subpageIdx(id);
+            PoolSubpage<T> subpage = subpages[subpageIdx];
+            if (subpage == null) {
+                subpage = new PoolSubpage<T>(head, this, id, runOffset(id), pageSize, normCapacity);
+                subpages[subpageIdx] = subpage;
+            } else {
+                subpage.init(head, normCapacity);
+            }
+            return subpage.allocate();
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:释放handle对应的内存，子页内存先还给子页，子页完全空闲了再把这一页还给内存块
+     */
+    void free(long handle) {
+        int memoryMapIdx = memoryMapIdx(handle);
+        int bitmapIdx = bitmapIdx(handle);
+        if (bitmapIdx != 0) {
+            PoolSubpage<T> subpage = subpages[subpageIdx(memoryMapIdx)];
+            PoolSubpage<T> head = arena.findSubpagePoolHead(subpage.elemSize);
+            synchronized (head) {
+                if (subpage.free(head, bitmapIdx & 0x3FFFFFFF)) {
+                    return;
+                }
+            }
+        }
+        freeBytes += runLength(memoryMapIdx);
+        setValue(memoryMapIdx, depth(memoryMapIdx));
+        updateParentsFree(memoryMapIdx);
+    }
+
+    void initBuf(PooledByteBuf<T> buf, long handle, int reqCapacity) {
+        int memoryMapIdx = memoryMapIdx(handle);
+        int bitmapIdx = bitmapIdx(handle);
+        if (bitmapIdx == 0) {
+            buf.init(this, handle, runOffset(memoryMapIdx) + offset,
+                    reqCapacity, runLength(memoryMapIdx), arena.parent.threadCache());
+        } else {
+            initBufWithSubpage(buf, handle, bitmapIdx, reqCapacity);
+        }
+    }
+
+    void initBufWithSubpage(PooledByteBuf<T> buf, long handle, int reqCapacity) {
+        initBufWithSubpage(buf, handle, bitmapIdx(handle), reqCapacity);
+    }
+
+    private void initBufWithSubpage(PooledByteBuf<T> buf, long handle, int bitmapIdx, int reqCapacity) {
+        int memoryMapIdx = memoryMapIdx(handle);
+        PoolSubpage<T> subpage = subpages[subpageIdx(memoryMapIdx)];
+        buf.init(this, handle,
+                runOffset(memoryMapIdx) + (bitmapIdx & 0x3FFFFFFF) * subpage.elemSize + offset,
+                reqCapacity, subpage.elemSize, arena.parent.threadCache());
+    }
+
+    private byte value(int id) {
+        return memoryMap[id];
+    }
+
+    private void setValue(int id, byte val) {
+        memoryMap[id] = val;
+    }
+
+    private byte depth(int id) {
+        return depthMap[id];
+    }
+
+    private static int log2(int val) {
+        return INTEGER_SIZE_MINUS_ONE - Integer.numberOfLeadingZeros(val);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:节点代表的内存长度
+     */
+    private int runLength(int id) {
+        return 1 << log2ChunkSize - depth(id);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:节点代表的内存在内存块中的偏移量
+     */
+    private int runOffset(int id) {
+        int shift = id ^ 1 << depth(id);
+        return shift * runLength(id);
+    }
+
+    private int subpageIdx(int memoryMapIdx) {
+        return memoryMapIdx ^ maxSubpageAllocs;
+    }
+
+    private static int memoryMapIdx(long handle) {
+        return (int) handle;
+    }
+
+    private static int bitmapIdx(long handle) {
+        return (int) (handle >>> Integer.SIZE);
+    }
+
+    @Override
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    @Override
+    public int freeBytes() {
+        synchronized (arena) {
+            return freeBytes;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final int freeBytes;
+        synchronized (arena) {
+            freeBytes = this.freeBytes;
+        }
+        return "Chunk(" + Integer.toHexString(System.identityHashCode(this)) + ": " + usage(freeBytes) + "%, " +
+                (chunkSize - freeBytes) + '/' + chunkSize + ')';
+    }
+}
@@ -0,0 +1,207 @@
+package com.pp.netty.buffer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * @Author: PP-jessica
+ * @Description:按使用率把内存块串起来的链表。arena中有6个这样的链表，使用率变化的时候，内存块会在链表之间移动。
+ * 分配内存的时候优先从使用率适中的链表中分配，这样内存块的使用率会比较均衡，完全空闲的内存块也更容易被释放
+ */
+final class PoolChunkList<T> implements PoolChunkListMetric {
+
+    private static final Iterator<PoolChunkMetric> EMPTY_METRICS = Collections.<PoolChunkMetric>emptyList().iterator();
+
+    private final PoolArena<T> arena;
+    private final PoolChunkList<T> nextList;
+    private final int minUsage;
+    private final int maxUsage;
+    //这个链表中的内存块最多还能分配多大的内存
+    private final int maxCapacity;
+    private PoolChunk<T> head;
+
+    private PoolChunkList<T> prevList;
+
+    PoolChunkList(PoolArena<T> arena, PoolChunkList<T> nextList, int minUsage, int maxUsage, int chunkSize) {
+        assert minUsage <= maxUsage;
+        this.arena = arena;
+        this.nextList = nextList;
+        this.minUsage = minUsage;
+        this.maxUsage = maxUsage;
+        maxCapacity = calculateMaxCapacity(minUsage, chunkSize);
+    }
+
+    private static int calculateMaxCapacity(int minUsage, int chunkSize) {
+        minUsage = minUsage0(minUsage);
+        if (minUsage == 100) {
+            return 0;
+        }
+        return  (int) (chunkSize * (100L - minUsage) / 100L);
+    }
+
+    void prevList(PoolChunkList<T> prevList) {
+        assert this.prevList == null;
+        this.prevList = prevList;
+    }
+
+    boolean allocate(PooledByteBuf<T> buf, int reqCapacity, int normCapacity) {
+        if (normCapacity > maxCapacity) {
+            //这个链表中的内存块都分配不了这么大的内存，直接返回
+            return false;
+        }
+        for (PoolChunk<T> cur = head; cur != null; cur = cur.next) {
+            if (cur.allocate(buf, reqCapacity, normCapacity)) {
+                if (cur.usage0() >= maxUsage) {
+                    remove(cur);
+                    nextList.add(cur);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:释放内存，返回false说明这个内存块已经完全空闲了，并且没有前一个链表可以移动，调用者需要销毁这个内存块
+     */
+    boolean free(PoolChunk<T> chunk, long handle) {
+        chunk.free(handle);
+        if (chunk.usage0() < minUsage) {
+            remove(chunk);
+            return move0(chunk);
+        }
+        return true;
+    }
+
+    private boolean move(PoolChunk<T> chunk) {
+        assert chunk.usage0() < maxUsage;
+        if (chunk.usage0() < minUsage) {
+            return move0(chunk);
+        }
+        add0(chunk);
+        return true;
+    }
+
+    private boolean move0(PoolChunk<T> chunk) {
+        if (prevList == null) {
+            //只有q000没有前一个链表，这时候内存块的使用率一定是0
+            assert chunk.usage0() == 0;
+            return false;
+        }
+        return prevList.move(chunk);
+    }
+
+    void add(PoolChunk<T> chunk) {
+        if (chunk.usage0() >= maxUsage) {
+            nextList.add(chunk);
+            return;
+        }
+        add0(chunk);
+    }
+
+    void add0(PoolChunk<T> chunk) {
+        chunk.parent = this;
+        if (head == null) {
+            head = chunk;
+            chunk.prev = null;
+            chunk.next = null;
+        } else {
+            chunk.prev = null;
+            chunk.next = head;
+            head.prev = chunk;
+            head = chunk;
+        }
+    }
+
+    private void remove(PoolChunk<T> cur) {
+        if (cur == head) {
+            head = cur.next;
+            if (head != null) {
+                head.prev = null;
+            }
+        } else {
+            PoolChunk<T> next = cur.next;
+            cur.prev.next = next;
+            if (next != null) {
+                next.prev = cur.prev;
+            }
+        }
+    }
+
+    @Override
+    public int minUsage() {
+        return minUsage0(minUsage);
+    }
+
+    @Override
+    public int maxUsage() {
+        return Math.min(maxUsage, 100);
+    }
+
+    private static int minUsage0(int value) {
+        return Math.max(1, value);
+    }
+
+    @Override
+    public Iterator<PoolChunkMetric> iterator() {
+        synchronized (arena) {
+            if (head == null) {
+                return EMPTY_METRICS;
+            }
+            List<PoolChunkMetric> metrics = new ArrayList<PoolChunkMetric>();
+            for (PoolChunk<T> cur = head;;) {
+                metrics.add(cur);
+                cur = cur.next;
+                if (cur == null) {
+                    break;
+                }
+            }
+            return metrics.iterator();
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:统计链表中使用率大于0和等于0的内存块的个数，在arena的锁中调用
+     */
+    void countChunks(int[] usedAndFree) {
+        for (PoolChunk<T> cur = head; cur != null; cur = cur.next) {
+            if (cur.usage0() == 0) {
+                usedAndFree[1] ++;
+            } else {
+                usedAndFree[0] ++;
+            }
+        }
+    }
+
+    void destroy(PoolArena<T> arena) {
+        PoolChunk<T> chunk = head;
+        while (chunk != null) {
+            arena.destroyChunk(chunk);
+            chunk = chunk.next;
+        }
+        head = null;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder();
+        synchronized (arena) {
+            if (head == null) {
+                return "none";
+            }
+            for (PoolChunk<T> cur = head;;) {
+                buf.append(cur);
+                cur = cur.next;
+                if (cur == null) {
+                    break;
+                }
+                buf.append('\n');
+            }
+        }
+        return buf.toString();
+    }
+}
@@ -0,0 +1,20 @@
+package com.pp.netty.buffer;
+
+/**
+ * @Author: PP-jessica
+ * @Description:内存块链表的统计数据，可以遍历链表中每一个内存块的统计数据
+ */
+public interface PoolChunkListMetric extends Iterable<PoolChunkMetric> {
+
+    /**
+     * @Author: PP-jessica
+     * @Description:链表中内存块的最小使用率，低于这个使用率的内存块会移动到前一个链表中
+     */
+    int minUsage();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:链表中内存块的最大使用率，达到这个使用率的内存块会移动到后一个链表中
+     */
+    int maxUsage();
+}
@@ -0,0 +1,18 @@
+package com.pp.netty.buffer;
+
+/**
+ * @Author: PP-jessica
+ * @Description:内存块的统计数据
+ */
+public interface PoolChunkMetric {
+
+    /**
+     * @Author: PP-jessica
+     * @Description:内存块的使用率，百分比
+     */
+    int usage();
+
+    int chunkSize();
+
+    int freeBytes();
+}
@@ -0,0 +1,196 @@
+package com.pp.netty.buffer;
+
+/**
+ * @Author: PP-jessica
+ * @Description:小于一页的内存分配要用到的子页。一个子页占用内存块中的一页，再把这一页切分成大小相等的若干份，
+ * 用位图记录每一份是否被分配了。相同规格的子页会被串成一个双向链表，链表的头节点保存在arena中
+ */
+final class PoolSubpage<T> {
+
+    final PoolChunk<T> chunk;
+    //这个子页在内存块的二叉树中对应的节点下标
+    private final int memoryMapIdx;
+    //这个子页在内存块中的偏移量
+    private final int runOffset;
+    private final int pageSize;
+    //位图，一个bit对应一份内存，最小的规格是16字节，所以最多需要pageSize / 16 / 64个long
+    private final long[] bitmap;
+
+    PoolSubpage<T> prev;
+    PoolSubpage<T> next;
+
+    boolean doNotDestroy;
+    int elemSize;
+    private int maxNumElems;
+    private int bitmapLength;
+    private int nextAvail;
+    private int numAvail;
+
+    /**
+     * @Author: PP-jessica
+     * @Description:创建链表的头节点，头节点不分配内存
+     */
+    PoolSubpage(int pageSize) {
+        chunk = null;
+        memoryMapIdx = -1;
+        runOffset = -1;
+        elemSize = -1;
+        this.pageSize = pageSize;
+        bitmap = null;
+    }
+
+    PoolSubpage(PoolSubpage<T> head, PoolChunk<T> chunk, int memoryMapIdx, int runOffset, int pageSize, int elemSize) {
+        this.chunk = chunk;
+        this.memoryMapIdx = memoryMapIdx;
+        this.runOffset = runOffset;
+        this.pageSize = pageSize;
+        bitmap = new long[pageSize >>> 10];
+        init(head, elemSize);
+    }
+
+    void init(PoolSubpage<T> head, int elemSize) {
+        doNotDestroy = true;
+        this.elemSize = elemSize;
+        if (elemSize != 0) {
+            maxNumElems = numAvail = pageSize / elemSize;
+            nextAvail = 0;
+            bitmapLength = maxNumElems >>> 6;
+            if ((maxNumElems & 63) != 0) {
+                bitmapLength ++;
+            }
+            for (int i = 0; i < bitmapLength; i ++) {
+                bitmap[i] = 0;
+            }
+        }
+        addToPool(head);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:分配一份内存，返回的handle高32位是位图中的下标，低32位是二叉树中的节点下标
+     */
+    long allocate() {
+        if (elemSize == 0) {
+            return toHandle(0);
+        }
+        if (numAvail == 0 || !doNotDestroy) {
+            return -1;
+        }
+        final int bitmapIdx = getNextAvail();
+        int q = bitmapIdx >>> 6;
+        int r = bitmapIdx & 63;
+        bitmap[q] |= 1L << r;
+        //分配完了就从链表中移除，下一次分配就不会再找到这个子页了
+        if (-- numAvail == 0) {
+            removeFromPool();
+        }
+        return toHandle(bitmapIdx);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:释放一份内存，返回false说明这个子页已经完全空闲并且从链表中移除了，它占用的页要还给内存块
+     */
+    boolean free(PoolSubpage<T> head, int bitmapIdx) {
+        if (elemSize == 0) {
+            return true;
+        }
+        int q = bitmapIdx >>> 6;
+        int r = bitmapIdx & 63;
+        bitmap[q] ^= 1L << r;
+        setNextAvail(bitmapIdx);
+        if (numAvail ++ == 0) {
+            //之前分配完了被移出了链表，现在又有空闲的内存了，重新加入链表
+            addToPool(head);
+            return true;
+        }
+        if (numAvail != maxNumElems) {
+            return true;
+        } else {
+            //链表中只剩下这一个子页了，就保留它，免得下次分配的时候又要重新创建
+            if (prev == next) {
+                return true;
+            }
+            doNotDestroy = false;
+            removeFromPool();
+            return false;
+        }
+    }
+
+    private void addToPool(PoolSubpage<T> head) {
+        prev = head;
+        next = head.next;
+        next.prev = this;
+        head.next = this;
+    }
+
+    private void removeFromPool() {
+        prev.next = next;
+        next.prev = prev;
+        next = null;
+        prev = null;
+    }
+
+    private void setNextAvail(int bitmapIdx) {
+        nextAvail = bitmapIdx;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:刚释放的那一份内存会被优先分配出去，没有的话再遍历位图查找
+     */
+    private int getNextAvail() {
+        int nextAvail = this.nextAvail;
+        if (nextAvail >= 0) {
+            this.nextAvail = -1;
+            return nextAvail;
+        }
+        return findNextAvail();
+    }
+
+    private int findNextAvail() {
+        final long[] bitmap = this.bitmap;
+        final int bitmapLength = this.bitmapLength;
+        for (int i = 0; i < bitmapLength; i ++) {
+            long bits = bitmap[i];
+            if (~bits != 0) {
+                return findNextAvail0(i, bits);
+            }
+        }
+        return -1;
+    }
+
+    private int findNextAvail0(int i, long bits) {
+        final int maxNumElems = this.maxNumElems;
+        final int baseVal = i << 6;
+        for (int j = 0; j < 64; j ++) {
+            if ((bits & 1) == 0) {
+                int val = baseVal | j;
+                if (val < maxNumElems) {
+                    return val;
+                } else {
+                    break;
+                }
+            }
+            bits >>>= 1;
+        }
+        return -1;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:第62位置为1，用来区分位图下标为0的子页内存和整页分配的内存
+     */
+    private long toHandle(int bitmapIdx) {
+        return 0x4000000000000000L | (long) bitmapIdx << 32 | memoryMapIdx;
+    }
+
+    @Override
+    public String toString() {
+        if (chunk == null) {
+            return "(" + memoryMapIdx + ": not in use)";
+        }
+        return "(" + memoryMapIdx + ": " + (maxNumElems - numAvail) + '/' + maxNumElems +
+                ", offset: " + runOffset + ", length: " + pageSize + ", elemSize: " + elemSize + ')';
+    }
+}
@@ -0,0 +1,339 @@
+package com.pp.netty.buffer;
+
+import com.pp.netty.buffer.PoolArena.SizeClass;
+import com.pp.netty.util.internal.PlatformDependent;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+
+/**
+ * @Author: PP-jessica
+ * @Description:线程缓存，每个线程都绑定了一个堆内存arena和一个直接内存arena。ByteBuf释放的时候，
+ * 内存先放进分配它的那个线程的缓存里，这个线程下次再申请同样规格的内存，直接从缓存中取出来，不需要加锁。
+ * 缓存的队列是多生产者单消费者的，因为ByteBuf可能在别的线程中被释放，但只有所属的线程会从缓存中分配内存
+ */
+final class PoolThreadCache {
+
+    final PoolArena<byte[]> heapArena;
+    final PoolArena<ByteBuffer> directArena;
+
+    private final MemoryRegionCache<byte[]>[] tinySubPageHeapCaches;
+    private final MemoryRegionCache<byte[]>[] smallSubPageHeapCaches;
+    private final MemoryRegionCache<byte[]>[] normalHeapCaches;
+    private final MemoryRegionCache<ByteBuffer>[] tinySubPageDirectCaches;
+    private final MemoryRegionCache<ByteBuffer>[] smallSubPageDirectCaches;
+    private final MemoryRegionCache<ByteBuffer>[] normalDirectCaches;
+
+    private final int numShiftsNormalDirect;
+    private final int numShiftsNormalHeap;
+    //分配了这么多次之后，就把缓存中长时间没有用到的内存还给arena，免得缓存一直占着内存
+    private final int freeSweepAllocationThreshold;
+
+    private int allocations;
+
+    private volatile boolean freed;
+
+    PoolThreadCache(PoolArena<byte[]> heapArena, PoolArena<ByteBuffer> directArena,
+                    int tinyCacheSize, int smallCacheSize, int normalCacheSize,
+                    int maxCachedBufferCapacity, int freeSweepAllocationThreshold) {
+        if (maxCachedBufferCapacity < 0) {
+            throw new IllegalArgumentException("maxCachedBufferCapacity: "
+                    + maxCachedBufferCapacity + " (expected: >= 0)");
+        }
+        this.freeSweepAllocationThreshold = freeSweepAllocationThreshold;
+        this.heapArena = heapArena;
+        this.directArena = directArena;
+        if (directArena != null) {
+            tinySubPageDirectCaches = createSubPageCaches(
+                    tinyCacheSize, PoolArena.numTinySubpagePools, SizeClass.Tiny);
+            smallSubPageDirectCaches = createSubPageCaches(
+                    smallCacheSize, directArena.numSmallSubpagePools, SizeClass.Small);
+            numShiftsNormalDirect = log2(directArena.pageSize);
+            normalDirectCaches = createNormalCaches(normalCacheSize, maxCachedBufferCapacity, directArena);
+            directArena.numThreadCaches.getAndIncrement();
+        } else {
+            tinySubPageDirectCaches = null;
+            smallSubPageDirectCaches = null;
+            normalDirectCaches = null;
+            numShiftsNormalDirect = -1;
+        }
+        if (heapArena != null) {
+            tinySubPageHeapCaches = createSubPageCaches(
+                    tinyCacheSize, PoolArena.numTinySubpagePools, SizeClass.Tiny);
+            smallSubPageHeapCaches = createSubPageCaches(
+                    smallCacheSize, heapArena.numSmallSubpagePools, SizeClass.Small);
+            numShiftsNormalHeap = log2(heapArena.pageSize);
+            normalHeapCaches = createNormalCaches(normalCacheSize, maxCachedBufferCapacity, heapArena);
+            heapArena.numThreadCaches.getAndIncrement();
+        } else {
+            tinySubPageHeapCaches = null;
+            smallSubPageHeapCaches = null;
+            normalHeapCaches = null;
+            numShiftsNormalHeap = -1;
+        }
+        if ((tinySubPageDirectCaches != null || smallSubPageDirectCaches != null || normalDirectCaches != null
+                || tinySubPageHeapCaches != null || smallSubPageHeapCaches != null || normalHeapCaches != null)
+                && freeSweepAllocationThreshold < 1) {
+            throw new IllegalArgumentException("freeSweepAllocationThreshold: "
+                    + freeSweepAllocationThreshold + " (expected: > 0)");
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static <T> MemoryRegionCache<T>[] createSubPageCaches(int cacheSize, int numCaches,
+                                                                  SizeClass sizeClass) {
+        if (cacheSize > 0 && numCaches > 0) {
+            MemoryRegionCache<T>[] cache = new MemoryRegionCache[numCaches];
+            for (int i = 0; i < cache.length; i++) {
+                cache[i] = new MemoryRegionCache<T>(cacheSize, sizeClass);
+            }
+            return cache;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:normal规格只缓存不超过maxCachedBufferCapacity的内存，默认32KB，也就是8K、16K、32K三种
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static <T> MemoryRegionCache<T>[] createNormalCaches(int cacheSize, int maxCachedBufferCapacity,
+                                                                 PoolArena<T> area) {
+        if (cacheSize > 0 && maxCachedBufferCapacity > 0) {
+            int max = Math.min(area.chunkSize, maxCachedBufferCapacity);
+            int arraySize = Math.max(1, log2(max / area.pageSize) + 1);
+            MemoryRegionCache<T>[] cache = new MemoryRegionCache[arraySize];
+            for (int i = 0; i < cache.length; i++) {
+                cache[i] = new MemoryRegionCache<T>(cacheSize, SizeClass.Normal);
+            }
+            return cache;
+        } else {
+            return null;
+        }
+    }
+
+    private static int log2(int val) {
+        int res = 0;
+        while (val > 1) {
+            val >>= 1;
+            res++;
+        }
+        return res;
+    }
+
+    boolean allocateTiny(PoolArena<?> area, PooledByteBuf<?> buf, int reqCapacity, int normCapacity) {
+        return allocate(area, cacheForTiny(area, normCapacity), buf, reqCapacity);
+    }
+
+    boolean allocateSmall(PoolArena<?> area, PooledByteBuf<?> buf, int reqCapacity, int normCapacity) {
+        return allocate(area, cacheForSmall(area, normCapacity), buf, reqCapacity);
+    }
+
+    boolean allocateNormal(PoolArena<?> area, PooledByteBuf<?> buf, int reqCapacity, int normCapacity) {
+        return allocate(area, cacheForNormal(area, normCapacity), buf, reqCapacity);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private boolean allocate(PoolArena<?> area, MemoryRegionCache cache, PooledByteBuf buf, int reqCapacity) {
+        if (cache == null) {
+            //这个规格的内存不缓存
+            area.cacheMiss();
+            return false;
+        }
+        boolean allocated = cache.allocate(buf, reqCapacity);
+        if (allocated) {
+            area.cacheHit();
+        } else {
+            area.cacheMiss();
+        }
+        if (++ allocations >= freeSweepAllocationThreshold) {
+            allocations = 0;
+            trim();
+        }
+        return allocated;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把释放的内存放进缓存，缓存满了或者线程缓存已经被释放了就返回false，由arena来回收
+     */
+    @SuppressWarnings("unchecked")
+    <T> boolean add(PoolArena<T> area, PoolChunk<T> chunk, long handle, int normCapacity, SizeClass sizeClass) {
+        if (freed) {
+            return false;
+        }
+        MemoryRegionCache<T> cache = (MemoryRegionCache<T>) cache(area, normCapacity, sizeClass);
+        if (cache == null) {
+            return false;
+        }
+        return cache.add(chunk, handle);
+    }
+
+    private MemoryRegionCache<?> cache(PoolArena<?> area, int normCapacity, SizeClass sizeClass) {
+        switch (sizeClass) {
+        case Normal:
+            return cacheForNormal(area, normCapacity);
+        case Small:
+            return cacheForSmall(area, normCapacity);
+        case Tiny:
+            return cacheForTiny(area, normCapacity);
+        default:
+            throw new Error();
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:线程所属的执行器终止的时候调用，把缓存中的内存全部还给arena
+     */
+    void free() {
+        if (freed) {
+            return;
+        }
+        freed = true;
+        free(tinySubPageDirectCaches);
+        free(smallSubPageDirectCaches);
+        free(normalDirectCaches);
+        free(tinySubPageHeapCaches);
+        free(smallSubPageHeapCaches);
+        free(normalHeapCaches);
+        if (directArena != null) {
+            directArena.numThreadCaches.getAndDecrement();
+        }
+        if (heapArena != null) {
+            heapArena.numThreadCaches.getAndDecrement();
+        }
+    }
+
+    private static void free(MemoryRegionCache<?>[] caches) {
+        if (caches == null) {
+            return;
+        }
+        for (MemoryRegionCache<?> c: caches) {
+            c.free(Integer.MAX_VALUE);
+        }
+    }
+
+    void trim() {
+        trim(tinySubPageDirectCaches);
+        trim(smallSubPageDirectCaches);
+        trim(normalDirectCaches);
+        trim(tinySubPageHeapCaches);
+        trim(smallSubPageHeapCaches);
+        trim(normalHeapCaches);
+    }
+
+    private static void trim(MemoryRegionCache<?>[] caches) {
+        if (caches == null) {
+            return;
+        }
+        for (MemoryRegionCache<?> c: caches) {
+            c.trim();
+        }
+    }
+
+    private MemoryRegionCache<?> cacheForTiny(PoolArena<?> area, int normCapacity) {
+        int idx = PoolArena.tinyIdx(normCapacity);
+        if (area.isDirect()) {
+            return cache(tinySubPageDirectCaches, idx);
+        }
+        return cache(tinySubPageHeapCaches, idx);
+    }
+
+    private MemoryRegionCache<?> cacheForSmall(PoolArena<?> area, int normCapacity) {
+        int idx = PoolArena.smallIdx(normCapacity);
+        if (area.isDirect()) {
+            return cache(smallSubPageDirectCaches, idx);
+        }
+        return cache(smallSubPageHeapCaches, idx);
+    }
+
+    private MemoryRegionCache<?> cacheForNormal(PoolArena<?> area, int normCapacity) {
+        if (area.isDirect()) {
+            int idx = log2(normCapacity >> numShiftsNormalDirect);
+            return cache(normalDirectCaches, idx);
+        }
+        int idx = log2(normCapacity >> numShiftsNormalHeap);
+        return cache(normalHeapCaches, idx);
+    }
+
+    private static <T> MemoryRegionCache<T> cache(MemoryRegionCache<T>[] cache, int idx) {
+        if (cache == null || idx > cache.length - 1) {
+            return null;
+        }
+        return cache[idx];
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:缓存某一种规格内存的队列，队列中的每个元素记录了内存所在的内存块和handle
+     */
+    private static final class MemoryRegionCache<T> {
+        private final int size;
+        private final SizeClass sizeClass;
+        private final Queue<Entry<T>> queue;
+        //上一次整理之后从这个缓存中分配了多少次
+        private int allocations;
+
+        MemoryRegionCache(int size, SizeClass sizeClass) {
+            this.size = size;
+            this.sizeClass = sizeClass;
+            queue = PlatformDependent.newFixedMpscQueue(size);
+        }
+
+        boolean add(PoolChunk<T> chunk, long handle) {
+            return queue.offer(new Entry<T>(chunk, handle));
+        }
+
+        boolean allocate(PooledByteBuf<T> buf, int reqCapacity) {
+            Entry<T> entry = queue.poll();
+            if (entry == null) {
+                return false;
+            }
+            entry.chunk.initBuf(buf, entry.handle, reqCapacity);
+            ++ allocations;
+            return true;
+        }
+
+        int free(int max) {
+            int numFreed = 0;
+            for (; numFreed < max; numFreed++) {
+                Entry<T> entry = queue.poll();
+                if (entry != null) {
+                    freeEntry(entry);
+                } else {
+                    return numFreed;
+                }
+            }
+            return numFreed;
+        }
+
+        /**
+         * @Author: PP-jessica
+         * @Description:这段时间里没有被分配出去的那部分缓存，说明用不上，就还给arena
+         */
+        void trim() {
+            int free = size - allocations;
+            allocations = 0;
+            if (free > 0) {
+                free(free);
+            }
+        }
+
+        private void freeEntry(Entry<T> entry) {
+            PoolChunk<T> chunk = entry.chunk;
+            chunk.arena.freeChunk(chunk, entry.handle, sizeClass);
+        }
+    }
+
+    private static final class Entry<T> {
+        final PoolChunk<T> chunk;
+        final long handle;
+
+        Entry(PoolChunk<T> chunk, long handle) {
+            this.chunk = chunk;
+            this.handle = handle;
+        }
+    }
+}
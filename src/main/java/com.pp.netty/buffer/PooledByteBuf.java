@@ -0,0 +1,121 @@
+package com.pp.netty.buffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * @Author: PP-jessica
+ * @Description:池化的ByteBuf，它的内存是从内存块中划分出来的一段，offset是这段内存在内存块中的起始位置，
+ * length是ByteBuf的容量，maxLength是这段内存实际的大小。扩容的时候只要不超过maxLength，就不需要重新分配内存
+ */
+abstract class PooledByteBuf<T> extends AbstractReferenceCountedByteBuf {
+
+    protected PoolChunk<T> chunk;
+    protected long handle;
+    protected T memory;
+    protected int offset;
+    protected int length;
+    int maxLength;
+    //分配这块内存的线程的缓存，释放的时候优先还给这个缓存
+    PoolThreadCache cache;
+    ByteBuffer tmpNioBuf;
+
+    protected PooledByteBuf(int maxCapacity) {
+        super(maxCapacity);
+    }
+
+    void init(PoolChunk<T> chunk, long handle, int offset, int length, int maxLength, PoolThreadCache cache) {
+        init0(chunk, handle, offset, length, maxLength, cache);
+    }
+
+    void initUnpooled(PoolChunk<T> chunk, int length) {
+        init0(chunk, 0, chunk.offset, length, length, null);
+    }
+
+    private void init0(PoolChunk<T> chunk, long handle, int offset, int length, int maxLength,
+                       PoolThreadCache cache) {
+        assert handle >= 0;
+        assert chunk != null;
+        this.chunk = chunk;
+        memory = chunk.memory;
+        this.handle = handle;
+        this.offset = offset;
+        this.length = length;
+        this.maxLength = maxLength;
+        this.cache = cache;
+        tmpNioBuf = null;
+    }
+
+    @Override
+    public final int capacity() {
+        return length;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:调整容量，在maxLength的范围内直接修改length就行了，缩容到不足一半的时候才重新分配一块更小的内存
+     */
+    @Override
+    public final ByteBuf capacity(int newCapacity) {
+        if (newCapacity == length) {
+            ensureAccessible();
+            return this;
+        }
+        checkNewCapacity(newCapacity);
+        if (!chunk.unpooled) {
+            if (newCapacity > length) {
+                if (newCapacity <= maxLength) {
+                    length = newCapacity;
+                    return this;
+                }
+            } else if (newCapacity > maxLength >>> 1 &&
+                    (maxLength > 512 || newCapacity > maxLength - 16)) {
+                length = newCapacity;
+                trimIndicesToCapacity(newCapacity);
+                return this;
+            }
+        }
+        chunk.arena.reallocate(this, newCapacity);
+        return this;
+    }
+
+    @Override
+    public final ByteBufAllocator alloc() {
+        return chunk.arena.parent;
+    }
+
+    @Override
+    public final ByteBuf unwrap() {
+        return null;
+    }
+
+    protected final ByteBuffer internalNioBuffer() {
+        ByteBuffer tmpNioBuf = this.tmpNioBuf;
+        if (tmpNioBuf == null) {
+            this.tmpNioBuf = tmpNioBuf = newInternalNioBuffer(memory);
+        }
+        return tmpNioBuf;
+    }
+
+    protected abstract ByteBuffer newInternalNioBuffer(T memory);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:引用计数减到0的时候，把内存还给arena，arena会优先把它放进线程缓存里
+     */
+    @Override
+    protected final void deallocate() {
+        if (handle >= 0) {
+            final long handle = this.handle;
+            this.handle = -1;
+            memory = null;
+            tmpNioBuf = null;
+            chunk.arena.free(chunk, handle, maxLength, cache);
+            chunk = null;
+            cache = null;
+        }
+    }
+
+    protected final int idx(int index) {
+        return offset + index;
+    }
+}
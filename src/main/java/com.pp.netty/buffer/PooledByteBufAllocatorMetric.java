@@ -0,0 +1,78 @@
+package com.pp.netty.buffer;
+
+import com.pp.netty.util.internal.StringUtil;
+
+import java.util.List;
+
+/**
+ * @Author: PP-jessica
+ * @Description:池化分配器的统计数据，每个arena的内存块使用情况、线程缓存命中率都可以从这里得到
+ */
+public final class PooledByteBufAllocatorMetric {
+
+    private final PooledByteBufAllocator allocator;
+
+    PooledByteBufAllocatorMetric(PooledByteBufAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    public int numHeapArenas() {
+        return allocator.heapArenas().size();
+    }
+
+    public int numDirectArenas() {
+        return allocator.directArenas().size();
+    }
+
+    public List<PoolArenaMetric> heapArenas() {
+        return allocator.heapArenas();
+    }
+
+    public List<PoolArenaMetric> directArenas() {
+        return allocator.directArenas();
+    }
+
+    public int numThreadLocalCaches() {
+        return allocator.numThreadLocalCaches();
+    }
+
+    public int tinyCacheSize() {
+        return allocator.tinyCacheSize();
+    }
+
+    public int smallCacheSize() {
+        return allocator.smallCacheSize();
+    }
+
+    public int normalCacheSize() {
+        return allocator.normalCacheSize();
+    }
+
+    public int chunkSize() {
+        return allocator.chunkSize();
+    }
+
+    public long usedHeapMemory() {
+        return allocator.usedHeapMemory();
+    }
+
+    public long usedDirectMemory() {
+        return allocator.usedDirectMemory();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append(StringUtil.simpleClassName(this))
+                .append("(usedHeapMemory: ").append(usedHeapMemory())
+                .append("; usedDirectMemory: ").append(usedDirectMemory())
+                .append("; numHeapArenas: ").append(numHeapArenas())
+                .append("; numDirectArenas: ").append(numDirectArenas())
+                .append("; tinyCacheSize: ").append(tinyCacheSize())
+                .append("; smallCacheSize: ").append(smallCacheSize())
+                .append("; normalCacheSize: ").append(normalCacheSize())
+                .append("; numThreadLocalCaches: ").append(numThreadLocalCaches())
+                .append("; chunkSize: ").append(chunkSize()).append(')');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,152 @@
+package com.pp.netty.buffer;
+
+import com.pp.netty.util.internal.ObjectUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * @Author: PP-jessica
+ * @Description:创建非池化ByteBuf的工具类，wrappedBuffer直接包装已有的内存，不会拷贝，copiedBuffer会拷贝一份数据
+ */
+public final class Unpooled {
+
+    private static final ByteBufAllocator ALLOC = UnpooledByteBufAllocator.DEFAULT;
+
+    public static final ByteBuf EMPTY_BUFFER = ALLOC.buffer(0, 0);
+
+    public static ByteBuf buffer() {
+        return ALLOC.heapBuffer();
+    }
+
+    public static ByteBuf buffer(int initialCapacity) {
+        return ALLOC.heapBuffer(initialCapacity);
+    }
+
+    public static ByteBuf buffer(int initialCapacity, int maxCapacity) {
+        return ALLOC.heapBuffer(initialCapacity, maxCapacity);
+    }
+
+    public static ByteBuf directBuffer() {
+        return ALLOC.directBuffer();
+    }
+
+    public static ByteBuf directBuffer(int initialCapacity) {
+        return ALLOC.directBuffer(initialCapacity);
+    }
+
+    public static ByteBuf directBuffer(int initialCapacity, int maxCapacity) {
+        return ALLOC.directBuffer(initialCapacity, maxCapacity);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:包装一个字节数组，返回的ByteBuf和数组共享内存，修改数组会影响ByteBuf
+     */
+    public static ByteBuf wrappedBuffer(byte[] array) {
+        if (array.length == 0) {
+            return EMPTY_BUFFER;
+        }
+        return new UnpooledHeapByteBuf(ALLOC, array, array.length);
+    }
+
+    public static ByteBuf wrappedBuffer(byte[] array, int offset, int length) {
+        if (length == 0) {
+            return EMPTY_BUFFER;
+        }
+        return wrappedBuffer(array).slice(offset, length);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:包装一个jdk的ByteBuffer，可读的范围就是ByteBuffer剩余的部分
+     */
+    public static ByteBuf wrappedBuffer(ByteBuffer buffer) {
+        if (!buffer.hasRemaining()) {
+            return EMPTY_BUFFER;
+        }
+        if (buffer.hasArray()) {
+            return wrappedBuffer(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        return new UnpooledDirectByteBuf(ALLOC, buffer, buffer.remaining());
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把多个ByteBuf组合成一个CompositeByteBuf，不会拷贝数据，传进来的ByteBuf的所有权也一起转移了
+     */
+    public static ByteBuf wrappedBuffer(ByteBuf... buffers) {
+        return wrappedBuffer(buffers.length, buffers);
+    }
+
+    public static ByteBuf wrappedBuffer(int maxNumComponents, ByteBuf... buffers) {
+        switch (buffers.length) {
+        case 0:
+            break;
+        case 1:
+            ByteBuf buffer = buffers[0];
+            if (buffer.isReadable()) {
+                return buffer;
+            } else {
+                buffer.release();
+            }
+            break;
+        default:
+            for (int i = 0; i < buffers.length; i++) {
+                ByteBuf buf = buffers[i];
+                if (buf.isReadable()) {
+                    return new CompositeByteBuf(ALLOC, false, maxNumComponents, buffers, i);
+                }
+                buf.release();
+            }
+            break;
+        }
+        return EMPTY_BUFFER;
+    }
+
+    public static CompositeByteBuf compositeBuffer() {
+        return compositeBuffer(AbstractByteBufAllocator.DEFAULT_MAX_COMPONENTS);
+    }
+
+    public static CompositeByteBuf compositeBuffer(int maxNumComponents) {
+        return new CompositeByteBuf(ALLOC, false, maxNumComponents);
+    }
+
+    public static ByteBuf copiedBuffer(byte[] array) {
+        if (array.length == 0) {
+            return EMPTY_BUFFER;
+        }
+        return wrappedBuffer(array.clone());
+    }
+
+    public static ByteBuf copiedBuffer(byte[] array, int offset, int length) {
+        if (length == 0) {
+            return EMPTY_BUFFER;
+        }
+        byte[] copy = new byte[length];
+        System.arraycopy(array, offset, copy, 0, length);
+        return wrappedBuffer(copy);
+    }
+
+    public static ByteBuf copiedBuffer(ByteBuf buffer) {
+        int readable = buffer.readableBytes();
+        if (readable > 0) {
+            ByteBuf copy = buffer(readable);
+            copy.writeBytes(buffer, buffer.readerIndex(), readable);
+            return copy;
+        } else {
+            return EMPTY_BUFFER;
+        }
+    }
+
+    public static ByteBuf copiedBuffer(CharSequence string, Charset charset) {
+        ObjectUtil.checkNotNull(string, "string");
+        if (string.length() == 0) {
+            return EMPTY_BUFFER;
+        }
+        return wrappedBuffer(string.toString().getBytes(charset));
+    }
+
+    private Unpooled() {
+    }
+}
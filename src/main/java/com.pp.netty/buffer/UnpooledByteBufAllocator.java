@@ -0,0 +1,32 @@
+package com.pp.netty.buffer;
+
+import com.pp.netty.util.internal.PlatformDependent;
+
+/**
+ * @Author: PP-jessica
+ * @Description:非池化的分配器，每次都创建新的ByteBuf，引用计数减到0的时候内存就直接释放了
+ */
+public final class UnpooledByteBufAllocator extends AbstractByteBufAllocator {
+
+    public static final UnpooledByteBufAllocator DEFAULT =
+            new UnpooledByteBufAllocator(PlatformDependent.hasUnsafe());
+
+    public UnpooledByteBufAllocator(boolean preferDirect) {
+        super(preferDirect);
+    }
+
+    @Override
+    protected ByteBuf newHeapBuffer(int initialCapacity, int maxCapacity) {
+        return new UnpooledHeapByteBuf(this, initialCapacity, maxCapacity);
+    }
+
+    @Override
+    protected ByteBuf newDirectBuffer(int initialCapacity, int maxCapacity) {
+        return new UnpooledDirectByteBuf(this, initialCapacity, maxCapacity);
+    }
+
+    @Override
+    public boolean isDirectBufferPooled() {
+        return false;
+    }
+}
@@ -1,15 +1,26 @@
 package com.pp.netty.channel;
 
 
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.util.DefaultAttributeMap;
+import com.pp.netty.util.ReferenceCountUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
 import java.net.SocketAddress;
 import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NotYetConnectedException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * @Author: PP-jessica
  * @Description:channel接口的抽象实现类，这里面有许多重要方法没有实现，有很多方法没有引进，接下来的几节课会依次引入
  * 该类中的bind，close等等方法，都是定义好的模版方法，在子类中有真正的被调用的实现方法，以doxxxx开头。
  */
-public abstract class AbstractChannel implements Channel{
+public abstract class AbstractChannel extends DefaultAttributeMap implements Channel{
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractChannel.class);
 
     /**
      * @Author: PP-jessica
@@ -24,6 +35,12 @@ public abstract class AbstractChannel implements Channel{
     private final Unsafe unsafe;
 
     private final ChannelId id;
+
+    /**
+     * @Author: PP-jessica
+     * @Description:每个channel都有自己的pipeline，channel的出站方法都是交给pipeline执行的
+     */
+    private final DefaultChannelPipeline pipeline;
     /**
      * @Author: PP-jessica
      * @Description:看名字也可以猜出，这个future是在channel关闭的时候使用的，是一个静态内部类
@@ -52,6 +69,7 @@ public abstract class AbstractChannel implements Channel{
         this.parent = parent;
         unsafe = newUnsafe();
         id = newId();
+        pipeline = newChannelPipeline();
     }
 
 
@@ -59,6 +77,7 @@ public abstract class AbstractChannel implements Channel{
         this.parent = parent;
         this.id = id;
         unsafe = newUnsafe();
+        pipeline = newChannelPipeline();
     }
 
     @Override
@@ -70,6 +89,19 @@ public abstract class AbstractChannel implements Channel{
         return DefaultChannelId.newInstance();
     }
 
+    /**
+     * @Author: PP-jessica
+     * @Description:创建channel的pipeline，头节点要用到unsafe，所以该方法要在unsafe创建之后调用
+     */
+    protected DefaultChannelPipeline newChannelPipeline() {
+        return new DefaultChannelPipeline(this);
+    }
+
+    @Override
+    public ChannelPipeline pipeline() {
+        return pipeline;
+    }
+
     @Override
     public EventLoop eventLoop() {
         EventLoop eventLoop = this.eventLoop;
@@ -87,10 +119,6 @@ public abstract class AbstractChannel implements Channel{
     //在源码中config类并不在这里实现，而是放在了niosocketchannel和nioserversocketchannel
     //中分别实现，这么做是因为客户端和服务端的配置并相同，所以要分别作处理，这也是定义公共接口
     //子类各自实现的一种体现
-    //@Override
-    //public ChannelConfig config() {
-    //    return null;
-    //}
 
 
     /**
@@ -138,112 +166,151 @@ public abstract class AbstractChannel implements Channel{
 
     protected abstract boolean isCompatible(EventLoop loop);
 
+    @Override
+    public boolean isWritable() {
+        ChannelOutboundBuffer buf = unsafe.outboundBuffer();
+        return buf != null && buf.isWritable();
+    }
+
+    @Override
+    public long bytesBeforeUnwritable() {
+        ChannelOutboundBuffer buf = unsafe.outboundBuffer();
+        //channel已经关闭了，返回0，表示不能再写了
+        return buf != null ? buf.bytesBeforeUnwritable() : 0;
+    }
+
+    @Override
+    public long bytesBeforeWritable() {
+        ChannelOutboundBuffer buf = unsafe.outboundBuffer();
+        //channel已经关闭了，返回Long.MAX_VALUE，表示永远不会再变成可写了
+        return buf != null ? buf.bytesBeforeWritable() : Long.MAX_VALUE;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:channel的出站方法都交给pipeline，从尾节点开始经过每一个出站处理器，最后由头节点调用unsafe执行
+     */
     @Override
     public ChannelFuture bind(SocketAddress localAddress) {
-        return null;
+        return pipeline.bind(localAddress);
     }
 
     @Override
     public ChannelFuture connect(SocketAddress remoteAddress) {
-        return null;
+        return pipeline.connect(remoteAddress);
     }
 
     @Override
     public ChannelFuture connect(SocketAddress remoteAddress, SocketAddress localAddress) {
-        return null;
+        return pipeline.connect(remoteAddress, localAddress);
     }
 
     @Override
     public ChannelFuture disconnect() {
-        return null;
+        return pipeline.disconnect();
     }
 
     @Override
     public ChannelFuture close() {
-        return null;
+        return pipeline.close();
     }
 
     @Override
     public ChannelFuture deregister() {
-        return null;
+        return pipeline.deregister();
     }
 
     @Override
     public Channel flush() {
-        return null;
+        pipeline.flush();
+        return this;
     }
 
     @Override
     public ChannelFuture bind(SocketAddress localAddress, ChannelPromise promise) {
-        unsafe.bind(localAddress,promise);
-        return promise;
+        return pipeline.bind(localAddress, promise);
     }
 
     @Override
     public ChannelFuture connect(SocketAddress remoteAddress, ChannelPromise promise) {
-        return null;
+        return pipeline.connect(remoteAddress, promise);
     }
 
     @Override
     public ChannelFuture connect(SocketAddress remoteAddress, SocketAddress localAddress, ChannelPromise promise) {
-        unsafe.connect(remoteAddress,localAddress,promise);
-        return promise;
+        return pipeline.connect(remoteAddress, localAddress, promise);
     }
 
     @Override
     public ChannelFuture disconnect(ChannelPromise promise) {
-        return null;
+        return pipeline.disconnect(promise);
     }
 
     @Override
     public ChannelFuture close(ChannelPromise promise) {
-        return null;
+        return pipeline.close(promise);
     }
 
     @Override
     public ChannelFuture deregister(ChannelPromise promise) {
-        return null;
+        return pipeline.deregister(promise);
     }
 
     @Override
     public Channel read() {
-        unsafe.beginRead();
+        pipeline.read();
         return this;
     }
 
     @Override
     public ChannelFuture write(Object msg) {
-        return null;
+        return pipeline.write(msg);
     }
 
     @Override
     public ChannelFuture write(Object msg, ChannelPromise promise) {
-        return null;
+        return pipeline.write(msg, promise);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:估算消息在写缓冲区中占用的字节数，ByteBuf就是可读的字节数，其他类型的消息暂时都算作0
+     */
+    static int estimateSize(Object msg) {
+        if (msg instanceof ByteBuf) {
+            return ((ByteBuf) msg).readableBytes();
+        }
+        return 0;
     }
 
     @Override
     public ChannelFuture writeAndFlush(Object msg) {
-        return null;
+        return pipeline.writeAndFlush(msg);
     }
 
     @Override
     public ChannelFuture writeAndFlush(Object msg, ChannelPromise promise) {
-        return null;
+        return pipeline.writeAndFlush(msg, promise);
     }
 
     @Override
     public ChannelPromise newPromise() {
-        return null;
+        return pipeline.newPromise();
+    }
+
+    @Override
+    public ChannelProgressivePromise newProgressivePromise() {
+        return pipeline.newProgressivePromise();
     }
 
     @Override
     public ChannelFuture newSucceededFuture() {
-        return null;
+        return pipeline.newSucceededFuture();
     }
 
     @Override
     public ChannelFuture newFailedFuture(Throwable cause) {
-        return null;
+        return pipeline.newFailedFuture(cause);
     }
 
     @Override
@@ -273,6 +340,31 @@ public abstract class AbstractChannel implements Channel{
      */
     protected abstract class AbstractUnsafe implements Unsafe {
 
+        //channel的写缓冲区，write的消息先放在这里，flush的时候才真正写到socket中，channel关闭的时候会被置为null
+        private volatile ChannelOutboundBuffer outboundBuffer = new ChannelOutboundBuffer(AbstractChannel.this);
+
+        //读数据时使用的缓冲区分配器的handle，每个channel一个，懒加载
+        private RecvByteBufAllocator.Handle recvHandle;
+
+        //是否正在刷新写缓冲区，防止promise的回调方法里又调用flush，重复进入flush0方法
+        private boolean inFlush0;
+
+        //channel是否从来没有注册过，第一次注册成功之后才会触发channelActive事件，之后再注册的时候直接注册读事件就行了
+        private boolean neverRegistered = true;
+
+        @Override
+        public final ChannelOutboundBuffer outboundBuffer() {
+            return outboundBuffer;
+        }
+
+        @Override
+        public RecvByteBufAllocator.Handle recvBufAllocHandle() {
+            if (recvHandle == null) {
+                recvHandle = config().getRecvByteBufAllocator().newHandle();
+            }
+            return recvHandle;
+        }
+
         private void assertEventLoop() {
             assert !registered || eventLoop.inEventLoop(Thread.currentThread());
         }
@@ -322,9 +414,10 @@ public abstract class AbstractChannel implements Channel{
                         }
                     });
                 } catch (Throwable t) {
-                    System.out.println(t.getMessage());
-                    //该方法先不做实现，等引入unsafe之后会实现
-                    //closeForcibly();
+                    logger.warn("Force-closing a channel whose registration task was not accepted by an event loop: {}",
+                            AbstractChannel.this, t);
+                    //单线程执行器已经关闭了，任务提交失败，直接关闭channel
+                    closeForcibly();
                     closeFuture.setClosed();
                     safeSetFailure(promise, t);
                 }
@@ -336,28 +429,62 @@ public abstract class AbstractChannel implements Channel{
                 if (!promise.setUncancellable() || !ensureOpen(promise)) {
                     return;
                 }
+                boolean firstRegistration = neverRegistered;
                 //真正的注册方法
                 doRegister();
+                neverRegistered = false;
                 //修改注册状态
                 registered = true;
+                //注册之前用户添加到pipeline中的handler，在这里回调它们的handlerAdded方法，
+                //ChannelInitializer就是在这时候把用户真正的handler添加到pipeline中的
+                pipeline.invokeHandlerAddedIfNeeded();
                 //把成功状态赋值给promise，这样它可以通知回调函数执行
                 //我们在之前注册时候，把bind也放在了回调函数中
                 safeSetSuccess(promise);
-                //在这里给channel注册读事件
-                beginRead();
-            } catch (Exception e) {
-                throw new RuntimeException(e.getMessage());
+                pipeline.fireChannelRegistered();
+                //服务端接收的客户端channel注册的时候就已经是激活状态了，服务端channel要等到绑定端口成功之后才会激活
+                if (isActive()) {
+                    if (firstRegistration) {
+                        //头节点处理channelActive事件的时候会注册读事件
+                        pipeline.fireChannelActive();
+                    } else {
+                        beginRead();
+                    }
+                }
+            } catch (Throwable t) {
+                closeForcibly();
+                closeFuture.setClosed();
+                safeSetFailure(promise, t);
             }
         }
 
+        /**
+         * @Author: PP-jessica
+         * @Description:绑定端口，服务端channel绑定成功之后就激活了，这时候触发channelActive事件，由头节点注册接收连接的事件
+         */
         @Override
         public final void bind(final SocketAddress localAddress, final ChannelPromise promise) {
+            assertEventLoop();
+            if (!promise.setUncancellable() || !ensureOpen(promise)) {
+                return;
+            }
+            boolean wasActive = isActive();
             try {
                 doBind(localAddress);
-                safeSetSuccess(promise);
-            } catch (Exception e) {
-                e.printStackTrace();
+            } catch (Throwable t) {
+                safeSetFailure(promise, t);
+                closeIfClosed();
+                return;
+            }
+            if (!wasActive && isActive()) {
+                invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        pipeline.fireChannelActive();
+                    }
+                });
             }
+            safeSetSuccess(promise);
         }
 
         /**
@@ -367,8 +494,60 @@ public abstract class AbstractChannel implements Channel{
         @Override
         public final void disconnect(final ChannelPromise promise) {}
 
+        /**
+         * @Author: PP-jessica
+         * @Description:关闭channel，关闭之后会从selector上注销，closeFuture也会被设置成功
+         */
         @Override
-        public final void close(final ChannelPromise promise) {}
+        public final void close(final ChannelPromise promise) {
+            assertEventLoop();
+            if (!promise.setUncancellable()) {
+                return;
+            }
+            //已经关闭过了，直接设置成功
+            if (closeFuture.isDone()) {
+                safeSetSuccess(promise);
+                return;
+            }
+            final boolean wasActive = isActive();
+            //先把写缓冲区置为null，之后再写的消息就直接失败了
+            final ChannelOutboundBuffer outboundBuffer = this.outboundBuffer;
+            this.outboundBuffer = null;
+            try {
+                doClose();
+                closeFuture.setClosed();
+                safeSetSuccess(promise);
+            } catch (Throwable t) {
+                closeFuture.setClosed();
+                safeSetFailure(promise, t);
+            }
+            //写缓冲区中还没有写出去的消息全部设置失败
+            if (outboundBuffer != null) {
+                ClosedChannelException cause = newClosedChannelException(initialCloseCause);
+                outboundBuffer.failFlushed(cause, false);
+                outboundBuffer.close(cause);
+            }
+            fireChannelInactiveAndDeregister(wasActive);
+        }
+
+        /**
+         * @Author: PP-jessica
+         * @Description:关闭channel的时候，如果channel之前是激活的，先触发channelInactive事件，再从单线程执行器上注销
+         */
+        private void fireChannelInactiveAndDeregister(final boolean wasActive) {
+            deregister(newPromise(), wasActive && !isActive());
+        }
+
+        /**
+         * @Author: PP-jessica
+         * @Description:底层的channel已经关闭了，走一遍关闭流程，把写缓冲区、closeFuture和pipeline都处理好
+         */
+        protected final void closeIfClosed() {
+            if (isOpen()) {
+                return;
+            }
+            close(newPromise());
+        }
 
         /**
          * @Author: PP-jessica
@@ -386,7 +565,45 @@ public abstract class AbstractChannel implements Channel{
         }
 
         @Override
-        public final void deregister(final ChannelPromise promise) {}
+        public final void deregister(final ChannelPromise promise) {
+            assertEventLoop();
+            deregister(promise, false);
+        }
+
+        /**
+         * @Author: PP-jessica
+         * @Description:注销的操作放到任务队列中稍后执行，因为当前可能正在处理这个channel的事件，
+         * 这时候直接取消selectionKey，正在传播的事件中的handler还可能会用到它
+         */
+        private void deregister(final ChannelPromise promise, final boolean fireChannelInactive) {
+            if (!promise.setUncancellable()) {
+                return;
+            }
+            if (!registered) {
+                safeSetSuccess(promise);
+                return;
+            }
+            invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        doDeregister();
+                    } catch (Throwable t) {
+                        logger.warn("Unexpected exception occurred while deregistering a channel.", t);
+                    } finally {
+                        if (fireChannelInactive) {
+                            pipeline.fireChannelInactive();
+                        }
+                        //再判断一次，防止重复触发channelUnregistered事件
+                        if (registered) {
+                            registered = false;
+                            pipeline.fireChannelUnregistered();
+                        }
+                        safeSetSuccess(promise);
+                    }
+                }
+            });
+        }
 
         @Override
         public final void beginRead() {
@@ -399,15 +616,110 @@ public abstract class AbstractChannel implements Channel{
             try {
                 doBeginRead();
             } catch (final Exception e) {
-                throw new RuntimeException(e.getMessage());
+                invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        pipeline.fireExceptionCaught(e);
+                    }
+                });
+                close(newPromise());
+            }
+        }
+
+        /**
+         * @Author: PP-jessica
+         * @Description:把任务提交给单线程执行器稍后执行。有些事件不能在当前的调用栈中直接触发，
+         * 比如在用户的handler中调用bind，绑定成功之后如果直接触发channelActive，handler的方法就会被重入
+         */
+        private void invokeLater(Runnable task) {
+            try {
+                eventLoop().execute(task);
+            } catch (RejectedExecutionException e) {
+                logger.warn("Can't invoke task later as EventLoop rejected it", e);
             }
         }
 
+        /**
+         * @Author: PP-jessica
+         * @Description:写数据的方法。消息先经过filterOutboundMessage转换成channel能直接写出的类型，再放到写缓冲区中，
+         * 这时候数据并没有写到socket里，要等到flush的时候才会真正写出去
+         */
         @Override
-        public final void write(Object msg, ChannelPromise promise) {}
+        public final void write(Object msg, ChannelPromise promise) {
+            assertEventLoop();
+            ChannelOutboundBuffer outboundBuffer = this.outboundBuffer;
+            if (outboundBuffer == null) {
+                //写缓冲区为null，说明channel已经关闭了
+                safeSetFailure(promise, newClosedChannelException(initialCloseCause));
+                ReferenceCountUtil.release(msg);
+                return;
+            }
+            int size;
+            try {
+                msg = filterOutboundMessage(msg);
+                size = estimateSize(msg);
+            } catch (Throwable t) {
+                safeSetFailure(promise, t);
+                ReferenceCountUtil.release(msg);
+                return;
+            }
+            outboundBuffer.addMessage(msg, size, promise);
+        }
 
+        /**
+         * @Author: PP-jessica
+         * @Description:把写缓冲区中的消息都标记为已刷新，然后写到socket中
+         */
         @Override
-        public final void flush() {}
+        public final void flush() {
+            assertEventLoop();
+            ChannelOutboundBuffer outboundBuffer = this.outboundBuffer;
+            if (outboundBuffer == null) {
+                return;
+            }
+            outboundBuffer.addFlush();
+            flush0();
+        }
+
+        /**
+         * @Author: PP-jessica
+         * @Description:真正把写缓冲区中已经刷新的消息写到socket的方法。channel还没有激活的时候，已经刷新的消息全部设置失败；
+         * 写的时候出现了IO异常，说明连接已经坏了，直接关闭channel
+         */
+        protected void flush0() {
+            if (inFlush0) {
+                return;
+            }
+            final ChannelOutboundBuffer outboundBuffer = this.outboundBuffer;
+            if (outboundBuffer == null || outboundBuffer.isEmpty()) {
+                return;
+            }
+            inFlush0 = true;
+            if (!isActive()) {
+                try {
+                    if (isOpen()) {
+                        outboundBuffer.failFlushed(new NotYetConnectedException(), true);
+                    } else {
+                        outboundBuffer.failFlushed(newClosedChannelException(initialCloseCause), false);
+                    }
+                } finally {
+                    inFlush0 = false;
+                }
+                return;
+            }
+            try {
+                doWrite(outboundBuffer);
+            } catch (Throwable t) {
+                if (t instanceof IOException) {
+                    initialCloseCause = t;
+                    close(newPromise());
+                } else {
+                    outboundBuffer.failFlushed(t, true);
+                }
+            } finally {
+                inFlush0 = false;
+            }
+        }
 
         /**
          * @Author: PP-jessica
@@ -423,13 +735,13 @@ public abstract class AbstractChannel implements Channel{
 
         protected final void safeSetSuccess(ChannelPromise promise) {
             if (!promise.trySuccess()) {
-                System.out.println("Failed to mark a promise as success because it is done already: "+promise);
+                logger.warn("Failed to mark a promise as success because it is done already: {}", promise);
             }
         }
 
         protected final void safeSetFailure(ChannelPromise promise, Throwable cause) {
             if (!promise.tryFailure(cause)) {
-                throw new RuntimeException(cause);
+                logger.warn("Failed to mark a promise as failure because it's done already: {}", promise, cause);
             }
         }
     }
@@ -440,12 +752,32 @@ public abstract class AbstractChannel implements Channel{
 
     protected void doRegister() throws Exception {}
 
+    /**
+     * @Author: PP-jessica
+     * @Description:从单线程执行器上注销channel，nio的channel会在这里取消selectionKey
+     */
+    protected void doDeregister() throws Exception {}
+
     protected abstract void doBind(SocketAddress localAddress) throws Exception;
 
     protected abstract void doBeginRead() throws Exception;
 
     protected abstract void doClose() throws Exception;
 
+    /**
+     * @Author: PP-jessica
+     * @Description:把写缓冲区中已经刷新的消息写到socket中，写完的消息要从写缓冲区中移除
+     */
+    protected abstract void doWrite(ChannelOutboundBuffer in) throws Exception;
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把用户写的消息转换成channel能直接写出的类型
+     */
+    protected Object filterOutboundMessage(Object msg) throws Exception {
+        return msg;
+    }
+
     private ClosedChannelException newClosedChannelException(Throwable cause) {
         ClosedChannelException exception = new ClosedChannelException();
         if (cause != null) {
@@ -0,0 +1,909 @@
+package com.pp.netty.channel;
+
+import com.pp.netty.buffer.ByteBufAllocator;
+import com.pp.netty.util.ReferenceCountUtil;
+import com.pp.netty.util.concurrent.EventExecutor;
+import com.pp.netty.util.internal.ObjectUtil;
+import com.pp.netty.util.internal.StringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.SocketAddress;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import static com.pp.netty.channel.ChannelHandlerMask.*;
+
+/**
+ * @Author: PP-jessica
+ * @Description:ChannelHandlerContext的抽象实现类，pipeline中的双向链表就是由这个类的对象组成的。
+ * 入站事件沿着next指针向后找，出站操作沿着prev指针向前找，找的时候用executionMask判断handler有没有重写对应的方法，
+ * 没有重写的handler直接跳过。所有handler的方法都由channel绑定的单线程执行器执行，不在单线程执行器中调用的，就封装成任务提交过去
+ */
+abstract class AbstractChannelHandlerContext implements ChannelHandlerContext {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractChannelHandlerContext.class);
+
+    volatile AbstractChannelHandlerContext next;
+    volatile AbstractChannelHandlerContext prev;
+
+    private static final AtomicIntegerFieldUpdater<AbstractChannelHandlerContext> HANDLER_STATE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(AbstractChannelHandlerContext.class, "handlerState");
+
+    //handler已经被添加到链表中了，但是handlerAdded方法还没有被调用，channel还没注册的时候添加的handler就是这个状态
+    private static final int ADD_PENDING = 1;
+    //handlerAdded方法已经被调用了，只有这个状态的handler才会真正处理事件
+    private static final int ADD_COMPLETE = 2;
+    //handlerRemoved方法已经被调用了
+    private static final int REMOVE_COMPLETE = 3;
+    //初始状态
+    private static final int INIT = 0;
+
+    private final DefaultChannelPipeline pipeline;
+
+    private final String name;
+
+    //handler重写了哪些事件方法，在构造方法中就计算好，事件传播的时候用来跳过不处理该事件的handler
+    final int executionMask;
+
+    private volatile int handlerState = INIT;
+
+    AbstractChannelHandlerContext(DefaultChannelPipeline pipeline, String name,
+                                  Class<? extends ChannelHandler> handlerClass) {
+        this.name = ObjectUtil.checkNotNull(name, "name");
+        this.pipeline = pipeline;
+        this.executionMask = mask(handlerClass);
+    }
+
+    @Override
+    public Channel channel() {
+        return pipeline.channel();
+    }
+
+    @Override
+    public ChannelPipeline pipeline() {
+        return pipeline;
+    }
+
+    @Override
+    public ByteBufAllocator alloc() {
+        return channel().config().getAllocator();
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:handler的方法都由channel绑定的单线程执行器来执行，这样handler中就不用考虑并发的问题了
+     */
+    @Override
+    public EventExecutor executor() {
+        return channel().eventLoop();
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public ChannelHandlerContext fireChannelRegistered() {
+        invokeChannelRegistered(findContextInbound(MASK_CHANNEL_REGISTERED));
+        return this;
+    }
+
+    static void invokeChannelRegistered(final AbstractChannelHandlerContext next) {
+        EventExecutor executor = next.executor();
+        if (executor.inEventLoop(Thread.currentThread())) {
+            next.invokeChannelRegistered();
+        } else {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    next.invokeChannelRegistered();
+                }
+            });
+        }
+    }
+
+    private void invokeChannelRegistered() {
+        if (invokeHandler()) {
+            try {
+                ((ChannelInboundHandler) handler()).channelRegistered(this);
+            } catch (Throwable t) {
+                invokeExceptionCaught(t);
+            }
+        } else {
+            fireChannelRegistered();
+        }
+    }
+
+    @Override
+    public ChannelHandlerContext fireChannelUnregistered() {
+        invokeChannelUnregistered(findContextInbound(MASK_CHANNEL_UNREGISTERED));
+        return this;
+    }
+
+    static void invokeChannelUnregistered(final AbstractChannelHandlerContext next) {
+        EventExecutor executor = next.executor();
+        if (executor.inEventLoop(Thread.currentThread())) {
+            next.invokeChannelUnregistered();
+        } else {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    next.invokeChannelUnregistered();
+                }
+            });
+        }
+    }
+
+    private void invokeChannelUnregistered() {
+        if (invokeHandler()) {
+            try {
+                ((ChannelInboundHandler) handler()).channelUnregistered(this);
+            } catch (Throwable t) {
+                invokeExceptionCaught(t);
+            }
+        } else {
+            fireChannelUnregistered();
+        }
+    }
+
+    @Override
+    public ChannelHandlerContext fireChannelActive() {
+        invokeChannelActive(findContextInbound(MASK_CHANNEL_ACTIVE));
+        return this;
+    }
+
+    static void invokeChannelActive(final AbstractChannelHandlerContext next) {
+        EventExecutor executor = next.executor();
+        if (executor.inEventLoop(Thread.currentThread())) {
+            next.invokeChannelActive();
+        } else {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    next.invokeChannelActive();
+                }
+            });
+        }
+    }
+
+    private void invokeChannelActive() {
+        if (invokeHandler()) {
+            try {
+                ((ChannelInboundHandler) handler()).channelActive(this);
+            } catch (Throwable t) {
+                invokeExceptionCaught(t);
+            }
+        } else {
+            fireChannelActive();
+        }
+    }
+
+    @Override
+    public ChannelHandlerContext fireChannelInactive() {
+        invokeChannelInactive(findContextInbound(MASK_CHANNEL_INACTIVE));
+        return this;
+    }
+
+    static void invokeChannelInactive(final AbstractChannelHandlerContext next) {
+        EventExecutor executor = next.executor();
+        if (executor.inEventLoop(Thread.currentThread())) {
+            next.invokeChannelInactive();
+        } else {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    next.invokeChannelInactive();
+                }
+            });
+        }
+    }
+
+    private void invokeChannelInactive() {
+        if (invokeHandler()) {
+            try {
+                ((ChannelInboundHandler) handler()).channelInactive(this);
+            } catch (Throwable t) {
+                invokeExceptionCaught(t);
+            }
+        } else {
+            fireChannelInactive();
+        }
+    }
+
+    @Override
+    public ChannelHandlerContext fireExceptionCaught(final Throwable cause) {
+        invokeExceptionCaught(findContextInbound(MASK_EXCEPTION_CAUGHT), cause);
+        return this;
+    }
+
+    static void invokeExceptionCaught(final AbstractChannelHandlerContext next, final Throwable cause) {
+        ObjectUtil.checkNotNull(cause, "cause");
+        EventExecutor executor = next.executor();
+        if (executor.inEventLoop(Thread.currentThread())) {
+            next.invokeExceptionCaught(cause);
+        } else {
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        next.invokeExceptionCaught(cause);
+                    }
+                });
+            } catch (Throwable t) {
+                logger.warn("Failed to submit an exceptionCaught() event.", t);
+                logger.warn("The exceptionCaught() event that was failed to submit was:", cause);
+            }
+        }
+    }
+
+    private void invokeExceptionCaught(final Throwable cause) {
+        if (invokeHandler()) {
+            try {
+                handler().exceptionCaught(this, cause);
+            } catch (Throwable error) {
+                //处理异常的方法又抛出了异常，这里就不能再传播了，否则可能会无限循环，打印一下日志即可
+                logger.warn("An exception was thrown by a user handler's exceptionCaught() method " +
+                        "while handling the following exception:", cause);
+                logger.warn("The exception thrown by exceptionCaught() was:", error);
+            }
+        } else {
+            fireExceptionCaught(cause);
+        }
+    }
+
+    @Override
+    public ChannelHandlerContext fireUserEventTriggered(final Object event) {
+        invokeUserEventTriggered(findContextInbound(MASK_USER_EVENT_TRIGGERED), event);
+        return this;
+    }
+
+    static void invokeUserEventTriggered(final AbstractChannelHandlerContext next, final Object event) {
+        ObjectUtil.checkNotNull(event, "event");
+        EventExecutor executor = next.executor();
+        if (executor.inEventLoop(Thread.currentThread())) {
+            next.invokeUserEventTriggered(event);
+        } else {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    next.invokeUserEventTriggered(event);
+                }
+            });
+        }
+    }
+
+    private void invokeUserEventTriggered(Object event) {
+        if (invokeHandler()) {
+            try {
+                ((ChannelInboundHandler) handler()).userEventTriggered(this, event);
+            } catch (Throwable t) {
+                invokeExceptionCaught(t);
+            }
+        } else {
+            fireUserEventTriggered(event);
+        }
+    }
+
+    @Override
+    public ChannelHandlerContext fireChannelRead(final Object msg) {
+        invokeChannelRead(findContextInbound(MASK_CHANNEL_READ), msg);
+        return this;
+    }
+
+    static void invokeChannelRead(final AbstractChannelHandlerContext next, final Object msg) {
+        ObjectUtil.checkNotNull(msg, "msg");
+        EventExecutor executor = next.executor();
+        if (executor.inEventLoop(Thread.currentThread())) {
+            next.invokeChannelRead(msg);
+        } else {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    next.invokeChannelRead(msg);
+                }
+            });
+        }
+    }
+
+    private void invokeChannelRead(Object msg) {
+        if (invokeHandler()) {
+            try {
+                ((ChannelInboundHandler) handler()).channelRead(this, msg);
+            } catch (Throwable t) {
+                invokeExceptionCaught(t);
+            }
+        } else {
+            fireChannelRead(msg);
+        }
+    }
+
+    @Override
+    public ChannelHandlerContext fireChannelReadComplete() {
+        invokeChannelReadComplete(findContextInbound(MASK_CHANNEL_READ_COMPLETE));
+        return this;
+    }
+
+    static void invokeChannelReadComplete(final AbstractChannelHandlerContext next) {
+        EventExecutor executor = next.executor();
+        if (executor.inEventLoop(Thread.currentThread())) {
+            next.invokeChannelReadComplete();
+        } else {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    next.invokeChannelReadComplete();
+                }
+            });
+        }
+    }
+
+    private void invokeChannelReadComplete() {
+        if (invokeHandler()) {
+            try {
+                ((ChannelInboundHandler) handler()).channelReadComplete(this);
+            } catch (Throwable t) {
+                invokeExceptionCaught(t);
+            }
+        } else {
+            fireChannelReadComplete();
+        }
+    }
+
+    @Override
+    public ChannelHandlerContext fireChannelWritabilityChanged() {
+        invokeChannelWritabilityChanged(findContextInbound(MASK_CHANNEL_WRITABILITY_CHANGED));
+        return this;
+    }
+
+    static void invokeChannelWritabilityChanged(final AbstractChannelHandlerContext next) {
+        EventExecutor executor = next.executor();
+        if (executor.inEventLoop(Thread.currentThread())) {
+            next.invokeChannelWritabilityChanged();
+        } else {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    next.invokeChannelWritabilityChanged();
+                }
+            });
+        }
+    }
+
+    private void invokeChannelWritabilityChanged() {
+        if (invokeHandler()) {
+            try {
+                ((ChannelInboundHandler) handler()).channelWritabilityChanged(this);
+            } catch (Throwable t) {
+                invokeExceptionCaught(t);
+            }
+        } else {
+            fireChannelWritabilityChanged();
+        }
+    }
+
+    @Override
+    public ChannelFuture bind(SocketAddress localAddress) {
+        return bind(localAddress, newPromise());
+    }
+
+    @Override
+    public ChannelFuture connect(SocketAddress remoteAddress) {
+        return connect(remoteAddress, newPromise());
+    }
+
+    @Override
+    public ChannelFuture connect(SocketAddress remoteAddress, SocketAddress localAddress) {
+        return connect(remoteAddress, localAddress, newPromise());
+    }
+
+    @Override
+    public ChannelFuture disconnect() {
+        return disconnect(newPromise());
+    }
+
+    @Override
+    public ChannelFuture close() {
+        return close(newPromise());
+    }
+
+    @Override
+    public ChannelFuture deregister() {
+        return deregister(newPromise());
+    }
+
+    @Override
+    public ChannelFuture bind(final SocketAddress localAddress, final ChannelPromise promise) {
+        ObjectUtil.checkNotNull(localAddress, "localAddress");
+        if (isNotValidPromise(promise)) {
+            return promise;
+        }
+        final AbstractChannelHandlerContext next = findContextOutbound(MASK_BIND);
+        EventExecutor executor = next.executor();
+        if (executor.inEventLoop(Thread.currentThread())) {
+            next.invokeBind(localAddress, promise);
+        } else {
+            safeExecute(executor, new Runnable() {
+                @Override
+                public void run() {
+                    next.invokeBind(localAddress, promise);
+                }
+            }, promise, null);
+        }
+        return promise;
+    }
+
+    private void invokeBind(SocketAddress localAddress, ChannelPromise promise) {
+        if (invokeHandler()) {
+            try {
+                ((ChannelOutboundHandler) handler()).bind(this, localAddress, promise);
+            } catch (Throwable t) {
+                notifyOutboundHandlerException(t, promise);
+            }
+        } else {
+            bind(localAddress, promise);
+        }
+    }
+
+    @Override
+    public ChannelFuture connect(SocketAddress remoteAddress, ChannelPromise promise) {
+        return connect(remoteAddress, null, promise);
+    }
+
+    @Override
+    public ChannelFuture connect(
+            final SocketAddress remoteAddress, final SocketAddress localAddress, final ChannelPromise promise) {
+        ObjectUtil.checkNotNull(remoteAddress, "remoteAddress");
+        if (isNotValidPromise(promise)) {
+            return promise;
+        }
+        final AbstractChannelHandlerContext next = findContextOutbound(MASK_CONNECT);
+        EventExecutor executor = next.executor();
+        if (executor.inEventLoop(Thread.currentThread())) {
+            next.invokeConnect(remoteAddress, localAddress, promise);
+        } else {
+            safeExecute(executor, new Runnable() {
+                @Override
+                public void run() {
+                    next.invokeConnect(remoteAddress, localAddress, promise);
+                }
+            }, promise, null);
+        }
+        return promise;
+    }
+
+    private void invokeConnect(SocketAddress remoteAddress, SocketAddress localAddress, ChannelPromise promise) {
+        if (invokeHandler()) {
+            try {
+                ((ChannelOutboundHandler) handler()).connect(this, remoteAddress, localAddress, promise);
+            } catch (Throwable t) {
+                notifyOutboundHandlerException(t, promise);
+            }
+        } else {
+            connect(remoteAddress, localAddress, promise);
+        }
+    }
+
+    @Override
+    public ChannelFuture disconnect(final ChannelPromise promise) {
+        if (isNotValidPromise(promise)) {
+            return promise;
+        }
+        final AbstractChannelHandlerContext next = findContextOutbound(MASK_DISCONNECT);
+        EventExecutor executor = next.executor();
+        if (executor.inEventLoop(Thread.currentThread())) {
+            next.invokeDisconnect(promise);
+        } else {
+            safeExecute(executor, new Runnable() {
+                @Override
+                public void run() {
+                    next.invokeDisconnect(promise);
+                }
+            }, promise, null);
+        }
+        return promise;
+    }
+
+    private void invokeDisconnect(ChannelPromise promise) {
+        if (invokeHandler()) {
+            try {
+                ((ChannelOutboundHandler) handler()).disconnect(this, promise);
+            } catch (Throwable t) {
+                notifyOutboundHandlerException(t, promise);
+            }
+        } else {
+            disconnect(promise);
+        }
+    }
+
+    @Override
+    public ChannelFuture close(final ChannelPromise promise) {
+        if (isNotValidPromise(promise)) {
+            return promise;
+        }
+        final AbstractChannelHandlerContext next = findContextOutbound(MASK_CLOSE);
+        EventExecutor executor = next.executor();
+        if (executor.inEventLoop(Thread.currentThread())) {
+            next.invokeClose(promise);
+        } else {
+            safeExecute(executor, new Runnable() {
+                @Override
+                public void run() {
+                    next.invokeClose(promise);
+                }
+            }, promise, null);
+        }
+        return promise;
+    }
+
+    private void invokeClose(ChannelPromise promise) {
+        if (invokeHandler()) {
+            try {
+                ((ChannelOutboundHandler) handler()).close(this, promise);
+            } catch (Throwable t) {
+                notifyOutboundHandlerException(t, promise);
+            }
+        } else {
+            close(promise);
+        }
+    }
+
+    @Override
+    public ChannelFuture deregister(final ChannelPromise promise) {
+        if (isNotValidPromise(promise)) {
+            return promise;
+        }
+        final AbstractChannelHandlerContext next = findContextOutbound(MASK_DEREGISTER);
+        EventExecutor executor = next.executor();
+        if (executor.inEventLoop(Thread.currentThread())) {
+            next.invokeDeregister(promise);
+        } else {
+            safeExecute(executor, new Runnable() {
+                @Override
+                public void run() {
+                    next.invokeDeregister(promise);
+                }
+            }, promise, null);
+        }
+        return promise;
+    }
+
+    private void invokeDeregister(ChannelPromise promise) {
+        if (invokeHandler()) {
+            try {
+                ((ChannelOutboundHandler) handler()).deregister(this, promise);
+            } catch (Throwable t) {
+                notifyOutboundHandlerException(t, promise);
+            }
+        } else {
+            deregister(promise);
+        }
+    }
+
+    @Override
+    public ChannelHandlerContext read() {
+        final AbstractChannelHandlerContext next = findContextOutbound(MASK_READ);
+        EventExecutor executor = next.executor();
+        if (executor.inEventLoop(Thread.currentThread())) {
+            next.invokeRead();
+        } else {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    next.invokeRead();
+                }
+            });
+        }
+        return this;
+    }
+
+    private void invokeRead() {
+        if (invokeHandler()) {
+            try {
+                ((ChannelOutboundHandler) handler()).read(this);
+            } catch (Throwable t) {
+                invokeExceptionCaught(t);
+            }
+        } else {
+            read();
+        }
+    }
+
+    @Override
+    public ChannelFuture write(Object msg) {
+        return write(msg, newPromise());
+    }
+
+    @Override
+    public ChannelFuture write(final Object msg, final ChannelPromise promise) {
+        write(msg, false, promise);
+        return promise;
+    }
+
+    private void invokeWrite(Object msg, ChannelPromise promise) {
+        if (invokeHandler()) {
+            invokeWrite0(msg, promise);
+        } else {
+            write(msg, promise);
+        }
+    }
+
+    private void invokeWrite0(Object msg, ChannelPromise promise) {
+        try {
+            ((ChannelOutboundHandler) handler()).write(this, msg, promise);
+        } catch (Throwable t) {
+            notifyOutboundHandlerException(t, promise);
+        }
+    }
+
+    @Override
+    public ChannelHandlerContext flush() {
+        final AbstractChannelHandlerContext next = findContextOutbound(MASK_FLUSH);
+        EventExecutor executor = next.executor();
+        if (executor.inEventLoop(Thread.currentThread())) {
+            next.invokeFlush();
+        } else {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    next.invokeFlush();
+                }
+            });
+        }
+        return this;
+    }
+
+    private void invokeFlush() {
+        if (invokeHandler()) {
+            invokeFlush0();
+        } else {
+            flush();
+        }
+    }
+
+    private void invokeFlush0() {
+        try {
+            ((ChannelOutboundHandler) handler()).flush(this);
+        } catch (Throwable t) {
+            invokeExceptionCaught(t);
+        }
+    }
+
+    @Override
+    public ChannelFuture writeAndFlush(Object msg, ChannelPromise promise) {
+        write(msg, true, promise);
+        return promise;
+    }
+
+    @Override
+    public ChannelFuture writeAndFlush(Object msg) {
+        return writeAndFlush(msg, newPromise());
+    }
+
+    private void invokeWriteAndFlush(Object msg, ChannelPromise promise) {
+        if (invokeHandler()) {
+            invokeWrite0(msg, promise);
+            invokeFlush0();
+        } else {
+            writeAndFlush(msg, promise);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:写数据。writeAndFlush的时候只要找到重写了write或者flush其中一个方法的handler就行，
+     * 这个handler的write和flush方法会一起被调用
+     */
+    private void write(Object msg, boolean flush, ChannelPromise promise) {
+        ObjectUtil.checkNotNull(msg, "msg");
+        if (isNotValidPromise(promise)) {
+            //promise已经被取消了，消息不会再被写出去，要在这里释放
+            ReferenceCountUtil.release(msg);
+            return;
+        }
+        final AbstractChannelHandlerContext next = findContextOutbound(flush ?
+                (MASK_WRITE | MASK_FLUSH) : MASK_WRITE);
+        EventExecutor executor = next.executor();
+        if (executor.inEventLoop(Thread.currentThread())) {
+            if (flush) {
+                next.invokeWriteAndFlush(msg, promise);
+            } else {
+                next.invokeWrite(msg, promise);
+            }
+        } else {
+            final WriteTask task = new WriteTask(next, msg, promise, flush);
+            if (!safeExecute(executor, task, promise, msg)) {
+                //任务被拒绝了，不会再执行，创建任务时累加的字节数要在这里减掉，否则channel会一直不可写
+                task.cancel();
+            }
+        }
+    }
+
+    @Override
+    public ChannelPromise newPromise() {
+        return new DefaultChannelPromise(channel(), executor());
+    }
+
+    @Override
+    public ChannelProgressivePromise newProgressivePromise() {
+        return new DefaultChannelProgressivePromise(channel(), executor());
+    }
+
+    @Override
+    public ChannelFuture newSucceededFuture() {
+        return newPromise().setSuccess();
+    }
+
+    @Override
+    public ChannelFuture newFailedFuture(Throwable cause) {
+        return newPromise().setFailure(cause);
+    }
+
+    private static void notifyOutboundHandlerException(Throwable cause, ChannelPromise promise) {
+        if (!promise.tryFailure(cause)) {
+            logger.warn("Failed to fail the promise because it's done already: {}", promise, cause);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:promise已经完成了，只有被取消这一种情况是合法的，这时候操作就不用再执行了
+     */
+    private boolean isNotValidPromise(ChannelPromise promise) {
+        ObjectUtil.checkNotNull(promise, "promise");
+        if (promise.isDone()) {
+            if (promise.isCancelled()) {
+                return true;
+            }
+            throw new IllegalArgumentException("promise already done: " + promise);
+        }
+        if (promise.channel() != channel()) {
+            throw new IllegalArgumentException(String.format(
+                    "promise.channel does not match: %s (expected: %s)", promise.channel(), channel()));
+        }
+        return false;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:沿着next指针向后找到第一个处理该入站事件的handler，尾节点重写了所有的入站方法，所以一定能找到
+     */
+    private AbstractChannelHandlerContext findContextInbound(int mask) {
+        AbstractChannelHandlerContext ctx = this;
+        do {
+            ctx = ctx.next;
+        } while ((ctx.executionMask & mask) == 0);
+        return ctx;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:沿着prev指针向前找到第一个处理该出站操作的handler，头节点重写了所有的出站方法，所以一定能找到
+     */
+    private AbstractChannelHandlerContext findContextOutbound(int mask) {
+        AbstractChannelHandlerContext ctx = this;
+        do {
+            ctx = ctx.prev;
+        } while ((ctx.executionMask & mask) == 0);
+        return ctx;
+    }
+
+    final boolean setAddComplete() {
+        for (;;) {
+            int oldState = handlerState;
+            if (oldState == REMOVE_COMPLETE) {
+                return false;
+            }
+            if (HANDLER_STATE_UPDATER.compareAndSet(this, oldState, ADD_COMPLETE)) {
+                return true;
+            }
+        }
+    }
+
+    final void setRemoved() {
+        handlerState = REMOVE_COMPLETE;
+    }
+
+    final void setAddPending() {
+        boolean updated = HANDLER_STATE_UPDATER.compareAndSet(this, INIT, ADD_PENDING);
+        assert updated;
+    }
+
+    final void callHandlerAdded() throws Exception {
+        //先修改状态再调用handlerAdded方法，这样handlerAdded方法中触发的事件也能被这个handler处理
+        if (setAddComplete()) {
+            handler().handlerAdded(this);
+        }
+    }
+
+    final void callHandlerRemoved() throws Exception {
+        try {
+            //handlerAdded方法被调用过，才调用handlerRemoved方法
+            if (handlerState == ADD_COMPLETE) {
+                handler().handlerRemoved(this);
+            }
+        } finally {
+            setRemoved();
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:handler的handlerAdded方法还没有被调用的时候，事件直接传给下一个handler
+     */
+    private boolean invokeHandler() {
+        return handlerState == ADD_COMPLETE;
+    }
+
+    @Override
+    public boolean isRemoved() {
+        return handlerState == REMOVE_COMPLETE;
+    }
+
+    private static boolean safeExecute(EventExecutor executor, Runnable runnable, ChannelPromise promise, Object msg) {
+        try {
+            executor.execute(runnable);
+            return true;
+        } catch (Throwable cause) {
+            try {
+                promise.setFailure(cause);
+            } finally {
+                if (msg != null) {
+                    ReferenceCountUtil.release(msg);
+                }
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return StringUtil.simpleClassName(ChannelHandlerContext.class) + '(' + name + ", " + channel() + ')';
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:用户线程写数据的时候提交给单线程执行器的任务。消息要等任务执行了才会放进写缓冲区，
+     * 如果不先把消息的大小算进待写出的字节数，生产者写得再快isWritable也一直返回true，任务队列里的消息就会无限堆积，
+     * 所以创建任务的时候就先累加上，任务执行的时候再减掉。任务被执行器拒绝的话，要调用cancel方法减掉
+     */
+    static final class WriteTask implements Runnable {
+
+        private final AbstractChannelHandlerContext ctx;
+        private final Object msg;
+        private final ChannelPromise promise;
+        private final boolean flush;
+        private final ChannelOutboundBuffer buffer;
+        private final int size;
+
+        WriteTask(AbstractChannelHandlerContext ctx, Object msg, ChannelPromise promise, boolean flush) {
+            this.ctx = ctx;
+            this.msg = msg;
+            this.promise = promise;
+            this.flush = flush;
+            this.buffer = ctx.channel().unsafe().outboundBuffer();
+            this.size = buffer != null ? AbstractChannel.estimateSize(msg) : 0;
+            if (size > 0) {
+                buffer.incrementPendingOutboundBytes(size);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (size > 0) {
+                buffer.decrementPendingOutboundBytes(size);
+            }
+            if (flush) {
+                ctx.invokeWriteAndFlush(msg, promise);
+            } else {
+                ctx.invokeWrite(msg, promise);
+            }
+        }
+
+        void cancel() {
+            if (size > 0) {
+                buffer.decrementPendingOutboundBytes(size);
+            }
+        }
+    }
+}
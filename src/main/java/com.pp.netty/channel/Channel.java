@@ -1,12 +1,14 @@
 package com.pp.netty.channel;
 
+import com.pp.netty.util.AttributeMap;
+
 import java.net.SocketAddress;
 
 /**
  * @Author: PP-jessica
  * @Description:channel的顶级接口,暂时引入部分方法
  */
-public interface Channel extends  ChannelOutboundInvoker{
+public interface Channel extends AttributeMap, ChannelOutboundInvoker{
 
     ChannelId id();
 
@@ -17,7 +19,7 @@ public interface Channel extends  ChannelOutboundInvoker{
     Channel parent();
 
 
-//    ChannelConfig config();
+    ChannelConfig config();
 
 
     boolean isOpen();
@@ -28,6 +30,25 @@ public interface Channel extends  ChannelOutboundInvoker{
 
     boolean isActive();
 
+    /**
+     * @Author: PP-jessica
+     * @Description:channel是否可写。写缓冲区中待写出的字节数超过高水位线之后返回false，直到降到低水位线以下才重新返回true，
+     * 用户写数据之前可以先判断一下，不可写的时候就先别写了，否则写缓冲区会无限增长
+     */
+    boolean isWritable();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:还能写多少字节channel就会变成不可写，已经不可写了就返回0
+     */
+    long bytesBeforeUnwritable();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:还要写出去多少字节channel才会重新变成可写，已经可写了就返回0
+     */
+    long bytesBeforeWritable();
+
 
     SocketAddress localAddress();
 
@@ -37,6 +58,12 @@ public interface Channel extends  ChannelOutboundInvoker{
 
     ChannelFuture closeFuture();
 
+    /**
+     * @Author: PP-jessica
+     * @Description:得到channel的pipeline，用户的handler都添加在这里面
+     */
+    ChannelPipeline pipeline();
+
     /**
      * @Author: PP-jessica
      * @Description:终于引入了Unsafe类
@@ -56,6 +83,12 @@ public interface Channel extends  ChannelOutboundInvoker{
      */
     interface Unsafe {
 
+        /**
+         * @Author: PP-jessica
+         * @Description:得到channel读数据时使用的缓冲区分配器的handle
+         */
+        RecvByteBufAllocator.Handle recvBufAllocHandle();
+
         SocketAddress localAddress();
 
         SocketAddress remoteAddress();
@@ -80,6 +113,11 @@ public interface Channel extends  ChannelOutboundInvoker{
 
         void flush();
 
+        /**
+         * @Author: PP-jessica
+         * @Description:channel的写缓冲区，channel关闭之后返回null
+         */
+        ChannelOutboundBuffer outboundBuffer();
 
     }
 }
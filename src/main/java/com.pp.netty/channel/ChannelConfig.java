@@ -1,9 +1,73 @@
 package com.pp.netty.channel;
 
+import com.pp.netty.buffer.ByteBufAllocator;
+
+import java.util.Map;
+
 /**
  * @Author: PP-jessica
- * @Description:暂时不定义方法，放到下面几节课再真正引入
+ * @Description:channel的配置类接口。用户在ServerBootstrap中用ChannelOption设置的配置，最后都会通过setOption方法设置到这里，
+ * 不同的channel支持的配置项不同，所以客户端和服务端channel有各自的配置类
  */
 public interface ChannelConfig {
 
+    /**
+     * @Author: PP-jessica
+     * @Description:得到所有配置项和对应的值
+     */
+    Map<ChannelOption<?>, Object> getOptions();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:设置多个配置项，全部设置成功返回true，有不支持的配置项返回false
+     */
+    boolean setOptions(Map<ChannelOption<?>, ?> options);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:得到配置项的值，不支持的配置项返回null
+     */
+    <T> T getOption(ChannelOption<T> option);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:设置配置项，不支持的配置项返回false
+     */
+    <T> boolean setOption(ChannelOption<T> option, T value);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:连接的超时时间，单位是毫秒，设置为0表示不超时
+     */
+    int getConnectTimeoutMillis();
+
+    ChannelConfig setConnectTimeoutMillis(int connectTimeoutMillis);
+
+    int getMaxMessagesPerRead();
+
+    ChannelConfig setMaxMessagesPerRead(int maxMessagesPerRead);
+
+    ByteBufAllocator getAllocator();
+
+    ChannelConfig setAllocator(ByteBufAllocator allocator);
+
+    <T extends RecvByteBufAllocator> T getRecvByteBufAllocator();
+
+    ChannelConfig setRecvByteBufAllocator(RecvByteBufAllocator allocator);
+
+    int getWriteSpinCount();
+
+    ChannelConfig setWriteSpinCount(int writeSpinCount);
+
+    int getWriteBufferHighWaterMark();
+
+    ChannelConfig setWriteBufferHighWaterMark(int writeBufferHighWaterMark);
+
+    int getWriteBufferLowWaterMark();
+
+    ChannelConfig setWriteBufferLowWaterMark(int writeBufferLowWaterMark);
+
+    WriteBufferWaterMark getWriteBufferWaterMark();
+
+    ChannelConfig setWriteBufferWaterMark(WriteBufferWaterMark writeBufferWaterMark);
 }
@@ -0,0 +1,25 @@
+package com.pp.netty.channel;
+
+/**
+ * @Author: PP-jessica
+ * @Description:channel的IO操作出现异常时抛出的异常
+ */
+public class ChannelException extends RuntimeException {
+
+    private static final long serialVersionUID = 2908618315971075004L;
+
+    public ChannelException() {
+    }
+
+    public ChannelException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ChannelException(String message) {
+        super(message);
+    }
+
+    public ChannelException(Throwable cause) {
+        super(cause);
+    }
+}
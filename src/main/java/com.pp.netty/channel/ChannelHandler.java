@@ -0,0 +1,47 @@
+package com.pp.netty.channel;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @Author: PP-jessica
+ * @Description:handler的顶级接口。用户的业务逻辑都写在handler中，handler被包装成ChannelHandlerContext，添加到channel的ChannelPipeline里。
+ * 入站的事件，比如读到了数据，从pipeline的头部向尾部传播；出站的操作，比如写数据，从pipeline的尾部向头部传播
+ */
+public interface ChannelHandler {
+
+    /**
+     * @Author: PP-jessica
+     * @Description:handler被添加到pipeline之后调用
+     */
+    void handlerAdded(ChannelHandlerContext ctx) throws Exception;
+
+    /**
+     * @Author: PP-jessica
+     * @Description:handler从pipeline中被移除之后调用
+     */
+    void handlerRemoved(ChannelHandlerContext ctx) throws Exception;
+
+    /**
+     * @Author: PP-jessica
+     * @Description:处理过程中出现了异常会调用该方法
+     */
+    void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception;
+
+    /**
+     * @Author: PP-jessica
+     * @Description:加了这个注解的handler可以被添加到多个pipeline中，也就是多个channel共享一个handler对象，
+     * 所以这种handler中不能有和channel相关的状态
+     */
+    @Inherited
+    @Documented
+    @Target(ElementType.TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Sharable {
+        // no value
+    }
+}
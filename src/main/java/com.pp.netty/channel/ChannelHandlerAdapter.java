@@ -0,0 +1,64 @@
+package com.pp.netty.channel;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * @Author: PP-jessica
+ * @Description:handler的抽象适配器类，默认什么也不做
+ */
+public abstract class ChannelHandlerAdapter implements ChannelHandler {
+
+    //判断handler是否有Sharable注解要用到反射，这里按线程缓存一下结果。用WeakHashMap是为了不阻止handler的类被卸载
+    private static final ThreadLocal<Map<Class<?>, Boolean>> SHARABLE_CACHE =
+            new ThreadLocal<Map<Class<?>, Boolean>>() {
+                @Override
+                protected Map<Class<?>, Boolean> initialValue() {
+                    return new WeakHashMap<Class<?>, Boolean>(4);
+                }
+            };
+
+    //这个handler是否已经被添加到pipeline中了
+    boolean added;
+
+    /**
+     * @Author: PP-jessica
+     * @Description:有Sharable注解的handler不能调用该方法
+     */
+    protected void ensureNotSharable() {
+        if (isSharable()) {
+            throw new IllegalStateException("ChannelHandler " + getClass().getName() + " is not allowed to be shared");
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:handler是否可以被多个pipeline共享
+     */
+    public boolean isSharable() {
+        Class<?> clazz = getClass();
+        Map<Class<?>, Boolean> cache = SHARABLE_CACHE.get();
+        Boolean sharable = cache.get(clazz);
+        if (sharable == null) {
+            sharable = clazz.isAnnotationPresent(Sharable.class);
+            cache.put(clazz, sharable);
+        }
+        return sharable;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        // NOOP
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        // NOOP
+    }
+
+    @ChannelHandlerMask.Skip
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        ctx.fireExceptionCaught(cause);
+    }
+}
@@ -0,0 +1,67 @@
+package com.pp.netty.channel;
+
+import com.pp.netty.buffer.ByteBufAllocator;
+import com.pp.netty.util.concurrent.EventExecutor;
+
+/**
+ * @Author: PP-jessica
+ * @Description:handler的上下文，handler被添加到pipeline的时候会被包装成这个对象，pipeline中的链表节点就是它。
+ * 通过它可以得到handler所属的channel和pipeline，也可以把事件传给下一个handler
+ */
+public interface ChannelHandlerContext extends ChannelInboundInvoker, ChannelOutboundInvoker {
+
+    Channel channel();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:执行handler方法的执行器，就是channel绑定的单线程执行器
+     */
+    EventExecutor executor();
+
+    String name();
+
+    ChannelHandler handler();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:handler是否已经从pipeline中被移除了
+     */
+    boolean isRemoved();
+
+    ChannelPipeline pipeline();
+
+    ByteBufAllocator alloc();
+
+    @Override
+    ChannelHandlerContext fireChannelRegistered();
+
+    @Override
+    ChannelHandlerContext fireChannelUnregistered();
+
+    @Override
+    ChannelHandlerContext fireChannelActive();
+
+    @Override
+    ChannelHandlerContext fireChannelInactive();
+
+    @Override
+    ChannelHandlerContext fireExceptionCaught(Throwable cause);
+
+    @Override
+    ChannelHandlerContext fireUserEventTriggered(Object evt);
+
+    @Override
+    ChannelHandlerContext fireChannelRead(Object msg);
+
+    @Override
+    ChannelHandlerContext fireChannelReadComplete();
+
+    @Override
+    ChannelHandlerContext fireChannelWritabilityChanged();
+
+    @Override
+    ChannelHandlerContext read();
+
+    @Override
+    ChannelHandlerContext flush();
+}
@@ -0,0 +1,166 @@
+package com.pp.netty.channel;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * @Author: PP-jessica
+ * @Description:每个handler重写了哪些事件方法，用一个int的二进制位来表示，在handler被包装成ChannelHandlerContext的时候就计算好。
+ * 事件在pipeline中传播的时候，只要和这个掩码做一次与运算，就知道下一个handler要不要处理这个事件，
+ * 没有重写的方法，也就是加了Skip注解的方法，对应的位是0，传播的时候直接跳过这个handler，不会再去调用一个只是把事件往后传的空方法
+ */
+final class ChannelHandlerMask {
+
+    static final int MASK_EXCEPTION_CAUGHT = 1;
+    static final int MASK_CHANNEL_REGISTERED = 1 << 1;
+    static final int MASK_CHANNEL_UNREGISTERED = 1 << 2;
+    static final int MASK_CHANNEL_ACTIVE = 1 << 3;
+    static final int MASK_CHANNEL_INACTIVE = 1 << 4;
+    static final int MASK_CHANNEL_READ = 1 << 5;
+    static final int MASK_CHANNEL_READ_COMPLETE = 1 << 6;
+    static final int MASK_USER_EVENT_TRIGGERED = 1 << 7;
+    static final int MASK_CHANNEL_WRITABILITY_CHANGED = 1 << 8;
+    static final int MASK_BIND = 1 << 9;
+    static final int MASK_CONNECT = 1 << 10;
+    static final int MASK_DISCONNECT = 1 << 11;
+    static final int MASK_CLOSE = 1 << 12;
+    static final int MASK_DEREGISTER = 1 << 13;
+    static final int MASK_READ = 1 << 14;
+    static final int MASK_WRITE = 1 << 15;
+    static final int MASK_FLUSH = 1 << 16;
+
+    static final int MASK_ONLY_INBOUND = MASK_CHANNEL_REGISTERED |
+            MASK_CHANNEL_UNREGISTERED | MASK_CHANNEL_ACTIVE | MASK_CHANNEL_INACTIVE | MASK_CHANNEL_READ |
+            MASK_CHANNEL_READ_COMPLETE | MASK_USER_EVENT_TRIGGERED | MASK_CHANNEL_WRITABILITY_CHANGED;
+    private static final int MASK_ALL_INBOUND = MASK_EXCEPTION_CAUGHT | MASK_ONLY_INBOUND;
+    static final int MASK_ONLY_OUTBOUND = MASK_BIND | MASK_CONNECT | MASK_DISCONNECT |
+            MASK_CLOSE | MASK_DEREGISTER | MASK_READ | MASK_WRITE | MASK_FLUSH;
+    private static final int MASK_ALL_OUTBOUND = MASK_EXCEPTION_CAUGHT | MASK_ONLY_OUTBOUND;
+
+    //计算掩码要用到反射，结果按线程缓存起来，同一个handler类只计算一次
+    private static final ThreadLocal<Map<Class<? extends ChannelHandler>, Integer>> MASKS =
+            new ThreadLocal<Map<Class<? extends ChannelHandler>, Integer>>() {
+                @Override
+                protected Map<Class<? extends ChannelHandler>, Integer> initialValue() {
+                    return new WeakHashMap<Class<? extends ChannelHandler>, Integer>(32);
+                }
+            };
+
+    private ChannelHandlerMask() { }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:得到handler类的掩码
+     */
+    static int mask(Class<? extends ChannelHandler> clazz) {
+        Map<Class<? extends ChannelHandler>, Integer> cache = MASKS.get();
+        Integer mask = cache.get(clazz);
+        if (mask == null) {
+            mask = mask0(clazz);
+            cache.put(clazz, mask);
+        }
+        return mask;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:先根据handler实现的接口把所有入站或出站事件对应的位都置为1，再用反射找到加了Skip注解的方法，把对应的位清掉
+     */
+    private static int mask0(Class<? extends ChannelHandler> handlerType) {
+        int mask = MASK_EXCEPTION_CAUGHT;
+        if (ChannelInboundHandler.class.isAssignableFrom(handlerType)) {
+            mask |= MASK_ALL_INBOUND;
+
+            if (isSkippable(handlerType, "channelRegistered", ChannelHandlerContext.class)) {
+                mask &= ~MASK_CHANNEL_REGISTERED;
+            }
+            if (isSkippable(handlerType, "channelUnregistered", ChannelHandlerContext.class)) {
+                mask &= ~MASK_CHANNEL_UNREGISTERED;
+            }
+            if (isSkippable(handlerType, "channelActive", ChannelHandlerContext.class)) {
+                mask &= ~MASK_CHANNEL_ACTIVE;
+            }
+            if (isSkippable(handlerType, "channelInactive", ChannelHandlerContext.class)) {
+                mask &= ~MASK_CHANNEL_INACTIVE;
+            }
+            if (isSkippable(handlerType, "channelRead", ChannelHandlerContext.class, Object.class)) {
+                mask &= ~MASK_CHANNEL_READ;
+            }
+            if (isSkippable(handlerType, "channelReadComplete", ChannelHandlerContext.class)) {
+                mask &= ~MASK_CHANNEL_READ_COMPLETE;
+            }
+            if (isSkippable(handlerType, "channelWritabilityChanged", ChannelHandlerContext.class)) {
+                mask &= ~MASK_CHANNEL_WRITABILITY_CHANGED;
+            }
+            if (isSkippable(handlerType, "userEventTriggered", ChannelHandlerContext.class, Object.class)) {
+                mask &= ~MASK_USER_EVENT_TRIGGERED;
+            }
+        }
+
+        if (ChannelOutboundHandler.class.isAssignableFrom(handlerType)) {
+            mask |= MASK_ALL_OUTBOUND;
+
+            if (isSkippable(handlerType, "bind", ChannelHandlerContext.class,
+                    SocketAddress.class, ChannelPromise.class)) {
+                mask &= ~MASK_BIND;
+            }
+            if (isSkippable(handlerType, "connect", ChannelHandlerContext.class, SocketAddress.class,
+                    SocketAddress.class, ChannelPromise.class)) {
+                mask &= ~MASK_CONNECT;
+            }
+            if (isSkippable(handlerType, "disconnect", ChannelHandlerContext.class, ChannelPromise.class)) {
+                mask &= ~MASK_DISCONNECT;
+            }
+            if (isSkippable(handlerType, "close", ChannelHandlerContext.class, ChannelPromise.class)) {
+                mask &= ~MASK_CLOSE;
+            }
+            if (isSkippable(handlerType, "deregister", ChannelHandlerContext.class, ChannelPromise.class)) {
+                mask &= ~MASK_DEREGISTER;
+            }
+            if (isSkippable(handlerType, "read", ChannelHandlerContext.class)) {
+                mask &= ~MASK_READ;
+            }
+            if (isSkippable(handlerType, "write", ChannelHandlerContext.class,
+                    Object.class, ChannelPromise.class)) {
+                mask &= ~MASK_WRITE;
+            }
+            if (isSkippable(handlerType, "flush", ChannelHandlerContext.class)) {
+                mask &= ~MASK_FLUSH;
+            }
+        }
+
+        if (isSkippable(handlerType, "exceptionCaught", ChannelHandlerContext.class, Throwable.class)) {
+            mask &= ~MASK_EXCEPTION_CAUGHT;
+        }
+        return mask;
+    }
+
+    private static boolean isSkippable(Class<?> handlerType, String methodName, Class<?>... paramTypes) {
+        Method m;
+        try {
+            m = handlerType.getMethod(methodName, paramTypes);
+        } catch (NoSuchMethodException e) {
+            //方法找不到，保守一点，认为不能跳过
+            return false;
+        }
+        return m.isAnnotationPresent(Skip.class);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:加了这个注解的方法只是把事件传给下一个handler，传播的时候可以直接跳过。
+     * 用户重写了方法之后，子类的方法上没有这个注解，对应的事件就会交给这个handler处理。
+     * 注意这个注解不能加在用户自己的handler上，否则事件真的会被跳过
+     */
+    @Target(ElementType.METHOD)
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Skip {
+        // no value
+    }
+}
@@ -0,0 +1,40 @@
+package com.pp.netty.channel;
+
+/**
+ * @Author: PP-jessica
+ * @Description:入站处理器的接口，处理channel的状态变化和读到的数据
+ */
+public interface ChannelInboundHandler extends ChannelHandler {
+
+    void channelRegistered(ChannelHandlerContext ctx) throws Exception;
+
+    void channelUnregistered(ChannelHandlerContext ctx) throws Exception;
+
+    void channelActive(ChannelHandlerContext ctx) throws Exception;
+
+    void channelInactive(ChannelHandlerContext ctx) throws Exception;
+
+    /**
+     * @Author: PP-jessica
+     * @Description:读到了数据，客户端channel读到的是ByteBuf，服务端channel读到的是接收的客户端channel。
+     * 消息如果不继续向后传播，就要由这个handler负责释放
+     */
+    void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception;
+
+    /**
+     * @Author: PP-jessica
+     * @Description:一次读事件中的数据都读完了
+     */
+    void channelReadComplete(ChannelHandlerContext ctx) throws Exception;
+
+    void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception;
+
+    /**
+     * @Author: PP-jessica
+     * @Description:channel的可写状态改变了，可以用channel的isWritable方法得到最新的状态
+     */
+    void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception;
+
+    @Override
+    void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception;
+}
@@ -0,0 +1,27 @@
+package com.pp.netty.channel;
+
+/**
+ * @Author: PP-jessica
+ * @Description:这个接口定义了触发入站事件的方法，和ChannelOutboundInvoker正好相对。
+ * pipeline调用这些方法，事件从头节点开始传播；ChannelHandlerContext调用这些方法，事件从下一个入站处理器开始传播
+ */
+public interface ChannelInboundInvoker {
+
+    ChannelInboundInvoker fireChannelRegistered();
+
+    ChannelInboundInvoker fireChannelUnregistered();
+
+    ChannelInboundInvoker fireChannelActive();
+
+    ChannelInboundInvoker fireChannelInactive();
+
+    ChannelInboundInvoker fireExceptionCaught(Throwable cause);
+
+    ChannelInboundInvoker fireUserEventTriggered(Object event);
+
+    ChannelInboundInvoker fireChannelRead(Object msg);
+
+    ChannelInboundInvoker fireChannelReadComplete();
+
+    ChannelInboundInvoker fireChannelWritabilityChanged();
+}
@@ -0,0 +1,97 @@
+package com.pp.netty.channel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @Author: PP-jessica
+ * @Description:一个特殊的入站处理器，它的作用是在channel注册成功之后，调用initChannel方法向pipeline中添加用户真正的handler，
+ * 添加完之后就把自己从pipeline中移除了。服务端接收的每一个客户端channel都要添加一样的handler，所以这个类是可以共享的
+ */
+@ChannelHandler.Sharable
+public abstract class ChannelInitializer<C extends Channel> extends ChannelInboundHandlerAdapter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChannelInitializer.class);
+
+    //这个handler会被添加到很多channel的pipeline中，用这个集合记录哪些channel已经初始化过了，防止重复初始化
+    private final Set<ChannelHandlerContext> initMap = Collections.newSetFromMap(
+            new ConcurrentHashMap<ChannelHandlerContext, Boolean>());
+
+    /**
+     * @Author: PP-jessica
+     * @Description:用户在这个方法中向pipeline添加handler，该方法执行完之后，ChannelInitializer就会从pipeline中移除
+     */
+    protected abstract void initChannel(C ch) throws Exception;
+
+    @Override
+    public final void channelRegistered(ChannelHandlerContext ctx) throws Exception {
+        //一般在handlerAdded方法中就已经初始化过了，走到这里说明channel是在handlerAdded之后才注册的
+        if (initChannel(ctx)) {
+            //handler已经添加好了，从头节点重新传播注册事件，这样新添加的handler也能收到
+            ctx.pipeline().fireChannelRegistered();
+            removeState(ctx);
+        } else {
+            ctx.fireChannelRegistered();
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:初始化的时候出了异常，打印日志并关闭channel
+     */
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        logger.warn("Failed to initialize a channel. Closing: " + ctx.channel(), cause);
+        ctx.close();
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        if (ctx.channel().isRegistered()) {
+            if (initChannel(ctx)) {
+                removeState(ctx);
+            }
+        }
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        initMap.remove(ctx);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean initChannel(ChannelHandlerContext ctx) throws Exception {
+        if (initMap.add(ctx)) {
+            try {
+                initChannel((C) ctx.channel());
+            } catch (Throwable cause) {
+                exceptionCaught(ctx, cause);
+            } finally {
+                ChannelPipeline pipeline = ctx.pipeline();
+                if (pipeline.context(this) != null) {
+                    pipeline.remove(this);
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void removeState(final ChannelHandlerContext ctx) {
+        if (ctx.isRemoved()) {
+            initMap.remove(ctx);
+        } else {
+            //handlerRemoved方法还没有被调用，交给单线程执行器稍后再移除
+            ctx.executor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    initMap.remove(ctx);
+                }
+            });
+        }
+    }
+}
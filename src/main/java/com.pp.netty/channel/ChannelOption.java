@@ -0,0 +1,70 @@
+package com.pp.netty.channel;
+
+import com.pp.netty.buffer.ByteBufAllocator;
+import com.pp.netty.util.AbstractConstant;
+import com.pp.netty.util.ConstantPool;
+import com.pp.netty.util.internal.ObjectUtil;
+
+/**
+ * @Author: PP-jessica
+ * @Description:channel的配置项，泛型是配置值的类型，这样用户在ServerBootstrap中设置配置的时候，值的类型写错了编译就通不过。
+ * 配置项都是常量，同一个名字只有一个对象，设置到channel上的时候，由channel的配置类根据配置项找到对应的setter方法
+ */
+public class ChannelOption<T> extends AbstractConstant<ChannelOption<T>> {
+
+    private static final ConstantPool<ChannelOption<Object>> pool = new ConstantPool<ChannelOption<Object>>() {
+        @Override
+        protected ChannelOption<Object> newConstant(int id, String name) {
+            return new ChannelOption<Object>(id, name);
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    public static <T> ChannelOption<T> valueOf(String name) {
+        return (ChannelOption<T>) pool.valueOf(name);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> ChannelOption<T> valueOf(Class<?> firstNameComponent, String secondNameComponent) {
+        return (ChannelOption<T>) pool.valueOf(firstNameComponent, secondNameComponent);
+    }
+
+    public static boolean exists(String name) {
+        return pool.exists(name);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> ChannelOption<T> newInstance(String name) {
+        return (ChannelOption<T>) pool.newInstance(name);
+    }
+
+    public static final ChannelOption<ByteBufAllocator> ALLOCATOR = valueOf("ALLOCATOR");
+    public static final ChannelOption<RecvByteBufAllocator> RCVBUF_ALLOCATOR = valueOf("RCVBUF_ALLOCATOR");
+
+    public static final ChannelOption<Integer> CONNECT_TIMEOUT_MILLIS = valueOf("CONNECT_TIMEOUT_MILLIS");
+    public static final ChannelOption<Integer> MAX_MESSAGES_PER_READ = valueOf("MAX_MESSAGES_PER_READ");
+    public static final ChannelOption<Integer> WRITE_SPIN_COUNT = valueOf("WRITE_SPIN_COUNT");
+    public static final ChannelOption<WriteBufferWaterMark> WRITE_BUFFER_WATER_MARK =
+            valueOf("WRITE_BUFFER_WATER_MARK");
+
+    public static final ChannelOption<Boolean> SO_KEEPALIVE = valueOf("SO_KEEPALIVE");
+    public static final ChannelOption<Integer> SO_SNDBUF = valueOf("SO_SNDBUF");
+    public static final ChannelOption<Integer> SO_RCVBUF = valueOf("SO_RCVBUF");
+    public static final ChannelOption<Boolean> SO_REUSEADDR = valueOf("SO_REUSEADDR");
+    public static final ChannelOption<Integer> SO_LINGER = valueOf("SO_LINGER");
+    public static final ChannelOption<Integer> SO_BACKLOG = valueOf("SO_BACKLOG");
+
+    public static final ChannelOption<Boolean> TCP_NODELAY = valueOf("TCP_NODELAY");
+
+    private ChannelOption(int id, String name) {
+        super(id, name);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:检查配置值是否合法，子类可以重写该方法做更多的检查
+     */
+    public void validate(T value) {
+        ObjectUtil.checkNotNull(value, "value");
+    }
+}
@@ -0,0 +1,644 @@
+package com.pp.netty.channel;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.Unpooled;
+import com.pp.netty.util.ReferenceCountUtil;
+import com.pp.netty.util.internal.SystemPropertyUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * @Author: PP-jessica
+ * @Description:channel的写缓冲区，每个channel一个。write的时候消息和它的promise先被包装成Entry放到链表的尾部，
+ * 这时候消息还是未刷新的状态；flush的时候把所有未刷新的消息标记为已刷新，然后才真正写到socket中。
+ * 链表的结构是这样的：flushedEntry --> ... --> unflushedEntry --> ... --> tailEntry
+ * flushedEntry到unflushedEntry之间的是已经刷新、等待写到socket的消息，unflushedEntry到tailEntry之间的是还没有刷新的消息。
+ * 该类的方法都只能由channel绑定的单线程执行器调用
+ */
+public final class ChannelOutboundBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChannelOutboundBuffer.class);
+
+    //gathering write用到的ByteBuffer数组，每个线程一个，所有channel的写操作都在自己的单线程执行器中进行，所以可以复用
+    private static final ThreadLocal<ByteBuffer[]> NIO_BUFFERS = new ThreadLocal<ByteBuffer[]>() {
+        @Override
+        protected ByteBuffer[] initialValue() {
+            return new ByteBuffer[1024];
+        }
+    };
+
+    //每个Entry对象本身也要占用内存，计算待写出的字节数的时候要把这部分开销也算上，否则写很多小消息的时候水位线就不准了
+    static final int CHANNEL_OUTBOUND_BUFFER_ENTRY_OVERHEAD =
+            SystemPropertyUtil.getInt("io.netty.transport.outboundBufferEntrySizeOverhead", 96);
+
+    private static final AtomicLongFieldUpdater<ChannelOutboundBuffer> TOTAL_PENDING_SIZE_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(ChannelOutboundBuffer.class, "totalPendingSize");
+
+    private static final AtomicIntegerFieldUpdater<ChannelOutboundBuffer> UNWRITABLE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(ChannelOutboundBuffer.class, "unwritable");
+
+    private final AbstractChannel channel;
+
+    //第一个已经刷新的消息
+    private Entry flushedEntry;
+
+    //第一个还没有刷新的消息
+    private Entry unflushedEntry;
+
+    //链表的尾节点
+    private Entry tailEntry;
+
+    //已经刷新但还没有写完的消息的个数
+    private int flushed;
+
+    //最近一次调用nioBuffers方法得到的ByteBuffer的个数和总字节数
+    private int nioBufferCount;
+
+    private long nioBufferSize;
+
+    //是否正在执行failFlushed方法，防止在通知promise的时候又进入该方法
+    private boolean inFail;
+
+    //一次removeBytes中已经完整写出的消息的promise，先攒在这里，等链表的状态都更新完了再统一通知。
+    //这样一次gathering write写完了多少条消息，就只在最后集中回调一次，回调方法里再写数据也不会看到修改到一半的链表
+    private ChannelPromise[] completedPromises = new ChannelPromise[16];
+
+    //写缓冲区中待写出的字节数，包括还没有刷新的消息。用户线程写数据的时候也会修改这个值，所以要用原子更新器
+    @SuppressWarnings("UnusedDeclaration")
+    private volatile long totalPendingSize;
+
+    //channel是否不可写，0为可写，1为不可写
+    @SuppressWarnings("UnusedDeclaration")
+    private volatile int unwritable;
+
+    //通知channel可写状态改变的任务，用户线程写数据导致状态改变的时候，要把通知交给单线程执行器去做
+    private volatile Runnable fireChannelWritabilityChangedTask;
+
+    ChannelOutboundBuffer(AbstractChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把消息添加到链表的尾部，这时候消息还是未刷新的状态
+     */
+    public void addMessage(Object msg, int size, ChannelPromise promise) {
+        Entry entry = new Entry(msg, size + CHANNEL_OUTBOUND_BUFFER_ENTRY_OVERHEAD, total(msg), promise);
+        if (tailEntry == null) {
+            flushedEntry = null;
+        } else {
+            Entry tail = tailEntry;
+            tail.next = entry;
+        }
+        tailEntry = entry;
+        if (unflushedEntry == null) {
+            unflushedEntry = entry;
+        }
+        //待写出的字节数增加，可能超过高水位线，这时候已经在单线程执行器中了，可以直接通知
+        incrementPendingOutboundBytes(entry.pendingSize, false);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把所有未刷新的消息标记为已刷新，已经被取消的消息在这里直接释放
+     */
+    public void addFlush() {
+        Entry entry = unflushedEntry;
+        if (entry != null) {
+            if (flushedEntry == null) {
+                flushedEntry = entry;
+            }
+            do {
+                flushed ++;
+                if (!entry.promise.setUncancellable()) {
+                    //promise已经被用户取消了，消息不用再写了
+                    int pending = entry.cancel();
+                    decrementPendingOutboundBytes(pending, false, true);
+                }
+                entry = entry.next;
+            } while (entry != null);
+            unflushedEntry = null;
+        }
+    }
+
+    private static long total(Object msg) {
+        if (msg instanceof ByteBuf) {
+            return ((ByteBuf) msg).readableBytes();
+        }
+        if (msg instanceof FileRegion) {
+            return ((FileRegion) msg).count();
+        }
+        return -1;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:当前的消息又写出了amount个字节，如果消息的promise可以报告进度，就通知它的进度监听器。
+     * FileRegion这种一次传输不完的消息，用户可以通过进度监听器知道已经传输了多少
+     */
+    public void progress(long amount) {
+        Entry e = flushedEntry;
+        assert e != null;
+        ChannelPromise p = e.promise;
+        long progress = e.progress + amount;
+        e.progress = progress;
+        if (p instanceof ChannelProgressivePromise) {
+            ((ChannelProgressivePromise) p).tryProgress(progress, e.total);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:增加待写出的字节数，超过高水位线的时候把channel设置为不可写。
+     * 用户线程调用channel的write方法时，消息还没放进写缓冲区就会先调用该方法，所以这里要考虑并发
+     */
+    void incrementPendingOutboundBytes(long size) {
+        incrementPendingOutboundBytes(size, true);
+    }
+
+    private void incrementPendingOutboundBytes(long size, boolean invokeLater) {
+        if (size == 0) {
+            return;
+        }
+        long newWriteBufferSize = TOTAL_PENDING_SIZE_UPDATER.addAndGet(this, size);
+        if (newWriteBufferSize > channel.config().getWriteBufferHighWaterMark()) {
+            setUnwritable(invokeLater);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:减少待写出的字节数，降到低水位线以下的时候把channel重新设置为可写
+     */
+    void decrementPendingOutboundBytes(long size) {
+        decrementPendingOutboundBytes(size, true, true);
+    }
+
+    private void decrementPendingOutboundBytes(long size, boolean invokeLater, boolean notifyWritability) {
+        if (size == 0) {
+            return;
+        }
+        long newWriteBufferSize = TOTAL_PENDING_SIZE_UPDATER.addAndGet(this, -size);
+        if (notifyWritability && newWriteBufferSize < channel.config().getWriteBufferLowWaterMark()) {
+            setWritable(invokeLater);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:返回当前要写的消息，没有已经刷新的消息就返回null
+     */
+    public Object current() {
+        Entry entry = flushedEntry;
+        if (entry == null) {
+            return null;
+        }
+        return entry.msg;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:当前的消息写完了，把它从链表中移除，释放消息并设置promise成功
+     */
+    public boolean remove() {
+        Entry e = flushedEntry;
+        if (e == null) {
+            clearNioBuffers();
+            return false;
+        }
+        Object msg = e.msg;
+        ChannelPromise promise = e.promise;
+        int size = e.pendingSize;
+        removeEntry(e);
+        if (!e.cancelled) {
+            ReferenceCountUtil.safeRelease(msg);
+            safeSuccess(promise);
+            decrementPendingOutboundBytes(size, false, true);
+        }
+        return true;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:当前的消息写失败了，把它从链表中移除，释放消息并设置promise失败
+     */
+    public boolean remove(Throwable cause) {
+        return remove0(cause, true);
+    }
+
+    private boolean remove0(Throwable cause, boolean notifyWritability) {
+        Entry e = flushedEntry;
+        if (e == null) {
+            clearNioBuffers();
+            return false;
+        }
+        Object msg = e.msg;
+        ChannelPromise promise = e.promise;
+        int size = e.pendingSize;
+        removeEntry(e);
+        if (!e.cancelled) {
+            ReferenceCountUtil.safeRelease(msg);
+            safeFail(promise, cause);
+            decrementPendingOutboundBytes(size, false, notifyWritability);
+        }
+        return true;
+    }
+
+    private void removeEntry(Entry e) {
+        if (-- flushed == 0) {
+            //已经刷新的消息都写完了
+            flushedEntry = null;
+            if (e == tailEntry) {
+                tailEntry = null;
+                unflushedEntry = null;
+            }
+        } else {
+            flushedEntry = e.next;
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:一次gathering write写出了writtenBytes个字节，这些字节可能跨越了好几条消息。
+     * 完整写出的消息从链表中移除，只写出一部分的消息移动它的readerIndex。写完的消息的promise在最后统一设置成功
+     */
+    public void removeBytes(long writtenBytes) {
+        int completed = 0;
+        long completedSize = 0;
+        for (;;) {
+            Object msg = current();
+            if (!(msg instanceof ByteBuf)) {
+                assert writtenBytes == 0;
+                break;
+            }
+            final ByteBuf buf = (ByteBuf) msg;
+            final int readerIndex = buf.readerIndex();
+            final int readableBytes = buf.writerIndex() - readerIndex;
+            if (readableBytes <= writtenBytes) {
+                if (writtenBytes != 0) {
+                    progress(readableBytes);
+                }
+                writtenBytes -= readableBytes;
+                Entry e = flushedEntry;
+                removeEntry(e);
+                if (!e.cancelled) {
+                    ReferenceCountUtil.safeRelease(buf);
+                    if (completed == completedPromises.length) {
+                        completedPromises = Arrays.copyOf(completedPromises, completed << 1);
+                    }
+                    completedPromises[completed ++] = e.promise;
+                    completedSize += e.pendingSize;
+                }
+            } else {
+                if (writtenBytes != 0) {
+                    buf.readerIndex(readerIndex + (int) writtenBytes);
+                    progress(writtenBytes);
+                }
+                break;
+            }
+        }
+        clearNioBuffers();
+        notifyCompleted(completed);
+        decrementPendingOutboundBytes(completedSize, false, true);
+    }
+
+    private void notifyCompleted(int completed) {
+        ChannelPromise[] promises = completedPromises;
+        for (int i = 0; i < completed; i ++) {
+            ChannelPromise promise = promises[i];
+            promises[i] = null;
+            safeSuccess(promise);
+        }
+    }
+
+    private void clearNioBuffers() {
+        int count = nioBufferCount;
+        if (count > 0) {
+            nioBufferCount = 0;
+            Arrays.fill(NIO_BUFFERS.get(), 0, count, null);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把已经刷新的ByteBuf消息转换成ByteBuffer数组，用来做gathering write。
+     * 数组中最多有maxCount个ByteBuffer，总字节数最多为maxBytes，但至少会放进一个ByteBuf，否则大消息就永远写不出去了。
+     * 遇到不是ByteBuf的消息就停下来，交给调用者用别的方式写
+     */
+    public ByteBuffer[] nioBuffers(int maxCount, long maxBytes) {
+        assert maxCount > 0;
+        assert maxBytes > 0;
+        long nioBufferSize = 0;
+        int nioBufferCount = 0;
+        ByteBuffer[] nioBuffers = NIO_BUFFERS.get();
+        Entry entry = flushedEntry;
+        while (isFlushedEntry(entry) && entry.msg instanceof ByteBuf) {
+            if (!entry.cancelled) {
+                ByteBuf buf = (ByteBuf) entry.msg;
+                final int readerIndex = buf.readerIndex();
+                final int readableBytes = buf.writerIndex() - readerIndex;
+                if (readableBytes > 0) {
+                    if (maxBytes - readableBytes < nioBufferSize && nioBufferCount != 0) {
+                        //再放就超过一次写的字节上限了
+                        break;
+                    }
+                    nioBufferSize += readableBytes;
+                    int count = entry.count;
+                    if (count == -1) {
+                        entry.count = count = buf.nioBufferCount();
+                    }
+                    int neededSpace = Math.min(maxCount, nioBufferCount + count);
+                    if (neededSpace > nioBuffers.length) {
+                        nioBuffers = expandNioBufferArray(nioBuffers, neededSpace, nioBufferCount);
+                        NIO_BUFFERS.set(nioBuffers);
+                    }
+                    if (count == 1) {
+                        ByteBuffer nioBuf = entry.buf;
+                        if (nioBuf == null) {
+                            //缓存起来，消息只写出一部分的时候，下一次直接接着用，ByteBuffer的position已经在写的时候移动过了
+                            entry.buf = nioBuf = buf.internalNioBuffer(readerIndex, readableBytes);
+                        }
+                        nioBuffers[nioBufferCount ++] = nioBuf;
+                    } else {
+                        nioBufferCount = nioBuffers(entry, buf, nioBuffers, nioBufferCount, maxCount);
+                    }
+                    if (nioBufferCount >= maxCount) {
+                        break;
+                    }
+                }
+            }
+            entry = entry.next;
+        }
+        this.nioBufferCount = nioBufferCount;
+        this.nioBufferSize = nioBufferSize;
+        return nioBuffers;
+    }
+
+    private static int nioBuffers(Entry entry, ByteBuf buf, ByteBuffer[] nioBuffers, int nioBufferCount, int maxCount) {
+        ByteBuffer[] nioBufs = entry.bufs;
+        if (nioBufs == null) {
+            entry.bufs = nioBufs = buf.nioBuffers();
+        }
+        for (int i = 0; i < nioBufs.length && nioBufferCount < maxCount; ++ i) {
+            ByteBuffer nioBuf = nioBufs[i];
+            if (nioBuf == null) {
+                break;
+            } else if (!nioBuf.hasRemaining()) {
+                continue;
+            }
+            nioBuffers[nioBufferCount ++] = nioBuf;
+        }
+        return nioBufferCount;
+    }
+
+    private static ByteBuffer[] expandNioBufferArray(ByteBuffer[] array, int neededSpace, int size) {
+        int newCapacity = array.length;
+        do {
+            newCapacity <<= 1;
+            if (newCapacity < 0) {
+                throw new IllegalStateException();
+            }
+        } while (neededSpace > newCapacity);
+        ByteBuffer[] newArray = new ByteBuffer[newCapacity];
+        System.arraycopy(array, 0, newArray, 0, size);
+        return newArray;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:最近一次调用nioBuffers方法得到的ByteBuffer的个数
+     */
+    public int nioBufferCount() {
+        return nioBufferCount;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:最近一次调用nioBuffers方法得到的ByteBuffer的总字节数
+     */
+    public long nioBufferSize() {
+        return nioBufferSize;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:已经刷新但还没有写完的消息的个数
+     */
+    public int size() {
+        return flushed;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:是否没有需要写的消息了，未刷新的消息不算
+     */
+    public boolean isEmpty() {
+        return flushed == 0;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:channel是否可写，待写出的字节数超过了高水位线就不可写了，直到降到低水位线以下
+     */
+    public boolean isWritable() {
+        return unwritable == 0;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:还能写多少字节channel就会变成不可写，已经不可写了就返回0
+     */
+    public long bytesBeforeUnwritable() {
+        long bytes = channel.config().getWriteBufferHighWaterMark() - totalPendingSize + 1;
+        return bytes > 0 && isWritable() ? bytes : 0;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:还要写出去多少字节channel才会重新变成可写，已经可写了就返回0
+     */
+    public long bytesBeforeWritable() {
+        long bytes = totalPendingSize - channel.config().getWriteBufferLowWaterMark() + 1;
+        return bytes <= 0 || isWritable() ? 0 : bytes;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:写缓冲区中待写出的字节数
+     */
+    public long totalPendingWriteBytes() {
+        return totalPendingSize;
+    }
+
+    private void setWritable(boolean invokeLater) {
+        for (;;) {
+            final int oldValue = unwritable;
+            if (oldValue == 0) {
+                return;
+            }
+            if (UNWRITABLE_UPDATER.compareAndSet(this, oldValue, 0)) {
+                fireChannelWritabilityChanged(invokeLater);
+                return;
+            }
+        }
+    }
+
+    private void setUnwritable(boolean invokeLater) {
+        for (;;) {
+            final int oldValue = unwritable;
+            if (oldValue != 0) {
+                return;
+            }
+            if (UNWRITABLE_UPDATER.compareAndSet(this, oldValue, 1)) {
+                fireChannelWritabilityChanged(invokeLater);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:通知channel可写状态改变了。invokeLater为true的时候交给单线程执行器稍后再通知，
+     * 通知的时候再读一次最新的状态，所以多次状态改变合并成一次通知也没有关系
+     */
+    private void fireChannelWritabilityChanged(boolean invokeLater) {
+        if (invokeLater) {
+            Runnable task = fireChannelWritabilityChangedTask;
+            if (task == null) {
+                fireChannelWritabilityChangedTask = task = new Runnable() {
+                    @Override
+                    public void run() {
+                        channel.pipeline().fireChannelWritabilityChanged();
+                    }
+                };
+            }
+            channel.eventLoop().execute(task);
+        } else {
+            channel.pipeline().fireChannelWritabilityChanged();
+        }
+    }
+
+    private boolean isFlushedEntry(Entry e) {
+        return e != null && e != unflushedEntry;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:channel已经不能写了，已经刷新的消息全部设置失败
+     */
+    void failFlushed(Throwable cause, boolean notify) {
+        if (inFail) {
+            return;
+        }
+        try {
+            inFail = true;
+            for (;;) {
+                if (!remove0(cause, notify)) {
+                    break;
+                }
+            }
+        } finally {
+            inFail = false;
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:channel关闭了，还没有刷新的消息也全部设置失败。已经刷新的消息应该在调用该方法之前就通过failFlushed处理完了
+     */
+    void close(final Throwable cause) {
+        if (inFail) {
+            //正在通知已经刷新的消息，等通知完了再关闭
+            channel.eventLoop().execute(new Runnable() {
+                @Override
+                public void run() {
+                    close(cause);
+                }
+            });
+            return;
+        }
+        inFail = true;
+        if (!isEmpty()) {
+            throw new IllegalStateException("close() must be invoked after all flushed writes are handled.");
+        }
+        try {
+            Entry e = unflushedEntry;
+            while (e != null) {
+                //channel已经关闭了，不用再通知可写状态的改变
+                TOTAL_PENDING_SIZE_UPDATER.addAndGet(this, -e.pendingSize);
+                if (!e.cancelled) {
+                    ReferenceCountUtil.safeRelease(e.msg);
+                    safeFail(e.promise, cause);
+                }
+                e = e.next;
+            }
+        } finally {
+            inFail = false;
+        }
+        unflushedEntry = null;
+        tailEntry = null;
+        clearNioBuffers();
+    }
+
+    private static void safeSuccess(ChannelPromise promise) {
+        if (!promise.trySuccess()) {
+            logger.warn("Failed to mark a promise as success because it is done already: {}", promise);
+        }
+    }
+
+    private static void safeFail(ChannelPromise promise, Throwable cause) {
+        if (!promise.tryFailure(cause)) {
+            logger.warn("Failed to mark a promise as failure because it's done already: {}", promise, cause);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:链表的节点，包装了消息和它的promise。count，buf和bufs都是在转换成ByteBuffer的时候缓存的，避免重复转换
+     */
+    static final class Entry {
+        Entry next;
+        Object msg;
+        ByteBuffer[] bufs;
+        ByteBuffer buf;
+        ChannelPromise promise;
+        //消息的大小加上Entry对象本身的开销
+        int pendingSize;
+        //消息的总字节数和已经写出的字节数，用来报告进度
+        long total;
+        long progress;
+        int count = -1;
+        boolean cancelled;
+
+        Entry(Object msg, int pendingSize, long total, ChannelPromise promise) {
+            this.msg = msg;
+            this.pendingSize = pendingSize;
+            this.total = total;
+            this.promise = promise;
+        }
+
+        /**
+         * @Author: PP-jessica
+         * @Description:取消这条消息，返回它占用的待写出字节数，由调用者从写缓冲区的统计中减掉
+         */
+        int cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                int pSize = pendingSize;
+                ReferenceCountUtil.safeRelease(msg);
+                //换成空的ByteBuf，写的时候直接跳过
+                msg = Unpooled.EMPTY_BUFFER;
+                bufs = null;
+                buf = null;
+                pendingSize = 0;
+                return pSize;
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.pp.netty.channel;
+
+import java.net.SocketAddress;
+
+/**
+ * @Author: PP-jessica
+ * @Description:出站处理器的接口，处理绑定、连接、写数据这些由用户发起的操作
+ */
+public interface ChannelOutboundHandler extends ChannelHandler {
+
+    void bind(ChannelHandlerContext ctx, SocketAddress localAddress, ChannelPromise promise) throws Exception;
+
+    void connect(ChannelHandlerContext ctx, SocketAddress remoteAddress,
+                 SocketAddress localAddress, ChannelPromise promise) throws Exception;
+
+    void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception;
+
+    void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception;
+
+    void deregister(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception;
+
+    void read(ChannelHandlerContext ctx) throws Exception;
+
+    /**
+     * @Author: PP-jessica
+     * @Description:写数据，这时候数据只是被放到了写缓冲区，要等到flush的时候才会写到socket中
+     */
+    void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception;
+
+    void flush(ChannelHandlerContext ctx) throws Exception;
+}
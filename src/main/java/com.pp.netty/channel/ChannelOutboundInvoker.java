@@ -49,6 +49,8 @@ public interface ChannelOutboundInvoker {
 
     ChannelPromise newPromise();
 
+    ChannelProgressivePromise newProgressivePromise();
+
     ChannelFuture newSucceededFuture();
 
     ChannelFuture newFailedFuture(Throwable cause);
@@ -0,0 +1,98 @@
+package com.pp.netty.channel;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Author: PP-jessica
+ * @Description:channel的管道，每个channel一个，里面是由ChannelHandlerContext组成的双向链表，头尾各有一个固定的节点。
+ * 入站事件从头节点开始，依次交给每一个入站处理器，最后到达尾节点；出站操作从尾节点开始，依次交给每一个出站处理器，
+ * 最后到达头节点，由头节点调用unsafe的方法真正执行
+ */
+public interface ChannelPipeline extends ChannelInboundInvoker, ChannelOutboundInvoker, Iterable<Map.Entry<String, ChannelHandler>> {
+
+    ChannelPipeline addFirst(String name, ChannelHandler handler);
+
+    ChannelPipeline addLast(String name, ChannelHandler handler);
+
+    ChannelPipeline addBefore(String baseName, String name, ChannelHandler handler);
+
+    ChannelPipeline addAfter(String baseName, String name, ChannelHandler handler);
+
+    ChannelPipeline addFirst(ChannelHandler... handlers);
+
+    ChannelPipeline addLast(ChannelHandler... handlers);
+
+    ChannelPipeline remove(ChannelHandler handler);
+
+    ChannelHandler remove(String name);
+
+    ChannelHandler removeFirst();
+
+    ChannelHandler removeLast();
+
+    ChannelPipeline replace(ChannelHandler oldHandler, String newName, ChannelHandler newHandler);
+
+    ChannelHandler replace(String oldName, String newName, ChannelHandler newHandler);
+
+    ChannelHandler first();
+
+    ChannelHandlerContext firstContext();
+
+    ChannelHandler last();
+
+    ChannelHandlerContext lastContext();
+
+    ChannelHandler get(String name);
+
+    ChannelHandlerContext context(ChannelHandler handler);
+
+    ChannelHandlerContext context(String name);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:返回第一个指定类型的处理器，协议升级的时候用它找到要替换掉的编解码器
+     */
+    <T extends ChannelHandler> T get(Class<T> handlerType);
+
+    ChannelHandlerContext context(Class<? extends ChannelHandler> handlerType);
+
+    Channel channel();
+
+    List<String> names();
+
+    Map<String, ChannelHandler> toMap();
+
+    @Override
+    ChannelPipeline fireChannelRegistered();
+
+    @Override
+    ChannelPipeline fireChannelUnregistered();
+
+    @Override
+    ChannelPipeline fireChannelActive();
+
+    @Override
+    ChannelPipeline fireChannelInactive();
+
+    @Override
+    ChannelPipeline fireExceptionCaught(Throwable cause);
+
+    @Override
+    ChannelPipeline fireUserEventTriggered(Object event);
+
+    @Override
+    ChannelPipeline fireChannelRead(Object msg);
+
+    @Override
+    ChannelPipeline fireChannelReadComplete();
+
+    @Override
+    ChannelPipeline fireChannelWritabilityChanged();
+
+    @Override
+    ChannelPipeline flush();
+
+    @Override
+    ChannelPipeline read();
+}
@@ -0,0 +1,25 @@
+package com.pp.netty.channel;
+
+/**
+ * @Author: PP-jessica
+ * @Description:pipeline中的handler执行handlerAdded或者handlerRemoved方法出现异常时抛出的异常
+ */
+public class ChannelPipelineException extends ChannelException {
+
+    private static final long serialVersionUID = 3379174210419885980L;
+
+    public ChannelPipelineException() {
+    }
+
+    public ChannelPipelineException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ChannelPipelineException(String message) {
+        super(message);
+    }
+
+    public ChannelPipelineException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,36 @@
+package com.pp.netty.channel;
+
+import com.pp.netty.util.concurrent.Future;
+import com.pp.netty.util.concurrent.GenericFutureListener;
+import com.pp.netty.util.concurrent.ProgressiveFuture;
+
+/**
+ * @Author: PP-jessica
+ * @Description:可以报告进度的channelFuture，写大文件这种耗时的操作可以用它来得到已经写出的字节数
+ */
+public interface ChannelProgressiveFuture extends ChannelFuture, ProgressiveFuture<Void> {
+
+    @Override
+    ChannelProgressiveFuture addListener(GenericFutureListener<? extends Future<? super Void>> listener);
+
+    @Override
+    ChannelProgressiveFuture addListeners(GenericFutureListener<? extends Future<? super Void>>... listeners);
+
+    @Override
+    ChannelProgressiveFuture removeListener(GenericFutureListener<? extends Future<? super Void>> listener);
+
+    @Override
+    ChannelProgressiveFuture removeListeners(GenericFutureListener<? extends Future<? super Void>>... listeners);
+
+    @Override
+    ChannelProgressiveFuture sync() throws InterruptedException;
+
+    @Override
+    ChannelProgressiveFuture syncUninterruptibly();
+
+    @Override
+    ChannelProgressiveFuture await() throws InterruptedException;
+
+    @Override
+    ChannelProgressiveFuture awaitUninterruptibly();
+}
@@ -0,0 +1,51 @@
+package com.pp.netty.channel;
+
+import com.pp.netty.util.concurrent.Future;
+import com.pp.netty.util.concurrent.GenericFutureListener;
+import com.pp.netty.util.concurrent.ProgressivePromise;
+
+/**
+ * @Author: PP-jessica
+ * @Description:可以报告进度的channelPromise，写缓冲区每写出一部分数据，就会通过它通知进度监听器
+ */
+public interface ChannelProgressivePromise extends ProgressivePromise<Void>, ChannelProgressiveFuture, ChannelPromise {
+
+    @Override
+    ChannelProgressivePromise addListener(GenericFutureListener<? extends Future<? super Void>> listener);
+
+    @Override
+    ChannelProgressivePromise addListeners(GenericFutureListener<? extends Future<? super Void>>... listeners);
+
+    @Override
+    ChannelProgressivePromise removeListener(GenericFutureListener<? extends Future<? super Void>> listener);
+
+    @Override
+    ChannelProgressivePromise removeListeners(GenericFutureListener<? extends Future<? super Void>>... listeners);
+
+    @Override
+    ChannelProgressivePromise sync() throws InterruptedException;
+
+    @Override
+    ChannelProgressivePromise syncUninterruptibly();
+
+    @Override
+    ChannelProgressivePromise await() throws InterruptedException;
+
+    @Override
+    ChannelProgressivePromise awaitUninterruptibly();
+
+    @Override
+    ChannelProgressivePromise setSuccess(Void result);
+
+    @Override
+    ChannelProgressivePromise setSuccess();
+
+    @Override
+    ChannelProgressivePromise setFailure(Throwable cause);
+
+    @Override
+    ChannelProgressivePromise setProgress(long progress, long total);
+
+    @Override
+    ChannelProgressivePromise unvoid();
+}
@@ -0,0 +1,19 @@
+package com.pp.netty.channel;
+
+import java.net.ConnectException;
+
+/**
+ * @Author: PP-jessica
+ * @Description:客户端channel在CONNECT_TIMEOUT_MILLIS规定的时间内没有连接成功时，connect的promise会被设置为这个异常
+ */
+public class ConnectTimeoutException extends ConnectException {
+
+    private static final long serialVersionUID = 2317065249988317463L;
+
+    public ConnectTimeoutException(String msg) {
+        super(msg);
+    }
+
+    public ConnectTimeoutException() {
+    }
+}
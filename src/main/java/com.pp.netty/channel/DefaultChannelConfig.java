@@ -0,0 +1,283 @@
+package com.pp.netty.channel;
+
+import com.pp.netty.buffer.ByteBufAllocator;
+import com.pp.netty.util.internal.ObjectUtil;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import static com.pp.netty.channel.ChannelOption.*;
+
+/**
+ * @Author: PP-jessica
+ * @Description:channel配置类的默认实现，默认使用可以动态调整缓冲区大小的分配器
+ */
+public class DefaultChannelConfig implements ChannelConfig {
+
+    private static final AtomicReferenceFieldUpdater<DefaultChannelConfig, WriteBufferWaterMark> WATERMARK_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(
+                    DefaultChannelConfig.class, WriteBufferWaterMark.class, "writeBufferWaterMark");
+
+    //默认的连接超时时间是30秒
+    private static final int DEFAULT_CONNECT_TIMEOUT = 30000;
+
+    protected final Channel channel;
+
+    private volatile ByteBufAllocator allocator = ByteBufAllocator.DEFAULT;
+
+    private volatile RecvByteBufAllocator rcvBufAllocator;
+
+    private volatile int connectTimeoutMillis = DEFAULT_CONNECT_TIMEOUT;
+
+    //一次flush中最多尝试写socket的次数，写不完就把剩下的交给下一个任务，不能一直占着单线程执行器
+    private volatile int writeSpinCount = 16;
+
+    //写缓冲区的高低水位线，高低水位线要一起修改，所以放在一个不可变的对象中，整体替换
+    private volatile WriteBufferWaterMark writeBufferWaterMark = WriteBufferWaterMark.DEFAULT;
+
+    public DefaultChannelConfig(Channel channel) {
+        this(channel, new AdaptiveRecvByteBufAllocator());
+    }
+
+    protected DefaultChannelConfig(Channel channel, RecvByteBufAllocator allocator) {
+        this.channel = channel;
+        setRecvByteBufAllocator(allocator);
+    }
+
+    @Override
+    public Map<ChannelOption<?>, Object> getOptions() {
+        return getOptions(null, CONNECT_TIMEOUT_MILLIS, MAX_MESSAGES_PER_READ, WRITE_SPIN_COUNT,
+                ALLOCATOR, RCVBUF_ALLOCATOR, WRITE_BUFFER_WATER_MARK);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:子类用这个方法把自己支持的配置项加到父类的结果中
+     */
+    protected Map<ChannelOption<?>, Object> getOptions(
+            Map<ChannelOption<?>, Object> result, ChannelOption<?>... options) {
+        if (result == null) {
+            result = new IdentityHashMap<ChannelOption<?>, Object>();
+        }
+        for (ChannelOption<?> o: options) {
+            result.put(o, getOption(o));
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean setOptions(Map<ChannelOption<?>, ?> options) {
+        ObjectUtil.checkNotNull(options, "options");
+        boolean setAllOptions = true;
+        for (Map.Entry<ChannelOption<?>, ?> e: options.entrySet()) {
+            if (!setOption((ChannelOption<Object>) e.getKey(), e.getValue())) {
+                setAllOptions = false;
+            }
+        }
+        return setAllOptions;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:配置项都是常量，直接用==比较就行。子类重写这个方法的时候，自己不认识的配置项要交给父类处理
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getOption(ChannelOption<T> option) {
+        ObjectUtil.checkNotNull(option, "option");
+        if (option == CONNECT_TIMEOUT_MILLIS) {
+            return (T) Integer.valueOf(getConnectTimeoutMillis());
+        }
+        if (option == MAX_MESSAGES_PER_READ) {
+            return (T) Integer.valueOf(getMaxMessagesPerRead());
+        }
+        if (option == WRITE_SPIN_COUNT) {
+            return (T) Integer.valueOf(getWriteSpinCount());
+        }
+        if (option == ALLOCATOR) {
+            return (T) getAllocator();
+        }
+        if (option == RCVBUF_ALLOCATOR) {
+            return (T) getRecvByteBufAllocator();
+        }
+        if (option == WRITE_BUFFER_WATER_MARK) {
+            return (T) getWriteBufferWaterMark();
+        }
+        return null;
+    }
+
+    @Override
+    public <T> boolean setOption(ChannelOption<T> option, T value) {
+        validate(option, value);
+        if (option == CONNECT_TIMEOUT_MILLIS) {
+            setConnectTimeoutMillis((Integer) value);
+        } else if (option == MAX_MESSAGES_PER_READ) {
+            setMaxMessagesPerRead((Integer) value);
+        } else if (option == WRITE_SPIN_COUNT) {
+            setWriteSpinCount((Integer) value);
+        } else if (option == ALLOCATOR) {
+            setAllocator((ByteBufAllocator) value);
+        } else if (option == RCVBUF_ALLOCATOR) {
+            setRecvByteBufAllocator((RecvByteBufAllocator) value);
+        } else if (option == WRITE_BUFFER_WATER_MARK) {
+            setWriteBufferWaterMark((WriteBufferWaterMark) value);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    protected <T> void validate(ChannelOption<T> option, T value) {
+        ObjectUtil.checkNotNull(option, "option");
+        option.validate(value);
+    }
+
+    @Override
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    @Override
+    public ChannelConfig setConnectTimeoutMillis(int connectTimeoutMillis) {
+        ObjectUtil.checkPositiveOrZero(connectTimeoutMillis, "connectTimeoutMillis");
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:一次读事件中最多读取的次数其实是保存在分配器中的
+     */
+    @Override
+    public int getMaxMessagesPerRead() {
+        try {
+            MaxMessagesRecvByteBufAllocator allocator = getRecvByteBufAllocator();
+            return allocator.maxMessagesPerRead();
+        } catch (ClassCastException e) {
+            throw new IllegalStateException("getRecvByteBufAllocator() must return an object of type " +
+                    "MaxMessagesRecvByteBufAllocator", e);
+        }
+    }
+
+    @Override
+    public ChannelConfig setMaxMessagesPerRead(int maxMessagesPerRead) {
+        try {
+            MaxMessagesRecvByteBufAllocator allocator = getRecvByteBufAllocator();
+            allocator.maxMessagesPerRead(maxMessagesPerRead);
+            return this;
+        } catch (ClassCastException e) {
+            throw new IllegalStateException("getRecvByteBufAllocator() must return an object of type " +
+                    "MaxMessagesRecvByteBufAllocator", e);
+        }
+    }
+
+    @Override
+    public ByteBufAllocator getAllocator() {
+        return allocator;
+    }
+
+    @Override
+    public ChannelConfig setAllocator(ByteBufAllocator allocator) {
+        this.allocator = ObjectUtil.checkNotNull(allocator, "allocator");
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T extends RecvByteBufAllocator> T getRecvByteBufAllocator() {
+        return (T) rcvBufAllocator;
+    }
+
+    @Override
+    public ChannelConfig setRecvByteBufAllocator(RecvByteBufAllocator allocator) {
+        rcvBufAllocator = ObjectUtil.checkNotNull(allocator, "allocator");
+        return this;
+    }
+
+    @Override
+    public int getWriteSpinCount() {
+        return writeSpinCount;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:设置为Integer.MAX_VALUE的话，写循环的次数会被WRITE_STATUS_SNDBUF_FULL减成负数，
+     * 和发送缓冲区满了的情况区分不开，所以这里减一
+     */
+    @Override
+    public ChannelConfig setWriteSpinCount(int writeSpinCount) {
+        ObjectUtil.checkPositive(writeSpinCount, "writeSpinCount");
+        if (writeSpinCount == Integer.MAX_VALUE) {
+            -- writeSpinCount;
+        }
+        this.writeSpinCount = writeSpinCount;
+        return this;
+    }
+
+    @Override
+    public int getWriteBufferHighWaterMark() {
+        return writeBufferWaterMark.high();
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:单独设置高水位线，不能低于当前的低水位线
+     */
+    @Override
+    public ChannelConfig setWriteBufferHighWaterMark(int writeBufferHighWaterMark) {
+        ObjectUtil.checkPositiveOrZero(writeBufferHighWaterMark, "writeBufferHighWaterMark");
+        for (;;) {
+            WriteBufferWaterMark waterMark = writeBufferWaterMark;
+            if (writeBufferHighWaterMark < waterMark.low()) {
+                throw new IllegalArgumentException(
+                        "writeBufferHighWaterMark cannot be less than " +
+                                "writeBufferLowWaterMark (" + waterMark.low() + "): " +
+                                writeBufferHighWaterMark);
+            }
+            if (WATERMARK_UPDATER.compareAndSet(this, waterMark,
+                    new WriteBufferWaterMark(waterMark.low(), writeBufferHighWaterMark, false))) {
+                return this;
+            }
+        }
+    }
+
+    @Override
+    public int getWriteBufferLowWaterMark() {
+        return writeBufferWaterMark.low();
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:单独设置低水位线，不能高于当前的高水位线
+     */
+    @Override
+    public ChannelConfig setWriteBufferLowWaterMark(int writeBufferLowWaterMark) {
+        ObjectUtil.checkPositiveOrZero(writeBufferLowWaterMark, "writeBufferLowWaterMark");
+        for (;;) {
+            WriteBufferWaterMark waterMark = writeBufferWaterMark;
+            if (writeBufferLowWaterMark > waterMark.high()) {
+                throw new IllegalArgumentException(
+                        "writeBufferLowWaterMark cannot be greater than " +
+                                "writeBufferHighWaterMark (" + waterMark.high() + "): " +
+                                writeBufferLowWaterMark);
+            }
+            if (WATERMARK_UPDATER.compareAndSet(this, waterMark,
+                    new WriteBufferWaterMark(writeBufferLowWaterMark, waterMark.high(), false))) {
+                return this;
+            }
+        }
+    }
+
+    @Override
+    public WriteBufferWaterMark getWriteBufferWaterMark() {
+        return writeBufferWaterMark;
+    }
+
+    @Override
+    public ChannelConfig setWriteBufferWaterMark(WriteBufferWaterMark writeBufferWaterMark) {
+        this.writeBufferWaterMark = ObjectUtil.checkNotNull(writeBufferWaterMark, "writeBufferWaterMark");
+        return this;
+    }
+}
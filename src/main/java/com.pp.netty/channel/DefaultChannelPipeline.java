@@ -0,0 +1,1112 @@
+package com.pp.netty.channel;
+
+import com.pp.netty.util.ReferenceCountUtil;
+import com.pp.netty.util.concurrent.EventExecutor;
+import com.pp.netty.util.internal.ObjectUtil;
+import com.pp.netty.util.internal.StringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.WeakHashMap;
+
+/**
+ * @Author: PP-jessica
+ * @Description:ChannelPipeline的默认实现类。链表的头节点是HeadContext，出站操作最后都会到达这里，由它调用unsafe真正执行；
+ * 尾节点是TailContext，入站事件如果没有被用户的handler处理，最后会到达这里，由它释放消息并打印日志。
+ * 修改链表的方法都加了锁，用户线程和单线程执行器都可以添加或删除handler，但handler的handlerAdded和handlerRemoved方法只会由单线程执行器调用
+ */
+public class DefaultChannelPipeline implements ChannelPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(DefaultChannelPipeline.class);
+
+    private static final String HEAD_NAME = generateName0(HeadContext.class);
+    private static final String TAIL_NAME = generateName0(TailContext.class);
+
+    //用户没有给handler起名字的时候，用handler的类名生成一个，这里缓存一下，不用每次都拼接字符串
+    private static final ThreadLocal<Map<Class<?>, String>> nameCaches =
+            new ThreadLocal<Map<Class<?>, String>>() {
+                @Override
+                protected Map<Class<?>, String> initialValue() {
+                    return new WeakHashMap<Class<?>, String>();
+                }
+            };
+
+    final AbstractChannelHandlerContext head;
+    final AbstractChannelHandlerContext tail;
+
+    private final Channel channel;
+
+    //channel第一次注册到单线程执行器上之后，才会调用在这之前添加的handler的handlerAdded方法，这个属性就是用来判断是不是第一次注册
+    private boolean firstRegistration = true;
+
+    //channel注册之前添加或删除的handler，它们的handlerAdded或handlerRemoved方法先存放在这个链表中，等注册成功之后再依次调用
+    private PendingHandlerCallback pendingHandlerCallbackHead;
+
+    //channel是否已经注册到单线程执行器上了，一旦被设置为true就不会再改变
+    private boolean registered;
+
+    protected DefaultChannelPipeline(Channel channel) {
+        this.channel = ObjectUtil.checkNotNull(channel, "channel");
+        tail = new TailContext(this);
+        head = new HeadContext(this);
+
+        head.next = tail;
+        tail.prev = head;
+    }
+
+    private AbstractChannelHandlerContext newContext(String name, ChannelHandler handler) {
+        return new DefaultChannelHandlerContext(this, name, handler);
+    }
+
+    @Override
+    public final Channel channel() {
+        return channel;
+    }
+
+    @Override
+    public final ChannelPipeline addFirst(String name, ChannelHandler handler) {
+        final AbstractChannelHandlerContext newCtx;
+        synchronized (this) {
+            checkMultiplicity(handler);
+            name = filterName(name, handler);
+            newCtx = newContext(name, handler);
+            addFirst0(newCtx);
+            if (deferHandlerAdded(newCtx)) {
+                return this;
+            }
+        }
+        callHandlerAdded0(newCtx);
+        return this;
+    }
+
+    private void addFirst0(AbstractChannelHandlerContext newCtx) {
+        AbstractChannelHandlerContext nextCtx = head.next;
+        newCtx.prev = head;
+        newCtx.next = nextCtx;
+        head.next = newCtx;
+        nextCtx.prev = newCtx;
+    }
+
+    @Override
+    public final ChannelPipeline addLast(String name, ChannelHandler handler) {
+        final AbstractChannelHandlerContext newCtx;
+        synchronized (this) {
+            checkMultiplicity(handler);
+            newCtx = newContext(filterName(name, handler), handler);
+            addLast0(newCtx);
+            if (deferHandlerAdded(newCtx)) {
+                return this;
+            }
+        }
+        callHandlerAdded0(newCtx);
+        return this;
+    }
+
+    private void addLast0(AbstractChannelHandlerContext newCtx) {
+        AbstractChannelHandlerContext prev = tail.prev;
+        newCtx.prev = prev;
+        newCtx.next = tail;
+        prev.next = newCtx;
+        tail.prev = newCtx;
+    }
+
+    @Override
+    public final ChannelPipeline addBefore(String baseName, String name, ChannelHandler handler) {
+        final AbstractChannelHandlerContext newCtx;
+        final AbstractChannelHandlerContext ctx;
+        synchronized (this) {
+            checkMultiplicity(handler);
+            name = filterName(name, handler);
+            ctx = getContextOrDie(baseName);
+            newCtx = newContext(name, handler);
+            addBefore0(ctx, newCtx);
+            if (deferHandlerAdded(newCtx)) {
+                return this;
+            }
+        }
+        callHandlerAdded0(newCtx);
+        return this;
+    }
+
+    private static void addBefore0(AbstractChannelHandlerContext ctx, AbstractChannelHandlerContext newCtx) {
+        newCtx.prev = ctx.prev;
+        newCtx.next = ctx;
+        ctx.prev.next = newCtx;
+        ctx.prev = newCtx;
+    }
+
+    @Override
+    public final ChannelPipeline addAfter(String baseName, String name, ChannelHandler handler) {
+        final AbstractChannelHandlerContext newCtx;
+        final AbstractChannelHandlerContext ctx;
+        synchronized (this) {
+            checkMultiplicity(handler);
+            name = filterName(name, handler);
+            ctx = getContextOrDie(baseName);
+            newCtx = newContext(name, handler);
+            addAfter0(ctx, newCtx);
+            if (deferHandlerAdded(newCtx)) {
+                return this;
+            }
+        }
+        callHandlerAdded0(newCtx);
+        return this;
+    }
+
+    private static void addAfter0(AbstractChannelHandlerContext ctx, AbstractChannelHandlerContext newCtx) {
+        newCtx.prev = ctx;
+        newCtx.next = ctx.next;
+        ctx.next.prev = newCtx;
+        ctx.next = newCtx;
+    }
+
+    @Override
+    public final ChannelPipeline addFirst(ChannelHandler... handlers) {
+        ObjectUtil.checkNotNull(handlers, "handlers");
+        //倒着添加，这样handler在链表中的顺序和参数的顺序是一样的
+        for (int i = handlers.length - 1; i >= 0; i--) {
+            ChannelHandler h = handlers[i];
+            if (h != null) {
+                addFirst(null, h);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public final ChannelPipeline addLast(ChannelHandler... handlers) {
+        ObjectUtil.checkNotNull(handlers, "handlers");
+        for (ChannelHandler h: handlers) {
+            if (h == null) {
+                break;
+            }
+            addLast(null, h);
+        }
+        return this;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:handler已经被添加到链表中了，判断它的handlerAdded方法要不要延后调用。
+     * channel还没注册的时候，先把回调存起来，注册成功之后再调用；当前线程不是单线程执行器的时候，提交给单线程执行器调用。
+     * 返回true说明已经延后处理了，调用者不用再调用handlerAdded方法了。该方法要在持有锁的时候调用
+     */
+    private boolean deferHandlerAdded(final AbstractChannelHandlerContext newCtx) {
+        if (!registered) {
+            newCtx.setAddPending();
+            callHandlerCallbackLater(newCtx, true);
+            return true;
+        }
+        EventExecutor executor = newCtx.executor();
+        if (!executor.inEventLoop(Thread.currentThread())) {
+            newCtx.setAddPending();
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    callHandlerAdded0(newCtx);
+                }
+            });
+            return true;
+        }
+        return false;
+    }
+
+    private String filterName(String name, ChannelHandler handler) {
+        if (name == null) {
+            return generateName(handler);
+        }
+        checkDuplicateName(name);
+        return name;
+    }
+
+    private String generateName(ChannelHandler handler) {
+        Map<Class<?>, String> cache = nameCaches.get();
+        Class<?> handlerType = handler.getClass();
+        String name = cache.get(handlerType);
+        if (name == null) {
+            name = generateName0(handlerType);
+            cache.put(handlerType, name);
+        }
+        //同一个handler类被添加了多次，名字后面的序号依次加1，直到不重复为止
+        if (context0(name) != null) {
+            String baseName = name.substring(0, name.length() - 1);
+            for (int i = 1;; i ++) {
+                String newName = baseName + i;
+                if (context0(newName) == null) {
+                    name = newName;
+                    break;
+                }
+            }
+        }
+        return name;
+    }
+
+    private static String generateName0(Class<?> handlerType) {
+        return StringUtil.simpleClassName(handlerType) + "#0";
+    }
+
+    @Override
+    public final ChannelPipeline remove(ChannelHandler handler) {
+        remove(getContextOrDie(handler));
+        return this;
+    }
+
+    @Override
+    public final ChannelHandler remove(String name) {
+        return remove(getContextOrDie(name)).handler();
+    }
+
+    @Override
+    public final ChannelHandler removeFirst() {
+        if (head.next == tail) {
+            throw new NoSuchElementException();
+        }
+        return remove(head.next).handler();
+    }
+
+    @Override
+    public final ChannelHandler removeLast() {
+        if (head.next == tail) {
+            throw new NoSuchElementException();
+        }
+        return remove(tail.prev).handler();
+    }
+
+    private AbstractChannelHandlerContext remove(final AbstractChannelHandlerContext ctx) {
+        assert ctx != head && ctx != tail;
+        synchronized (this) {
+            atomicRemoveFromHandlerList(ctx);
+            if (!registered) {
+                callHandlerCallbackLater(ctx, false);
+                return ctx;
+            }
+            EventExecutor executor = ctx.executor();
+            if (!executor.inEventLoop(Thread.currentThread())) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        callHandlerRemoved0(ctx);
+                    }
+                });
+                return ctx;
+            }
+        }
+        callHandlerRemoved0(ctx);
+        return ctx;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把节点从链表中摘下来。被摘下来的节点的next和prev指针并没有清空，正在经过它传播的事件还能继续向后或向前传播
+     */
+    private synchronized void atomicRemoveFromHandlerList(AbstractChannelHandlerContext ctx) {
+        AbstractChannelHandlerContext prev = ctx.prev;
+        AbstractChannelHandlerContext next = ctx.next;
+        prev.next = next;
+        next.prev = prev;
+    }
+
+    @Override
+    public final ChannelPipeline replace(ChannelHandler oldHandler, String newName, ChannelHandler newHandler) {
+        replace(getContextOrDie(oldHandler), newName, newHandler);
+        return this;
+    }
+
+    @Override
+    public final ChannelHandler replace(String oldName, String newName, ChannelHandler newHandler) {
+        return replace(getContextOrDie(oldName), newName, newHandler);
+    }
+
+    private ChannelHandler replace(
+            final AbstractChannelHandlerContext ctx, String newName, ChannelHandler newHandler) {
+        assert ctx != head && ctx != tail;
+        final AbstractChannelHandlerContext newCtx;
+        synchronized (this) {
+            checkMultiplicity(newHandler);
+            if (newName == null) {
+                newName = generateName(newHandler);
+            } else {
+                boolean sameName = ctx.name().equals(newName);
+                if (!sameName) {
+                    checkDuplicateName(newName);
+                }
+            }
+            newCtx = newContext(newName, newHandler);
+            replace0(ctx, newCtx);
+            if (!registered) {
+                callHandlerCallbackLater(newCtx, true);
+                callHandlerCallbackLater(ctx, false);
+                return ctx.handler();
+            }
+            EventExecutor executor = ctx.executor();
+            if (!executor.inEventLoop(Thread.currentThread())) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        //先调用新handler的handlerAdded方法，这样旧handler的handlerRemoved方法中触发的事件就能被新handler处理了
+                        callHandlerAdded0(newCtx);
+                        callHandlerRemoved0(ctx);
+                    }
+                });
+                return ctx.handler();
+            }
+        }
+        callHandlerAdded0(newCtx);
+        callHandlerRemoved0(ctx);
+        return ctx.handler();
+    }
+
+    private static void replace0(AbstractChannelHandlerContext oldCtx, AbstractChannelHandlerContext newCtx) {
+        AbstractChannelHandlerContext prev = oldCtx.prev;
+        AbstractChannelHandlerContext next = oldCtx.next;
+        newCtx.prev = prev;
+        newCtx.next = next;
+        prev.next = newCtx;
+        next.prev = newCtx;
+        //旧节点的指针指向新节点，正在经过旧节点传播的事件会交给新节点处理
+        oldCtx.prev = newCtx;
+        oldCtx.next = newCtx;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:没有Sharable注解的handler只能被添加到一个pipeline中一次
+     */
+    private static void checkMultiplicity(ChannelHandler handler) {
+        if (handler instanceof ChannelHandlerAdapter) {
+            ChannelHandlerAdapter h = (ChannelHandlerAdapter) handler;
+            if (!h.isSharable() && h.added) {
+                throw new ChannelPipelineException(
+                        h.getClass().getName() +
+                        " is not a @Sharable handler, so can't be added or removed multiple times.");
+            }
+            h.added = true;
+        }
+    }
+
+    private void callHandlerAdded0(final AbstractChannelHandlerContext ctx) {
+        try {
+            ctx.callHandlerAdded();
+        } catch (Throwable t) {
+            //handlerAdded方法出现了异常，就把这个handler从pipeline中移除
+            boolean removed = false;
+            try {
+                atomicRemoveFromHandlerList(ctx);
+                ctx.callHandlerRemoved();
+                removed = true;
+            } catch (Throwable t2) {
+                logger.warn("Failed to remove a handler: " + ctx.name(), t2);
+            }
+            if (removed) {
+                fireExceptionCaught(new ChannelPipelineException(
+                        ctx.handler().getClass().getName() +
+                        ".handlerAdded() has thrown an exception; removed.", t));
+            } else {
+                fireExceptionCaught(new ChannelPipelineException(
+                        ctx.handler().getClass().getName() +
+                        ".handlerAdded() has thrown an exception; also failed to remove.", t));
+            }
+        }
+    }
+
+    private void callHandlerRemoved0(final AbstractChannelHandlerContext ctx) {
+        try {
+            ctx.callHandlerRemoved();
+        } catch (Throwable t) {
+            fireExceptionCaught(new ChannelPipelineException(
+                    ctx.handler().getClass().getName() + ".handlerRemoved() has thrown an exception.", t));
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:channel注册成功之后由单线程执行器调用，只有第一次注册的时候才会调用之前添加的handler的handlerAdded方法
+     */
+    final void invokeHandlerAddedIfNeeded() {
+        assert channel.eventLoop().inEventLoop(Thread.currentThread());
+        if (firstRegistration) {
+            firstRegistration = false;
+            callHandlerAddedForAllHandlers();
+        }
+    }
+
+    @Override
+    public final ChannelHandler first() {
+        ChannelHandlerContext first = firstContext();
+        if (first == null) {
+            return null;
+        }
+        return first.handler();
+    }
+
+    @Override
+    public final ChannelHandlerContext firstContext() {
+        AbstractChannelHandlerContext first = head.next;
+        if (first == tail) {
+            return null;
+        }
+        return head.next;
+    }
+
+    @Override
+    public final ChannelHandler last() {
+        AbstractChannelHandlerContext last = tail.prev;
+        if (last == head) {
+            return null;
+        }
+        return last.handler();
+    }
+
+    @Override
+    public final ChannelHandlerContext lastContext() {
+        AbstractChannelHandlerContext last = tail.prev;
+        if (last == head) {
+            return null;
+        }
+        return last;
+    }
+
+    @Override
+    public final ChannelHandler get(String name) {
+        ChannelHandlerContext ctx = context(name);
+        if (ctx == null) {
+            return null;
+        } else {
+            return ctx.handler();
+        }
+    }
+
+    @Override
+    public final ChannelHandlerContext context(String name) {
+        return context0(ObjectUtil.checkNotNull(name, "name"));
+    }
+
+    @Override
+    public final ChannelHandlerContext context(ChannelHandler handler) {
+        ObjectUtil.checkNotNull(handler, "handler");
+        AbstractChannelHandlerContext ctx = head.next;
+        for (;;) {
+            if (ctx == null) {
+                return null;
+            }
+            if (ctx.handler() == handler) {
+                return ctx;
+            }
+            ctx = ctx.next;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final <T extends ChannelHandler> T get(Class<T> handlerType) {
+        ChannelHandlerContext ctx = context(handlerType);
+        if (ctx == null) {
+            return null;
+        } else {
+            return (T) ctx.handler();
+        }
+    }
+
+    @Override
+    public final ChannelHandlerContext context(Class<? extends ChannelHandler> handlerType) {
+        ObjectUtil.checkNotNull(handlerType, "handlerType");
+        AbstractChannelHandlerContext ctx = head.next;
+        for (;;) {
+            if (ctx == null) {
+                return null;
+            }
+            if (handlerType.isAssignableFrom(ctx.handler().getClass())) {
+                return ctx;
+            }
+            ctx = ctx.next;
+        }
+    }
+
+    @Override
+    public final List<String> names() {
+        List<String> list = new ArrayList<String>();
+        AbstractChannelHandlerContext ctx = head.next;
+        for (;;) {
+            if (ctx == null || ctx == tail) {
+                return list;
+            }
+            list.add(ctx.name());
+            ctx = ctx.next;
+        }
+    }
+
+    @Override
+    public final Map<String, ChannelHandler> toMap() {
+        Map<String, ChannelHandler> map = new LinkedHashMap<String, ChannelHandler>();
+        AbstractChannelHandlerContext ctx = head.next;
+        for (;;) {
+            if (ctx == tail) {
+                return map;
+            }
+            map.put(ctx.name(), ctx.handler());
+            ctx = ctx.next;
+        }
+    }
+
+    @Override
+    public final Iterator<Map.Entry<String, ChannelHandler>> iterator() {
+        return toMap().entrySet().iterator();
+    }
+
+    @Override
+    public final String toString() {
+        StringBuilder buf = new StringBuilder()
+                .append(StringUtil.simpleClassName(this))
+                .append('{');
+        AbstractChannelHandlerContext ctx = head.next;
+        for (;;) {
+            if (ctx == tail) {
+                break;
+            }
+            buf.append('(')
+                    .append(ctx.name())
+                    .append(" = ")
+                    .append(ctx.handler().getClass().getName())
+                    .append(')');
+            ctx = ctx.next;
+            if (ctx == tail) {
+                break;
+            }
+            buf.append(", ");
+        }
+        buf.append('}');
+        return buf.toString();
+    }
+
+    @Override
+    public final ChannelPipeline fireChannelRegistered() {
+        AbstractChannelHandlerContext.invokeChannelRegistered(head);
+        return this;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:channel从单线程执行器上注销了，事件传播完之后，头节点会把pipeline中的handler全部移除
+     */
+    @Override
+    public final ChannelPipeline fireChannelUnregistered() {
+        AbstractChannelHandlerContext.invokeChannelUnregistered(head);
+        return this;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:从尾节点开始，依次移除pipeline中的handler，并调用它们的handlerRemoved方法
+     */
+    private synchronized void destroy() {
+        AbstractChannelHandlerContext ctx = tail.prev;
+        while (ctx != head) {
+            atomicRemoveFromHandlerList(ctx);
+            callHandlerRemoved0(ctx);
+            ctx = ctx.prev;
+        }
+    }
+
+    @Override
+    public final ChannelPipeline fireChannelActive() {
+        AbstractChannelHandlerContext.invokeChannelActive(head);
+        return this;
+    }
+
+    @Override
+    public final ChannelPipeline fireChannelInactive() {
+        AbstractChannelHandlerContext.invokeChannelInactive(head);
+        return this;
+    }
+
+    @Override
+    public final ChannelPipeline fireExceptionCaught(Throwable cause) {
+        AbstractChannelHandlerContext.invokeExceptionCaught(head, cause);
+        return this;
+    }
+
+    @Override
+    public final ChannelPipeline fireUserEventTriggered(Object event) {
+        AbstractChannelHandlerContext.invokeUserEventTriggered(head, event);
+        return this;
+    }
+
+    @Override
+    public final ChannelPipeline fireChannelRead(Object msg) {
+        AbstractChannelHandlerContext.invokeChannelRead(head, msg);
+        return this;
+    }
+
+    @Override
+    public final ChannelPipeline fireChannelReadComplete() {
+        AbstractChannelHandlerContext.invokeChannelReadComplete(head);
+        return this;
+    }
+
+    @Override
+    public final ChannelPipeline fireChannelWritabilityChanged() {
+        AbstractChannelHandlerContext.invokeChannelWritabilityChanged(head);
+        return this;
+    }
+
+    @Override
+    public final ChannelFuture bind(SocketAddress localAddress) {
+        return tail.bind(localAddress);
+    }
+
+    @Override
+    public final ChannelFuture connect(SocketAddress remoteAddress) {
+        return tail.connect(remoteAddress);
+    }
+
+    @Override
+    public final ChannelFuture connect(SocketAddress remoteAddress, SocketAddress localAddress) {
+        return tail.connect(remoteAddress, localAddress);
+    }
+
+    @Override
+    public final ChannelFuture disconnect() {
+        return tail.disconnect();
+    }
+
+    @Override
+    public final ChannelFuture close() {
+        return tail.close();
+    }
+
+    @Override
+    public final ChannelFuture deregister() {
+        return tail.deregister();
+    }
+
+    @Override
+    public final ChannelPipeline flush() {
+        tail.flush();
+        return this;
+    }
+
+    @Override
+    public final ChannelFuture bind(SocketAddress localAddress, ChannelPromise promise) {
+        return tail.bind(localAddress, promise);
+    }
+
+    @Override
+    public final ChannelFuture connect(SocketAddress remoteAddress, ChannelPromise promise) {
+        return tail.connect(remoteAddress, promise);
+    }
+
+    @Override
+    public final ChannelFuture connect(
+            SocketAddress remoteAddress, SocketAddress localAddress, ChannelPromise promise) {
+        return tail.connect(remoteAddress, localAddress, promise);
+    }
+
+    @Override
+    public final ChannelFuture disconnect(ChannelPromise promise) {
+        return tail.disconnect(promise);
+    }
+
+    @Override
+    public final ChannelFuture close(ChannelPromise promise) {
+        return tail.close(promise);
+    }
+
+    @Override
+    public final ChannelFuture deregister(final ChannelPromise promise) {
+        return tail.deregister(promise);
+    }
+
+    @Override
+    public final ChannelPipeline read() {
+        tail.read();
+        return this;
+    }
+
+    @Override
+    public final ChannelFuture write(Object msg) {
+        return tail.write(msg);
+    }
+
+    @Override
+    public final ChannelFuture write(Object msg, ChannelPromise promise) {
+        return tail.write(msg, promise);
+    }
+
+    @Override
+    public final ChannelFuture writeAndFlush(Object msg, ChannelPromise promise) {
+        return tail.writeAndFlush(msg, promise);
+    }
+
+    @Override
+    public final ChannelFuture writeAndFlush(Object msg) {
+        return tail.writeAndFlush(msg);
+    }
+
+    @Override
+    public final ChannelPromise newPromise() {
+        return new DefaultChannelPromise(channel);
+    }
+
+    @Override
+    public final ChannelProgressivePromise newProgressivePromise() {
+        return new DefaultChannelProgressivePromise(channel);
+    }
+
+    @Override
+    public final ChannelFuture newSucceededFuture() {
+        return newPromise().setSuccess();
+    }
+
+    @Override
+    public final ChannelFuture newFailedFuture(Throwable cause) {
+        return newPromise().setFailure(cause);
+    }
+
+    private void checkDuplicateName(String name) {
+        if (context0(name) != null) {
+            throw new IllegalArgumentException("Duplicate handler name: " + name);
+        }
+    }
+
+    private AbstractChannelHandlerContext context0(String name) {
+        AbstractChannelHandlerContext context = head.next;
+        while (context != tail) {
+            if (context.name().equals(name)) {
+                return context;
+            }
+            context = context.next;
+        }
+        return null;
+    }
+
+    private AbstractChannelHandlerContext getContextOrDie(String name) {
+        AbstractChannelHandlerContext ctx = (AbstractChannelHandlerContext) context(name);
+        if (ctx == null) {
+            throw new NoSuchElementException(name);
+        } else {
+            return ctx;
+        }
+    }
+
+    private AbstractChannelHandlerContext getContextOrDie(ChannelHandler handler) {
+        AbstractChannelHandlerContext ctx = (AbstractChannelHandlerContext) context(handler);
+        if (ctx == null) {
+            throw new NoSuchElementException(handler.getClass().getName());
+        } else {
+            return ctx;
+        }
+    }
+
+    private void callHandlerAddedForAllHandlers() {
+        final PendingHandlerCallback pendingHandlerCallbackHead;
+        synchronized (this) {
+            assert !registered;
+            //从这以后再添加的handler，就不用再把回调存起来了
+            registered = true;
+            pendingHandlerCallbackHead = this.pendingHandlerCallbackHead;
+            this.pendingHandlerCallbackHead = null;
+        }
+        //回调要在锁外面执行，否则handlerAdded方法中再添加handler的时候，如果提交了任务给单线程执行器，可能会死锁
+        PendingHandlerCallback task = pendingHandlerCallbackHead;
+        while (task != null) {
+            task.run();
+            task = task.next;
+        }
+    }
+
+    private void callHandlerCallbackLater(AbstractChannelHandlerContext ctx, boolean added) {
+        assert !registered;
+        PendingHandlerCallback task = added ? new PendingHandlerAddedTask(ctx) : new PendingHandlerRemovedTask(ctx);
+        PendingHandlerCallback pending = pendingHandlerCallbackHead;
+        if (pending == null) {
+            pendingHandlerCallbackHead = task;
+        } else {
+            //放到链表的尾部，保证回调的顺序和添加的顺序一致
+            while (pending.next != null) {
+                pending = pending.next;
+            }
+            pending.next = task;
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:入站事件传播到了尾节点，说明用户的handler没有处理这个异常，打印一下日志
+     */
+    protected void onUnhandledInboundException(Throwable cause) {
+        try {
+            logger.warn("An exceptionCaught() event was fired, and it reached at the tail of the pipeline. " +
+                            "It usually means the last handler in the pipeline did not handle the exception.",
+                    cause);
+        } finally {
+            ReferenceCountUtil.release(cause);
+        }
+    }
+
+    protected void onUnhandledInboundChannelActive() {
+    }
+
+    protected void onUnhandledInboundChannelInactive() {
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:读到的消息没有被用户的handler处理，这里要把它释放了，否则会内存泄漏
+     */
+    protected void onUnhandledInboundMessage(Object msg) {
+        try {
+            logger.debug("Discarded inbound message {} that reached at the tail of the pipeline. " +
+                    "Please check your pipeline configuration.", msg);
+        } finally {
+            ReferenceCountUtil.release(msg);
+        }
+    }
+
+    protected void onUnhandledInboundReadComplete() {
+    }
+
+    protected void onUnhandledInboundUserEventTriggered(Object evt) {
+        ReferenceCountUtil.release(evt);
+    }
+
+    protected void onUnhandledChannelWritabilityChanged() {
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:尾节点，它实现了所有的入站方法，是入站事件的终点
+     */
+    final class TailContext extends AbstractChannelHandlerContext implements ChannelInboundHandler {
+
+        TailContext(DefaultChannelPipeline pipeline) {
+            super(pipeline, TAIL_NAME, TailContext.class);
+            setAddComplete();
+        }
+
+        @Override
+        public ChannelHandler handler() {
+            return this;
+        }
+
+        @Override
+        public void channelRegistered(ChannelHandlerContext ctx) { }
+
+        @Override
+        public void channelUnregistered(ChannelHandlerContext ctx) { }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) {
+            onUnhandledInboundChannelActive();
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) {
+            onUnhandledInboundChannelInactive();
+        }
+
+        @Override
+        public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+            onUnhandledChannelWritabilityChanged();
+        }
+
+        @Override
+        public void handlerAdded(ChannelHandlerContext ctx) { }
+
+        @Override
+        public void handlerRemoved(ChannelHandlerContext ctx) { }
+
+        @Override
+        public void userEventTriggered(ChannelHandlerContext ctx, Object evt) {
+            onUnhandledInboundUserEventTriggered(evt);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            onUnhandledInboundException(cause);
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            onUnhandledInboundMessage(msg);
+        }
+
+        @Override
+        public void channelReadComplete(ChannelHandlerContext ctx) {
+            onUnhandledInboundReadComplete();
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:头节点，它既是入站处理器也是出站处理器。出站操作最后都会到达这里，由它交给unsafe真正执行；
+     * 入站事件从这里开始传播，channel激活之后，也是它在这里注册读事件
+     */
+    final class HeadContext extends AbstractChannelHandlerContext
+            implements ChannelOutboundHandler, ChannelInboundHandler {
+
+        private final Channel.Unsafe unsafe;
+
+        HeadContext(DefaultChannelPipeline pipeline) {
+            super(pipeline, HEAD_NAME, HeadContext.class);
+            unsafe = pipeline.channel().unsafe();
+            setAddComplete();
+        }
+
+        @Override
+        public ChannelHandler handler() {
+            return this;
+        }
+
+        @Override
+        public void handlerAdded(ChannelHandlerContext ctx) {
+            // NOOP
+        }
+
+        @Override
+        public void handlerRemoved(ChannelHandlerContext ctx) {
+            // NOOP
+        }
+
+        @Override
+        public void bind(ChannelHandlerContext ctx, SocketAddress localAddress, ChannelPromise promise) {
+            unsafe.bind(localAddress, promise);
+        }
+
+        @Override
+        public void connect(
+                ChannelHandlerContext ctx,
+                SocketAddress remoteAddress, SocketAddress localAddress,
+                ChannelPromise promise) {
+            unsafe.connect(remoteAddress, localAddress, promise);
+        }
+
+        @Override
+        public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) {
+            unsafe.disconnect(promise);
+        }
+
+        @Override
+        public void close(ChannelHandlerContext ctx, ChannelPromise promise) {
+            unsafe.close(promise);
+        }
+
+        @Override
+        public void deregister(ChannelHandlerContext ctx, ChannelPromise promise) {
+            unsafe.deregister(promise);
+        }
+
+        @Override
+        public void read(ChannelHandlerContext ctx) {
+            unsafe.beginRead();
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+            unsafe.write(msg, promise);
+        }
+
+        @Override
+        public void flush(ChannelHandlerContext ctx) {
+            unsafe.flush();
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            ctx.fireExceptionCaught(cause);
+        }
+
+        @Override
+        public void channelRegistered(ChannelHandlerContext ctx) {
+            invokeHandlerAddedIfNeeded();
+            ctx.fireChannelRegistered();
+        }
+
+        @Override
+        public void channelUnregistered(ChannelHandlerContext ctx) {
+            ctx.fireChannelUnregistered();
+            //channel已经关闭了，pipeline中的handler都可以移除了
+            if (!channel.isOpen()) {
+                destroy();
+            }
+        }
+
+        /**
+         * @Author: PP-jessica
+         * @Description:channel激活之后，在这里向selector注册读事件，服务端channel绑定端口成功、客户端channel连接成功之后都会走到这里
+         */
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) {
+            ctx.fireChannelActive();
+            channel.read();
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) {
+            ctx.fireChannelInactive();
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ctx.fireChannelRead(msg);
+        }
+
+        @Override
+        public void channelReadComplete(ChannelHandlerContext ctx) {
+            ctx.fireChannelReadComplete();
+        }
+
+        @Override
+        public void userEventTriggered(ChannelHandlerContext ctx, Object evt) {
+            ctx.fireUserEventTriggered(evt);
+        }
+
+        @Override
+        public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+            ctx.fireChannelWritabilityChanged();
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:channel注册之前添加或删除handler时，延后执行的回调，用单向链表串起来
+     */
+    private abstract static class PendingHandlerCallback implements Runnable {
+        final AbstractChannelHandlerContext ctx;
+        PendingHandlerCallback next;
+
+        PendingHandlerCallback(AbstractChannelHandlerContext ctx) {
+            this.ctx = ctx;
+        }
+    }
+
+    private final class PendingHandlerAddedTask extends PendingHandlerCallback {
+
+        PendingHandlerAddedTask(AbstractChannelHandlerContext ctx) {
+            super(ctx);
+        }
+
+        @Override
+        public void run() {
+            callHandlerAdded0(ctx);
+        }
+    }
+
+    private final class PendingHandlerRemovedTask extends PendingHandlerCallback {
+
+        PendingHandlerRemovedTask(AbstractChannelHandlerContext ctx) {
+            super(ctx);
+        }
+
+        @Override
+        public void run() {
+            callHandlerRemoved0(ctx);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.pp.netty.channel;
+
+import com.pp.netty.util.concurrent.EventExecutor;
+import com.pp.netty.util.concurrent.Future;
+import com.pp.netty.util.concurrent.GenericFutureListener;
+
+/**
+ * @Author: PP-jessica
+ * @Description:可以报告进度的channelPromise的默认实现，用户调用channel的newProgressivePromise方法得到的就是它。
+ * 把它和FileRegion一起传给write方法，就可以通过GenericProgressiveFutureListener知道文件已经传输了多少字节
+ */
+public class DefaultChannelProgressivePromise extends DefaultChannelPromise implements ChannelProgressivePromise {
+
+    public DefaultChannelProgressivePromise(Channel channel) {
+        super(channel);
+    }
+
+    public DefaultChannelProgressivePromise(Channel channel, EventExecutor executor) {
+        super(channel, executor);
+    }
+
+    @Override
+    public ChannelProgressivePromise setProgress(long progress, long total) {
+        if (total < 0) {
+            //总量未知
+            total = -1;
+            if (progress < 0) {
+                throw new IllegalArgumentException("progress: " + progress + " (expected: >= 0)");
+            }
+        } else if (progress < 0 || progress > total) {
+            throw new IllegalArgumentException(
+                    "progress: " + progress + " (expected: 0 <= progress <= total (" + total + "))");
+        }
+        if (isDone()) {
+            throw new IllegalStateException("complete already");
+        }
+        notifyProgressiveListeners(progress, total);
+        return this;
+    }
+
+    @Override
+    public boolean tryProgress(long progress, long total) {
+        if (total < 0) {
+            total = -1;
+            if (progress < 0 || isDone()) {
+                return false;
+            }
+        } else if (progress < 0 || progress > total || isDone()) {
+            return false;
+        }
+        notifyProgressiveListeners(progress, total);
+        return true;
+    }
+
+    @Override
+    public ChannelProgressivePromise setSuccess() {
+        return setSuccess(null);
+    }
+
+    @Override
+    public ChannelProgressivePromise setSuccess(Void result) {
+        super.setSuccess(result);
+        return this;
+    }
+
+    @Override
+    public ChannelProgressivePromise setFailure(Throwable cause) {
+        super.setFailure(cause);
+        return this;
+    }
+
+    @Override
+    public ChannelProgressivePromise addListener(GenericFutureListener<? extends Future<? super Void>> listener) {
+        super.addListener(listener);
+        return this;
+    }
+
+    @Override
+    public ChannelProgressivePromise addListeners(GenericFutureListener<? extends Future<? super Void>>... listeners) {
+        super.addListeners(listeners);
+        return this;
+    }
+
+    @Override
+    public ChannelProgressivePromise removeListener(GenericFutureListener<? extends Future<? super Void>> listener) {
+        super.removeListener(listener);
+        return this;
+    }
+
+    @Override
+    public ChannelProgressivePromise removeListeners(GenericFutureListener<? extends Future<? super Void>>... listeners) {
+        super.removeListeners(listeners);
+        return this;
+    }
+
+    @Override
+    public ChannelProgressivePromise sync() throws InterruptedException {
+        super.sync();
+        return this;
+    }
+
+    @Override
+    public ChannelProgressivePromise syncUninterruptibly() {
+        super.syncUninterruptibly();
+        return this;
+    }
+
+    @Override
+    public ChannelProgressivePromise await() throws InterruptedException {
+        super.await();
+        return this;
+    }
+
+    @Override
+    public ChannelProgressivePromise awaitUninterruptibly() {
+        super.awaitUninterruptibly();
+        return this;
+    }
+
+    @Override
+    public ChannelProgressivePromise unvoid() {
+        return this;
+    }
+}
@@ -0,0 +1,24 @@
+package com.pp.netty.channel;
+
+import com.pp.netty.util.internal.PlatformDependent;
+
+import java.util.Queue;
+
+/**
+ * @Author: PP-jessica
+ * @Description:默认的任务队列工厂，创建的是jctools中的mpsc队列。任务队列会被很多线程同时提交任务，
+ * 但只有单线程执行器自己的线程会取任务，用mpsc队列就避免了LinkedBlockingQueue每次offer和poll都要加锁的开销
+ */
+public final class DefaultEventLoopTaskQueueFactory implements EventLoopTaskQueueFactory {
+
+    public static final EventLoopTaskQueueFactory INSTANCE = new DefaultEventLoopTaskQueueFactory();
+
+    private DefaultEventLoopTaskQueueFactory() { }
+
+    @Override
+    public Queue<Runnable> newTaskQueue(int maxCapacity) {
+        //容量是Integer的最大值，就创建无界队列，否则创建有界的分块队列
+        return maxCapacity == Integer.MAX_VALUE ? PlatformDependent.<Runnable>newMpscQueue()
+                : PlatformDependent.<Runnable>newMpscQueue(maxCapacity);
+    }
+}
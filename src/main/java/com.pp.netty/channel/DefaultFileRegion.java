@@ -0,0 +1,142 @@
+package com.pp.netty.channel;
+
+import com.pp.netty.util.AbstractReferenceCounted;
+import com.pp.netty.util.IllegalReferenceCountException;
+import com.pp.netty.util.internal.ObjectUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * @Author: PP-jessica
+ * @Description:FileRegion的默认实现。可以直接传入一个已经打开的FileChannel，也可以只传入File，
+ * 等到真正传输的时候再打开文件，这样大量的文件在写缓冲区中排队的时候就不会占用那么多文件描述符。引用计数减到0的时候关闭文件
+ */
+public class DefaultFileRegion extends AbstractReferenceCounted implements FileRegion {
+
+    private static final Logger logger = LoggerFactory.getLogger(DefaultFileRegion.class);
+
+    private final File f;
+
+    private final long position;
+
+    private final long count;
+
+    private long transferred;
+
+    private FileChannel file;
+
+    public DefaultFileRegion(FileChannel file, long position, long count) {
+        this.file = ObjectUtil.checkNotNull(file, "file");
+        this.position = ObjectUtil.checkPositiveOrZero(position, "position");
+        this.count = ObjectUtil.checkPositiveOrZero(count, "count");
+        this.f = null;
+    }
+
+    public DefaultFileRegion(File f, long position, long count) {
+        this.f = ObjectUtil.checkNotNull(f, "f");
+        this.position = ObjectUtil.checkPositiveOrZero(position, "position");
+        this.count = ObjectUtil.checkPositiveOrZero(count, "count");
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:文件是否已经打开了
+     */
+    public boolean isOpen() {
+        return file != null;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:打开文件，已经打开过了就什么也不做
+     */
+    public void open() throws IOException {
+        if (!isOpen() && refCnt() > 0) {
+            file = new RandomAccessFile(f, "r").getChannel();
+        }
+    }
+
+    @Override
+    public long position() {
+        return position;
+    }
+
+    @Override
+    public long count() {
+        return count;
+    }
+
+    @Override
+    public long transferred() {
+        return transferred;
+    }
+
+    @Override
+    public long transferTo(WritableByteChannel target, long position) throws IOException {
+        long count = this.count - position;
+        if (count < 0 || position < 0) {
+            throw new IllegalArgumentException(
+                    "position out of range: " + position +
+                    " (expected: 0 - " + (this.count - 1) + ')');
+        }
+        if (count == 0) {
+            return 0L;
+        }
+        if (refCnt() == 0) {
+            throw new IllegalReferenceCountException(0);
+        }
+        open();
+        long written = file.transferTo(this.position + position, count, target);
+        if (written > 0) {
+            transferred += written;
+        } else if (written == 0) {
+            //一个字节也没传输，可能是文件被截断了，文件的长度已经不够了，这时候要抛出异常，否则会一直重试
+            validate(this, position);
+        }
+        return written;
+    }
+
+    @Override
+    protected void deallocate() {
+        FileChannel file = this.file;
+        if (file == null) {
+            return;
+        }
+        this.file = null;
+        try {
+            file.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close a file.", e);
+        }
+    }
+
+    @Override
+    public FileRegion retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public FileRegion retain(int increment) {
+        super.retain(increment);
+        return this;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:检查文件的长度是否还够传输剩下的数据
+     */
+    static void validate(DefaultFileRegion region, long position) throws IOException {
+        long size = region.file.size();
+        long count = region.count - position;
+        if (region.position + count + position > size) {
+            throw new IOException("Underlying file size " + size + " smaller then requested count " + region.count);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.pp.netty.channel;
+
+import com.pp.netty.util.internal.ObjectUtil;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.ByteBufAllocator;
+
+/**
+ * @Author: PP-jessica
+ * @Description:MaxMessagesRecvByteBufAllocator的默认实现，handle中记录了一次读事件中读取的次数和字节数
+ */
+public abstract class DefaultMaxMessagesRecvByteBufAllocator implements MaxMessagesRecvByteBufAllocator {
+
+    //一次读事件中默认最多读取16次
+    private volatile int maxMessagesPerRead;
+
+    //读到的不是字节而是消息的时候，比如服务端channel接收连接，判断要不要继续读取就不用看读到了多少字节
+    private final boolean ignoreBytesRead;
+
+    public DefaultMaxMessagesRecvByteBufAllocator() {
+        this(16);
+    }
+
+    public DefaultMaxMessagesRecvByteBufAllocator(int maxMessagesPerRead) {
+        this(maxMessagesPerRead, false);
+    }
+
+    DefaultMaxMessagesRecvByteBufAllocator(int maxMessagesPerRead, boolean ignoreBytesRead) {
+        this.ignoreBytesRead = ignoreBytesRead;
+        maxMessagesPerRead(maxMessagesPerRead);
+    }
+
+    @Override
+    public int maxMessagesPerRead() {
+        return maxMessagesPerRead;
+    }
+
+    @Override
+    public MaxMessagesRecvByteBufAllocator maxMessagesPerRead(int maxMessagesPerRead) {
+        ObjectUtil.checkPositive(maxMessagesPerRead, "maxMessagesPerRead");
+        this.maxMessagesPerRead = maxMessagesPerRead;
+        return this;
+    }
+
+    public abstract class MaxMessageHandle implements Handle {
+
+        private int maxMessagePerRead;
+
+        private int totalMessages;
+
+        private int totalBytesRead;
+
+        private int attemptedBytesRead;
+
+        private int lastBytesRead;
+
+        @Override
+        public void reset(ChannelConfig config) {
+            maxMessagePerRead = maxMessagesPerRead();
+            totalMessages = totalBytesRead = 0;
+        }
+
+        @Override
+        public ByteBuf allocate(ByteBufAllocator alloc) {
+            //接收数据的ByteBuf要直接交给socket去写，所以优先分配直接内存
+            return alloc.ioBuffer(guess());
+        }
+
+        @Override
+        public final void incMessagesRead(int amt) {
+            totalMessages += amt;
+        }
+
+        @Override
+        public void lastBytesRead(int bytes) {
+            lastBytesRead = bytes;
+            if (bytes > 0) {
+                totalBytesRead += bytes;
+            }
+        }
+
+        @Override
+        public final int lastBytesRead() {
+            return lastBytesRead;
+        }
+
+        /**
+         * @Author: PP-jessica
+         * @Description:读取次数没有超过限制，并且上一次把缓冲区读满了，说明socket中可能还有数据，继续读取。
+         * 如果上一次没有读满，socket中大概率已经没有数据了，再读一次只会白白多一次系统调用。
+         * 接收连接的时候只看读取的次数，doReadMessages返回0的时候会直接退出循环
+         */
+        @Override
+        public boolean continueReading() {
+            return totalMessages < maxMessagePerRead &&
+                    (ignoreBytesRead || totalBytesRead > 0 && attemptedBytesRead == lastBytesRead);
+        }
+
+        @Override
+        public void readComplete() {
+        }
+
+        @Override
+        public int attemptedBytesRead() {
+            return attemptedBytesRead;
+        }
+
+        @Override
+        public void attemptedBytesRead(int bytes) {
+            attemptedBytesRead = bytes;
+        }
+
+        protected final int totalBytesRead() {
+            //防止溢出
+            return totalBytesRead < 0 ? Integer.MAX_VALUE : totalBytesRead;
+        }
+    }
+}
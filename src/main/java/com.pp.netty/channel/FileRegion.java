@@ -0,0 +1,46 @@
+package com.pp.netty.channel;
+
+import com.pp.netty.util.ReferenceCounted;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * @Author: PP-jessica
+ * @Description:文件的一段区域，可以直接交给channel的write方法写出去。NioSocketChannel会用FileChannel.transferTo把文件的数据
+ * 直接从内核的页缓存发送到socket，数据不用先读到用户空间的ByteBuf中，这就是常说的零拷贝。
+ * socket的发送缓冲区满了的时候一次只能传输一部分，所以要记录已经传输的字节数，等写事件到来之后接着传输
+ */
+public interface FileRegion extends ReferenceCounted {
+
+    /**
+     * @Author: PP-jessica
+     * @Description:要传输的区域在文件中的起始位置
+     */
+    long position();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:已经传输的字节数
+     */
+    long transferred();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:要传输的总字节数
+     */
+    long count();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把区域中从position开始的数据传输到target中，position是相对于区域起始位置的偏移量，
+     * 返回实际传输的字节数
+     */
+    long transferTo(WritableByteChannel target, long position) throws IOException;
+
+    @Override
+    FileRegion retain();
+
+    @Override
+    FileRegion retain(int increment);
+}
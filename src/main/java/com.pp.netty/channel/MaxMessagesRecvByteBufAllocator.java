@@ -0,0 +1,13 @@
+package com.pp.netty.channel;
+
+/**
+ * @Author: PP-jessica
+ * @Description:限制一次读事件中最多读取多少次的缓冲区分配器，这样一个数据量很大的channel就不会一直占用单线程执行器，
+ * 让注册在同一个selector上的其他channel也有机会被处理
+ */
+public interface MaxMessagesRecvByteBufAllocator extends RecvByteBufAllocator {
+
+    int maxMessagesPerRead();
+
+    MaxMessagesRecvByteBufAllocator maxMessagesPerRead(int maxMessagesPerRead);
+}
@@ -0,0 +1,68 @@
+package com.pp.netty.channel;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.ByteBufAllocator;
+
+/**
+ * @Author: PP-jessica
+ * @Description:接收数据时的缓冲区分配器，它决定每次读取数据时分配多大的缓冲区，以及一次读事件中最多读取多少次
+ */
+public interface RecvByteBufAllocator {
+
+    /**
+     * @Author: PP-jessica
+     * @Description:每个channel都会创建一个自己的handle，handle中会记录这个channel每次读到了多少数据
+     */
+    Handle newHandle();
+
+    interface Handle {
+
+        /**
+         * @Author: PP-jessica
+         * @Description:用传进来的分配器分配一个接收数据的ByteBuf，大小由guess方法决定
+         */
+        ByteBuf allocate(ByteBufAllocator alloc);
+
+        /**
+         * @Author: PP-jessica
+         * @Description:预测下一次读取需要多大的缓冲区
+         */
+        int guess();
+
+        /**
+         * @Author: PP-jessica
+         * @Description:每一次读事件开始的时候重置handle中的统计数据
+         */
+        void reset(ChannelConfig config);
+
+        void incMessagesRead(int numMessages);
+
+        /**
+         * @Author: PP-jessica
+         * @Description:记录上一次读取到的字节数
+         */
+        void lastBytesRead(int bytes);
+
+        int lastBytesRead();
+
+        /**
+         * @Author: PP-jessica
+         * @Description:记录这一次尝试读取的字节数，也就是缓冲区的可写字节数
+         */
+        void attemptedBytesRead(int bytes);
+
+        int attemptedBytesRead();
+
+        /**
+         * @Author: PP-jessica
+         * @Description:判断是否还要继续读取
+         */
+        boolean continueReading();
+
+        /**
+         * @Author: PP-jessica
+         * @Description:一次读事件结束了，根据这一次读到的数据量调整下一次分配的缓冲区大小
+         */
+        void readComplete();
+    }
+}
@@ -0,0 +1,24 @@
+package com.pp.netty.channel;
+
+/**
+ * @Author: PP-jessica
+ * @Description:服务端channel使用的分配器，服务端channel读取的是客户端连接，不会用它分配缓冲区，只用它限制一次读事件中最多接收多少个连接。
+ * 一次唤醒最多接收maxMessagesPerRead个连接，剩下的连接留到下一次select再接收，这样大量连接同时到来的时候，
+ * 接收连接的线程也不会一直卡在accept上，已经接收的连接可以先交给工作线程处理
+ */
+public final class ServerChannelRecvByteBufAllocator extends DefaultMaxMessagesRecvByteBufAllocator {
+
+    public ServerChannelRecvByteBufAllocator() {
+        super(16, true);
+    }
+
+    @Override
+    public Handle newHandle() {
+        return new MaxMessageHandle() {
+            @Override
+            public int guess() {
+                return 128;
+            }
+        };
+    }
+}
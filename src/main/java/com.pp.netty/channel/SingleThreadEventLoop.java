@@ -21,11 +21,64 @@ public abstract class SingleThreadEventLoop extends SingleThreadEventExecutor im
     //任务队列的容量，默认是Integer的最大值
     protected static final int DEFAULT_MAX_PENDING_TASKS = Integer.MAX_VALUE;
 
+    //尾部任务队列，每一轮循环执行完普通任务之后才会执行这里的任务
+    private final Queue<Runnable> tailTasks;
 
     protected SingleThreadEventLoop(EventLoopGroup parent, Executor executor,
                                     boolean addTaskWakesUp, Queue<Runnable> taskQueue, Queue<Runnable> tailTaskQueue,
                                     RejectedExecutionHandler rejectedExecutionHandler) {
         super(parent, executor, addTaskWakesUp, taskQueue, rejectedExecutionHandler);
+        tailTasks = ObjectUtil.checkNotNull(tailTaskQueue, "tailTaskQueue");
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:提交一个尾部任务，它会在当前这一轮循环的所有普通任务执行完之后再执行。
+     * 一次selector唤醒处理的所有事件都可以共用一次尾部任务，比如合并flush、批量导出统计数据、延迟修改感兴趣的事件等等。
+     * 和execute一样，执行器关闭之后提交的尾部任务会被拒绝；执行器的线程还没启动的话会先启动线程，否则尾部任务永远不会执行
+     */
+    public final void executeAfterEventLoopIteration(Runnable task) {
+        ObjectUtil.checkNotNull(task, "task");
+        if (isShutdown()) {
+            reject();
+        }
+        if (!tailTasks.offer(task)) {
+            reject(task);
+        }
+        if (!inEventLoop(Thread.currentThread())) {
+            startThread();
+            //添加任务的时候执行器正好关闭了，任务可能不会再被执行，能删掉的话就拒绝它
+            if (isShutdown()) {
+                boolean reject = false;
+                try {
+                    reject = tailTasks.remove(task);
+                } catch (UnsupportedOperationException e) {
+                    //jctools的队列不支持删除任务
+                }
+                if (reject) {
+                    reject();
+                }
+            }
+            //线程如果阻塞在selector上，要唤醒它，否则尾部任务要等到下一次select返回才会执行
+            wakeup(false);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:执行完普通任务之后，再把尾部任务队列中的任务都执行了
+     */
+    @Override
+    protected void afterRunningAllTasks() {
+        runAllTasksFrom(tailTasks);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:尾部任务的个数
+     */
+    public int registeredTailTasks() {
+        return tailTasks.size();
     }
 
     /**
@@ -44,7 +97,7 @@ public abstract class SingleThreadEventLoop extends SingleThreadEventExecutor im
 
     @Override
     protected boolean hasTasks() {
-        return super.hasTasks();
+        return super.hasTasks() || !tailTasks.isEmpty();
     }
 
     /**
@@ -0,0 +1,59 @@
+package com.pp.netty.channel;
+
+import com.pp.netty.util.internal.ObjectUtil;
+
+/**
+ * @Author: PP-jessica
+ * @Description:写缓冲区的高低水位线。写缓冲区中待写出的字节数超过高水位线，channel就变成不可写的状态；
+ * 等数据写出去，待写出的字节数降到低水位线以下，channel才重新变成可写的状态。两条线分开是为了避免在一个值附近来回切换状态
+ */
+public final class WriteBufferWaterMark {
+
+    private static final int DEFAULT_LOW_WATER_MARK = 32 * 1024;
+
+    private static final int DEFAULT_HIGH_WATER_MARK = 64 * 1024;
+
+    public static final WriteBufferWaterMark DEFAULT =
+            new WriteBufferWaterMark(DEFAULT_LOW_WATER_MARK, DEFAULT_HIGH_WATER_MARK, false);
+
+    private final int low;
+
+    private final int high;
+
+    public WriteBufferWaterMark(int low, int high) {
+        this(low, high, true);
+    }
+
+    WriteBufferWaterMark(int low, int high, boolean validate) {
+        if (validate) {
+            ObjectUtil.checkPositiveOrZero(low, "low");
+            if (high < low) {
+                throw new IllegalArgumentException(
+                        "write buffer's high water mark cannot be less than " +
+                                " low water mark (" + low + "): " +
+                                high);
+            }
+        }
+        this.low = low;
+        this.high = high;
+    }
+
+    public int low() {
+        return low;
+    }
+
+    public int high() {
+        return high;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(55)
+            .append("WriteBufferWaterMark(low: ")
+            .append(low)
+            .append(", high: ")
+            .append(high)
+            .append(")");
+        return builder.toString();
+    }
+}
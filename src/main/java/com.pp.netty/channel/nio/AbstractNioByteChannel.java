@@ -1,13 +1,32 @@
 package com.pp.netty.channel.nio;
 
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.ByteBufAllocator;
 import com.pp.netty.channel.Channel;
+import com.pp.netty.channel.ChannelConfig;
+import com.pp.netty.channel.ChannelOutboundBuffer;
+import com.pp.netty.channel.ChannelPipeline;
+import com.pp.netty.channel.FileRegion;
+import com.pp.netty.channel.RecvByteBufAllocator;
+import com.pp.netty.util.ReferenceCountUtil;
 
-import java.nio.ByteBuffer;
+import java.io.IOException;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 
 public abstract class AbstractNioByteChannel extends AbstractNioChannel{
 
+    //socket的发送缓冲区满了，一个字节也没写出去的时候返回这个值，让写循环直接结束
+    protected static final int WRITE_STATUS_SNDBUF_FULL = Integer.MAX_VALUE;
+
+    //写循环的次数用完了但数据还没写完的时候，提交这个任务接着刷新，单线程执行器在两次写之间还可以处理别的channel的读写
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            ((AbstractNioUnsafe) unsafe()).flush0();
+        }
+    };
+
     protected AbstractNioByteChannel(Channel parent, SelectableChannel ch) {
         super(parent, ch, SelectionKey.OP_READ);
     }
@@ -18,21 +37,240 @@ public abstract class AbstractNioByteChannel extends AbstractNioChannel{
     }
 
     protected class NioByteUnsafe extends AbstractNioUnsafe {
+
+        /**
+         * @Author: PP-jessica
+         * @Description:对端关闭了连接，这边也关闭channel
+         */
+        private void closeOnRead() {
+            if (isOpen()) {
+                close(newPromise());
+            }
+        }
+
+        private void handleReadException(ChannelPipeline pipeline, ByteBuf byteBuf, Throwable cause, boolean close,
+                                         RecvByteBufAllocator.Handle allocHandle) {
+            //已经读到的数据还是要交给用户处理，没读到数据的ByteBuf直接释放
+            if (byteBuf != null) {
+                if (byteBuf.isReadable()) {
+                    readPending = false;
+                    pipeline.fireChannelRead(byteBuf);
+                } else {
+                    byteBuf.release();
+                }
+            }
+            allocHandle.readComplete();
+            pipeline.fireChannelReadComplete();
+            pipeline.fireExceptionCaught(cause);
+            if (close || cause instanceof IOException) {
+                closeOnRead();
+            }
+        }
+
         /**
          * @Author: PP-jessica
-         * @Description:该方法回到了正确的位置
+         * @Description:该方法回到了正确的位置。缓冲区的大小由分配器根据之前读到的数据量决定，
+         * 一次读事件中会循环读取，直到socket中没有数据或者读取次数达到了maxMessagesPerRead
          */
         @Override
         public final void read() {
-            //暂时用最原始简陋的方法处理
-            ByteBuffer byteBuf = ByteBuffer.allocate(1024);
+            final ChannelConfig config = config();
+            final ChannelPipeline pipeline = pipeline();
+            final RecvByteBufAllocator.Handle allocHandle = recvBufAllocHandle();
+            final ByteBufAllocator allocator = config.getAllocator();
+            //重置这一次读事件的统计数据
+            allocHandle.reset(config);
+            ByteBuf byteBuf = null;
+            boolean close = false;
             try {
-                doReadBytes(byteBuf);
-            } catch (Exception e) {
-                e.printStackTrace();
+                do {
+                    byteBuf = allocHandle.allocate(allocator);
+                    allocHandle.lastBytesRead(doReadBytes(byteBuf));
+                    if (allocHandle.lastBytesRead() <= 0) {
+                        //没有读到数据，缓冲区直接释放
+                        byteBuf.release();
+                        byteBuf = null;
+                        //返回-1说明对端关闭了连接
+                        close = allocHandle.lastBytesRead() < 0;
+                        if (close) {
+                            readPending = false;
+                        }
+                        break;
+                    }
+                    allocHandle.incMessagesRead(1);
+                    readPending = false;
+                    //ByteBuf的读写索引是分开的，读到的数据不用flip就可以直接交给pipeline中的handler处理，
+                    //ByteBuf用完之后要由处理它的handler负责释放，没有handler处理的话，尾节点会把它释放了
+                    pipeline.fireChannelRead(byteBuf);
+                    byteBuf = null;
+                } while (allocHandle.continueReading());
+                //根据这一次读事件读到的数据量，调整下一次分配的缓冲区大小
+                allocHandle.readComplete();
+                pipeline.fireChannelReadComplete();
+                if (close) {
+                    closeOnRead();
+                }
+            } catch (Throwable t) {
+                handleReadException(pipeline, byteBuf, t, close, allocHandle);
             }
         }
     }
 
-    protected abstract int doReadBytes(ByteBuffer buf) throws Exception;
+    /**
+     * @Author: PP-jessica
+     * @Description:用户写的堆内存ByteBuf要先拷贝到直接内存中，否则jdk在写socket的时候也会自己再拷贝一次，
+     * 而且jdk用来拷贝的临时直接内存还会缓存在线程中，消息大的时候非常占内存
+     */
+    @Override
+    protected final Object filterOutboundMessage(Object msg) {
+        if (msg instanceof ByteBuf) {
+            ByteBuf buf = (ByteBuf) msg;
+            if (buf.isDirect()) {
+                return msg;
+            }
+            return newDirectBuffer(buf);
+        }
+        //FileRegion不用转换，写的时候直接用transferTo传输
+        if (msg instanceof FileRegion) {
+            return msg;
+        }
+        throw new UnsupportedOperationException(
+                "unsupported message type: " + msg.getClass().getName() + " (expected: ByteBuf, FileRegion)");
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把堆内存的ByteBuf拷贝到直接内存中，并释放原来的ByteBuf
+     */
+    protected final ByteBuf newDirectBuffer(ByteBuf buf) {
+        final int readableBytes = buf.readableBytes();
+        if (readableBytes == 0) {
+            return buf;
+        }
+        ByteBuf directBuf = config().getAllocator().directBuffer(readableBytes);
+        directBuf.writeBytes(buf, buf.readerIndex(), readableBytes);
+        ReferenceCountUtil.safeRelease(buf);
+        return directBuf;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把写缓冲区中的消息一条一条地写到socket中，最多循环writeSpinCount次
+     */
+    @Override
+    protected void doWrite(ChannelOutboundBuffer in) throws Exception {
+        int writeSpinCount = config().getWriteSpinCount();
+        do {
+            Object msg = in.current();
+            if (msg == null) {
+                //数据都写完了，不再关注写事件
+                clearOpWrite();
+                return;
+            }
+            writeSpinCount -= doWriteInternal(in, msg);
+        } while (writeSpinCount > 0);
+        incompleteWrite(writeSpinCount < 0);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:只写写缓冲区中的第一条消息，gathering write用不了的时候由子类调用
+     */
+    protected final int doWrite0(ChannelOutboundBuffer in) throws Exception {
+        Object msg = in.current();
+        if (msg == null) {
+            return 0;
+        }
+        return doWriteInternal(in, msg);
+    }
+
+    private int doWriteInternal(ChannelOutboundBuffer in, Object msg) throws Exception {
+        if (msg instanceof ByteBuf) {
+            ByteBuf buf = (ByteBuf) msg;
+            if (!buf.isReadable()) {
+                in.remove();
+                return 0;
+            }
+            final int localFlushedAmount = doWriteBytes(buf);
+            if (localFlushedAmount > 0) {
+                in.progress(localFlushedAmount);
+                if (!buf.isReadable()) {
+                    in.remove();
+                }
+                return 1;
+            }
+        } else if (msg instanceof FileRegion) {
+            FileRegion region = (FileRegion) msg;
+            if (region.transferred() >= region.count()) {
+                in.remove();
+                return 0;
+            }
+            //文件一次传输不完的时候，已经传输的字节数记录在FileRegion中，等写事件到来之后接着传输
+            long localFlushedAmount = doWriteFileRegion(region);
+            if (localFlushedAmount > 0) {
+                in.progress(localFlushedAmount);
+                if (region.transferred() >= region.count()) {
+                    in.remove();
+                }
+                return 1;
+            }
+        } else {
+            throw new Error();
+        }
+        return WRITE_STATUS_SNDBUF_FULL;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:数据没有写完的时候调用该方法。setOpWrite为true说明socket的发送缓冲区满了，注册写事件，等缓冲区有空间了selector会通知我们；
+     * 为false说明只是写循环的次数用完了，缓冲区还有空间，这时候不用注册写事件，提交一个任务接着写就行
+     */
+    protected final void incompleteWrite(boolean setOpWrite) {
+        if (setOpWrite) {
+            setOpWrite();
+        } else {
+            clearOpWrite();
+            eventLoop().execute(flushTask);
+        }
+    }
+
+    protected final void setOpWrite() {
+        final SelectionKey key = selectionKey();
+        if (!key.isValid()) {
+            return;
+        }
+        final int interestOps = key.interestOps();
+        if ((interestOps & SelectionKey.OP_WRITE) == 0) {
+            key.interestOps(interestOps | SelectionKey.OP_WRITE);
+        }
+    }
+
+    protected final void clearOpWrite() {
+        final SelectionKey key = selectionKey();
+        if (!key.isValid()) {
+            return;
+        }
+        final int interestOps = key.interestOps();
+        if ((interestOps & SelectionKey.OP_WRITE) != 0) {
+            key.interestOps(interestOps & ~SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:从socket中读取数据写到ByteBuf中，返回读取到的字节数，返回-1说明对端关闭了连接
+     */
+    protected abstract int doReadBytes(ByteBuf buf) throws Exception;
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把ByteBuf中可读的字节写到socket中，返回实际写出的字节数
+     */
+    protected abstract int doWriteBytes(ByteBuf buf) throws Exception;
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把FileRegion中还没有传输的数据传输到socket中，返回实际传输的字节数
+     */
+    protected abstract long doWriteFileRegion(FileRegion region) throws Exception;
 }
@@ -2,13 +2,19 @@ package com.pp.netty.channel.nio;
 
 import com.pp.netty.channel.AbstractChannel;
 import com.pp.netty.channel.Channel;
+import com.pp.netty.channel.ChannelFuture;
+import com.pp.netty.channel.ChannelFutureListener;
 import com.pp.netty.channel.ChannelPromise;
+import com.pp.netty.channel.ConnectTimeoutException;
 import com.pp.netty.channel.EventLoop;
+import com.pp.netty.util.concurrent.ScheduledFuture;
 
 import java.io.IOException;
 import java.net.SocketAddress;
+import java.nio.channels.ConnectionPendingException;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
+import java.util.concurrent.TimeUnit;
 
 public abstract class AbstractNioChannel extends AbstractChannel {
 
@@ -24,6 +30,12 @@ public abstract class AbstractNioChannel extends AbstractChannel {
     //是否还有未读取的数据
     boolean readPending;
 
+    //还没有完成的连接操作的promise，连接事件到来之后在finishConnect方法中设置结果
+    private ChannelPromise connectPromise;
+
+    //连接超时的定时任务，连接完成之后要取消掉
+    private ScheduledFuture<?> connectTimeoutFuture;
+
 
     protected AbstractNioChannel(Channel parent, SelectableChannel ch, int readInterestOp) {
         super(parent);
@@ -98,29 +110,132 @@ public abstract class AbstractNioChannel extends AbstractChannel {
 
         /**
          * @Author: PP-jessica
-         * @Description:该方法回到了原本的位置
+         * @Description:该方法回到了原本的位置。doConnect返回true说明直接连接成功了，可以设置promise；
+         * 返回false说明连接还在进行中，连接事件已经注册到selector上了，要等到finishConnect方法中才能知道连接的结果
          */
         @Override
         public final void connect(final SocketAddress remoteAddress, final SocketAddress localAddress, final ChannelPromise promise) {
+            if (!promise.setUncancellable() || !ensureOpen(promise)) {
+                return;
+            }
+            try {
+                if (connectPromise != null) {
+                    throw new ConnectionPendingException();
+                }
+                boolean wasActive = isActive();
+                if (doConnect(remoteAddress, localAddress)) {
+                    fulfillConnectPromise(promise, wasActive);
+                } else {
+                    connectPromise = promise;
+                    //连接还在进行中，如果用户配置了连接超时时间，就提交一个定时任务，到时间了连接还没完成就让promise失败并关闭channel，
+                    //否则对端一直不回应的话，用户的promise就永远等不到结果了
+                    int connectTimeoutMillis = config().getConnectTimeoutMillis();
+                    if (connectTimeoutMillis > 0) {
+                        connectTimeoutFuture = eventLoop().schedule(new Runnable() {
+                            @Override
+                            public void run() {
+                                ChannelPromise connectPromise = AbstractNioChannel.this.connectPromise;
+                                ConnectTimeoutException cause =
+                                        new ConnectTimeoutException("connection timed out: " + remoteAddress);
+                                if (connectPromise != null && connectPromise.tryFailure(cause)) {
+                                    close(newPromise());
+                                }
+                            }
+                        }, connectTimeoutMillis, TimeUnit.MILLISECONDS);
+                    }
+                    promise.addListener(new ChannelFutureListener() {
+                        @Override
+                        public void operationComplete(ChannelFuture future) throws Exception {
+                            if (future.isCancelled()) {
+                                if (connectTimeoutFuture != null) {
+                                    connectTimeoutFuture.cancel(false);
+                                }
+                                connectPromise = null;
+                                close(newPromise());
+                            }
+                        }
+                    });
+                }
+            } catch (Throwable t) {
+                promise.tryFailure(t);
+                closeIfClosed();
+            }
+        }
+
+        /**
+         * @Author: PP-jessica
+         * @Description:连接成功之后设置promise，并触发channelActive事件，由头节点注册读事件，channel从这时候开始才能真正读写数据
+         */
+        private void fulfillConnectPromise(ChannelPromise promise, boolean wasActive) {
+            if (promise == null) {
+                return;
+            }
+            boolean active = isActive();
+            boolean promiseSet = promise.trySuccess();
+            //用户可能在promise的回调中关闭了channel，这时候isActive返回false，就不用再触发channelActive事件了
+            if (!wasActive && active) {
+                pipeline().fireChannelActive();
+            }
+            //promise已经被用户取消了，关闭channel
+            if (!promiseSet) {
+                close(newPromise());
+            }
+        }
+
+        private void fulfillConnectPromise(ChannelPromise promise, Throwable cause) {
+            if (promise == null) {
+                return;
+            }
+            promise.tryFailure(cause);
+            closeIfClosed();
+        }
+
+        /**
+         * @Author: PP-jessica
+         * @Description:连接事件到来之后，由NioEventLoop调用该方法，完成连接
+         */
+        @Override
+        public final void finishConnect() {
+            assert eventLoop().inEventLoop(Thread.currentThread());
             try {
-                boolean doConnect = doConnect(remoteAddress, localAddress);
-                if (!doConnect) {
-                    promise.trySuccess();
+                boolean wasActive = isActive();
+                doFinishConnect();
+                fulfillConnectPromise(connectPromise, wasActive);
+            } catch (Throwable t) {
+                fulfillConnectPromise(connectPromise, t);
+            } finally {
+                //连接已经有结果了，超时任务也就没有用了
+                if (connectTimeoutFuture != null) {
+                    connectTimeoutFuture.cancel(false);
                 }
-            } catch (Exception e) {
-                e.printStackTrace();
+                connectPromise = null;
             }
         }
 
         /**
          * @Author: PP-jessica
-         * @Description:暂时不做实现
+         * @Description:如果已经注册了写事件，说明socket的发送缓冲区满了，这时候就不用再尝试写了，等写事件到来之后再写
          */
         @Override
-        public final void finishConnect() {}
+        protected final void flush0() {
+            if (!isFlushPending()) {
+                super.flush0();
+            }
+        }
 
+        /**
+         * @Author: PP-jessica
+         * @Description:写事件到来之后，由NioEventLoop调用该方法，socket的发送缓冲区又有空间了，继续写
+         */
         @Override
-        public final void forceFlush() {}
+        public final void forceFlush() {
+            super.flush0();
+        }
+
+        private boolean isFlushPending() {
+            SelectionKey selectionKey = selectionKey();
+            return selectionKey.isValid() && (selectionKey.interestOps() & SelectionKey.OP_WRITE) != 0;
+        }
     }
 
     @Override
@@ -131,6 +246,15 @@ public abstract class AbstractNioChannel extends AbstractChannel {
     }
 
 
+    @Override
+    protected void doDeregister() throws Exception {
+        //取消key之后，channel就不会再被selector轮询到了
+        SelectionKey selectionKey = this.selectionKey;
+        if (selectionKey != null) {
+            selectionKey.cancel();
+        }
+    }
+
     @Override
     protected void doBeginRead() throws Exception {
         final SelectionKey selectionKey = this.selectionKey;
@@ -149,6 +273,12 @@ public abstract class AbstractNioChannel extends AbstractChannel {
 
     protected abstract boolean doConnect(SocketAddress remoteAddress, SocketAddress localAddress) throws Exception;
 
+    /**
+     * @Author: PP-jessica
+     * @Description:完成连接，连接失败会抛出异常
+     */
+    protected abstract void doFinishConnect() throws Exception;
+
     /**
      * @Author: PP-jessica
      * @Description:该方法先不实现，在引入了channelHandler后会实现
@@ -1,6 +1,10 @@
 package com.pp.netty.channel.nio;
 
 import com.pp.netty.channel.Channel;
+import com.pp.netty.channel.ChannelConfig;
+import com.pp.netty.channel.ChannelOutboundBuffer;
+import com.pp.netty.channel.ChannelPipeline;
+import com.pp.netty.channel.RecvByteBufAllocator;
 
 import java.nio.channels.SelectableChannel;
 import java.util.ArrayList;
@@ -38,11 +42,19 @@ public abstract class AbstractNioMessageChannel extends AbstractNioChannel {
          */
         private final List<Object> readBuf = new ArrayList<Object>();
 
+        /**
+         * @Author: PP-jessica
+         * @Description:一次读事件中最多接收maxMessagesPerRead个连接，接收完之后一起交给pipeline。
+         * 没有接收完的连接还在全连接队列中，下一次select的时候接收事件还会就绪，不会丢失
+         */
         @Override
         public void read() {
             //该方法要在netty的线程执行器中执行
             assert eventLoop().inEventLoop(Thread.currentThread());
-            boolean closed = false;
+            final ChannelConfig config = config();
+            final ChannelPipeline pipeline = pipeline();
+            final RecvByteBufAllocator.Handle allocHandle = recvBufAllocHandle();
+            allocHandle.reset(config);
             Throwable exception = null;
             try {
                 do {
@@ -52,26 +64,37 @@ public abstract class AbstractNioMessageChannel extends AbstractNioChannel {
                     if (localRead == 0) {
                         break;
                     }
-                } while (true);
+                    allocHandle.incMessagesRead(localRead);
+                } while (allocHandle.continueReading());
             } catch (Throwable t) {
                 exception = t;
             }
             int size = readBuf.size();
             for (int i = 0; i < size; i ++) {
                 readPending = false;
-                //把每一个客户端的channel注册到工作线程上,这里得不到workgroup，所以我们不在这里实现了，打印一下即可
-                Channel child = (Channel) readBuf.get(i);
-                System.out.println(child+"收到客户端的channel了");
-                //TODO
+                //把接收到的每一个客户端channel交给服务端channel的pipeline，由用户添加的handler把它注册到工作线程上
+                pipeline.fireChannelRead(readBuf.get(i));
             }
             //清除集合
             readBuf.clear();
+            allocHandle.readComplete();
+            pipeline.fireChannelReadComplete();
             if (exception != null) {
-                throw new RuntimeException(exception);
+                //接收连接出现了异常不用关闭服务端channel，交给handler处理即可
+                pipeline.fireExceptionCaught(exception);
             }
         }
 
     }
 
+    /**
+     * @Author: PP-jessica
+     * @Description:服务端channel只负责接收连接，不能写数据
+     */
+    @Override
+    protected void doWrite(ChannelOutboundBuffer in) throws Exception {
+        throw new UnsupportedOperationException();
+    }
+
     protected abstract int doReadMessages(List<Object> buf) throws Exception;
 }
@@ -1,23 +1,33 @@
 package com.pp.netty.channel.nio;
 
 
+import com.pp.netty.channel.DefaultEventLoopTaskQueueFactory;
 import com.pp.netty.channel.EventLoopTaskQueueFactory;
 import com.pp.netty.channel.SelectStrategy;
 import com.pp.netty.channel.SingleThreadEventLoop;
+import com.pp.netty.util.IntSupplier;
 import com.pp.netty.util.concurrent.RejectedExecutionHandler;
+import com.pp.netty.util.internal.PlatformDependent;
+import com.pp.netty.util.internal.SystemPropertyUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
 import java.nio.channels.CancelledKeyException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.spi.SelectorProvider;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.Executor;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * @Author: PP-jessica
@@ -27,7 +37,49 @@ public class NioEventLoop extends SingleThreadEventLoop {
 
     private static final Logger logger = LoggerFactory.getLogger(NioEventLoop.class);
 
-    private final Selector selector;
+    //是否关闭selectedKeys的优化，默认是不关闭的
+    private static final boolean DISABLE_KEY_SET_OPTIMIZATION =
+            SystemPropertyUtil.getBoolean("io.netty.noKeySetOptimization", false);
+
+    //selector连续提前返回多少次之后就重建selector，用来解决jdk的epoll空轮询bug，小于等于0表示不重建
+    private static final int MIN_PREMATURE_SELECTOR_RETURNS = 3;
+    private static final int SELECTOR_AUTO_REBUILD_THRESHOLD;
+
+    static {
+        int selectorAutoRebuildThreshold = SystemPropertyUtil.getInt("io.netty.selectorAutoRebuildThreshold", 512);
+        if (selectorAutoRebuildThreshold < MIN_PREMATURE_SELECTOR_RETURNS) {
+            selectorAutoRebuildThreshold = 0;
+        }
+        SELECTOR_AUTO_REBUILD_THRESHOLD = selectorAutoRebuildThreshold;
+    }
+
+    //被包装过的选择器，如果没有优化成功，就和unwrappedSelector是同一个对象
+    //发生空轮询重建selector的时候，这几个属性都会被替换，所以不能是final的
+    private Selector selector;
+
+    //jdk原生的选择器，channel注册的时候要注册到这个选择器上
+    private Selector unwrappedSelector;
+
+    //优化过的selectedKeys集合，优化失败的时候为null
+    private SelectedSelectionKeySet selectedKeys;
+
+    //selector被重建的次数，只有单线程执行器自己的线程会修改它，外部线程可以随时读取
+    private volatile long selectorRebuildCount;
+
+    //selector是否已经被唤醒，外部线程提交任务的时候会cas修改这个值，保证每一轮循环最多只调用一次selector.wakeup()
+    //因为wakeup是一个系统调用，开销并不小
+    private final AtomicBoolean wakenUp = new AtomicBoolean();
+
+    //单线程执行器在一轮循环中处理io事件的时间占比，默认是50，也就是处理io事件和执行任务的时间各占一半
+    private volatile int ioRatio = 50;
+
+    //提供给选择策略使用，有任务的时候就不阻塞，而是调用selectNow立刻返回
+    private final IntSupplier selectNowSupplier = new IntSupplier() {
+        @Override
+        public int get() throws Exception {
+            return selectNow();
+        }
+    };
 
     private final SelectorProvider provider;
 
@@ -45,74 +97,444 @@ public class NioEventLoop extends SingleThreadEventLoop {
             throw new NullPointerException("selectStrategy");
         }
         provider = selectorProvider;
-        selector = openSecector();
+        final SelectorTuple selectorTuple = openSelector();
+        selector = selectorTuple.selector;
+        unwrappedSelector = selectorTuple.unwrappedSelector;
+        selectedKeys = selectorTuple.selectedKeys;
         selectStrategy = strategy;
     }
 
     private static Queue<Runnable> newTaskQueue(
             EventLoopTaskQueueFactory queueFactory) {
         if (queueFactory == null) {
-            return new LinkedBlockingQueue<Runnable>(DEFAULT_MAX_PENDING_TASKS);
+            return DefaultEventLoopTaskQueueFactory.INSTANCE.newTaskQueue(DEFAULT_MAX_PENDING_TASKS);
         }
         return queueFactory.newTaskQueue(DEFAULT_MAX_PENDING_TASKS);
     }
 
-    //得到用于轮询的选择器
-    private Selector openSecector() {
+    /**
+     * @Author: PP-jessica
+     * @Description:选择器和被包装过的选择器的组合，openSelector方法要同时返回它们
+     */
+    private static final class SelectorTuple {
+        final Selector unwrappedSelector;
+        final Selector selector;
+        final SelectedSelectionKeySet selectedKeys;
+
+        SelectorTuple(Selector unwrappedSelector) {
+            this.unwrappedSelector = unwrappedSelector;
+            this.selector = unwrappedSelector;
+            this.selectedKeys = null;
+        }
+
+        SelectorTuple(Selector unwrappedSelector, Selector selector, SelectedSelectionKeySet selectedKeys) {
+            this.unwrappedSelector = unwrappedSelector;
+            this.selector = selector;
+            this.selectedKeys = selectedKeys;
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:得到用于轮询的选择器，并且尝试用反射把SelectorImpl中的selectedKeys和publicSelectedKeys
+     * 两个HashSet替换成数组实现的SelectedSelectionKeySet。如果不允许反射，就退回到未优化的选择器
+     */
+    private SelectorTuple openSelector() {
         //未包装过的选择器
         final Selector unwrappedSelector;
         try {
             unwrappedSelector = provider.openSelector();
-            return unwrappedSelector;
         } catch (IOException e) {
             throw new RuntimeException("failed to open a new selector", e);
         }
+        if (DISABLE_KEY_SET_OPTIMIZATION) {
+            return new SelectorTuple(unwrappedSelector);
+        }
+        //得到jdk中selector的实现类
+        Object maybeSelectorImplClass = AccessController.doPrivileged(new PrivilegedAction<Object>() {
+            @Override
+            public Object run() {
+                try {
+                    return Class.forName("sun.nio.ch.SelectorImpl", false, ClassLoader.getSystemClassLoader());
+                } catch (Throwable cause) {
+                    return cause;
+                }
+            }
+        });
+        //如果得到的不是class，或者当前的selector不是SelectorImpl的子类，就不做优化了
+        if (!(maybeSelectorImplClass instanceof Class) ||
+                !((Class<?>) maybeSelectorImplClass).isAssignableFrom(unwrappedSelector.getClass())) {
+            if (maybeSelectorImplClass instanceof Throwable) {
+                Throwable t = (Throwable) maybeSelectorImplClass;
+                logger.info("failed to instrument a special java.util.Set into: {}", unwrappedSelector, t);
+            }
+            return new SelectorTuple(unwrappedSelector);
+        }
+        final Class<?> selectorImplClass = (Class<?>) maybeSelectorImplClass;
+        final SelectedSelectionKeySet selectedKeySet = new SelectedSelectionKeySet();
+        Object maybeException = AccessController.doPrivileged(new PrivilegedAction<Object>() {
+            @Override
+            public Object run() {
+                try {
+                    Field selectedKeysField = selectorImplClass.getDeclaredField("selectedKeys");
+                    Field publicSelectedKeysField = selectorImplClass.getDeclaredField("publicSelectedKeys");
+                    //java9以上的版本，模块化之后setAccessible大概率会失败，所以优先用Unsafe直接替换属性
+                    if (PlatformDependent.javaVersion() >= 9 && PlatformDependent.hasUnsafe()) {
+                        long selectedKeysFieldOffset = PlatformDependent.objectFieldOffset(selectedKeysField);
+                        long publicSelectedKeysFieldOffset =
+                                PlatformDependent.objectFieldOffset(publicSelectedKeysField);
+                        if (selectedKeysFieldOffset != -1 && publicSelectedKeysFieldOffset != -1) {
+                            PlatformDependent.putObject(unwrappedSelector, selectedKeysFieldOffset, selectedKeySet);
+                            PlatformDependent.putObject(unwrappedSelector, publicSelectedKeysFieldOffset, selectedKeySet);
+                            return null;
+                        }
+                    }
+                    selectedKeysField.setAccessible(true);
+                    publicSelectedKeysField.setAccessible(true);
+                    selectedKeysField.set(unwrappedSelector, selectedKeySet);
+                    publicSelectedKeysField.set(unwrappedSelector, selectedKeySet);
+                    return null;
+                } catch (Throwable e) {
+                    return e;
+                }
+            }
+        });
+        if (maybeException instanceof Exception) {
+            Exception e = (Exception) maybeException;
+            logger.info("failed to instrument a special java.util.Set into: {}", unwrappedSelector, e);
+            return new SelectorTuple(unwrappedSelector);
+        }
+        return new SelectorTuple(unwrappedSelector,
+                new SelectedSelectionKeySetSelector(unwrappedSelector, selectedKeySet), selectedKeySet);
     }
 
     public Selector unwrappedSelector() {
-        return selector;
+        return unwrappedSelector;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:外部线程提交任务之后会调用这个方法唤醒阻塞在select上的单线程执行器，
+     * 只有把wakenUp从false改成true的那个线程才会真正调用selector.wakeup()
+     */
+    @Override
+    protected void wakeup(boolean inEventLoop) {
+        if (!inEventLoop && wakenUp.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    int selectNow() throws IOException {
+        try {
+            return selector.selectNow();
+        } finally {
+            //如果在selectNow的时候有外部线程把wakenUp改成了true，那就要补一次wakeup，
+            //否则下一次select可能会错过这次唤醒
+            if (wakenUp.get()) {
+                selector.wakeup();
+            }
+        }
     }
 
     /**
      * @Author: PP-jessica
-     * @Description:在这里进行选择器的轮询
+     * @Description:在这里进行选择器的轮询，先由选择策略决定这一轮是阻塞select还是selectNow，
+     * 有任务的时候不能阻塞，否则任务最多要等1秒才会被执行
      */
     @Override
-    @SuppressWarnings("InfiniteLoopStatement")
     protected void run() {
         for (;;) {
             try {
-                //没有事件就阻塞在这里
-                select();
-                //如果有事件,就处理就绪事件
-                processSelectedKeys();
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-            //执行单线程执行器中的所有任务
-            runAllTasks();
+                switch (selectStrategy.calculateStrategy(selectNowSupplier, hasTasks())) {
+                    case SelectStrategy.CONTINUE:
+                        continue;
+                    //nio不支持忙等，直接按select处理
+                    case SelectStrategy.BUSY_WAIT:
+                    case SelectStrategy.SELECT:
+                        //没有事件就阻塞在这里，进入select之前要把wakenUp重置为false，并把旧值传进去
+                        select(wakenUp.getAndSet(false));
+                        //走到这里说明select返回了，如果在返回之前wakenUp被外部线程改成了true，
+                        //那么那次wakeup已经被这一轮select消费掉了，这里要再唤醒一次，保证下一轮select不会阻塞
+                        if (wakenUp.get()) {
+                            selector.wakeup();
+                        }
+                    default:
+                }
+                final int ioRatio = this.ioRatio;
+                if (ioRatio == 100) {
+                    try {
+                        //如果有事件,就处理就绪事件
+                        processSelectedKeys();
+                    } finally {
+                        //ioRatio为100的时候不限制执行任务的时间，执行单线程执行器中的所有任务
+                        runAllTasks();
+                    }
+                } else {
+                    final long ioStartTime = System.nanoTime();
+                    try {
+                        processSelectedKeys();
+                    } finally {
+                        //根据处理io事件花费的时间和ioRatio，算出这一轮最多可以用多长时间执行任务
+                        //比如ioRatio是50，处理io用了100微秒，那么执行任务最多也只能用100微秒，超时的任务留到下一轮再执行
+                        final long ioTime = System.nanoTime() - ioStartTime;
+                        runAllTasks(ioTime * (100 - ioRatio) / ioRatio);
+                    }
+                }
+            } catch (Throwable t) {
+                handleLoopException(t);
+            }
+            //每一轮循环结束都检查一下执行器是否正在关闭，如果是就关闭所有的channel，确认可以关闭之后退出循环
+            try {
+                if (isShuttingDown()) {
+                    closeAll();
+                    if (confirmShutdown()) {
+                        return;
+                    }
+                }
+            } catch (Throwable t) {
+                handleLoopException(t);
+            }
+        }
+    }
+
+    private static void handleLoopException(Throwable t) {
+        logger.warn("Unexpected exception in the selector loop.", t);
+        //防止异常一直发生，让cpu空转
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException e) {
+            // Ignore.
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:关闭注册在selector上的所有channel
+     */
+    private void closeAll() {
+        try {
+            selectNow();
+        } catch (IOException e) {
+            logger.warn("Failed to update SelectionKeys.", e);
+        }
+        Set<SelectionKey> keys = selector.keys();
+        //先把channel收集起来再关闭，因为关闭channel的时候会取消key，会修改keys集合
+        Collection<AbstractNioChannel> channels = new ArrayList<AbstractNioChannel>(keys.size());
+        for (SelectionKey k: keys) {
+            Object a = k.attachment();
+            if (a instanceof AbstractNioChannel) {
+                channels.add((AbstractNioChannel) a);
+            } else {
+                k.cancel();
             }
         }
+        for (AbstractNioChannel ch: channels) {
+            ch.unsafe().close(ch.newPromise());
+        }
     }
 
-    private void select() throws IOException {
+    /**
+     * @Author: PP-jessica
+     * @Description:单线程执行器终止之前关闭selector
+     */
+    @Override
+    protected void cleanup() {
+        try {
+            selector.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close a selector.", e);
+        }
+    }
+
+    public int getIoRatio() {
+        return ioRatio;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:设置处理io事件的时间占比，取值范围是1到100
+     */
+    public void setIoRatio(int ioRatio) {
+        if (ioRatio <= 0 || ioRatio > 100) {
+            throw new IllegalArgumentException("ioRatio: " + ioRatio + " (expected: 0 < ioRatio <= 100)");
+        }
+        this.ioRatio = ioRatio;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:jdk的selector在linux下有个著名的空轮询bug，没有任何事件的时候select方法也会立刻返回0，
+     * 这样这个循环就会空转，让cpu飙到100%。所以这里要记录select提前返回的次数，超过阈值就重建selector
+     */
+    private void select(boolean oldWakenUp) throws IOException {
         Selector selector = this.selector;
+        //select方法被调用的次数
+        int selectCnt = 0;
+        long currentTimeNanos = System.nanoTime();
+        //select阻塞的截止时间就是最近的定时任务的截止时间，没有定时任务就阻塞1秒
+        long selectDeadLineNanos = currentTimeNanos + delayNanos(currentTimeNanos);
         //这里是一个死循环
         for (;;){
-            //如果没有就绪事件，就在这里阻塞3秒
-            int selectedKeys = selector.select(1000);
-            //如果有事件或者单线程执行器中有任务待执行，就退出循环
-            if (selectedKeys != 0 || hasTasks()) {
+            //加上0.5毫秒是为了四舍五入，不足1毫秒的部分也要等待
+            long timeoutMillis = (selectDeadLineNanos - currentTimeNanos + 500000L) / 1000000L;
+            //定时任务已经到期了，selectNow一次就立刻返回，去执行定时任务
+            if (timeoutMillis <= 0) {
+                if (selectCnt == 0) {
+                    selector.selectNow();
+                    selectCnt = 1;
+                }
+                break;
+            }
+            //进入阻塞之前还要再检查一次任务队列，如果在wakenUp被重置之后有任务提交进来，而提交任务的线程发现wakenUp
+            //已经是true就不会再wakeup了，这时候要是阻塞了，任务就要等到超时才会被执行
+            if (hasTasks() && wakenUp.compareAndSet(false, true)) {
+                selector.selectNow();
+                selectCnt = 1;
                 break;
             }
+            //如果没有就绪事件，就在这里阻塞到最近的定时任务到期
+            int selectedKeys = selector.select(timeoutMillis);
+            selectCnt++;
+            //如果有事件，或者被外部线程唤醒了，或者单线程执行器中有任务待执行，或者有定时任务到期了，就退出循环
+            if (selectedKeys != 0 || oldWakenUp || wakenUp.get() || hasTasks() || hasScheduledTasks()) {
+                break;
+            }
+            //线程被中断了也会让select立刻返回，这种情况不算空轮询
+            if (Thread.interrupted()) {
+                selectCnt = 1;
+                break;
+            }
+            long time = System.nanoTime();
+            if (time - TimeUnit.MILLISECONDS.toNanos(timeoutMillis) >= currentTimeNanos) {
+                //走到这里说明select确实阻塞了timeoutMillis这么久，是正常的超时返回，计数重置
+                selectCnt = 1;
+            } else if (SELECTOR_AUTO_REBUILD_THRESHOLD > 0 && selectCnt >= SELECTOR_AUTO_REBUILD_THRESHOLD) {
+                //没有阻塞够时间就返回了，并且连续提前返回的次数超过了阈值，认为发生了空轮询，重建selector
+                selector = selectRebuildSelector(selectCnt);
+                selectCnt = 1;
+                break;
+            }
+            currentTimeNanos = time;
+        }
+    }
+
+    private Selector selectRebuildSelector(int selectCnt) throws IOException {
+        logger.warn("Selector.select() returned prematurely {} times in a row; rebuilding Selector {}.",
+                selectCnt, selector);
+        rebuildSelector();
+        Selector selector = this.selector;
+        //重建之后立刻selectNow一次，把新selector上已经就绪的事件拿出来
+        selector.selectNow();
+        return selector;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:重建selector，把注册在旧selector上的所有channel都转移到新的selector上，这个方法可以被外部线程调用，
+     * 但真正的重建工作一定是单线程执行器自己的线程来做
+     */
+    public void rebuildSelector() {
+        if (!inEventLoop(Thread.currentThread())) {
+            execute(new Runnable() {
+                @Override
+                public void run() {
+                    rebuildSelector0();
+                }
+            });
+            return;
         }
+        rebuildSelector0();
+    }
+
+    private void rebuildSelector0() {
+        final Selector oldSelector = selector;
+        final SelectorTuple newSelectorTuple;
+        if (oldSelector == null) {
+            return;
+        }
+        try {
+            newSelectorTuple = openSelector();
+        } catch (Exception e) {
+            logger.warn("Failed to create a new Selector.", e);
+            return;
+        }
+        //转移了多少个channel
+        int nChannels = 0;
+        for (SelectionKey key: oldSelector.keys()) {
+            Object a = key.attachment();
+            try {
+                //key已经失效了，或者这个channel已经注册到新的selector上了，就跳过
+                if (!key.isValid() || key.channel().keyFor(newSelectorTuple.unwrappedSelector) != null) {
+                    continue;
+                }
+                //感兴趣的事件和附件都要保留下来
+                int interestOps = key.interestOps();
+                key.cancel();
+                SelectionKey newKey = key.channel().register(newSelectorTuple.unwrappedSelector, interestOps, a);
+                if (a instanceof AbstractNioChannel) {
+                    //更新channel持有的key
+                    ((AbstractNioChannel) a).selectionKey = newKey;
+                }
+                nChannels ++;
+            } catch (Exception e) {
+                logger.warn("Failed to re-register a Channel to the new Selector.", e);
+                if (a instanceof AbstractNioChannel) {
+                    //转移失败的channel直接关闭
+                    AbstractNioChannel ch = (AbstractNioChannel) a;
+                    try {
+                        ch.unsafe().closeForcibly();
+                    } catch (Throwable t) {
+                        logger.warn("Failed to close a Channel.", t);
+                    }
+                }
+            }
+        }
+        selector = newSelectorTuple.selector;
+        unwrappedSelector = newSelectorTuple.unwrappedSelector;
+        selectedKeys = newSelectorTuple.selectedKeys;
+        selectorRebuildCount++;
+        try {
+            //关闭旧的selector
+            oldSelector.close();
+        } catch (Throwable t) {
+            logger.warn("Failed to close the old Selector.", t);
+        }
+        logger.info("Migrated {} channel(s) to the new Selector.", nChannels);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:selector被重建的次数，可以用来做监控
+     */
+    public long selectorRebuildCount() {
+        return selectorRebuildCount;
     }
 
     private void processSelectedKeys() throws Exception {
-        //采用优化过后的方式处理事件,Netty默认会采用优化过的Selector对就绪事件处理。
-        //processSelectedKeysOptimized();
-        //未优化过的处理事件方式
-        processSelectedKeysPlain(selector.selectedKeys());
+        if (selectedKeys != null) {
+            //采用优化过后的方式处理事件,Netty默认会采用优化过的Selector对就绪事件处理。
+            processSelectedKeysOptimized();
+        } else {
+            //未优化过的处理事件方式
+            processSelectedKeysPlain(selector.selectedKeys());
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:直接遍历数组处理就绪事件，不需要创建迭代器，处理完一个key就把数组中对应的位置置为null，帮助gc
+     */
+    private void processSelectedKeysOptimized() throws Exception {
+        for (int i = 0; i < selectedKeys.size; ++i) {
+            final SelectionKey k = selectedKeys.keys[i];
+            selectedKeys.keys[i] = null;
+            final Object a = k.attachment();
+            if (a instanceof AbstractNioChannel) {
+                processSelectedKey(k, (AbstractNioChannel) a);
+            }
+        }
+        //处理完之后size归零，下一次select的时候key会从数组头部开始添加
+        selectedKeys.size = 0;
     }
 
     private void processSelectedKeysPlain(Set<SelectionKey> selectedKeys) throws Exception {
@@ -142,20 +564,30 @@ public class NioEventLoop extends SingleThreadEventLoop {
      * 方法，这就巧妙的把客户端和服务端的channel与nioEventLoop解耦了
      */
     private void processSelectedKey(SelectionKey k,AbstractNioChannel ch) throws Exception {
+        //获取Unsafe类
+        final AbstractNioChannel.NioUnsafe unsafe = ch.unsafe();
+        //key已经失效了，说明channel已经被关闭或者注销了，这时候再走一遍关闭流程，保证closeFuture被设置
+        if (!k.isValid()) {
+            unsafe.close(ch.newPromise());
+            return;
+        }
         try {
-            //获取Unsafe类
-            final AbstractNioChannel.NioUnsafe unsafe = ch.unsafe();
-            //得到key感兴趣的事件
-            int ops = k.interestOps();
+            //得到key已经就绪的事件，注意这里一定要用readyOps，interestOps只是channel关注的事件，并不代表事件已经到来了
+            int readyOps = k.readyOps();
             //如果是连接事件
-            if (ops == SelectionKey.OP_CONNECT) {
+            if ((readyOps & SelectionKey.OP_CONNECT) != 0) {
                 //移除连接事件，否则会一直通知，这里实际上是做了个减法。位运算的门道，我们会放在之后和线程池的状态切换一起讲
                 //这里先了解就行
+                int ops = k.interestOps();
                 ops &= ~SelectionKey.OP_CONNECT;
                 //重新把感兴趣的事件注册一下
                 k.interestOps(ops);
-                //然后再注册客户端channel感兴趣的读事件
-                ch.doBeginRead();
+                //完成连接，连接成功之后会注册客户端channel感兴趣的读事件
+                unsafe.finishConnect();
+            }
+            //如果是写事件，说明socket的发送缓冲区又有空间了，把写缓冲区中剩下的数据接着写出去，写完之后会取消写事件
+            if ((readyOps & SelectionKey.OP_WRITE) != 0) {
+                unsafe.forceFlush();
             }
             //如果是读事件，不管是客户端还是服务端的，都可以直接调用read方法
             //这时候一定要记清楚，NioSocketChannel和NioServerSocketChannel并不会纠缠
@@ -163,14 +595,13 @@ public class NioEventLoop extends SingleThreadEventLoop {
             //如果不明白，那么就找到AbstractNioChannel的方法看一看，想一想，虽然那里传入的参数是this，但传入的并不是抽象类本身，想想你创建的
             //是NioSocketChannel还是NioServerSocketChannel，是哪个，传入的就是哪个。只不过在这里被多态赋值给了抽象类
             //创建的是子类对象，但在父类中调用了this，得到的仍然是子类对象
-            if (ops ==  SelectionKey.OP_READ) {
-                unsafe.read();
-            }
-            if (ops == SelectionKey.OP_ACCEPT) {
+            //readyOps为0的时候也调用一下read，jdk的空轮询bug可能会让key没有任何就绪事件也被选出来
+            if ((readyOps & (SelectionKey.OP_READ | SelectionKey.OP_ACCEPT)) != 0 || readyOps == 0) {
                 unsafe.read();
             }
         } catch (CancelledKeyException ignored) {
-            throw new RuntimeException(ignored.getMessage());
+            //处理事件的过程中key被取消了，关闭channel
+            unsafe.close(ch.newPromise());
         }
     }
 }
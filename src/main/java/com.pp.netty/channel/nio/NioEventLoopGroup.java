@@ -2,6 +2,7 @@ package com.pp.netty.channel.nio;
 
 
 import com.pp.netty.channel.*;
+import com.pp.netty.util.concurrent.EventExecutor;
 import com.pp.netty.util.concurrent.EventExecutorChooserFactory;
 import com.pp.netty.util.concurrent.RejectedExecutionHandler;
 import com.pp.netty.util.concurrent.RejectedExecutionHandlers;
@@ -75,9 +76,43 @@ public class NioEventLoopGroup extends MultithreadEventLoopGroup {
                 rejectedExecutionHandler, taskQueueFactory);
     }
 
+    /**
+     * @Author: PP-jessica
+     * @Description:设置组内所有NioEventLoop处理io事件的时间占比，默认是50
+     */
+    public void setIoRatio(int ioRatio) {
+        for (EventExecutor e: this) {
+            ((NioEventLoop) e).setIoRatio(ioRatio);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:重建组内所有NioEventLoop的selector
+     */
+    public void rebuildSelectors() {
+        for (EventExecutor e: this) {
+            ((NioEventLoop) e).rebuildSelector();
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:组内所有NioEventLoop重建selector的总次数
+     */
+    public long selectorRebuildCount() {
+        long count = 0;
+        for (EventExecutor e: this) {
+            count += ((NioEventLoop) e).selectorRebuildCount();
+        }
+        return count;
+    }
+
     @Override
     protected EventLoop newChild(Executor executor, Object... args) throws Exception {
-        EventLoopTaskQueueFactory queueFactory = args.length == 4 ? (EventLoopTaskQueueFactory) args[3] : null;
+        //用户没有指定任务队列工厂的话，默认使用创建mpsc队列的工厂
+        EventLoopTaskQueueFactory queueFactory = args.length == 4 ? (EventLoopTaskQueueFactory) args[3]
+                : DefaultEventLoopTaskQueueFactory.INSTANCE;
         return new NioEventLoop(this, executor, (SelectorProvider) args[0],
                 ((SelectStrategyFactory) args[1]).newSelectStrategy(), (RejectedExecutionHandler) args[2], queueFactory);
     }
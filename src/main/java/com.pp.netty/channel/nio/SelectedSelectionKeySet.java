@@ -0,0 +1,99 @@
+package com.pp.netty.channel.nio;
+
+import java.nio.channels.SelectionKey;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * @Author: PP-jessica
+ * @Description:netty优化过的selectedKeys集合，用数组代替了jdk中SelectorImpl的HashSet
+ * 这样每次有就绪事件时，selector只是往数组中添加key，遍历的时候也不需要创建迭代器，更不用每处理一个key就remove一次
+ */
+final class SelectedSelectionKeySet extends AbstractSet<SelectionKey> {
+
+    SelectionKey[] keys;
+
+    int size;
+
+    SelectedSelectionKeySet() {
+        keys = new SelectionKey[1024];
+    }
+
+    @Override
+    public boolean add(SelectionKey o) {
+        if (o == null) {
+            return false;
+        }
+        //直接放到数组末尾，数组满了就扩容
+        keys[size++] = o;
+        if (size == keys.length) {
+            increaseCapacity();
+        }
+        return true;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:下面这两个方法在这里用不到，jdk的selector也不会调用它们
+     */
+    @Override
+    public boolean remove(Object o) {
+        return false;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<SelectionKey> iterator() {
+        return new Iterator<SelectionKey>() {
+            private int idx;
+
+            @Override
+            public boolean hasNext() {
+                return idx < size;
+            }
+
+            @Override
+            public SelectionKey next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return keys[idx++];
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    void reset() {
+        reset(0);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把数组中从start开始的key都置为null，帮助gc，然后把size归零
+     */
+    void reset(int start) {
+        Arrays.fill(keys, start, size, null);
+        size = 0;
+    }
+
+    private void increaseCapacity() {
+        SelectionKey[] newKeys = new SelectionKey[keys.length << 1];
+        System.arraycopy(keys, 0, newKeys, 0, size);
+        keys = newKeys;
+    }
+}
@@ -0,0 +1,173 @@
+package com.pp.netty.channel.socket;
+
+import com.pp.netty.buffer.ByteBufAllocator;
+import com.pp.netty.channel.Channel;
+import com.pp.netty.channel.ChannelException;
+import com.pp.netty.channel.ChannelOption;
+import com.pp.netty.channel.DefaultChannelConfig;
+import com.pp.netty.channel.RecvByteBufAllocator;
+import com.pp.netty.channel.ServerChannelRecvByteBufAllocator;
+import com.pp.netty.channel.WriteBufferWaterMark;
+import com.pp.netty.util.internal.ObjectUtil;
+
+import java.net.ServerSocket;
+import java.net.SocketException;
+import java.util.Map;
+
+import static com.pp.netty.channel.ChannelOption.SO_BACKLOG;
+import static com.pp.netty.channel.ChannelOption.SO_RCVBUF;
+import static com.pp.netty.channel.ChannelOption.SO_REUSEADDR;
+
+/**
+ * @Author: PP-jessica
+ * @Description:服务端channel配置类的默认实现，socket的参数直接设置到jdk的ServerSocket上，backlog要等到绑定端口的时候才会用到。
+ * 服务端channel读取的是客户端连接，所以使用专门接收连接的分配器
+ */
+public class DefaultServerSocketChannelConfig extends DefaultChannelConfig implements ServerSocketChannelConfig {
+
+    //如果用户没有设置backlog参数，源码中该值会在NetUtil的静态代码块中被赋值，windows环境下值为200，linux环境下默认为128。
+    //这里就直接写死了，不引入更多的工具类了
+    private static final int DEFAULT_BACKLOG = 128;
+
+    protected final ServerSocket javaSocket;
+
+    private volatile int backlog = DEFAULT_BACKLOG;
+
+    public DefaultServerSocketChannelConfig(Channel channel, ServerSocket javaSocket) {
+        super(channel, new ServerChannelRecvByteBufAllocator());
+        this.javaSocket = ObjectUtil.checkNotNull(javaSocket, "javaSocket");
+    }
+
+    @Override
+    public Map<ChannelOption<?>, Object> getOptions() {
+        return getOptions(super.getOptions(), SO_RCVBUF, SO_REUSEADDR, SO_BACKLOG);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T getOption(ChannelOption<T> option) {
+        if (option == SO_RCVBUF) {
+            return (T) Integer.valueOf(getReceiveBufferSize());
+        }
+        if (option == SO_REUSEADDR) {
+            return (T) Boolean.valueOf(isReuseAddress());
+        }
+        if (option == SO_BACKLOG) {
+            return (T) Integer.valueOf(getBacklog());
+        }
+        return super.getOption(option);
+    }
+
+    @Override
+    public <T> boolean setOption(ChannelOption<T> option, T value) {
+        validate(option, value);
+        if (option == SO_RCVBUF) {
+            setReceiveBufferSize((Integer) value);
+        } else if (option == SO_REUSEADDR) {
+            setReuseAddress((Boolean) value);
+        } else if (option == SO_BACKLOG) {
+            setBacklog((Integer) value);
+        } else {
+            return super.setOption(option, value);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isReuseAddress() {
+        try {
+            return javaSocket.getReuseAddress();
+        } catch (SocketException e) {
+            throw new ChannelException(e);
+        }
+    }
+
+    @Override
+    public ServerSocketChannelConfig setReuseAddress(boolean reuseAddress) {
+        try {
+            javaSocket.setReuseAddress(reuseAddress);
+        } catch (SocketException e) {
+            throw new ChannelException(e);
+        }
+        return this;
+    }
+
+    @Override
+    public int getReceiveBufferSize() {
+        try {
+            return javaSocket.getReceiveBufferSize();
+        } catch (SocketException e) {
+            throw new ChannelException(e);
+        }
+    }
+
+    @Override
+    public ServerSocketChannelConfig setReceiveBufferSize(int receiveBufferSize) {
+        try {
+            javaSocket.setReceiveBufferSize(receiveBufferSize);
+        } catch (SocketException e) {
+            throw new ChannelException(e);
+        }
+        return this;
+    }
+
+    @Override
+    public int getBacklog() {
+        return backlog;
+    }
+
+    @Override
+    public ServerSocketChannelConfig setBacklog(int backlog) {
+        ObjectUtil.checkPositiveOrZero(backlog, "backlog");
+        this.backlog = backlog;
+        return this;
+    }
+
+    @Override
+    public ServerSocketChannelConfig setConnectTimeoutMillis(int connectTimeoutMillis) {
+        super.setConnectTimeoutMillis(connectTimeoutMillis);
+        return this;
+    }
+
+    @Override
+    public ServerSocketChannelConfig setMaxMessagesPerRead(int maxMessagesPerRead) {
+        super.setMaxMessagesPerRead(maxMessagesPerRead);
+        return this;
+    }
+
+    @Override
+    public ServerSocketChannelConfig setAllocator(ByteBufAllocator allocator) {
+        super.setAllocator(allocator);
+        return this;
+    }
+
+    @Override
+    public ServerSocketChannelConfig setRecvByteBufAllocator(RecvByteBufAllocator allocator) {
+        super.setRecvByteBufAllocator(allocator);
+        return this;
+    }
+
+    @Override
+    public ServerSocketChannelConfig setWriteSpinCount(int writeSpinCount) {
+        super.setWriteSpinCount(writeSpinCount);
+        return this;
+    }
+
+    @Override
+    public ServerSocketChannelConfig setWriteBufferHighWaterMark(int writeBufferHighWaterMark) {
+        super.setWriteBufferHighWaterMark(writeBufferHighWaterMark);
+        return this;
+    }
+
+    @Override
+    public ServerSocketChannelConfig setWriteBufferLowWaterMark(int writeBufferLowWaterMark) {
+        super.setWriteBufferLowWaterMark(writeBufferLowWaterMark);
+        return this;
+    }
+
+    @Override
+    public ServerSocketChannelConfig setWriteBufferWaterMark(WriteBufferWaterMark writeBufferWaterMark) {
+        super.setWriteBufferWaterMark(writeBufferWaterMark);
+        return this;
+    }
+}
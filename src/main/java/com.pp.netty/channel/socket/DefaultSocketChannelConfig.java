@@ -0,0 +1,303 @@
+package com.pp.netty.channel.socket;
+
+import com.pp.netty.buffer.ByteBufAllocator;
+import com.pp.netty.channel.Channel;
+import com.pp.netty.channel.ChannelException;
+import com.pp.netty.channel.ChannelOption;
+import com.pp.netty.channel.DefaultChannelConfig;
+import com.pp.netty.channel.RecvByteBufAllocator;
+import com.pp.netty.channel.WriteBufferWaterMark;
+import com.pp.netty.util.internal.ObjectUtil;
+
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Map;
+
+import static com.pp.netty.channel.ChannelOption.*;
+
+/**
+ * @Author: PP-jessica
+ * @Description:客户端channel配置类的默认实现，socket的参数直接设置到jdk的Socket上。
+ * 默认禁用了Nagle算法，netty面向的大多是请求响应式的协议，小包等着凑成大包再发只会增加延迟
+ */
+public class DefaultSocketChannelConfig extends DefaultChannelConfig implements SocketChannelConfig {
+
+    //linux中一次writev系统调用最多能用的iovec个数
+    private static final int DEFAULT_MAX_IOV_PER_GATHERING_WRITE = 1024;
+
+    protected final Socket javaSocket;
+
+    private volatile int maxBytesPerGatheringWrite = Integer.MAX_VALUE;
+
+    private volatile int maxIovPerGatheringWrite = DEFAULT_MAX_IOV_PER_GATHERING_WRITE;
+
+    public DefaultSocketChannelConfig(Channel channel, Socket javaSocket) {
+        super(channel);
+        this.javaSocket = ObjectUtil.checkNotNull(javaSocket, "javaSocket");
+        try {
+            setTcpNoDelay(true);
+        } catch (Exception e) {
+            // Ignore.
+        }
+        calculateMaxBytesPerGatheringWrite();
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:gathering write的字节上限默认是socket发送缓冲区大小的两倍，发送缓冲区的大小改变了要重新计算
+     */
+    private void calculateMaxBytesPerGatheringWrite() {
+        try {
+            int newSendBufferSize = javaSocket.getSendBufferSize() << 1;
+            if (newSendBufferSize > 0) {
+                setMaxBytesPerGatheringWrite0(newSendBufferSize);
+            }
+        } catch (SocketException e) {
+            //拿不到发送缓冲区的大小就不做限制
+        }
+    }
+
+    void setMaxBytesPerGatheringWrite0(int maxBytesPerGatheringWrite) {
+        this.maxBytesPerGatheringWrite = maxBytesPerGatheringWrite;
+    }
+
+    @Override
+    public Map<ChannelOption<?>, Object> getOptions() {
+        return getOptions(super.getOptions(),
+                SO_RCVBUF, SO_SNDBUF, TCP_NODELAY, SO_KEEPALIVE, SO_REUSEADDR, SO_LINGER);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T getOption(ChannelOption<T> option) {
+        if (option == SO_RCVBUF) {
+            return (T) Integer.valueOf(getReceiveBufferSize());
+        }
+        if (option == SO_SNDBUF) {
+            return (T) Integer.valueOf(getSendBufferSize());
+        }
+        if (option == TCP_NODELAY) {
+            return (T) Boolean.valueOf(isTcpNoDelay());
+        }
+        if (option == SO_KEEPALIVE) {
+            return (T) Boolean.valueOf(isKeepAlive());
+        }
+        if (option == SO_REUSEADDR) {
+            return (T) Boolean.valueOf(isReuseAddress());
+        }
+        if (option == SO_LINGER) {
+            return (T) Integer.valueOf(getSoLinger());
+        }
+        return super.getOption(option);
+    }
+
+    @Override
+    public <T> boolean setOption(ChannelOption<T> option, T value) {
+        validate(option, value);
+        if (option == SO_RCVBUF) {
+            setReceiveBufferSize((Integer) value);
+        } else if (option == SO_SNDBUF) {
+            setSendBufferSize((Integer) value);
+        } else if (option == TCP_NODELAY) {
+            setTcpNoDelay((Boolean) value);
+        } else if (option == SO_KEEPALIVE) {
+            setKeepAlive((Boolean) value);
+        } else if (option == SO_REUSEADDR) {
+            setReuseAddress((Boolean) value);
+        } else if (option == SO_LINGER) {
+            setSoLinger((Integer) value);
+        } else {
+            return super.setOption(option, value);
+        }
+        return true;
+    }
+
+    @Override
+    public int getReceiveBufferSize() {
+        try {
+            return javaSocket.getReceiveBufferSize();
+        } catch (SocketException e) {
+            throw new ChannelException(e);
+        }
+    }
+
+    @Override
+    public SocketChannelConfig setReceiveBufferSize(int receiveBufferSize) {
+        try {
+            javaSocket.setReceiveBufferSize(receiveBufferSize);
+        } catch (SocketException e) {
+            throw new ChannelException(e);
+        }
+        return this;
+    }
+
+    @Override
+    public int getSendBufferSize() {
+        try {
+            return javaSocket.getSendBufferSize();
+        } catch (SocketException e) {
+            throw new ChannelException(e);
+        }
+    }
+
+    @Override
+    public SocketChannelConfig setSendBufferSize(int sendBufferSize) {
+        try {
+            javaSocket.setSendBufferSize(sendBufferSize);
+        } catch (SocketException e) {
+            throw new ChannelException(e);
+        }
+        calculateMaxBytesPerGatheringWrite();
+        return this;
+    }
+
+    @Override
+    public int getSoLinger() {
+        try {
+            return javaSocket.getSoLinger();
+        } catch (SocketException e) {
+            throw new ChannelException(e);
+        }
+    }
+
+    @Override
+    public SocketChannelConfig setSoLinger(int soLinger) {
+        try {
+            if (soLinger < 0) {
+                javaSocket.setSoLinger(false, 0);
+            } else {
+                javaSocket.setSoLinger(true, soLinger);
+            }
+        } catch (SocketException e) {
+            throw new ChannelException(e);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isKeepAlive() {
+        try {
+            return javaSocket.getKeepAlive();
+        } catch (SocketException e) {
+            throw new ChannelException(e);
+        }
+    }
+
+    @Override
+    public SocketChannelConfig setKeepAlive(boolean keepAlive) {
+        try {
+            javaSocket.setKeepAlive(keepAlive);
+        } catch (SocketException e) {
+            throw new ChannelException(e);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isReuseAddress() {
+        try {
+            return javaSocket.getReuseAddress();
+        } catch (SocketException e) {
+            throw new ChannelException(e);
+        }
+    }
+
+    @Override
+    public SocketChannelConfig setReuseAddress(boolean reuseAddress) {
+        try {
+            javaSocket.setReuseAddress(reuseAddress);
+        } catch (SocketException e) {
+            throw new ChannelException(e);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isTcpNoDelay() {
+        try {
+            return javaSocket.getTcpNoDelay();
+        } catch (SocketException e) {
+            throw new ChannelException(e);
+        }
+    }
+
+    @Override
+    public SocketChannelConfig setTcpNoDelay(boolean tcpNoDelay) {
+        try {
+            javaSocket.setTcpNoDelay(tcpNoDelay);
+        } catch (SocketException e) {
+            throw new ChannelException(e);
+        }
+        return this;
+    }
+
+    @Override
+    public int getMaxBytesPerGatheringWrite() {
+        return maxBytesPerGatheringWrite;
+    }
+
+    @Override
+    public SocketChannelConfig setMaxBytesPerGatheringWrite(int maxBytesPerGatheringWrite) {
+        setMaxBytesPerGatheringWrite0(ObjectUtil.checkPositive(maxBytesPerGatheringWrite, "maxBytesPerGatheringWrite"));
+        return this;
+    }
+
+    @Override
+    public int getMaxIovPerGatheringWrite() {
+        return maxIovPerGatheringWrite;
+    }
+
+    @Override
+    public SocketChannelConfig setMaxIovPerGatheringWrite(int maxIovPerGatheringWrite) {
+        this.maxIovPerGatheringWrite = ObjectUtil.checkPositive(maxIovPerGatheringWrite, "maxIovPerGatheringWrite");
+        return this;
+    }
+
+    @Override
+    public SocketChannelConfig setConnectTimeoutMillis(int connectTimeoutMillis) {
+        super.setConnectTimeoutMillis(connectTimeoutMillis);
+        return this;
+    }
+
+    @Override
+    public SocketChannelConfig setMaxMessagesPerRead(int maxMessagesPerRead) {
+        super.setMaxMessagesPerRead(maxMessagesPerRead);
+        return this;
+    }
+
+    @Override
+    public SocketChannelConfig setAllocator(ByteBufAllocator allocator) {
+        super.setAllocator(allocator);
+        return this;
+    }
+
+    @Override
+    public SocketChannelConfig setRecvByteBufAllocator(RecvByteBufAllocator allocator) {
+        super.setRecvByteBufAllocator(allocator);
+        return this;
+    }
+
+    @Override
+    public SocketChannelConfig setWriteSpinCount(int writeSpinCount) {
+        super.setWriteSpinCount(writeSpinCount);
+        return this;
+    }
+
+    @Override
+    public SocketChannelConfig setWriteBufferHighWaterMark(int writeBufferHighWaterMark) {
+        super.setWriteBufferHighWaterMark(writeBufferHighWaterMark);
+        return this;
+    }
+
+    @Override
+    public SocketChannelConfig setWriteBufferLowWaterMark(int writeBufferLowWaterMark) {
+        super.setWriteBufferLowWaterMark(writeBufferLowWaterMark);
+        return this;
+    }
+
+    @Override
+    public SocketChannelConfig setWriteBufferWaterMark(WriteBufferWaterMark writeBufferWaterMark) {
+        super.setWriteBufferWaterMark(writeBufferWaterMark);
+        return this;
+    }
+}
@@ -22,6 +22,9 @@ public class NioServerSocketChannel extends AbstractNioMessageChannel {
 
     private static final SelectorProvider DEFAULT_SELECTOR_PROVIDER = SelectorProvider.provider();
 
+    //服务端channel的配置类，一次读事件中最多接收多少个连接由它的分配器决定
+    private final ServerSocketChannelConfig config;
+
 
     private static ServerSocketChannel newSocket(SelectorProvider provider) {
         try {
@@ -42,6 +45,12 @@ public class NioServerSocketChannel extends AbstractNioMessageChannel {
     public NioServerSocketChannel(ServerSocketChannel channel) {
         //创建的为NioServerSocketChannel时，没有父类channel，SelectionKey.OP_ACCEPT是服务端channel的关注事件
         super(null, channel, SelectionKey.OP_ACCEPT);
+        config = new DefaultServerSocketChannelConfig(this, javaChannel().socket());
+    }
+
+    @Override
+    public ServerSocketChannelConfig config() {
+        return config;
     }
 
     @Override
@@ -76,19 +85,10 @@ public class NioServerSocketChannel extends AbstractNioMessageChannel {
 
     @Override
     protected void doBind(SocketAddress localAddress) throws Exception {
-        //这里是一个系统调用方法，判断当前的java版本是否为7以上，这里我就直接写死了，不引入更多的工具类了
-        //if (8 > 7) {
-        //如果用户没有设置backlog参数，config.getBacklog()点进去看源码最后发现会该值会在NetUtil的静态代码块中被赋值，windows环境下值为200
-        //linux环境下默认为128。Backlog可以设置全连接队列的大小，控制服务端接受连接的数量。
-        //这里就直接写死了，还没有引入channelconfig配置类
-        javaChannel().bind(localAddress, 128);
-        if (isActive()) {
-            System.out.println("服务端绑定端口成功");
-            doBeginRead();
-        }
-//        } else {
-//            javaChannel().socket().bind(localAddress, config.getBacklog());
-//        }
+        //Backlog是全连接队列的大小，控制服务端来不及accept时最多能堆积多少个已经完成三次握手的连接，
+        //用户没有通过ChannelOption.SO_BACKLOG设置的话默认为128
+        //绑定成功之后channel就激活了，unsafe会触发channelActive事件，由pipeline的头节点注册接收连接的事件
+        javaChannel().bind(localAddress, config.getBacklog());
     }
 
     @Override
@@ -131,9 +131,13 @@ public class NioServerSocketChannel extends AbstractNioMessageChannel {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    protected void doFinishConnect() throws Exception {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     protected SocketAddress remoteAddress0() {
         return null;
     }
-
 }
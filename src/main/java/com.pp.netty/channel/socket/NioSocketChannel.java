@@ -1,7 +1,11 @@
 package com.pp.netty.channel.socket;
 
 
+import com.pp.netty.buffer.ByteBuf;
 import com.pp.netty.channel.Channel;
+import com.pp.netty.channel.ChannelOutboundBuffer;
+import com.pp.netty.channel.FileRegion;
+import com.pp.netty.channel.RecvByteBufAllocator;
 import com.pp.netty.channel.nio.AbstractNioByteChannel;
 import com.pp.netty.util.internal.SocketUtils;
 
@@ -21,6 +25,12 @@ public class NioSocketChannel extends AbstractNioByteChannel {
 
     private static final SelectorProvider DEFAULT_SELECTOR_PROVIDER = SelectorProvider.provider();
 
+    //gathering write尝试写出的字节数小于这个值的时候，即使没有写完也不缩小一次写的字节上限
+    private static final int MAX_BYTES_PER_GATHERING_WRITE_ATTEMPTED_LOW_THRESHOLD = 4096;
+
+    //客户端channel的配置类
+    private final SocketChannelConfig config;
+
 
     private static SocketChannel newSocket(SelectorProvider provider) {
         try {
@@ -48,6 +58,12 @@ public class NioSocketChannel extends AbstractNioByteChannel {
 
     public NioSocketChannel(Channel parent, SocketChannel socket) {
         super(parent, socket);
+        config = new DefaultSocketChannelConfig(this, socket.socket());
+    }
+
+    @Override
+    public SocketChannelConfig config() {
+        return config;
     }
 
     @Override
@@ -123,20 +139,124 @@ public class NioSocketChannel extends AbstractNioByteChannel {
     }
 
 
+    @Override
+    protected void doFinishConnect() throws Exception {
+        if (!javaChannel().finishConnect()) {
+            throw new Error();
+        }
+    }
+
     @Override
     protected void doClose() throws Exception {
         javaChannel().close();
     }
 
+    /**
+     * @Author: PP-jessica
+     * @Description:把数据直接读到分配器分配的ByteBuf中，返回读取到的字节长度，返回-1说明对端关闭了连接
+     */
+    @Override
+    protected int doReadBytes(ByteBuf byteBuf) throws Exception {
+        final RecvByteBufAllocator.Handle allocHandle = unsafe().recvBufAllocHandle();
+        allocHandle.attemptedBytesRead(byteBuf.writableBytes());
+        return byteBuf.writeBytes(javaChannel(), allocHandle.attemptedBytesRead());
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把ByteBuf中可读的字节写到socket中，readerIndex只会移动实际写出的字节数。
+     * CompositeByteBuf这种由多个ByteBuffer组成的ByteBuf，直接用gathering write一次写出去，不用先合并成一个
+     */
     @Override
-    protected int doReadBytes(ByteBuffer byteBuf) throws Exception {
-        int len = javaChannel().read(byteBuf);
-        byte[] buffer = new byte[len];
-        byteBuf.flip();
-        byteBuf.get(buffer);
-        System.out.println("客户端收到消息:{}"+new String(buffer));
-        //返回读取到的字节长度
-        return len;
+    protected int doWriteBytes(ByteBuf buf) throws Exception {
+        final int expectedWrittenBytes = buf.readableBytes();
+        if (buf.nioBufferCount() == 1) {
+            return buf.readBytes(javaChannel(), expectedWrittenBytes);
+        }
+        ByteBuffer[] nioBuffers = buf.nioBuffers(buf.readerIndex(), expectedWrittenBytes);
+        final long localWrittenBytes = javaChannel().write(nioBuffers, 0, nioBuffers.length);
+        if (localWrittenBytes > 0) {
+            buf.skipBytes((int) localWrittenBytes);
+        }
+        return (int) localWrittenBytes;
     }
 
+    /**
+     * @Author: PP-jessica
+     * @Description:用FileChannel.transferTo把文件的数据直接传输到socket中，从上一次传输结束的位置接着传输
+     */
+    @Override
+    protected long doWriteFileRegion(FileRegion region) throws Exception {
+        final long position = region.transferred();
+        return region.transferTo(javaChannel(), position);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把写缓冲区中已经刷新的消息写到socket中。连续的多个ByteBuf会被转换成ByteBuffer数组，用一次gathering write写出去，
+     * 一次写的ByteBuffer个数和字节数都有上限。socket的发送缓冲区满了、一个字节也写不出去的时候才注册写事件，
+     * 写完的消息的promise由写缓冲区在removeBytes中统一设置成功
+     */
+    @Override
+    protected void doWrite(ChannelOutboundBuffer in) throws Exception {
+        SocketChannel ch = javaChannel();
+        int writeSpinCount = config().getWriteSpinCount();
+        do {
+            if (in.isEmpty()) {
+                //数据都写完了，不再关注写事件
+                clearOpWrite();
+                return;
+            }
+            int maxBytesPerGatheringWrite = config.getMaxBytesPerGatheringWrite();
+            ByteBuffer[] nioBuffers = in.nioBuffers(config.getMaxIovPerGatheringWrite(), maxBytesPerGatheringWrite);
+            int nioBufferCnt = in.nioBufferCount();
+            switch (nioBufferCnt) {
+                case 0:
+                    //写缓冲区中的第一条消息不是ByteBuf，比如FileRegion，或者都是空的ByteBuf，交给父类一条一条地写
+                    writeSpinCount -= doWrite0(in);
+                    break;
+                case 1: {
+                    ByteBuffer buffer = nioBuffers[0];
+                    int attemptedBytes = buffer.remaining();
+                    final int localWrittenBytes = ch.write(buffer);
+                    if (localWrittenBytes <= 0) {
+                        incompleteWrite(true);
+                        return;
+                    }
+                    adjustMaxBytesPerGatheringWrite(attemptedBytes, localWrittenBytes, maxBytesPerGatheringWrite);
+                    in.removeBytes(localWrittenBytes);
+                    -- writeSpinCount;
+                    break;
+                }
+                default: {
+                    long attemptedBytes = in.nioBufferSize();
+                    final long localWrittenBytes = ch.write(nioBuffers, 0, nioBufferCnt);
+                    if (localWrittenBytes <= 0) {
+                        incompleteWrite(true);
+                        return;
+                    }
+                    adjustMaxBytesPerGatheringWrite((int) attemptedBytes, (int) localWrittenBytes, maxBytesPerGatheringWrite);
+                    in.removeBytes(localWrittenBytes);
+                    -- writeSpinCount;
+                    break;
+                }
+            }
+        } while (writeSpinCount > 0);
+        incompleteWrite(writeSpinCount < 0);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:根据这一次实际写出的字节数调整下一次gathering write的字节上限。全部写完了说明发送缓冲区还有空间，上限翻倍；
+     * 连一半都没写完说明上限太大了，减半。这样可以避免每次都准备一大堆ByteBuffer却只写出去一小部分
+     */
+    private void adjustMaxBytesPerGatheringWrite(int attempted, int written, int oldMaxBytesPerGatheringWrite) {
+        if (attempted == written) {
+            if (attempted << 1 > oldMaxBytesPerGatheringWrite) {
+                ((DefaultSocketChannelConfig) config).setMaxBytesPerGatheringWrite0(attempted << 1);
+            }
+        } else if (attempted > MAX_BYTES_PER_GATHERING_WRITE_ATTEMPTED_LOW_THRESHOLD && written < attempted >>> 1) {
+            ((DefaultSocketChannelConfig) config).setMaxBytesPerGatheringWrite0(attempted >>> 1);
+        }
+    }
 }
@@ -0,0 +1,57 @@
+package com.pp.netty.channel.socket;
+
+import com.pp.netty.buffer.ByteBufAllocator;
+import com.pp.netty.channel.ChannelConfig;
+import com.pp.netty.channel.RecvByteBufAllocator;
+import com.pp.netty.channel.WriteBufferWaterMark;
+
+/**
+ * @Author: PP-jessica
+ * @Description:服务端channel的配置类接口，服务端channel只负责接收连接，所以只有和监听socket相关的参数
+ */
+public interface ServerSocketChannelConfig extends ChannelConfig {
+
+    /**
+     * @Author: PP-jessica
+     * @Description:全连接队列的大小，控制服务端来不及接收的连接最多能有多少个，绑定端口的时候才会生效
+     */
+    int getBacklog();
+
+    ServerSocketChannelConfig setBacklog(int backlog);
+
+    boolean isReuseAddress();
+
+    ServerSocketChannelConfig setReuseAddress(boolean reuseAddress);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:接收缓冲区的大小，接收的客户端socket会继承这个值，大于64k的话要在绑定端口之前设置才会生效
+     */
+    int getReceiveBufferSize();
+
+    ServerSocketChannelConfig setReceiveBufferSize(int receiveBufferSize);
+
+    @Override
+    ServerSocketChannelConfig setConnectTimeoutMillis(int connectTimeoutMillis);
+
+    @Override
+    ServerSocketChannelConfig setMaxMessagesPerRead(int maxMessagesPerRead);
+
+    @Override
+    ServerSocketChannelConfig setAllocator(ByteBufAllocator allocator);
+
+    @Override
+    ServerSocketChannelConfig setRecvByteBufAllocator(RecvByteBufAllocator allocator);
+
+    @Override
+    ServerSocketChannelConfig setWriteSpinCount(int writeSpinCount);
+
+    @Override
+    ServerSocketChannelConfig setWriteBufferHighWaterMark(int writeBufferHighWaterMark);
+
+    @Override
+    ServerSocketChannelConfig setWriteBufferLowWaterMark(int writeBufferLowWaterMark);
+
+    @Override
+    ServerSocketChannelConfig setWriteBufferWaterMark(WriteBufferWaterMark writeBufferWaterMark);
+}
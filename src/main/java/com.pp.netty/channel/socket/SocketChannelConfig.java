@@ -0,0 +1,85 @@
+package com.pp.netty.channel.socket;
+
+import com.pp.netty.buffer.ByteBufAllocator;
+import com.pp.netty.channel.ChannelConfig;
+import com.pp.netty.channel.RecvByteBufAllocator;
+import com.pp.netty.channel.WriteBufferWaterMark;
+
+/**
+ * @Author: PP-jessica
+ * @Description:客户端channel的配置类接口，socket的各种参数和gathering write用到的配置都在这里
+ */
+public interface SocketChannelConfig extends ChannelConfig {
+
+    /**
+     * @Author: PP-jessica
+     * @Description:是否禁用Nagle算法，默认是true，小的数据包会立刻发送出去，不会为了凑成大包而等待
+     */
+    boolean isTcpNoDelay();
+
+    SocketChannelConfig setTcpNoDelay(boolean tcpNoDelay);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:关闭socket的时候，如果发送缓冲区中还有数据，最多等待多少秒，-1表示不等待，由操作系统在后台发送
+     */
+    int getSoLinger();
+
+    SocketChannelConfig setSoLinger(int soLinger);
+
+    int getSendBufferSize();
+
+    SocketChannelConfig setSendBufferSize(int sendBufferSize);
+
+    int getReceiveBufferSize();
+
+    SocketChannelConfig setReceiveBufferSize(int receiveBufferSize);
+
+    boolean isKeepAlive();
+
+    SocketChannelConfig setKeepAlive(boolean keepAlive);
+
+    boolean isReuseAddress();
+
+    SocketChannelConfig setReuseAddress(boolean reuseAddress);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:一次gathering write最多写出的字节数，默认是socket发送缓冲区大小的两倍，写的时候会根据实际写出的字节数动态调整
+     */
+    int getMaxBytesPerGatheringWrite();
+
+    SocketChannelConfig setMaxBytesPerGatheringWrite(int maxBytesPerGatheringWrite);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:一次gathering write最多使用的ByteBuffer个数，默认是linux的IOV_MAX，也就是1024
+     */
+    int getMaxIovPerGatheringWrite();
+
+    SocketChannelConfig setMaxIovPerGatheringWrite(int maxIovPerGatheringWrite);
+
+    @Override
+    SocketChannelConfig setConnectTimeoutMillis(int connectTimeoutMillis);
+
+    @Override
+    SocketChannelConfig setMaxMessagesPerRead(int maxMessagesPerRead);
+
+    @Override
+    SocketChannelConfig setAllocator(ByteBufAllocator allocator);
+
+    @Override
+    SocketChannelConfig setRecvByteBufAllocator(RecvByteBufAllocator allocator);
+
+    @Override
+    SocketChannelConfig setWriteSpinCount(int writeSpinCount);
+
+    @Override
+    SocketChannelConfig setWriteBufferHighWaterMark(int writeBufferHighWaterMark);
+
+    @Override
+    SocketChannelConfig setWriteBufferLowWaterMark(int writeBufferLowWaterMark);
+
+    @Override
+    SocketChannelConfig setWriteBufferWaterMark(WriteBufferWaterMark writeBufferWaterMark);
+}
@@ -0,0 +1,400 @@
+package com.pp.netty.handler.codec;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.ByteBufAllocator;
+import com.pp.netty.buffer.CompositeByteBuf;
+import com.pp.netty.buffer.Unpooled;
+import com.pp.netty.channel.ChannelHandlerContext;
+import com.pp.netty.channel.ChannelInboundHandlerAdapter;
+import com.pp.netty.util.internal.ObjectUtil;
+import com.pp.netty.util.internal.StringUtil;
+
+import java.util.List;
+
+/**
+ * @Author: PP-jessica
+ * @Description:把字节解码成消息的解码器的抽象父类。TCP是字节流，一次读到的数据可能是半个包，也可能是好几个包，
+ * 所以读到的数据要先累加到cumulation中，再循环调用子类的decode方法，直到剩下的数据不够解码出一个完整的消息。
+ * 解码器内部保存着没有解码完的数据，所以是不能共享的，每个channel都要创建一个新的解码器
+ */
+public abstract class ByteToMessageDecoder extends ChannelInboundHandlerAdapter {
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把数据拷贝到同一个ByteBuf中的累加器，这是默认的累加器。
+     * 累加器中的数据正好被解码完的时候，新读到的ByteBuf直接作为累加器，不做任何拷贝
+     */
+    public static final Cumulator MERGE_CUMULATOR = new Cumulator() {
+        @Override
+        public ByteBuf cumulate(ByteBufAllocator alloc, ByteBuf cumulation, ByteBuf in) {
+            if (!cumulation.isReadable() && in.nioBufferCount() == 1) {
+                //上一次读到的数据都解码完了，或者这是第一次读，直接使用新读到的ByteBuf。
+                //一次读到的正好都是完整的帧的时候，全程都不会发生拷贝
+                cumulation.release();
+                return in;
+            }
+            try {
+                final int required = in.readableBytes();
+                //cumulation被解码出来的帧引用着的时候，不能扩容，扩容会把原来的内存释放掉，
+                //这时候只能分配一个新的ByteBuf，把两部分数据拷贝进去
+                if (required > cumulation.maxWritableBytes() ||
+                        (required > cumulation.writableBytes() && cumulation.refCnt() > 1)) {
+                    return expandCumulation(alloc, cumulation, in);
+                }
+                cumulation.writeBytes(in, in.readerIndex(), required);
+                in.readerIndex(in.writerIndex());
+                return cumulation;
+            } finally {
+                //in中的数据已经拷贝到cumulation中了，释放掉
+                in.release();
+            }
+        }
+    };
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把新读到的ByteBuf作为一个组件添加到CompositeByteBuf中的累加器，不拷贝数据。
+     * 但是CompositeByteBuf的索引计算比较复杂，解码的时候读取数据会慢一些，适合帧很大、一个帧要读很多次的场景
+     */
+    public static final Cumulator COMPOSITE_CUMULATOR = new Cumulator() {
+        @Override
+        public ByteBuf cumulate(ByteBufAllocator alloc, ByteBuf cumulation, ByteBuf in) {
+            if (!cumulation.isReadable()) {
+                cumulation.release();
+                return in;
+            }
+            CompositeByteBuf composite = null;
+            try {
+                if (cumulation instanceof CompositeByteBuf && cumulation.refCnt() == 1) {
+                    composite = (CompositeByteBuf) cumulation;
+                    //writerIndex后面不能有空闲的容量，否则新添加的组件前面会多出一段无效的数据
+                    if (composite.writerIndex() != composite.capacity()) {
+                        composite.capacity(composite.writerIndex());
+                    }
+                } else {
+                    composite = alloc.compositeBuffer(Integer.MAX_VALUE).addComponent(true, cumulation);
+                }
+                composite.addComponent(true, in);
+                in = null;
+                return composite;
+            } finally {
+                if (in != null) {
+                    //走到这里说明出现了异常，要把in和新创建的composite都释放掉
+                    in.release();
+                    if (composite != null && composite != cumulation) {
+                        composite.release();
+                    }
+                }
+            }
+        }
+    };
+
+    //解码器的状态，调用子类的decode方法的时候，handler可能在decode方法中被移除了，这时候要等decode方法返回之后再处理
+    private static final byte STATE_INIT = 0;
+    private static final byte STATE_CALLING_CHILD_DECODE = 1;
+    private static final byte STATE_HANDLER_REMOVED_PENDING = 2;
+
+    //累加器，保存还没有解码的数据
+    ByteBuf cumulation;
+    private Cumulator cumulator = MERGE_CUMULATOR;
+    //为true的时候，每次channelRead只解码一个消息
+    private boolean singleDecode;
+    //这次读到的数据是不是cumulation中的第一份数据
+    private boolean first;
+    private byte decodeState = STATE_INIT;
+    //每读多少次就把cumulation中已经读过的字节丢弃掉一部分，避免cumulation无限增长
+    private int discardAfterReads = 16;
+    private int numReads;
+
+    protected ByteToMessageDecoder() {
+        ensureNotSharable();
+    }
+
+    public void setSingleDecode(boolean singleDecode) {
+        this.singleDecode = singleDecode;
+    }
+
+    public boolean isSingleDecode() {
+        return singleDecode;
+    }
+
+    public void setCumulator(Cumulator cumulator) {
+        this.cumulator = ObjectUtil.checkNotNull(cumulator, "cumulator");
+    }
+
+    public void setDiscardAfterReads(int discardAfterReads) {
+        ObjectUtil.checkPositive(discardAfterReads, "discardAfterReads");
+        this.discardAfterReads = discardAfterReads;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:累加器中还没有解码的字节数
+     */
+    protected int actualReadableBytes() {
+        return internalBuffer().readableBytes();
+    }
+
+    protected ByteBuf internalBuffer() {
+        if (cumulation != null) {
+            return cumulation;
+        } else {
+            return Unpooled.EMPTY_BUFFER;
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:解码器被移除的时候，累加器中还没有解码的数据要传给下一个handler，不能丢掉
+     */
+    @Override
+    public final void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        if (decodeState == STATE_CALLING_CHILD_DECODE) {
+            //正在调用decode方法，等decode方法返回之后再处理
+            decodeState = STATE_HANDLER_REMOVED_PENDING;
+            return;
+        }
+        ByteBuf buf = cumulation;
+        if (buf != null) {
+            cumulation = null;
+            numReads = 0;
+            int readable = buf.readableBytes();
+            if (readable > 0) {
+                ctx.fireChannelRead(buf);
+                ctx.fireChannelReadComplete();
+            } else {
+                buf.release();
+            }
+        }
+        handlerRemoved0(ctx);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:子类需要在解码器被移除的时候做一些事情的话，重写这个方法
+     */
+    protected void handlerRemoved0(ChannelHandlerContext ctx) throws Exception {
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof ByteBuf) {
+            CodecOutputList out = CodecOutputList.newInstance();
+            try {
+                first = cumulation == null;
+                cumulation = cumulator.cumulate(ctx.alloc(),
+                        first ? Unpooled.EMPTY_BUFFER : cumulation, (ByteBuf) msg);
+                callDecode(ctx, cumulation, out);
+            } catch (DecoderException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new DecoderException(e);
+            } finally {
+                try {
+                    if (cumulation != null && !cumulation.isReadable()) {
+                        //数据都解码完了，释放累加器，下一次读到的ByteBuf可以直接作为累加器
+                        numReads = 0;
+                        cumulation.release();
+                        cumulation = null;
+                    } else if (++numReads >= discardAfterReads) {
+                        numReads = 0;
+                        discardSomeReadBytes();
+                    }
+                    int size = out.size();
+                    fireChannelRead(ctx, out, size);
+                } finally {
+                    out.recycle();
+                }
+            }
+        } else {
+            ctx.fireChannelRead(msg);
+        }
+    }
+
+    static void fireChannelRead(ChannelHandlerContext ctx, List<Object> msgs, int numElements) {
+        if (msgs instanceof CodecOutputList) {
+            fireChannelRead(ctx, (CodecOutputList) msgs, numElements);
+        } else {
+            for (int i = 0; i < numElements; i++) {
+                ctx.fireChannelRead(msgs.get(i));
+            }
+        }
+    }
+
+    static void fireChannelRead(ChannelHandlerContext ctx, CodecOutputList msgs, int numElements) {
+        for (int i = 0; i < numElements; i ++) {
+            ctx.fireChannelRead(msgs.getUnsafe(i));
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:一轮读事件结束之后，把累加器中已经读过的字节丢弃掉一部分
+     */
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        numReads = 0;
+        discardSomeReadBytes();
+        ctx.fireChannelReadComplete();
+    }
+
+    protected final void discardSomeReadBytes() {
+        //引用计数大于1说明解码出来的帧还引用着cumulation，这时候移动数据会把帧的内容改掉
+        if (cumulation != null && !first && cumulation.refCnt() == 1) {
+            cumulation.discardSomeReadBytes();
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:channel关闭了，累加器中剩下的数据交给decodeLast方法做最后一次解码
+     */
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        CodecOutputList out = CodecOutputList.newInstance();
+        try {
+            if (cumulation != null) {
+                callDecode(ctx, cumulation, out);
+                //解码器可能在decode方法中被移除了，这时候就不用再调用decodeLast了
+                if (!ctx.isRemoved()) {
+                    ByteBuf buffer = cumulation == null ? Unpooled.EMPTY_BUFFER : cumulation;
+                    decodeLast(ctx, buffer, out);
+                }
+            } else {
+                decodeLast(ctx, Unpooled.EMPTY_BUFFER, out);
+            }
+        } catch (DecoderException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DecoderException(e);
+        } finally {
+            try {
+                if (cumulation != null) {
+                    cumulation.release();
+                    cumulation = null;
+                }
+                int size = out.size();
+                fireChannelRead(ctx, out, size);
+                if (size > 0) {
+                    ctx.fireChannelReadComplete();
+                }
+                ctx.fireChannelInactive();
+            } finally {
+                out.recycle();
+            }
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:循环解码，直到剩下的数据不够解码出一个完整的消息。每解码出一批消息就先传给下一个handler，
+     * 因为下一个handler可能会把当前的解码器移除，这时候剩下的数据就不能再由当前的解码器处理了
+     */
+    protected void callDecode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+        try {
+            while (in.isReadable()) {
+                int outSize = out.size();
+                if (outSize > 0) {
+                    fireChannelRead(ctx, out, outSize);
+                    out.clear();
+                    if (ctx.isRemoved()) {
+                        break;
+                    }
+                    outSize = 0;
+                }
+                int oldInputLength = in.readableBytes();
+                decodeRemovalReentryProtection(ctx, in, out);
+                if (ctx.isRemoved()) {
+                    break;
+                }
+                if (outSize == out.size()) {
+                    //没有解码出消息，也没有读取数据，说明数据不够了，等下一次读到数据再解码
+                    if (oldInputLength == in.readableBytes()) {
+                        break;
+                    } else {
+                        continue;
+                    }
+                }
+                //解码出了消息却没有读取数据，再循环下去就是死循环了
+                if (oldInputLength == in.readableBytes()) {
+                    throw new DecoderException(StringUtil.simpleClassName(getClass()) +
+                            ".decode() did not read anything but decoded a message.");
+                }
+                if (isSingleDecode()) {
+                    break;
+                }
+            }
+        } catch (DecoderException e) {
+            throw e;
+        } catch (Exception cause) {
+            throw new DecoderException(cause);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:子类实现的解码方法，从in中读取数据，解码出的消息添加到out中。数据不够的时候什么都不读，直接返回就行
+     */
+    protected abstract void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception;
+
+    final void decodeRemovalReentryProtection(ChannelHandlerContext ctx, ByteBuf in, List<Object> out)
+            throws Exception {
+        decodeState = STATE_CALLING_CHILD_DECODE;
+        try {
+            decode(ctx, in, out);
+        } finally {
+            boolean removePending = decodeState == STATE_HANDLER_REMOVED_PENDING;
+            decodeState = STATE_INIT;
+            if (removePending) {
+                //decode方法中解码器被移除了，先把已经解码出的消息传下去，再处理剩下的数据
+                fireChannelRead(ctx, out, out.size());
+                out.clear();
+                handlerRemoved(ctx);
+            }
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:channel关闭的时候最后一次解码，默认和decode方法一样，子类可以重写它处理对端关闭连接作为消息结束标志的协议
+     */
+    protected void decodeLast(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        if (in.isReadable()) {
+            decodeRemovalReentryProtection(ctx, in, out);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:累加器中的数据不够存放新读到的数据的时候，分配一个更大的ByteBuf，把两部分数据拷贝进去
+     */
+    static ByteBuf expandCumulation(ByteBufAllocator alloc, ByteBuf oldCumulation, ByteBuf in) {
+        int oldBytes = oldCumulation.readableBytes();
+        int newBytes = in.readableBytes();
+        int totalBytes = oldBytes + newBytes;
+        ByteBuf newCumulation = alloc.buffer(alloc.calculateNewCapacity(totalBytes, Integer.MAX_VALUE));
+        ByteBuf toRelease = newCumulation;
+        try {
+            newCumulation.setBytes(0, oldCumulation, oldCumulation.readerIndex(), oldBytes)
+                    .setBytes(oldBytes, in, in.readerIndex(), newBytes)
+                    .writerIndex(totalBytes);
+            in.readerIndex(in.writerIndex());
+            toRelease = oldCumulation;
+            return newCumulation;
+        } finally {
+            toRelease.release();
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:累加器，决定新读到的数据怎么和还没解码的数据合并在一起
+     */
+    public interface Cumulator {
+        /**
+         * @Author: PP-jessica
+         * @Description:合并cumulation和in，返回新的累加器。in的所有权转移给了累加器，由它负责释放
+         */
+        ByteBuf cumulate(ByteBufAllocator alloc, ByteBuf cumulation, ByteBuf in);
+    }
+}
@@ -0,0 +1,25 @@
+package com.pp.netty.handler.codec;
+
+/**
+ * @Author: PP-jessica
+ * @Description:编解码器出现异常时抛出的异常
+ */
+public class CodecException extends RuntimeException {
+
+    private static final long serialVersionUID = -2939270093578733372L;
+
+    public CodecException() {
+    }
+
+    public CodecException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public CodecException(String message) {
+        super(message);
+    }
+
+    public CodecException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,203 @@
+package com.pp.netty.handler.codec;
+
+import com.pp.netty.util.internal.ObjectUtil;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * @Author: PP-jessica
+ * @Description:解码器存放解码结果的list。每一次channelRead都要用到一个list，一个连接每秒可能有几十万次读，
+ * 所以这里每个线程缓存了几个list循环使用，用完之后调用recycle方法还回去，省掉了大量ArrayList的创建。
+ * 解码器的调用一定是在channel的单线程执行器中，所以list也只会被一个线程使用，不需要任何同步
+ */
+final class CodecOutputList extends AbstractList<Object> implements RandomAccess {
+
+    //每个线程缓存的list的数量，解码器嵌套调用的时候一个线程会同时用到多个list
+    private static final int LISTS_PER_THREAD = 16;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private static final CodecOutputListRecycler NOOP_RECYCLER = new CodecOutputListRecycler() {
+        @Override
+        public void recycle(CodecOutputList object) {
+            //缓存的list都被用完了，临时创建出来的list用完之后直接丢掉就行
+        }
+    };
+
+    private static final ThreadLocal<CodecOutputLists> CODEC_OUTPUT_LISTS_POOL = new ThreadLocal<CodecOutputLists>() {
+        @Override
+        protected CodecOutputLists initialValue() {
+            return new CodecOutputLists(LISTS_PER_THREAD);
+        }
+    };
+
+    private interface CodecOutputListRecycler {
+        void recycle(CodecOutputList codecOutputList);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:一个线程缓存的所有list，当成一个栈来用，取的时候从栈顶取，还的时候放回栈顶
+     */
+    private static final class CodecOutputLists implements CodecOutputListRecycler {
+        private final CodecOutputList[] elements;
+        private final int mask;
+
+        private int currentIdx;
+        private int count;
+
+        CodecOutputLists(int numElements) {
+            //numElements是2的幂次方，取余可以用位运算
+            elements = new CodecOutputList[numElements];
+            for (int i = 0; i < elements.length; ++i) {
+                elements[i] = new CodecOutputList(this, DEFAULT_CAPACITY);
+            }
+            count = numElements;
+            currentIdx = numElements;
+            mask = numElements - 1;
+        }
+
+        public CodecOutputList getOrCreate() {
+            if (count == 0) {
+                return new CodecOutputList(NOOP_RECYCLER, 4);
+            }
+            --count;
+            int idx = (currentIdx - 1) & mask;
+            CodecOutputList list = elements[idx];
+            currentIdx = idx;
+            return list;
+        }
+
+        @Override
+        public void recycle(CodecOutputList codecOutputList) {
+            int idx = currentIdx;
+            elements[idx] = codecOutputList;
+            currentIdx = (idx + 1) & mask;
+            ++count;
+            assert count <= elements.length;
+        }
+    }
+
+    static CodecOutputList newInstance() {
+        return CODEC_OUTPUT_LISTS_POOL.get().getOrCreate();
+    }
+
+    private final CodecOutputListRecycler recycler;
+    private int size;
+    private Object[] array;
+
+    private CodecOutputList(CodecOutputListRecycler recycler, int size) {
+        this.recycler = recycler;
+        array = new Object[size];
+    }
+
+    @Override
+    public Object get(int index) {
+        checkIndex(index);
+        return array[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(Object element) {
+        ObjectUtil.checkNotNull(element, "element");
+        try {
+            insert(size, element);
+        } catch (IndexOutOfBoundsException ignore) {
+            //数组满了，扩容之后再添加
+            expandArray();
+            insert(size, element);
+        }
+        ++size;
+        return true;
+    }
+
+    @Override
+    public Object set(int index, Object element) {
+        ObjectUtil.checkNotNull(element, "element");
+        checkIndex(index);
+        Object old = array[index];
+        insert(index, element);
+        return old;
+    }
+
+    @Override
+    public void add(int index, Object element) {
+        ObjectUtil.checkNotNull(element, "element");
+        checkIndex(index);
+        if (size == array.length) {
+            expandArray();
+        }
+        if (index != size) {
+            System.arraycopy(array, index, array, index + 1, size - index);
+        }
+        insert(index, element);
+        ++size;
+    }
+
+    @Override
+    public Object remove(int index) {
+        checkIndex(index);
+        Object old = array[index];
+        int len = size - index - 1;
+        if (len > 0) {
+            System.arraycopy(array, index + 1, array, index, len);
+        }
+        array[--size] = null;
+        return old;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:这里只是把size置为0，数组中的引用在recycle的时候才清空，解码器clear之后马上就会覆盖掉它们
+     */
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:用完之后清空数组中的引用，把list还给当前线程
+     */
+    void recycle() {
+        for (int i = 0; i < size; i++) {
+            array[i] = null;
+        }
+        size = 0;
+        recycler.recycle(this);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:不检查下标直接获取元素，解码器遍历list的时候用
+     */
+    Object getUnsafe(int index) {
+        return array[index];
+    }
+
+    private void checkIndex(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("expected: index < (" + size + "),but actual is (" + index + ")");
+        }
+    }
+
+    private void insert(int index, Object element) {
+        array[index] = element;
+    }
+
+    private void expandArray() {
+        int newCapacity = array.length << 1;
+        if (newCapacity < 0) {
+            throw new OutOfMemoryError();
+        }
+        Object[] newArray = new Object[newCapacity];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        array = newArray;
+    }
+}
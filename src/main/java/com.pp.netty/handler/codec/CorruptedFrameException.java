@@ -0,0 +1,25 @@
+package com.pp.netty.handler.codec;
+
+/**
+ * @Author: PP-jessica
+ * @Description:收到的数据不符合协议，无法解析出一个完整的帧时抛出的异常
+ */
+public class CorruptedFrameException extends DecoderException {
+
+    private static final long serialVersionUID = 3918052232492988408L;
+
+    public CorruptedFrameException() {
+    }
+
+    public CorruptedFrameException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public CorruptedFrameException(String message) {
+        super(message);
+    }
+
+    public CorruptedFrameException(Throwable cause) {
+        super(cause);
+    }
+}
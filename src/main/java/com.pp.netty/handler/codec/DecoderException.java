@@ -0,0 +1,25 @@
+package com.pp.netty.handler.codec;
+
+/**
+ * @Author: PP-jessica
+ * @Description:解码器出现异常时抛出的异常，解码方法抛出的其他异常都会被包装成这个异常
+ */
+public class DecoderException extends CodecException {
+
+    private static final long serialVersionUID = 6926716840699621852L;
+
+    public DecoderException() {
+    }
+
+    public DecoderException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public DecoderException(String message) {
+        super(message);
+    }
+
+    public DecoderException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,89 @@
+package com.pp.netty.handler.codec;
+
+import com.pp.netty.util.internal.ObjectUtil;
+
+/**
+ * @Author: PP-jessica
+ * @Description:解码的结果。有些协议解码失败的时候不能直接抛异常，比如HTTP请求格式错误，服务端还要回复一个400的响应，
+ * 所以解码器会把失败的结果设置到解码出的消息上，交给后面的handler处理
+ */
+public class DecoderResult {
+
+    protected static final Signal SIGNAL_UNFINISHED = new Signal("UNFINISHED");
+    protected static final Signal SIGNAL_SUCCESS = new Signal("SUCCESS");
+
+    public static final DecoderResult UNFINISHED = new DecoderResult(SIGNAL_UNFINISHED);
+    public static final DecoderResult SUCCESS = new DecoderResult(SIGNAL_SUCCESS);
+
+    public static DecoderResult failure(Throwable cause) {
+        return new DecoderResult(ObjectUtil.checkNotNull(cause, "cause"));
+    }
+
+    private final Throwable cause;
+
+    protected DecoderResult(Throwable cause) {
+        this.cause = ObjectUtil.checkNotNull(cause, "cause");
+    }
+
+    public boolean isFinished() {
+        return cause != SIGNAL_UNFINISHED;
+    }
+
+    public boolean isSuccess() {
+        return cause == SIGNAL_SUCCESS;
+    }
+
+    public boolean isFailure() {
+        return cause != SIGNAL_SUCCESS && cause != SIGNAL_UNFINISHED;
+    }
+
+    public Throwable cause() {
+        if (isFailure()) {
+            return cause;
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (isFinished()) {
+            if (isSuccess()) {
+                return "success";
+            }
+            String cause = cause().toString();
+            return new StringBuilder(cause.length() + 17)
+                    .append("failure(")
+                    .append(cause)
+                    .append(')')
+                    .toString();
+        } else {
+            return "unfinished";
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:表示状态的异常，不需要异常栈，只是用来和真正的失败原因区分开
+     */
+    protected static final class Signal extends Error {
+
+        private static final long serialVersionUID = -221145131122459977L;
+
+        private final String name;
+
+        Signal(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Throwable fillInStackTrace() {
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.pp.netty.handler.codec;
+
+/**
+ * @Author: PP-jessica
+ * @Description:带有解码结果的消息
+ */
+public interface DecoderResultProvider {
+
+    DecoderResult decoderResult();
+
+    void setDecoderResult(DecoderResult result);
+}
@@ -0,0 +1,205 @@
+package com.pp.netty.handler.codec;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.channel.ChannelHandlerContext;
+import com.pp.netty.util.internal.ObjectUtil;
+
+import java.util.List;
+
+/**
+ * @Author: PP-jessica
+ * @Description:按分隔符拆分帧的解码器，可以同时指定多个分隔符，哪个分隔符先出现就按哪个拆分。
+ * 分隔符正好是"\r\n"和"\n"的时候，直接交给LineBasedFrameDecoder处理，它查找换行符更快。
+ * 查找分隔符的时候先用ByteBuf的indexOf找分隔符的第一个字节，一次比较8个字节，找到了再比较后面的字节
+ */
+public class DelimiterBasedFrameDecoder extends ByteToMessageDecoder {
+
+    private final ByteBuf[] delimiters;
+    private final int maxFrameLength;
+    private final boolean stripDelimiter;
+    private final boolean failFast;
+    //是否正在丢弃超长的帧
+    private boolean discardingTooLongFrame;
+    private int tooLongFrameLength;
+    //分隔符是换行符的时候，用这个解码器解码
+    private final LineBasedFrameDecoder lineBasedDecoder;
+
+    public DelimiterBasedFrameDecoder(int maxFrameLength, ByteBuf delimiter) {
+        this(maxFrameLength, true, delimiter);
+    }
+
+    public DelimiterBasedFrameDecoder(int maxFrameLength, boolean stripDelimiter, ByteBuf delimiter) {
+        this(maxFrameLength, stripDelimiter, true, delimiter);
+    }
+
+    public DelimiterBasedFrameDecoder(int maxFrameLength, boolean stripDelimiter, boolean failFast,
+                                      ByteBuf delimiter) {
+        this(maxFrameLength, stripDelimiter, failFast, new ByteBuf[] {
+                delimiter.slice(delimiter.readerIndex(), delimiter.readableBytes())});
+    }
+
+    public DelimiterBasedFrameDecoder(int maxFrameLength, ByteBuf... delimiters) {
+        this(maxFrameLength, true, delimiters);
+    }
+
+    public DelimiterBasedFrameDecoder(int maxFrameLength, boolean stripDelimiter, ByteBuf... delimiters) {
+        this(maxFrameLength, stripDelimiter, true, delimiters);
+    }
+
+    public DelimiterBasedFrameDecoder(int maxFrameLength, boolean stripDelimiter, boolean failFast,
+                                      ByteBuf... delimiters) {
+        ObjectUtil.checkPositive(maxFrameLength, "maxFrameLength");
+        ObjectUtil.checkNonEmpty(delimiters, "delimiters");
+        if (isLineBased(delimiters) && !isSubclass()) {
+            lineBasedDecoder = new LineBasedFrameDecoder(maxFrameLength, stripDelimiter, failFast);
+            this.delimiters = null;
+        } else {
+            this.delimiters = new ByteBuf[delimiters.length];
+            for (int i = 0; i < delimiters.length; i ++) {
+                ByteBuf d = delimiters[i];
+                validateDelimiter(d);
+                //切片一份，之后用capacity作为分隔符的长度，不受用户修改原来的读写索引的影响
+                this.delimiters[i] = d.slice(d.readerIndex(), d.readableBytes());
+            }
+            lineBasedDecoder = null;
+        }
+        this.maxFrameLength = maxFrameLength;
+        this.stripDelimiter = stripDelimiter;
+        this.failFast = failFast;
+    }
+
+    private static boolean isLineBased(final ByteBuf[] delimiters) {
+        if (delimiters.length != 2) {
+            return false;
+        }
+        ByteBuf a = delimiters[0];
+        ByteBuf b = delimiters[1];
+        if (a.capacity() < b.capacity()) {
+            a = delimiters[1];
+            b = delimiters[0];
+        }
+        return a.capacity() == 2 && b.capacity() == 1
+                && a.getByte(0) == '\r' && a.getByte(1) == '\n'
+                && b.getByte(0) == '\n';
+    }
+
+    private boolean isSubclass() {
+        return getClass() != DelimiterBasedFrameDecoder.class;
+    }
+
+    @Override
+    protected final void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        Object decoded = decode(ctx, in);
+        if (decoded != null) {
+            out.add(decoded);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:解码出一个帧，没有找到分隔符的时候返回null
+     */
+    protected Object decode(ChannelHandlerContext ctx, ByteBuf buffer) throws Exception {
+        if (lineBasedDecoder != null) {
+            return lineBasedDecoder.decode(ctx, buffer);
+        }
+        //找出最先出现的分隔符
+        int minFrameLength = Integer.MAX_VALUE;
+        ByteBuf minDelim = null;
+        for (ByteBuf delim: delimiters) {
+            int frameLength = indexOf(buffer, delim);
+            if (frameLength >= 0 && frameLength < minFrameLength) {
+                minFrameLength = frameLength;
+                minDelim = delim;
+            }
+        }
+        if (minDelim != null) {
+            int minDelimLength = minDelim.capacity();
+            ByteBuf frame;
+            if (discardingTooLongFrame) {
+                //超长的帧终于读到分隔符了，丢弃分隔符前面的数据，退出丢弃模式
+                discardingTooLongFrame = false;
+                buffer.skipBytes(minFrameLength + minDelimLength);
+                int tooLongFrameLength = this.tooLongFrameLength;
+                this.tooLongFrameLength = 0;
+                if (!failFast) {
+                    fail(tooLongFrameLength);
+                }
+                return null;
+            }
+            if (minFrameLength > maxFrameLength) {
+                buffer.skipBytes(minFrameLength + minDelimLength);
+                fail(minFrameLength);
+                return null;
+            }
+            if (stripDelimiter) {
+                frame = buffer.readRetainedSlice(minFrameLength);
+                buffer.skipBytes(minDelimLength);
+            } else {
+                frame = buffer.readRetainedSlice(minFrameLength + minDelimLength);
+            }
+            return frame;
+        } else {
+            if (!discardingTooLongFrame) {
+                if (buffer.readableBytes() > maxFrameLength) {
+                    //还没有读到分隔符就已经超过最大长度了，读到的数据直接丢弃，进入丢弃模式
+                    tooLongFrameLength = buffer.readableBytes();
+                    buffer.skipBytes(buffer.readableBytes());
+                    discardingTooLongFrame = true;
+                    if (failFast) {
+                        fail(tooLongFrameLength);
+                    }
+                }
+            } else {
+                tooLongFrameLength += buffer.readableBytes();
+                buffer.skipBytes(buffer.readableBytes());
+            }
+            return null;
+        }
+    }
+
+    private void fail(long frameLength) {
+        if (frameLength > 0) {
+            throw new TooLongFrameException(
+                    "frame length exceeds " + maxFrameLength + ": " + frameLength + " - discarded");
+        } else {
+            throw new TooLongFrameException(
+                    "frame length exceeds " + maxFrameLength + " - discarding");
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:返回needle在haystack中第一次出现的位置相对于readerIndex的偏移量，没有找到返回-1。
+     * 先用indexOf找needle的第一个字节，找到之后再逐个比较剩下的字节，不匹配就从下一个字节接着找
+     */
+    private static int indexOf(ByteBuf haystack, ByteBuf needle) {
+        final int needleLength = needle.capacity();
+        final byte first = needle.getByte(0);
+        final int readerIndex = haystack.readerIndex();
+        final int writerIndex = haystack.writerIndex();
+        int fromIndex = readerIndex;
+        while (writerIndex - fromIndex >= needleLength) {
+            int i = haystack.indexOf(fromIndex, writerIndex, first);
+            if (i < 0 || writerIndex - i < needleLength) {
+                return -1;
+            }
+            int needleIndex = 1;
+            while (needleIndex < needleLength && haystack.getByte(i + needleIndex) == needle.getByte(needleIndex)) {
+                needleIndex++;
+            }
+            if (needleIndex == needleLength) {
+                return i - readerIndex;
+            }
+            fromIndex = i + 1;
+        }
+        return -1;
+    }
+
+    private static void validateDelimiter(ByteBuf delimiter) {
+        ObjectUtil.checkNotNull(delimiter, "delimiter");
+        if (!delimiter.isReadable()) {
+            throw new IllegalArgumentException("empty delimiter");
+        }
+    }
+}
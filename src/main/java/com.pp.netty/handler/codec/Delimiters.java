@@ -0,0 +1,34 @@
+package com.pp.netty.handler.codec;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.Unpooled;
+
+/**
+ * @Author: PP-jessica
+ * @Description:DelimiterBasedFrameDecoder常用的分隔符
+ */
+public final class Delimiters {
+
+    /**
+     * @Author: PP-jessica
+     * @Description:NUL字符作为分隔符，Flash的XML Socket和一些简单的文本协议会用到
+     */
+    public static ByteBuf[] nulDelimiter() {
+        return new ByteBuf[] {
+                Unpooled.wrappedBuffer(new byte[] { 0 }) };
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:"\r\n"和"\n"作为分隔符
+     */
+    public static ByteBuf[] lineDelimiter() {
+        return new ByteBuf[] {
+                Unpooled.wrappedBuffer(new byte[] { '\r', '\n' }),
+                Unpooled.wrappedBuffer(new byte[] { '\n' }),
+        };
+    }
+
+    private Delimiters() {
+    }
+}
@@ -0,0 +1,25 @@
+package com.pp.netty.handler.codec;
+
+/**
+ * @Author: PP-jessica
+ * @Description:编码器出现异常时抛出的异常，编码方法抛出的其他异常都会被包装成这个异常
+ */
+public class EncoderException extends CodecException {
+
+    private static final long serialVersionUID = -5086121160476476774L;
+
+    public EncoderException() {
+    }
+
+    public EncoderException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public EncoderException(String message) {
+        super(message);
+    }
+
+    public EncoderException(Throwable cause) {
+        super(cause);
+    }
+}
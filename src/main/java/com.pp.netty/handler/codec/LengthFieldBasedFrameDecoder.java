@@ -0,0 +1,237 @@
+package com.pp.netty.handler.codec;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.channel.ChannelHandlerContext;
+import com.pp.netty.util.internal.ObjectUtil;
+
+import java.util.List;
+
+/**
+ * @Author: PP-jessica
+ * @Description:根据消息头中的长度字段拆分帧的解码器，二进制的RPC协议基本都是这种格式。
+ * 比如lengthFieldOffset = 0，lengthFieldLength = 4，lengthAdjustment = 0，initialBytesToStrip = 4，
+ * 那么每个帧的前4个字节就是后面内容的长度，解码出来的帧去掉了这4个字节的长度字段。
+ * 长度字段按照网络字节序，也就是大端来读取。
+ * 解码出来的帧是累加器的一个切片，和累加器共用同一块内存，不会拷贝数据，帧用完之后要由用户释放
+ */
+public class LengthFieldBasedFrameDecoder extends ByteToMessageDecoder {
+
+    private final int maxFrameLength;
+    private final int lengthFieldOffset;
+    private final int lengthFieldLength;
+    //长度字段结束的位置，读到这么多字节之后才能知道帧的长度
+    private final int lengthFieldEndOffset;
+    //长度字段的值加上这个值才是长度字段后面的内容的长度，长度字段的值包含了消息头的长度的时候，这个值是负数
+    private final int lengthAdjustment;
+    //解码出来的帧要跳过前面多少个字节
+    private final int initialBytesToStrip;
+    //为true的时候一读到长度字段发现帧太长了就抛异常，否则要等到整个超长的帧都丢弃完了才抛异常
+    private final boolean failFast;
+    //是否正在丢弃超长的帧
+    private boolean discardingTooLongFrame;
+    private long tooLongFrameLength;
+    //超长的帧还有多少字节要丢弃
+    private long bytesToDiscard;
+    //当前正在解码的帧的长度，半包的时候缓存起来，下一次读到数据的时候就不用再解析一次长度字段了
+    private int frameLengthInt = -1;
+
+    public LengthFieldBasedFrameDecoder(int maxFrameLength, int lengthFieldOffset, int lengthFieldLength) {
+        this(maxFrameLength, lengthFieldOffset, lengthFieldLength, 0, 0);
+    }
+
+    public LengthFieldBasedFrameDecoder(int maxFrameLength, int lengthFieldOffset, int lengthFieldLength,
+                                        int lengthAdjustment, int initialBytesToStrip) {
+        this(maxFrameLength, lengthFieldOffset, lengthFieldLength, lengthAdjustment, initialBytesToStrip, true);
+    }
+
+    public LengthFieldBasedFrameDecoder(int maxFrameLength, int lengthFieldOffset, int lengthFieldLength,
+                                        int lengthAdjustment, int initialBytesToStrip, boolean failFast) {
+        ObjectUtil.checkPositive(maxFrameLength, "maxFrameLength");
+        ObjectUtil.checkPositiveOrZero(lengthFieldOffset, "lengthFieldOffset");
+        ObjectUtil.checkPositiveOrZero(initialBytesToStrip, "initialBytesToStrip");
+        if (lengthFieldLength != 1 && lengthFieldLength != 2 &&
+                lengthFieldLength != 3 && lengthFieldLength != 4 && lengthFieldLength != 8) {
+            throw new IllegalArgumentException(
+                    "lengthFieldLength must be either 1, 2, 3, 4, or 8: " + lengthFieldLength);
+        }
+        if (lengthFieldOffset > maxFrameLength - lengthFieldLength) {
+            throw new IllegalArgumentException(
+                    "maxFrameLength (" + maxFrameLength + ") " +
+                    "must be equal to or greater than " +
+                    "lengthFieldOffset (" + lengthFieldOffset + ") + " +
+                    "lengthFieldLength (" + lengthFieldLength + ").");
+        }
+        this.maxFrameLength = maxFrameLength;
+        this.lengthFieldOffset = lengthFieldOffset;
+        this.lengthFieldLength = lengthFieldLength;
+        this.lengthAdjustment = lengthAdjustment;
+        this.lengthFieldEndOffset = lengthFieldOffset + lengthFieldLength;
+        this.initialBytesToStrip = initialBytesToStrip;
+        this.failFast = failFast;
+    }
+
+    @Override
+    protected final void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        Object decoded = decode(ctx, in);
+        if (decoded != null) {
+            out.add(decoded);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:解码出一个帧，数据不够一个完整的帧的时候返回null
+     */
+    protected Object decode(ChannelHandlerContext ctx, ByteBuf in) throws Exception {
+        long frameLength = 0;
+        if (frameLengthInt == -1) {
+            //开始解码一个新的帧
+            if (discardingTooLongFrame) {
+                discardingTooLongFrame(in);
+            }
+            if (in.readableBytes() < lengthFieldEndOffset) {
+                return null;
+            }
+            int actualLengthFieldOffset = in.readerIndex() + lengthFieldOffset;
+            frameLength = getUnadjustedFrameLength(in, actualLengthFieldOffset, lengthFieldLength);
+            if (frameLength < 0) {
+                failOnNegativeLengthField(in, frameLength, lengthFieldEndOffset);
+            }
+            frameLength += lengthAdjustment + lengthFieldEndOffset;
+            if (frameLength < lengthFieldEndOffset) {
+                failOnFrameLengthLessThanLengthFieldEndOffset(in, frameLength, lengthFieldEndOffset);
+            }
+            if (frameLength > maxFrameLength) {
+                exceededFrameLength(in, frameLength);
+                return null;
+            }
+            frameLengthInt = (int) frameLength;
+        }
+        //半包，等下一次读到数据再解码
+        if (in.readableBytes() < frameLengthInt) {
+            return null;
+        }
+        if (initialBytesToStrip > frameLengthInt) {
+            failOnFrameLengthLessThanInitialBytesToStrip(in, frameLengthInt, initialBytesToStrip);
+        }
+        in.skipBytes(initialBytesToStrip);
+        int readerIndex = in.readerIndex();
+        int actualFrameLength = frameLengthInt - initialBytesToStrip;
+        ByteBuf frame = extractFrame(ctx, in, readerIndex, actualFrameLength);
+        in.readerIndex(readerIndex + actualFrameLength);
+        frameLengthInt = -1;
+        return frame;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:读取长度字段的值，子类可以重写这个方法支持其他格式的长度字段
+     */
+    protected long getUnadjustedFrameLength(ByteBuf buf, int offset, int length) {
+        long frameLength;
+        switch (length) {
+            case 1:
+                frameLength = buf.getUnsignedByte(offset);
+                break;
+            case 2:
+                frameLength = buf.getUnsignedShort(offset);
+                break;
+            case 3:
+                frameLength = buf.getUnsignedMedium(offset);
+                break;
+            case 4:
+                frameLength = buf.getUnsignedInt(offset);
+                break;
+            case 8:
+                frameLength = buf.getLong(offset);
+                break;
+            default:
+                throw new DecoderException(
+                        "unsupported lengthFieldLength: " + lengthFieldLength + " (expected: 1, 2, 3, 4, or 8)");
+        }
+        return frameLength;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:截取出一个帧，默认返回累加器的切片，不拷贝数据。
+     * 子类如果要长时间持有帧，又不想让累加器的内存一直不能释放，可以重写这个方法拷贝一份
+     */
+    protected ByteBuf extractFrame(ChannelHandlerContext ctx, ByteBuf buffer, int index, int length) {
+        return buffer.retainedSlice(index, length);
+    }
+
+    private void discardingTooLongFrame(ByteBuf in) {
+        long bytesToDiscard = this.bytesToDiscard;
+        int localBytesToDiscard = (int) Math.min(bytesToDiscard, in.readableBytes());
+        in.skipBytes(localBytesToDiscard);
+        bytesToDiscard -= localBytesToDiscard;
+        this.bytesToDiscard = bytesToDiscard;
+        failIfNecessary(false);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:帧太长了，已经读到的部分直接跳过，还没有读到的部分记下来，之后读到了再丢弃
+     */
+    private void exceededFrameLength(ByteBuf in, long frameLength) {
+        long discard = frameLength - in.readableBytes();
+        tooLongFrameLength = frameLength;
+        if (discard < 0) {
+            //整个帧都已经读到了，直接跳过
+            in.skipBytes((int) frameLength);
+        } else {
+            discardingTooLongFrame = true;
+            bytesToDiscard = discard;
+            in.skipBytes(in.readableBytes());
+        }
+        failIfNecessary(true);
+    }
+
+    private void failIfNecessary(boolean firstDetectionOfTooLongFrame) {
+        if (bytesToDiscard == 0) {
+            //超长的帧已经丢弃完了，可以开始解码下一个帧了
+            long tooLongFrameLength = this.tooLongFrameLength;
+            this.tooLongFrameLength = 0;
+            discardingTooLongFrame = false;
+            if (!failFast || firstDetectionOfTooLongFrame) {
+                fail(tooLongFrameLength);
+            }
+        } else {
+            if (failFast && firstDetectionOfTooLongFrame) {
+                fail(tooLongFrameLength);
+            }
+        }
+    }
+
+    private void fail(long frameLength) {
+        if (frameLength > 0) {
+            throw new TooLongFrameException(
+                    "Adjusted frame length exceeds " + maxFrameLength + ": " + frameLength + " - discarded");
+        } else {
+            throw new TooLongFrameException(
+                    "Adjusted frame length exceeds " + maxFrameLength + " - discarding");
+        }
+    }
+
+    private static void failOnNegativeLengthField(ByteBuf in, long frameLength, int lengthFieldEndOffset) {
+        in.skipBytes(lengthFieldEndOffset);
+        throw new CorruptedFrameException("negative pre-adjustment length field: " + frameLength);
+    }
+
+    private static void failOnFrameLengthLessThanLengthFieldEndOffset(ByteBuf in, long frameLength,
+                                                                      int lengthFieldEndOffset) {
+        in.skipBytes(lengthFieldEndOffset);
+        throw new CorruptedFrameException(
+                "Adjusted frame length (" + frameLength + ") is less " +
+                "than lengthFieldEndOffset: " + lengthFieldEndOffset);
+    }
+
+    private void failOnFrameLengthLessThanInitialBytesToStrip(ByteBuf in, int frameLength, int initialBytesToStrip) {
+        in.skipBytes(frameLength);
+        frameLengthInt = -1;
+        throw new CorruptedFrameException(
+                "Adjusted frame length (" + frameLength + ") is less " +
+                "than initialBytesToStrip: " + initialBytesToStrip);
+    }
+}
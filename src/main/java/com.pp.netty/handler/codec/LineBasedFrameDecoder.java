@@ -0,0 +1,131 @@
+package com.pp.netty.handler.codec;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.channel.ChannelHandlerContext;
+import com.pp.netty.util.internal.ObjectUtil;
+
+import java.util.List;
+
+/**
+ * @Author: PP-jessica
+ * @Description:按行拆分帧的解码器，"\n"和"\r\n"都算作行尾。查找换行符用的是ByteBuf的indexOf方法，
+ * 一次比较8个字节。解码出来的帧是累加器的切片，不会拷贝数据，也不会创建字节数组
+ */
+public class LineBasedFrameDecoder extends ByteToMessageDecoder {
+
+    //一行的最大长度，不包括换行符
+    private final int maxLength;
+    //为true的时候，一发现这一行太长了就抛异常，否则要等到读到这一行的换行符才抛异常
+    private final boolean failFast;
+    //解码出来的帧是否去掉换行符
+    private final boolean stripDelimiter;
+
+    //是否正在丢弃超长的行
+    private boolean discarding;
+    private int discardedBytes;
+
+    //上一次查找换行符查到的位置，半包的时候下一次从这里开始找，已经找过的字节就不用再找一遍了
+    private int offset;
+
+    public LineBasedFrameDecoder(final int maxLength) {
+        this(maxLength, true, false);
+    }
+
+    public LineBasedFrameDecoder(final int maxLength, final boolean stripDelimiter, final boolean failFast) {
+        this.maxLength = ObjectUtil.checkPositive(maxLength, "maxLength");
+        this.failFast = failFast;
+        this.stripDelimiter = stripDelimiter;
+    }
+
+    @Override
+    protected final void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        Object decoded = decode(ctx, in);
+        if (decoded != null) {
+            out.add(decoded);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:解码出一行，没有找到换行符的时候返回null
+     */
+    protected Object decode(ChannelHandlerContext ctx, ByteBuf buffer) throws Exception {
+        final int eol = findEndOfLine(buffer);
+        if (!discarding) {
+            if (eol >= 0) {
+                final ByteBuf frame;
+                final int length = eol - buffer.readerIndex();
+                final int delimLength = buffer.getByte(eol) == '\r' ? 2 : 1;
+                if (length > maxLength) {
+                    buffer.readerIndex(eol + delimLength);
+                    fail(ctx, length);
+                    return null;
+                }
+                if (stripDelimiter) {
+                    frame = buffer.readRetainedSlice(length);
+                    buffer.skipBytes(delimLength);
+                } else {
+                    frame = buffer.readRetainedSlice(length + delimLength);
+                }
+                return frame;
+            } else {
+                final int length = buffer.readableBytes();
+                if (length > maxLength) {
+                    //还没有读到换行符就已经超过最大长度了，读到的数据直接丢弃，进入丢弃模式，直到读到换行符
+                    discardedBytes = length;
+                    buffer.readerIndex(buffer.writerIndex());
+                    discarding = true;
+                    offset = 0;
+                    if (failFast) {
+                        fail(ctx, "over " + discardedBytes);
+                    }
+                }
+                return null;
+            }
+        } else {
+            if (eol >= 0) {
+                final int length = discardedBytes + eol - buffer.readerIndex();
+                final int delimLength = buffer.getByte(eol) == '\r' ? 2 : 1;
+                buffer.readerIndex(eol + delimLength);
+                discardedBytes = 0;
+                discarding = false;
+                if (!failFast) {
+                    fail(ctx, length);
+                }
+            } else {
+                discardedBytes += buffer.readableBytes();
+                buffer.readerIndex(buffer.writerIndex());
+                offset = 0;
+            }
+            return null;
+        }
+    }
+
+    private void fail(final ChannelHandlerContext ctx, int length) {
+        fail(ctx, String.valueOf(length));
+    }
+
+    private void fail(final ChannelHandlerContext ctx, String length) {
+        ctx.fireExceptionCaught(
+                new TooLongFrameException(
+                        "frame length (" + length + ") exceeds the allowed maximum (" + maxLength + ')'));
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:返回行尾的位置，行尾是"\r\n"的话返回"\r"的位置，没有找到返回-1
+     */
+    private int findEndOfLine(final ByteBuf buffer) {
+        int totalLength = buffer.readableBytes();
+        int i = buffer.indexOf(buffer.readerIndex() + offset, buffer.writerIndex(), (byte) '\n');
+        if (i >= 0) {
+            offset = 0;
+            if (i > buffer.readerIndex() && buffer.getByte(i - 1) == '\r') {
+                i--;
+            }
+        } else {
+            offset = totalLength;
+        }
+        return i;
+    }
+}
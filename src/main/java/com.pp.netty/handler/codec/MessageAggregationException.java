@@ -0,0 +1,25 @@
+package com.pp.netty.handler.codec;
+
+/**
+ * @Author: PP-jessica
+ * @Description:聚合消息的过程中收到了不符合顺序的消息，比如上一个消息还没聚合完又收到了一个新消息的开始
+ */
+public class MessageAggregationException extends IllegalStateException {
+
+    private static final long serialVersionUID = -1995826182950310255L;
+
+    public MessageAggregationException() {
+    }
+
+    public MessageAggregationException(String s) {
+        super(s);
+    }
+
+    public MessageAggregationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public MessageAggregationException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,329 @@
+package com.pp.netty.handler.codec;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.ByteBufHolder;
+import com.pp.netty.buffer.CompositeByteBuf;
+import com.pp.netty.buffer.Unpooled;
+import com.pp.netty.channel.ChannelFuture;
+import com.pp.netty.channel.ChannelFutureListener;
+import com.pp.netty.channel.ChannelHandlerContext;
+import com.pp.netty.channel.ChannelPipeline;
+import com.pp.netty.util.internal.ObjectUtil;
+
+import java.util.List;
+
+/**
+ * @Author: PP-jessica
+ * @Description:把一个开始消息和若干个内容消息聚合成一个完整消息的抽象父类，比如HTTP的分块消息体、WebSocket的分片消息。
+ *
+ * 内存是有上限的：聚合的内容一旦超过maxContentLength，已经聚合的内容立刻释放，剩下的内容消息全部丢弃。
+ * 开始消息中就能知道内容长度的时候(比如HTTP的Content-Length)，在收到任何内容之前就会拒绝，超长的内容一个字节都不会缓存。
+ *
+ * 内容的缓存是按需分配的：只有一块内容的时候直接持有这块内容，不分配CompositeByteBuf，
+ * 第二块内容到来的时候才创建CompositeByteBuf把它们组合起来，内容都是retain之后加进去的，不拷贝。
+ * 完整的消息是在最后一块内容到来的时候才创建的
+ *
+ * @param <I> 这个聚合器处理的消息类型
+ * @param <S> 开始消息的类型
+ * @param <C> 内容消息的类型
+ * @param <O> 聚合出的完整消息的类型
+ */
+public abstract class MessageAggregator<I, S, C extends ByteBufHolder, O extends ByteBufHolder>
+        extends MessageToMessageDecoder<I> {
+
+    private static final int DEFAULT_MAX_COMPOSITEBUFFER_COMPONENTS = 1024;
+
+    private final int maxContentLength;
+
+    private int maxCumulationBufferComponents = DEFAULT_MAX_COMPOSITEBUFFER_COMPONENTS;
+
+    private ChannelHandlerContext ctx;
+
+    //正在聚合的开始消息
+    private S currentMessage;
+    //已经聚合的内容，只有一块内容的时候就是这块内容本身，多块的时候是CompositeByteBuf
+    private ByteBuf content;
+    private int contentLength;
+    //当前的消息已经超长被拒绝了，它后面的内容消息都要丢弃
+    private boolean handlingOversizedMessage;
+
+    protected MessageAggregator(int maxContentLength, Class<? extends I> inboundMessageType) {
+        super(inboundMessageType);
+        this.maxContentLength = ObjectUtil.checkPositiveOrZero(maxContentLength, "maxContentLength");
+    }
+
+    @Override
+    public boolean acceptInboundMessage(Object msg) throws Exception {
+        if (!super.acceptInboundMessage(msg)) {
+            return false;
+        }
+        @SuppressWarnings("unchecked")
+        I in = (I) msg;
+        if (isAggregated(in)) {
+            return false;
+        }
+        return isStartMessage(in) || isContentMessage(in);
+    }
+
+    protected abstract boolean isStartMessage(I msg) throws Exception;
+
+    protected abstract boolean isContentMessage(I msg) throws Exception;
+
+    protected abstract boolean isLastContentMessage(C msg) throws Exception;
+
+    /**
+     * @Author: PP-jessica
+     * @Description:已经是完整消息的不需要再聚合，直接传给下一个handler
+     */
+    protected abstract boolean isAggregated(I msg) throws Exception;
+
+    public final int maxContentLength() {
+        return maxContentLength;
+    }
+
+    public final int maxCumulationBufferComponents() {
+        return maxCumulationBufferComponents;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:CompositeByteBuf最多有多少个组件，超过之后会合并成一个，要在添加到pipeline之前设置
+     */
+    public final void setMaxCumulationBufferComponents(int maxCumulationBufferComponents) {
+        if (maxCumulationBufferComponents < 2) {
+            throw new IllegalArgumentException(
+                    "maxCumulationBufferComponents: " + maxCumulationBufferComponents + " (expected: >= 2)");
+        }
+        if (ctx != null) {
+            throw new IllegalStateException(
+                    "decoder properties cannot be changed once the decoder is added to a pipeline.");
+        }
+        this.maxCumulationBufferComponents = maxCumulationBufferComponents;
+    }
+
+    protected final ChannelHandlerContext ctx() {
+        if (ctx == null) {
+            throw new IllegalStateException("not added to a pipeline yet");
+        }
+        return ctx;
+    }
+
+    @Override
+    protected void decode(final ChannelHandlerContext ctx, I msg, List<Object> out) throws Exception {
+        if (isStartMessage(msg)) {
+            handlingOversizedMessage = false;
+            if (currentMessage != null) {
+                releaseCurrentMessage();
+                throw new MessageAggregationException();
+            }
+            @SuppressWarnings("unchecked")
+            S m = (S) msg;
+            //先决定要不要让对端继续发送内容，比如HTTP的100-continue
+            Object continueResponse = newContinueResponse(m, maxContentLength, ctx.pipeline());
+            if (continueResponse != null) {
+                final boolean closeAfterWrite = closeAfterContinueResponse(continueResponse);
+                handlingOversizedMessage = ignoreContentAfterContinueResponse(continueResponse);
+                ChannelFuture future = ctx.writeAndFlush(continueResponse);
+                future.addListener(closeAfterWrite ? ChannelFutureListener.CLOSE
+                        : ChannelFutureListener.CLOSE_ON_FAILURE);
+                if (handlingOversizedMessage) {
+                    return;
+                }
+            } else if (isContentLengthInvalid(m, maxContentLength) || (m instanceof ByteBufHolder
+                    && ((ByteBufHolder) m).content().readableBytes() > maxContentLength)) {
+                //根据开始消息就知道内容会超长，在收到任何内容之前就拒绝
+                invokeHandleOversizedMessage(ctx, m);
+                return;
+            }
+            if (m instanceof DecoderResultProvider && !((DecoderResultProvider) m).decoderResult().isSuccess()) {
+                O aggregated;
+                if (m instanceof ByteBufHolder) {
+                    aggregated = beginAggregation(m, ((ByteBufHolder) m).content().retain());
+                } else {
+                    aggregated = beginAggregation(m, Unpooled.EMPTY_BUFFER);
+                }
+                finishAggregation(aggregated);
+                out.add(aggregated);
+                return;
+            }
+            currentMessage = m;
+            contentLength = 0;
+            //开始消息本身也可能带有内容，比如WebSocket的第一个分片
+            if (m instanceof ByteBufHolder) {
+                appendPartialContent(((ByteBufHolder) m).content());
+            }
+        } else if (isContentMessage(msg)) {
+            if (currentMessage == null) {
+                //开始消息已经被拒绝了，或者根本没有开始消息，内容直接丢弃，msg会在父类中被释放
+                return;
+            }
+            @SuppressWarnings("unchecked")
+            final C m = (C) msg;
+            ByteBuf partial = m.content();
+            if (contentLength > maxContentLength - partial.readableBytes()) {
+                invokeHandleOversizedMessage(ctx, currentMessage);
+                return;
+            }
+            appendPartialContent(partial);
+            final boolean last;
+            boolean failed = false;
+            if (m instanceof DecoderResultProvider && !((DecoderResultProvider) m).decoderResult().isSuccess()) {
+                failed = true;
+                last = true;
+            } else {
+                last = isLastContentMessage(m);
+            }
+            if (last) {
+                ByteBuf aggregatedContent = content != null ? content : Unpooled.EMPTY_BUFFER;
+                O aggregated = beginAggregation(currentMessage, aggregatedContent);
+                currentMessage = null;
+                content = null;
+                contentLength = 0;
+                aggregate(aggregated, m);
+                if (failed && aggregated instanceof DecoderResultProvider) {
+                    ((DecoderResultProvider) aggregated).setDecoderResult(((DecoderResultProvider) m).decoderResult());
+                }
+                finishAggregation(aggregated);
+                out.add(aggregated);
+            }
+        } else {
+            throw new MessageAggregationException();
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:追加一块内容。第一块内容直接持有，第二块来的时候才创建CompositeByteBuf
+     */
+    private void appendPartialContent(ByteBuf partial) {
+        final int readable = partial.readableBytes();
+        if (readable == 0) {
+            return;
+        }
+        if (content == null) {
+            content = partial.retain();
+        } else {
+            CompositeByteBuf composite;
+            if (content instanceof CompositeByteBuf) {
+                composite = (CompositeByteBuf) content;
+            } else {
+                composite = ctx.alloc().compositeBuffer(maxCumulationBufferComponents);
+                composite.addComponent(true, content);
+                content = composite;
+            }
+            composite.addComponent(true, partial.retain());
+        }
+        contentLength += readable;
+    }
+
+    private void invokeHandleOversizedMessage(ChannelHandlerContext ctx, S oversized) throws Exception {
+        handlingOversizedMessage = true;
+        currentMessage = null;
+        releaseContent();
+        handleOversizedMessage(ctx, oversized);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:根据开始消息判断内容会不会超长，比如HTTP的Content-Length大于maxContentLength
+     */
+    protected abstract boolean isContentLengthInvalid(S start, int maxContentLength) throws Exception;
+
+    /**
+     * @Author: PP-jessica
+     * @Description:开始消息到来的时候要回复给对端的消息，比如HTTP的100 Continue，不需要回复就返回null
+     */
+    protected abstract Object newContinueResponse(S start, int maxContentLength, ChannelPipeline pipeline)
+            throws Exception;
+
+    /**
+     * @Author: PP-jessica
+     * @Description:回复完continueResponse之后要不要关闭连接
+     */
+    protected abstract boolean closeAfterContinueResponse(Object msg) throws Exception;
+
+    /**
+     * @Author: PP-jessica
+     * @Description:回复完continueResponse之后，后面的内容是不是都要丢弃，也就是continueResponse是不是一个拒绝
+     */
+    protected abstract boolean ignoreContentAfterContinueResponse(Object msg) throws Exception;
+
+    /**
+     * @Author: PP-jessica
+     * @Description:用开始消息和聚合好的内容创建完整的消息
+     */
+    protected abstract O beginAggregation(S start, ByteBuf content) throws Exception;
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把最后一块内容消息中除了内容之外的东西合并到完整的消息中，比如HTTP的尾部消息头
+     */
+    protected void aggregate(O aggregated, C content) throws Exception {
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:完整的消息传给下一个handler之前调用，比如HTTP要在这里设置Content-Length
+     */
+    protected void finishAggregation(O aggregated) throws Exception {
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:内容超长的时候调用，默认是触发一个TooLongFrameException
+     */
+    protected void handleOversizedMessage(ChannelHandlerContext ctx, S oversized) throws Exception {
+        ctx.fireExceptionCaught(
+                new TooLongFrameException("content length exceeded " + maxContentLength() + " bytes."));
+    }
+
+    protected final boolean isHandlingOversizedMessage() {
+        return handlingOversizedMessage;
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        ctx.fireChannelReadComplete();
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        try {
+            super.channelInactive(ctx);
+        } finally {
+            releaseCurrentMessage();
+        }
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        try {
+            super.handlerRemoved(ctx);
+        } finally {
+            releaseCurrentMessage();
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:开始消息在解码完之后已经被释放了，它的内容是retain之后放在content中的，所以这里只释放content
+     */
+    private void releaseCurrentMessage() {
+        currentMessage = null;
+        releaseContent();
+        handlingOversizedMessage = false;
+    }
+
+    private void releaseContent() {
+        if (content != null) {
+            content.release();
+            content = null;
+        }
+        contentLength = 0;
+    }
+}
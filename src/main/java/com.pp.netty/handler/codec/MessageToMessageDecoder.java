@@ -0,0 +1,65 @@
+package com.pp.netty.handler.codec;
+
+import com.pp.netty.channel.ChannelHandlerContext;
+import com.pp.netty.channel.ChannelInboundHandlerAdapter;
+import com.pp.netty.util.ReferenceCountUtil;
+import com.pp.netty.util.internal.ObjectUtil;
+
+import java.util.List;
+
+/**
+ * @Author: PP-jessica
+ * @Description:把一种消息解码成另一种消息的解码器的抽象父类，和MessageToMessageEncoder对应。
+ * 只处理inboundMessageType类型的消息，其他的消息直接传给下一个handler
+ */
+public abstract class MessageToMessageDecoder<I> extends ChannelInboundHandlerAdapter {
+
+    private final Class<? extends I> inboundMessageType;
+
+    protected MessageToMessageDecoder(Class<? extends I> inboundMessageType) {
+        this.inboundMessageType = ObjectUtil.checkNotNull(inboundMessageType, "inboundMessageType");
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:判断这个消息是不是要由当前的解码器处理
+     */
+    public boolean acceptInboundMessage(Object msg) throws Exception {
+        return inboundMessageType.isInstance(msg);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        CodecOutputList out = CodecOutputList.newInstance();
+        try {
+            if (acceptInboundMessage(msg)) {
+                @SuppressWarnings("unchecked")
+                I cast = (I) msg;
+                try {
+                    decode(ctx, cast, out);
+                } finally {
+                    //原来的消息解码完了就没用了，要释放掉
+                    ReferenceCountUtil.release(cast);
+                }
+            } else {
+                out.add(msg);
+            }
+        } catch (DecoderException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DecoderException(e);
+        } finally {
+            try {
+                ByteToMessageDecoder.fireChannelRead(ctx, out, out.size());
+            } finally {
+                out.recycle();
+            }
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:子类实现的解码方法，解码出的消息添加到out中。msg在解码完之后会被释放，要把它的内容放到out中的话需要先retain
+     */
+    protected abstract void decode(ChannelHandlerContext ctx, I msg, List<Object> out) throws Exception;
+}
@@ -0,0 +1,83 @@
+package com.pp.netty.handler.codec;
+
+import com.pp.netty.channel.ChannelHandlerContext;
+import com.pp.netty.channel.ChannelOutboundHandlerAdapter;
+import com.pp.netty.channel.ChannelPromise;
+import com.pp.netty.util.ReferenceCountUtil;
+import com.pp.netty.util.internal.ObjectUtil;
+import com.pp.netty.util.internal.StringUtil;
+
+import java.util.List;
+
+/**
+ * @Author: PP-jessica
+ * @Description:把一种消息编码成另一种消息的编码器的抽象父类。只处理outboundMessageType类型的消息，其他的消息直接传给下一个handler。
+ * 一个消息可能被编码成多个消息，比如HTTP响应的消息头和消息体，这时候只有最后一个消息的写操作使用用户的promise，
+ * 写缓冲区是按顺序写出的，最后一个消息写完了，前面的也一定写完了
+ */
+public abstract class MessageToMessageEncoder<I> extends ChannelOutboundHandlerAdapter {
+
+    private final Class<? extends I> outboundMessageType;
+
+    protected MessageToMessageEncoder(Class<? extends I> outboundMessageType) {
+        this.outboundMessageType = ObjectUtil.checkNotNull(outboundMessageType, "outboundMessageType");
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:判断这个消息是不是要由当前的编码器处理
+     */
+    public boolean acceptOutboundMessage(Object msg) throws Exception {
+        return outboundMessageType.isInstance(msg);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        CodecOutputList out = null;
+        try {
+            if (acceptOutboundMessage(msg)) {
+                out = CodecOutputList.newInstance();
+                @SuppressWarnings("unchecked")
+                I cast = (I) msg;
+                try {
+                    encode(ctx, cast, out);
+                } finally {
+                    //原来的消息编码完了就没用了，要释放掉
+                    ReferenceCountUtil.release(cast);
+                }
+                if (out.isEmpty()) {
+                    throw new EncoderException(
+                            StringUtil.simpleClassName(this) + " must produce at least one message.");
+                }
+            } else {
+                ctx.write(msg, promise);
+            }
+        } catch (EncoderException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new EncoderException(t);
+        } finally {
+            if (out != null) {
+                try {
+                    final int sizeMinusOne = out.size() - 1;
+                    if (sizeMinusOne == 0) {
+                        ctx.write(out.getUnsafe(0), promise);
+                    } else if (sizeMinusOne > 0) {
+                        for (int i = 0; i < sizeMinusOne; i++) {
+                            ctx.write(out.getUnsafe(i));
+                        }
+                        ctx.write(out.getUnsafe(sizeMinusOne), promise);
+                    }
+                } finally {
+                    out.recycle();
+                }
+            }
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:子类实现的编码方法，编码出的消息添加到out中。msg在编码完之后会被释放，要把它的内容放到out中的话需要先retain
+     */
+    protected abstract void encode(ChannelHandlerContext ctx, I msg, List<Object> out) throws Exception;
+}
@@ -0,0 +1,25 @@
+package com.pp.netty.handler.codec;
+
+/**
+ * @Author: PP-jessica
+ * @Description:帧的长度超过了解码器允许的最大长度时抛出的异常
+ */
+public class TooLongFrameException extends DecoderException {
+
+    private static final long serialVersionUID = -1995801950698951640L;
+
+    public TooLongFrameException() {
+    }
+
+    public TooLongFrameException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public TooLongFrameException(String message) {
+        super(message);
+    }
+
+    public TooLongFrameException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,122 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.Unpooled;
+import com.pp.netty.util.internal.ObjectUtil;
+
+/**
+ * @Author: PP-jessica
+ * @Description:FullHttpRequest的默认实现，引用计数的操作都交给消息体
+ */
+public class DefaultFullHttpRequest extends DefaultHttpRequest implements FullHttpRequest {
+
+    private final ByteBuf content;
+
+    private final HttpHeaders trailingHeader;
+
+    public DefaultFullHttpRequest(HttpVersion httpVersion, HttpMethod method, String uri) {
+        this(httpVersion, method, uri, Unpooled.buffer(0));
+    }
+
+    public DefaultFullHttpRequest(HttpVersion httpVersion, HttpMethod method, String uri, ByteBuf content) {
+        this(httpVersion, method, uri, content, new DefaultHttpHeaders(), new DefaultHttpHeaders());
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:直接使用传进来的消息头容器，不拷贝，聚合器用这个构造方法复用解码出的消息头
+     */
+    public DefaultFullHttpRequest(HttpVersion httpVersion, HttpMethod method, String uri, ByteBuf content,
+                                  HttpHeaders headers, HttpHeaders trailingHeader) {
+        super(httpVersion, method, uri, headers);
+        this.content = ObjectUtil.checkNotNull(content, "content");
+        this.trailingHeader = ObjectUtil.checkNotNull(trailingHeader, "trailingHeader");
+    }
+
+    @Override
+    public HttpHeaders trailingHeaders() {
+        return trailingHeader;
+    }
+
+    @Override
+    public ByteBuf content() {
+        return content;
+    }
+
+    @Override
+    public int refCnt() {
+        return content.refCnt();
+    }
+
+    @Override
+    public FullHttpRequest retain() {
+        content.retain();
+        return this;
+    }
+
+    @Override
+    public FullHttpRequest retain(int increment) {
+        content.retain(increment);
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        return content.release();
+    }
+
+    @Override
+    public boolean release(int decrement) {
+        return content.release(decrement);
+    }
+
+    @Override
+    public FullHttpRequest setProtocolVersion(HttpVersion version) {
+        super.setProtocolVersion(version);
+        return this;
+    }
+
+    @Override
+    public FullHttpRequest setMethod(HttpMethod method) {
+        super.setMethod(method);
+        return this;
+    }
+
+    @Override
+    public FullHttpRequest setUri(String uri) {
+        super.setUri(uri);
+        return this;
+    }
+
+    @Override
+    public FullHttpRequest copy() {
+        return replace(content().copy());
+    }
+
+    @Override
+    public FullHttpRequest duplicate() {
+        return replace(content().duplicate());
+    }
+
+    @Override
+    public FullHttpRequest retainedDuplicate() {
+        return replace(content().retainedDuplicate());
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:新的请求有自己的消息头容器，和原来的请求互不影响
+     */
+    @Override
+    public FullHttpRequest replace(ByteBuf content) {
+        FullHttpRequest request = new DefaultFullHttpRequest(protocolVersion(), method(), uri(), content,
+                new DefaultHttpHeaders().set(headers()), new DefaultHttpHeaders().set(trailingHeaders()));
+        request.setDecoderResult(decoderResult());
+        return request;
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + "\ncontent: " + content;
+    }
+}
@@ -0,0 +1,108 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.Unpooled;
+import com.pp.netty.util.internal.ObjectUtil;
+
+/**
+ * @Author: PP-jessica
+ * @Description:FullHttpResponse的默认实现，引用计数的操作都交给消息体
+ */
+public class DefaultFullHttpResponse extends DefaultHttpResponse implements FullHttpResponse {
+
+    private final ByteBuf content;
+
+    private final HttpHeaders trailingHeaders;
+
+    public DefaultFullHttpResponse(HttpVersion version, HttpResponseStatus status) {
+        this(version, status, Unpooled.buffer(0));
+    }
+
+    public DefaultFullHttpResponse(HttpVersion version, HttpResponseStatus status, ByteBuf content) {
+        this(version, status, content, new DefaultHttpHeaders(), new DefaultHttpHeaders());
+    }
+
+    public DefaultFullHttpResponse(HttpVersion version, HttpResponseStatus status, ByteBuf content,
+                                   HttpHeaders headers, HttpHeaders trailingHeaders) {
+        super(version, status, headers);
+        this.content = ObjectUtil.checkNotNull(content, "content");
+        this.trailingHeaders = ObjectUtil.checkNotNull(trailingHeaders, "trailingHeaders");
+    }
+
+    @Override
+    public HttpHeaders trailingHeaders() {
+        return trailingHeaders;
+    }
+
+    @Override
+    public ByteBuf content() {
+        return content;
+    }
+
+    @Override
+    public int refCnt() {
+        return content.refCnt();
+    }
+
+    @Override
+    public FullHttpResponse retain() {
+        content.retain();
+        return this;
+    }
+
+    @Override
+    public FullHttpResponse retain(int increment) {
+        content.retain(increment);
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        return content.release();
+    }
+
+    @Override
+    public boolean release(int decrement) {
+        return content.release(decrement);
+    }
+
+    @Override
+    public FullHttpResponse setProtocolVersion(HttpVersion version) {
+        super.setProtocolVersion(version);
+        return this;
+    }
+
+    @Override
+    public FullHttpResponse setStatus(HttpResponseStatus status) {
+        super.setStatus(status);
+        return this;
+    }
+
+    @Override
+    public FullHttpResponse copy() {
+        return replace(content().copy());
+    }
+
+    @Override
+    public FullHttpResponse duplicate() {
+        return replace(content().duplicate());
+    }
+
+    @Override
+    public FullHttpResponse retainedDuplicate() {
+        return replace(content().retainedDuplicate());
+    }
+
+    @Override
+    public FullHttpResponse replace(ByteBuf content) {
+        FullHttpResponse response = new DefaultFullHttpResponse(protocolVersion(), status(), content,
+                new DefaultHttpHeaders().set(headers()), new DefaultHttpHeaders().set(trailingHeaders()));
+        response.setDecoderResult(decoderResult());
+        return response;
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + "\ncontent: " + content;
+    }
+}
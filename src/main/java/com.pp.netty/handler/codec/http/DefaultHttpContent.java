@@ -0,0 +1,75 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.util.internal.ObjectUtil;
+import com.pp.netty.util.internal.StringUtil;
+
+/**
+ * @Author: PP-jessica
+ * @Description:HttpContent的默认实现
+ */
+public class DefaultHttpContent extends DefaultHttpObject implements HttpContent {
+
+    private final ByteBuf content;
+
+    public DefaultHttpContent(ByteBuf content) {
+        this.content = ObjectUtil.checkNotNull(content, "content");
+    }
+
+    @Override
+    public ByteBuf content() {
+        return content;
+    }
+
+    @Override
+    public HttpContent copy() {
+        return replace(content.copy());
+    }
+
+    @Override
+    public HttpContent duplicate() {
+        return replace(content.duplicate());
+    }
+
+    @Override
+    public HttpContent retainedDuplicate() {
+        return replace(content.retainedDuplicate());
+    }
+
+    @Override
+    public HttpContent replace(ByteBuf content) {
+        return new DefaultHttpContent(content);
+    }
+
+    @Override
+    public int refCnt() {
+        return content.refCnt();
+    }
+
+    @Override
+    public HttpContent retain() {
+        content.retain();
+        return this;
+    }
+
+    @Override
+    public HttpContent retain(int increment) {
+        content.retain(increment);
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        return content.release();
+    }
+
+    @Override
+    public boolean release(int decrement) {
+        return content.release(decrement);
+    }
+
+    @Override
+    public String toString() {
+        return StringUtil.simpleClassName(this) + "(data: " + content() + ", decoderResult: " + decoderResult() + ')';
+    }
+}
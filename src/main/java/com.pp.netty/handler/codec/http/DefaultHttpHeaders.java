@@ -0,0 +1,316 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.util.AsciiString;
+import com.pp.netty.util.internal.ObjectUtil;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * @Author: PP-jessica
+ * @Description:用数组存储的消息头容器。一个HTTP消息的消息头一般只有十几个，用数组顺序查找比哈希表更快，也不用为每个消息头创建Entry对象。
+ * 每个名称都记录了不区分大小写的哈希值，查找的时候先比较哈希值，哈希值相等了才比较内容。
+ * 数组在添加第一个消息头的时候才分配，没有消息头的容器(比如大部分LastHttpContent的尾部消息头)几乎没有开销。
+ * clear之后数组会保留下来，同一个容器可以反复使用，不会重新分配数组
+ */
+public class DefaultHttpHeaders extends HttpHeaders {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private static final CharSequence[] EMPTY_SEQUENCES = new CharSequence[0];
+
+    private static final int[] EMPTY_HASHES = new int[0];
+
+    private final int initialCapacity;
+
+    private CharSequence[] names;
+
+    private CharSequence[] values;
+
+    private int[] hashes;
+
+    private int size;
+
+    public DefaultHttpHeaders() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DefaultHttpHeaders(int initialCapacity) {
+        this.initialCapacity = ObjectUtil.checkPositive(initialCapacity, "initialCapacity");
+        names = EMPTY_SEQUENCES;
+        values = EMPTY_SEQUENCES;
+        hashes = EMPTY_HASHES;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:消息头名称的哈希值，和AsciiString的哈希算法一样，不区分大小写
+     */
+    static int hashName(CharSequence name) {
+        if (name instanceof AsciiString) {
+            return name.hashCode();
+        }
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c += 32;
+            }
+            h = 31 * h + AsciiString.c2b(c);
+        }
+        return h;
+    }
+
+    private int indexOf(CharSequence name, int h, int start) {
+        for (int i = start; i < size; i++) {
+            if (hashes[i] == h && AsciiString.contentEqualsIgnoreCase(names[i], name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:按下标访问，编码器遍历消息头的时候使用，不用创建迭代器
+     */
+    CharSequence nameAt(int index) {
+        return names[index];
+    }
+
+    CharSequence valueAt(int index) {
+        return values[index];
+    }
+
+    @Override
+    public String get(CharSequence name) {
+        CharSequence value = getCharSequence(name);
+        return value != null ? value.toString() : null;
+    }
+
+    @Override
+    public CharSequence getCharSequence(CharSequence name) {
+        ObjectUtil.checkNotNull(name, "name");
+        int i = indexOf(name, hashName(name), 0);
+        return i >= 0 ? values[i] : null;
+    }
+
+    @Override
+    public List<String> getAll(CharSequence name) {
+        ObjectUtil.checkNotNull(name, "name");
+        int h = hashName(name);
+        int i = indexOf(name, h, 0);
+        if (i < 0) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<String>(4);
+        while (i >= 0) {
+            result.add(values[i].toString());
+            i = indexOf(name, h, i + 1);
+        }
+        return result;
+    }
+
+    @Override
+    public Integer getInt(CharSequence name) {
+        CharSequence value = getCharSequence(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return value instanceof AsciiString ? ((AsciiString) value).trim().parseInt()
+                    : Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Long getLong(CharSequence name) {
+        CharSequence value = getCharSequence(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return value instanceof AsciiString ? ((AsciiString) value).trim().parseLong()
+                    : Long.parseLong(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean contains(CharSequence name) {
+        ObjectUtil.checkNotNull(name, "name");
+        return indexOf(name, hashName(name), 0) >= 0;
+    }
+
+    @Override
+    public boolean contains(CharSequence name, CharSequence value, boolean ignoreCase) {
+        ObjectUtil.checkNotNull(name, "name");
+        int h = hashName(name);
+        for (int i = indexOf(name, h, 0); i >= 0; i = indexOf(name, h, i + 1)) {
+            if (contentEquals(values[i], value, ignoreCase)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean containsValue(CharSequence name, CharSequence value, boolean ignoreCase) {
+        ObjectUtil.checkNotNull(name, "name");
+        int h = hashName(name);
+        for (int i = indexOf(name, h, 0); i >= 0; i = indexOf(name, h, i + 1)) {
+            if (containsCommaSeparatedValue(values[i], value, ignoreCase)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<String> names() {
+        Set<String> result = new LinkedHashSet<String>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(names[i].toString());
+        }
+        return result;
+    }
+
+    @Override
+    public HttpHeaders add(CharSequence name, Object value) {
+        ObjectUtil.checkNotNull(name, "name");
+        add0(name, hashName(name), toCharSequence(value));
+        return this;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:解码器调用的添加方法，名称的哈希值已经算好了
+     */
+    void add0(CharSequence name, int h, CharSequence value) {
+        if (size == names.length) {
+            int newCapacity = size == 0 ? initialCapacity : size << 1;
+            CharSequence[] newNames = new CharSequence[newCapacity];
+            CharSequence[] newValues = new CharSequence[newCapacity];
+            int[] newHashes = new int[newCapacity];
+            System.arraycopy(names, 0, newNames, 0, size);
+            System.arraycopy(values, 0, newValues, 0, size);
+            System.arraycopy(hashes, 0, newHashes, 0, size);
+            names = newNames;
+            values = newValues;
+            hashes = newHashes;
+        }
+        names[size] = name;
+        values[size] = value;
+        hashes[size] = h;
+        size++;
+    }
+
+    @Override
+    public HttpHeaders set(CharSequence name, Object value) {
+        ObjectUtil.checkNotNull(name, "name");
+        int h = hashName(name);
+        CharSequence v = toCharSequence(value);
+        int i = indexOf(name, h, 0);
+        if (i < 0) {
+            add0(name, h, v);
+        } else {
+            //第一个值直接替换，保持消息头原来的顺序，后面的值都删掉
+            values[i] = v;
+            remove0(name, h, i + 1);
+        }
+        return this;
+    }
+
+    @Override
+    public HttpHeaders remove(CharSequence name) {
+        ObjectUtil.checkNotNull(name, "name");
+        remove0(name, hashName(name), 0);
+        return this;
+    }
+
+    private void remove0(CharSequence name, int h, int start) {
+        int j = start;
+        for (int i = start; i < size; i++) {
+            if (hashes[i] == h && AsciiString.contentEqualsIgnoreCase(names[i], name)) {
+                continue;
+            }
+            if (i != j) {
+                names[j] = names[i];
+                values[j] = values[i];
+                hashes[j] = hashes[i];
+            }
+            j++;
+        }
+        for (int i = j; i < size; i++) {
+            names[i] = null;
+            values[i] = null;
+        }
+        size = j;
+    }
+
+    @Override
+    public HttpHeaders clear() {
+        for (int i = 0; i < size; i++) {
+            names[i] = null;
+            values[i] = null;
+        }
+        size = 0;
+        return this;
+    }
+
+    @Override
+    public Iterator<Map.Entry<CharSequence, CharSequence>> iterator() {
+        return new Iterator<Map.Entry<CharSequence, CharSequence>>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public Map.Entry<CharSequence, CharSequence> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Map.Entry<CharSequence, CharSequence> entry =
+                        new AbstractMap.SimpleImmutableEntry<CharSequence, CharSequence>(names[index], values[index]);
+                index++;
+                return entry;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("remove");
+            }
+        };
+    }
+
+    private static CharSequence toCharSequence(Object value) {
+        ObjectUtil.checkNotNull(value, "value");
+        if (value instanceof CharSequence) {
+            return (CharSequence) value;
+        }
+        return String.valueOf(value);
+    }
+}
@@ -0,0 +1,39 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.util.internal.ObjectUtil;
+
+/**
+ * @Author: PP-jessica
+ * @Description:HttpMessage的默认实现
+ */
+public abstract class DefaultHttpMessage extends DefaultHttpObject implements HttpMessage {
+
+    private HttpVersion version;
+
+    private final HttpHeaders headers;
+
+    protected DefaultHttpMessage(HttpVersion version) {
+        this(version, new DefaultHttpHeaders());
+    }
+
+    protected DefaultHttpMessage(HttpVersion version, HttpHeaders headers) {
+        this.version = ObjectUtil.checkNotNull(version, "version");
+        this.headers = ObjectUtil.checkNotNull(headers, "headers");
+    }
+
+    @Override
+    public HttpHeaders headers() {
+        return headers;
+    }
+
+    @Override
+    public HttpVersion protocolVersion() {
+        return version;
+    }
+
+    @Override
+    public HttpMessage setProtocolVersion(HttpVersion version) {
+        this.version = ObjectUtil.checkNotNull(version, "version");
+        return this;
+    }
+}
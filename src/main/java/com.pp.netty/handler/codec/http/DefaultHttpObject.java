@@ -0,0 +1,26 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.handler.codec.DecoderResult;
+import com.pp.netty.util.internal.ObjectUtil;
+
+/**
+ * @Author: PP-jessica
+ * @Description:HttpObject的默认实现，只保存了解码结果
+ */
+public class DefaultHttpObject implements HttpObject {
+
+    private DecoderResult decoderResult = DecoderResult.SUCCESS;
+
+    protected DefaultHttpObject() {
+    }
+
+    @Override
+    public DecoderResult decoderResult() {
+        return decoderResult;
+    }
+
+    @Override
+    public void setDecoderResult(DecoderResult decoderResult) {
+        this.decoderResult = ObjectUtil.checkNotNull(decoderResult, "decoderResult");
+    }
+}
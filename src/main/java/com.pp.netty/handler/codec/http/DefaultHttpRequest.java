@@ -0,0 +1,58 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.util.internal.ObjectUtil;
+
+/**
+ * @Author: PP-jessica
+ * @Description:HttpRequest的默认实现
+ */
+public class DefaultHttpRequest extends DefaultHttpMessage implements HttpRequest {
+
+    private HttpMethod method;
+
+    private String uri;
+
+    public DefaultHttpRequest(HttpVersion httpVersion, HttpMethod method, String uri) {
+        this(httpVersion, method, uri, new DefaultHttpHeaders());
+    }
+
+    public DefaultHttpRequest(HttpVersion httpVersion, HttpMethod method, String uri, HttpHeaders headers) {
+        super(httpVersion, headers);
+        this.method = ObjectUtil.checkNotNull(method, "method");
+        this.uri = ObjectUtil.checkNotNull(uri, "uri");
+    }
+
+    @Override
+    public HttpMethod method() {
+        return method;
+    }
+
+    @Override
+    public String uri() {
+        return uri;
+    }
+
+    @Override
+    public HttpRequest setMethod(HttpMethod method) {
+        this.method = ObjectUtil.checkNotNull(method, "method");
+        return this;
+    }
+
+    @Override
+    public HttpRequest setUri(String uri) {
+        this.uri = ObjectUtil.checkNotNull(uri, "uri");
+        return this;
+    }
+
+    @Override
+    public HttpRequest setProtocolVersion(HttpVersion version) {
+        super.setProtocolVersion(version);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "DefaultHttpRequest(decodeResult: " + decoderResult() + ", version: " + protocolVersion() + ")\n"
+                + method + ' ' + uri + ' ' + protocolVersion() + '\n' + headers();
+    }
+}
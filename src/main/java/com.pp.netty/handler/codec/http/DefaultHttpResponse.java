@@ -0,0 +1,44 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.util.internal.ObjectUtil;
+
+/**
+ * @Author: PP-jessica
+ * @Description:HttpResponse的默认实现
+ */
+public class DefaultHttpResponse extends DefaultHttpMessage implements HttpResponse {
+
+    private HttpResponseStatus status;
+
+    public DefaultHttpResponse(HttpVersion version, HttpResponseStatus status) {
+        this(version, status, new DefaultHttpHeaders());
+    }
+
+    public DefaultHttpResponse(HttpVersion version, HttpResponseStatus status, HttpHeaders headers) {
+        super(version, headers);
+        this.status = ObjectUtil.checkNotNull(status, "status");
+    }
+
+    @Override
+    public HttpResponseStatus status() {
+        return status;
+    }
+
+    @Override
+    public HttpResponse setStatus(HttpResponseStatus status) {
+        this.status = ObjectUtil.checkNotNull(status, "status");
+        return this;
+    }
+
+    @Override
+    public HttpResponse setProtocolVersion(HttpVersion version) {
+        super.setProtocolVersion(version);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "DefaultHttpResponse(decodeResult: " + decoderResult() + ", version: " + protocolVersion() + ")\n"
+                + protocolVersion() + ' ' + status + '\n' + headers();
+    }
+}
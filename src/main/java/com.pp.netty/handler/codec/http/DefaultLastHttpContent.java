@@ -0,0 +1,71 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.Unpooled;
+import com.pp.netty.util.internal.ObjectUtil;
+
+/**
+ * @Author: PP-jessica
+ * @Description:LastHttpContent的默认实现
+ */
+public class DefaultLastHttpContent extends DefaultHttpContent implements LastHttpContent {
+
+    private final HttpHeaders trailingHeaders;
+
+    public DefaultLastHttpContent() {
+        this(Unpooled.buffer(0));
+    }
+
+    public DefaultLastHttpContent(ByteBuf content) {
+        this(content, new DefaultHttpHeaders());
+    }
+
+    public DefaultLastHttpContent(ByteBuf content, HttpHeaders trailingHeaders) {
+        super(content);
+        this.trailingHeaders = ObjectUtil.checkNotNull(trailingHeaders, "trailingHeaders");
+    }
+
+    @Override
+    public LastHttpContent copy() {
+        return replace(content().copy());
+    }
+
+    @Override
+    public LastHttpContent duplicate() {
+        return replace(content().duplicate());
+    }
+
+    @Override
+    public LastHttpContent retainedDuplicate() {
+        return replace(content().retainedDuplicate());
+    }
+
+    @Override
+    public LastHttpContent replace(ByteBuf content) {
+        DefaultLastHttpContent dup = new DefaultLastHttpContent(content);
+        dup.trailingHeaders().set(trailingHeaders());
+        return dup;
+    }
+
+    @Override
+    public LastHttpContent retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public LastHttpContent retain(int increment) {
+        super.retain(increment);
+        return this;
+    }
+
+    @Override
+    public HttpHeaders trailingHeaders() {
+        return trailingHeaders;
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + "\n" + trailingHeaders;
+    }
+}
@@ -0,0 +1,99 @@
+package com.pp.netty.handler.codec.http;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @Author: PP-jessica
+ * @Description:空的、不可修改的消息头，LastHttpContent.EMPTY_LAST_CONTENT的尾部消息头就是它
+ */
+public class EmptyHttpHeaders extends HttpHeaders {
+
+    public static final EmptyHttpHeaders INSTANCE = new EmptyHttpHeaders();
+
+    protected EmptyHttpHeaders() {
+    }
+
+    @Override
+    public String get(CharSequence name) {
+        return null;
+    }
+
+    @Override
+    public CharSequence getCharSequence(CharSequence name) {
+        return null;
+    }
+
+    @Override
+    public List<String> getAll(CharSequence name) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Integer getInt(CharSequence name) {
+        return null;
+    }
+
+    @Override
+    public Long getLong(CharSequence name) {
+        return null;
+    }
+
+    @Override
+    public boolean contains(CharSequence name) {
+        return false;
+    }
+
+    @Override
+    public boolean contains(CharSequence name, CharSequence value, boolean ignoreCase) {
+        return false;
+    }
+
+    @Override
+    public boolean containsValue(CharSequence name, CharSequence value, boolean ignoreCase) {
+        return false;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return 0;
+    }
+
+    @Override
+    public Set<String> names() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public HttpHeaders add(CharSequence name, Object value) {
+        throw new UnsupportedOperationException("read only");
+    }
+
+    @Override
+    public HttpHeaders set(CharSequence name, Object value) {
+        throw new UnsupportedOperationException("read only");
+    }
+
+    @Override
+    public HttpHeaders remove(CharSequence name) {
+        throw new UnsupportedOperationException("read only");
+    }
+
+    @Override
+    public HttpHeaders clear() {
+        throw new UnsupportedOperationException("read only");
+    }
+
+    @Override
+    public Iterator<Map.Entry<CharSequence, CharSequence>> iterator() {
+        return Collections.<Map.Entry<CharSequence, CharSequence>>emptyList().iterator();
+    }
+}
@@ -0,0 +1,28 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.buffer.ByteBuf;
+
+/**
+ * @Author: PP-jessica
+ * @Description:完整的HTTP消息，消息头和消息体都在这一个对象中
+ */
+public interface FullHttpMessage extends HttpMessage, LastHttpContent {
+
+    @Override
+    FullHttpMessage copy();
+
+    @Override
+    FullHttpMessage duplicate();
+
+    @Override
+    FullHttpMessage retainedDuplicate();
+
+    @Override
+    FullHttpMessage replace(ByteBuf content);
+
+    @Override
+    FullHttpMessage retain(int increment);
+
+    @Override
+    FullHttpMessage retain();
+}
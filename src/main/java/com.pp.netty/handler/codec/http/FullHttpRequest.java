@@ -0,0 +1,37 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.buffer.ByteBuf;
+
+/**
+ * @Author: PP-jessica
+ * @Description:完整的HTTP请求
+ */
+public interface FullHttpRequest extends HttpRequest, FullHttpMessage {
+
+    @Override
+    FullHttpRequest copy();
+
+    @Override
+    FullHttpRequest duplicate();
+
+    @Override
+    FullHttpRequest retainedDuplicate();
+
+    @Override
+    FullHttpRequest replace(ByteBuf content);
+
+    @Override
+    FullHttpRequest retain(int increment);
+
+    @Override
+    FullHttpRequest retain();
+
+    @Override
+    FullHttpRequest setProtocolVersion(HttpVersion version);
+
+    @Override
+    FullHttpRequest setMethod(HttpMethod method);
+
+    @Override
+    FullHttpRequest setUri(String uri);
+}
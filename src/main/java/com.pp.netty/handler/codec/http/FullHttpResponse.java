@@ -0,0 +1,34 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.buffer.ByteBuf;
+
+/**
+ * @Author: PP-jessica
+ * @Description:完整的HTTP响应
+ */
+public interface FullHttpResponse extends HttpResponse, FullHttpMessage {
+
+    @Override
+    FullHttpResponse copy();
+
+    @Override
+    FullHttpResponse duplicate();
+
+    @Override
+    FullHttpResponse retainedDuplicate();
+
+    @Override
+    FullHttpResponse replace(ByteBuf content);
+
+    @Override
+    FullHttpResponse retain(int increment);
+
+    @Override
+    FullHttpResponse retain();
+
+    @Override
+    FullHttpResponse setProtocolVersion(HttpVersion version);
+
+    @Override
+    FullHttpResponse setStatus(HttpResponseStatus status);
+}
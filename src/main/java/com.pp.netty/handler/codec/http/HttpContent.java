@@ -0,0 +1,29 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.ByteBufHolder;
+
+/**
+ * @Author: PP-jessica
+ * @Description:HTTP消息体的一部分。消息体很大或者是分块传输的时候，会被解码成多个HttpContent，最后一个是LastHttpContent
+ */
+public interface HttpContent extends HttpObject, ByteBufHolder {
+
+    @Override
+    HttpContent copy();
+
+    @Override
+    HttpContent duplicate();
+
+    @Override
+    HttpContent retainedDuplicate();
+
+    @Override
+    HttpContent replace(ByteBuf content);
+
+    @Override
+    HttpContent retain();
+
+    @Override
+    HttpContent retain(int increment);
+}
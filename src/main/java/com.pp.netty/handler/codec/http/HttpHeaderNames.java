@@ -0,0 +1,85 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.util.AsciiString;
+
+/**
+ * @Author: PP-jessica
+ * @Description:常用的HTTP消息头名称，都是小写的AsciiString。消息头名称不区分大小写，比较的时候用contentEqualsIgnoreCase
+ */
+public final class HttpHeaderNames {
+
+    public static final AsciiString ACCEPT = AsciiString.cached("accept");
+
+    public static final AsciiString ACCEPT_CHARSET = AsciiString.cached("accept-charset");
+
+    public static final AsciiString ACCEPT_ENCODING = AsciiString.cached("accept-encoding");
+
+    public static final AsciiString ACCEPT_LANGUAGE = AsciiString.cached("accept-language");
+
+    public static final AsciiString ALLOW = AsciiString.cached("allow");
+
+    public static final AsciiString AUTHORIZATION = AsciiString.cached("authorization");
+
+    public static final AsciiString CACHE_CONTROL = AsciiString.cached("cache-control");
+
+    public static final AsciiString CONNECTION = AsciiString.cached("connection");
+
+    public static final AsciiString CONTENT_ENCODING = AsciiString.cached("content-encoding");
+
+    public static final AsciiString CONTENT_LANGUAGE = AsciiString.cached("content-language");
+
+    public static final AsciiString CONTENT_LENGTH = AsciiString.cached("content-length");
+
+    public static final AsciiString CONTENT_LOCATION = AsciiString.cached("content-location");
+
+    public static final AsciiString CONTENT_TYPE = AsciiString.cached("content-type");
+
+    public static final AsciiString COOKIE = AsciiString.cached("cookie");
+
+    public static final AsciiString DATE = AsciiString.cached("date");
+
+    public static final AsciiString EXPECT = AsciiString.cached("expect");
+
+    public static final AsciiString HOST = AsciiString.cached("host");
+
+    public static final AsciiString KEEP_ALIVE = AsciiString.cached("keep-alive");
+
+    public static final AsciiString LAST_MODIFIED = AsciiString.cached("last-modified");
+
+    public static final AsciiString LOCATION = AsciiString.cached("location");
+
+    public static final AsciiString ORIGIN = AsciiString.cached("origin");
+
+    public static final AsciiString PRAGMA = AsciiString.cached("pragma");
+
+    public static final AsciiString PROXY_CONNECTION = AsciiString.cached("proxy-connection");
+
+    public static final AsciiString SEC_WEBSOCKET_ACCEPT = AsciiString.cached("sec-websocket-accept");
+
+    public static final AsciiString SEC_WEBSOCKET_EXTENSIONS = AsciiString.cached("sec-websocket-extensions");
+
+    public static final AsciiString SEC_WEBSOCKET_KEY = AsciiString.cached("sec-websocket-key");
+
+    public static final AsciiString SEC_WEBSOCKET_PROTOCOL = AsciiString.cached("sec-websocket-protocol");
+
+    public static final AsciiString SEC_WEBSOCKET_VERSION = AsciiString.cached("sec-websocket-version");
+
+    public static final AsciiString SERVER = AsciiString.cached("server");
+
+    public static final AsciiString SET_COOKIE = AsciiString.cached("set-cookie");
+
+    public static final AsciiString TE = AsciiString.cached("te");
+
+    public static final AsciiString TRAILER = AsciiString.cached("trailer");
+
+    public static final AsciiString TRANSFER_ENCODING = AsciiString.cached("transfer-encoding");
+
+    public static final AsciiString UPGRADE = AsciiString.cached("upgrade");
+
+    public static final AsciiString USER_AGENT = AsciiString.cached("user-agent");
+
+    public static final AsciiString VARY = AsciiString.cached("vary");
+
+    private HttpHeaderNames() {
+    }
+}
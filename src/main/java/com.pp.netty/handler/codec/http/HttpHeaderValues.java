@@ -0,0 +1,45 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.util.AsciiString;
+
+/**
+ * @Author: PP-jessica
+ * @Description:常用的HTTP消息头的值
+ */
+public final class HttpHeaderValues {
+
+    public static final AsciiString APPLICATION_JSON = AsciiString.cached("application/json");
+
+    public static final AsciiString APPLICATION_OCTET_STREAM = AsciiString.cached("application/octet-stream");
+
+    public static final AsciiString APPLICATION_X_WWW_FORM_URLENCODED = AsciiString.cached("application/x-www-form-urlencoded");
+
+    public static final AsciiString CHUNKED = AsciiString.cached("chunked");
+
+    public static final AsciiString CLOSE = AsciiString.cached("close");
+
+    public static final AsciiString CONTINUE = AsciiString.cached("100-continue");
+
+    public static final AsciiString GZIP = AsciiString.cached("gzip");
+
+    public static final AsciiString IDENTITY = AsciiString.cached("identity");
+
+    public static final AsciiString KEEP_ALIVE = AsciiString.cached("keep-alive");
+
+    public static final AsciiString NO_CACHE = AsciiString.cached("no-cache");
+
+    public static final AsciiString TEXT_HTML = AsciiString.cached("text/html");
+
+    public static final AsciiString TEXT_PLAIN = AsciiString.cached("text/plain");
+
+    public static final AsciiString TRAILERS = AsciiString.cached("trailers");
+
+    public static final AsciiString UPGRADE = AsciiString.cached("upgrade");
+
+    public static final AsciiString WEBSOCKET = AsciiString.cached("websocket");
+
+    public static final AsciiString ZERO = AsciiString.cached("0");
+
+    private HttpHeaderValues() {
+    }
+}
@@ -0,0 +1,162 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.util.AsciiString;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @Author: PP-jessica
+ * @Description:HTTP消息头的容器，消息头名称不区分大小写，同一个名称可以有多个值。
+ * 名称和值都用CharSequence表示，解码器解码出来的都是AsciiString，只有调用get这种返回String的方法时才会转换成String
+ */
+public abstract class HttpHeaders implements Iterable<Map.Entry<CharSequence, CharSequence>> {
+
+    /**
+     * @Author: PP-jessica
+     * @Description:返回第一个值，没有这个消息头返回null
+     */
+    public abstract String get(CharSequence name);
+
+    public String get(CharSequence name, String defaultValue) {
+        String value = get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:返回第一个值，不会转换成String
+     */
+    public abstract CharSequence getCharSequence(CharSequence name);
+
+    public abstract List<String> getAll(CharSequence name);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把第一个值解析成整数，没有这个消息头或者不是整数的时候返回null
+     */
+    public abstract Integer getInt(CharSequence name);
+
+    public int getInt(CharSequence name, int defaultValue) {
+        Integer value = getInt(name);
+        return value != null ? value : defaultValue;
+    }
+
+    public abstract Long getLong(CharSequence name);
+
+    public long getLong(CharSequence name, long defaultValue) {
+        Long value = getLong(name);
+        return value != null ? value : defaultValue;
+    }
+
+    public abstract boolean contains(CharSequence name);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:判断有没有值和value相等的消息头
+     */
+    public abstract boolean contains(CharSequence name, CharSequence value, boolean ignoreCase);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:和contains不同的是，值中的逗号分隔的每一项都会单独比较，比如"Connection: keep-alive, Upgrade"中包含upgrade
+     */
+    public abstract boolean containsValue(CharSequence name, CharSequence value, boolean ignoreCase);
+
+    public abstract boolean isEmpty();
+
+    public abstract int size();
+
+    public abstract Set<String> names();
+
+    public abstract HttpHeaders add(CharSequence name, Object value);
+
+    public HttpHeaders add(HttpHeaders headers) {
+        for (Map.Entry<CharSequence, CharSequence> e: headers) {
+            add(e.getKey(), e.getValue());
+        }
+        return this;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:删除这个名称原来的所有值，再设置新的值
+     */
+    public abstract HttpHeaders set(CharSequence name, Object value);
+
+    public HttpHeaders set(HttpHeaders headers) {
+        clear();
+        return add(headers);
+    }
+
+    public HttpHeaders setInt(CharSequence name, int value) {
+        return set(name, value);
+    }
+
+    public abstract HttpHeaders remove(CharSequence name);
+
+    public abstract HttpHeaders clear();
+
+    @Override
+    public abstract Iterator<Map.Entry<CharSequence, CharSequence>> iterator();
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(getClass().getSimpleName()).append('[');
+        String separator = "";
+        for (Map.Entry<CharSequence, CharSequence> e: this) {
+            sb.append(separator).append(e.getKey()).append(": ").append(e.getValue());
+            separator = ", ";
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:在逗号分隔的值中查找value，不创建任何子串
+     */
+    static boolean containsCommaSeparatedValue(CharSequence headerValue, CharSequence value, boolean ignoreCase) {
+        int length = headerValue.length();
+        int start = 0;
+        while (start < length) {
+            int end = start;
+            while (end < length && headerValue.charAt(end) != ',') {
+                end++;
+            }
+            //去掉这一项首尾的空白字符
+            int s = start;
+            int e = end;
+            while (s < e && headerValue.charAt(s) <= ' ') {
+                s++;
+            }
+            while (e > s && headerValue.charAt(e - 1) <= ' ') {
+                e--;
+            }
+            if (e - s == value.length() && regionMatches(headerValue, s, value, ignoreCase)) {
+                return true;
+            }
+            start = end + 1;
+        }
+        return false;
+    }
+
+    private static boolean regionMatches(CharSequence headerValue, int start, CharSequence value, boolean ignoreCase) {
+        for (int i = 0; i < value.length(); i++) {
+            char a = headerValue.charAt(start + i);
+            char b = value.charAt(i);
+            if (a != b && (!ignoreCase || Character.toLowerCase(a) != Character.toLowerCase(b))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean contentEquals(CharSequence a, CharSequence b, boolean ignoreCase) {
+        return ignoreCase ? AsciiString.contentEqualsIgnoreCase(a, b) : AsciiString.contentEquals(a, b);
+    }
+}
@@ -0,0 +1,14 @@
+package com.pp.netty.handler.codec.http;
+
+/**
+ * @Author: PP-jessica
+ * @Description:HTTP请求和响应的公共部分，也就是协议版本和消息头
+ */
+public interface HttpMessage extends HttpObject {
+
+    HttpVersion protocolVersion();
+
+    HttpMessage setProtocolVersion(HttpVersion version);
+
+    HttpHeaders headers();
+}
@@ -0,0 +1,109 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.util.AsciiString;
+import com.pp.netty.util.internal.ObjectUtil;
+
+/**
+ * @Author: PP-jessica
+ * @Description:HTTP请求的方法
+ */
+public class HttpMethod implements Comparable<HttpMethod> {
+
+    public static final HttpMethod OPTIONS = new HttpMethod("OPTIONS");
+
+    public static final HttpMethod GET = new HttpMethod("GET");
+
+    public static final HttpMethod HEAD = new HttpMethod("HEAD");
+
+    public static final HttpMethod POST = new HttpMethod("POST");
+
+    public static final HttpMethod PUT = new HttpMethod("PUT");
+
+    public static final HttpMethod PATCH = new HttpMethod("PATCH");
+
+    public static final HttpMethod DELETE = new HttpMethod("DELETE");
+
+    public static final HttpMethod TRACE = new HttpMethod("TRACE");
+
+    public static final HttpMethod CONNECT = new HttpMethod("CONNECT");
+
+    private static final HttpMethod[] METHODS = { OPTIONS, GET, HEAD, POST, PUT, PATCH, DELETE, TRACE, CONNECT };
+
+    /**
+     * @Author: PP-jessica
+     * @Description:解码器调用的方法，标准的方法直接返回常量，先比较长度和第一个字节，大部分情况只需要比较一次内容
+     */
+    static HttpMethod valueOf(AsciiString name) {
+        for (HttpMethod method: METHODS) {
+            AsciiString methodName = method.name;
+            if (methodName.length() == name.length() && methodName.byteAt(0) == name.byteAt(0)
+                    && methodName.contentEquals(name)) {
+                return method;
+            }
+        }
+        return new HttpMethod(name.toString());
+    }
+
+    public static HttpMethod valueOf(String name) {
+        for (HttpMethod method: METHODS) {
+            if (method.name.contentEquals(name)) {
+                return method;
+            }
+        }
+        return new HttpMethod(name);
+    }
+
+    private final AsciiString name;
+
+    public HttpMethod(String name) {
+        name = ObjectUtil.checkNotNull(name, "name").trim();
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("empty name");
+        }
+        for (int i = 0; i < name.length(); i ++) {
+            char c = name.charAt(i);
+            if (Character.isISOControl(c) || Character.isWhitespace(c)) {
+                throw new IllegalArgumentException("invalid character in name");
+            }
+        }
+        this.name = AsciiString.cached(name);
+    }
+
+    public String name() {
+        return name.toString();
+    }
+
+    public AsciiString asciiName() {
+        return name;
+    }
+
+    @Override
+    public int hashCode() {
+        return name().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HttpMethod)) {
+            return false;
+        }
+        HttpMethod that = (HttpMethod) o;
+        return name().equals(that.name());
+    }
+
+    @Override
+    public String toString() {
+        return name.toString();
+    }
+
+    @Override
+    public int compareTo(HttpMethod o) {
+        if (o == this) {
+            return 0;
+        }
+        return name().compareTo(o.name());
+    }
+}
@@ -0,0 +1,10 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.handler.codec.DecoderResultProvider;
+
+/**
+ * @Author: PP-jessica
+ * @Description:HTTP编解码器处理的所有消息的父接口，一个HTTP消息会被解码成一个HttpMessage和若干个HttpContent
+ */
+public interface HttpObject extends DecoderResultProvider {
+}
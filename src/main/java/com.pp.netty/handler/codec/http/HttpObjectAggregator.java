@@ -0,0 +1,164 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.Unpooled;
+import com.pp.netty.channel.ChannelFuture;
+import com.pp.netty.channel.ChannelFutureListener;
+import com.pp.netty.channel.ChannelHandlerContext;
+import com.pp.netty.channel.ChannelPipeline;
+import com.pp.netty.handler.codec.MessageAggregator;
+import com.pp.netty.handler.codec.TooLongFrameException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @Author: PP-jessica
+ * @Description:把HttpMessage和它后面的HttpContent聚合成FullHttpRequest或者FullHttpResponse。
+ * 聚合出的完整消息直接复用解码出的消息头容器，消息体是各块内容组成的CompositeByteBuf，只有一块内容的时候就是这块内容本身。
+ *
+ * 消息体超过maxContentLength的请求会被立刻拒绝，回复413并关闭连接：
+ * 带Content-Length的请求在收到消息体之前就能拒绝；带Expect: 100-continue的请求在客户端发送消息体之前就回复，
+ * 长度合适的回复100 Continue，超长的直接回复413；分块传输的请求在累计长度超过上限的时候拒绝，已经缓存的内容马上释放。
+ * 所以每个连接最多只会缓存maxContentLength字节的消息体
+ */
+public class HttpObjectAggregator
+        extends MessageAggregator<HttpObject, HttpMessage, HttpContent, FullHttpMessage> {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpObjectAggregator.class);
+
+    public HttpObjectAggregator(int maxContentLength) {
+        super(maxContentLength, HttpObject.class);
+    }
+
+    @Override
+    protected boolean isStartMessage(HttpObject msg) throws Exception {
+        return msg instanceof HttpMessage;
+    }
+
+    @Override
+    protected boolean isContentMessage(HttpObject msg) throws Exception {
+        return msg instanceof HttpContent;
+    }
+
+    @Override
+    protected boolean isLastContentMessage(HttpContent msg) throws Exception {
+        return msg instanceof LastHttpContent;
+    }
+
+    @Override
+    protected boolean isAggregated(HttpObject msg) throws Exception {
+        return msg instanceof FullHttpMessage;
+    }
+
+    @Override
+    protected boolean isContentLengthInvalid(HttpMessage start, int maxContentLength) {
+        try {
+            return HttpUtil.getContentLength(start, -1L) > maxContentLength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:客户端在等待服务端的回复才会发送消息体，这时候根据Content-Length决定是接收还是拒绝
+     */
+    @Override
+    protected Object newContinueResponse(HttpMessage start, int maxContentLength, ChannelPipeline pipeline) {
+        if (HttpUtil.isUnsupportedExpectation(start)) {
+            return newCloseResponse(HttpResponseStatus.EXPECTATION_FAILED);
+        }
+        if (HttpUtil.is100ContinueExpected(start)) {
+            if (isContentLengthInvalid(start, maxContentLength)) {
+                return newCloseResponse(HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE);
+            }
+            //已经回复过100 Continue了，后面的handler不需要再处理这个消息头
+            start.headers().remove(HttpHeaderNames.EXPECT);
+            return new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.CONTINUE,
+                    Unpooled.EMPTY_BUFFER);
+        }
+        return null;
+    }
+
+    @Override
+    protected boolean closeAfterContinueResponse(Object msg) {
+        return !HttpUtil.isKeepAlive((HttpMessage) msg);
+    }
+
+    @Override
+    protected boolean ignoreContentAfterContinueResponse(Object msg) {
+        return msg instanceof HttpResponse && ((HttpResponse) msg).status().code() >= 400;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:完整的消息直接使用开始消息的消息头容器，消息头不拷贝
+     */
+    @Override
+    protected FullHttpMessage beginAggregation(HttpMessage start, ByteBuf content) throws Exception {
+        FullHttpMessage ret;
+        if (start instanceof HttpRequest) {
+            HttpRequest req = (HttpRequest) start;
+            ret = new DefaultFullHttpRequest(req.protocolVersion(), req.method(), req.uri(), content,
+                    req.headers(), new DefaultHttpHeaders());
+        } else if (start instanceof HttpResponse) {
+            HttpResponse res = (HttpResponse) start;
+            ret = new DefaultFullHttpResponse(res.protocolVersion(), res.status(), content,
+                    res.headers(), new DefaultHttpHeaders());
+        } else {
+            throw new Error();
+        }
+        ret.setDecoderResult(start.decoderResult());
+        //消息体已经聚合好了，不再是分块传输
+        HttpUtil.setTransferEncodingChunked(ret, false);
+        return ret;
+    }
+
+    @Override
+    protected void aggregate(FullHttpMessage aggregated, HttpContent content) throws Exception {
+        if (content instanceof LastHttpContent) {
+            HttpHeaders trailingHeaders = ((LastHttpContent) content).trailingHeaders();
+            if (!trailingHeaders.isEmpty()) {
+                aggregated.trailingHeaders().add(trailingHeaders);
+            }
+        }
+    }
+
+    @Override
+    protected void finishAggregation(FullHttpMessage aggregated) throws Exception {
+        if (!HttpUtil.isContentLengthSet(aggregated)) {
+            HttpUtil.setContentLength(aggregated, aggregated.content().readableBytes());
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:请求超长就回复413并关闭连接，响应超长只能抛出异常
+     */
+    @Override
+    protected void handleOversizedMessage(final ChannelHandlerContext ctx, HttpMessage oversized) throws Exception {
+        if (oversized instanceof HttpRequest) {
+            ChannelFuture future = ctx.writeAndFlush(newCloseResponse(HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE));
+            future.addListener(new ChannelFutureListener() {
+                @Override
+                public void operationComplete(ChannelFuture future) throws Exception {
+                    if (!future.isSuccess()) {
+                        logger.debug("Failed to send a 413 Request Entity Too Large.", future.cause());
+                    }
+                    ctx.close();
+                }
+            });
+        } else if (oversized instanceof HttpResponse) {
+            throw new TooLongFrameException("Response entity too large: " + oversized);
+        } else {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static FullHttpResponse newCloseResponse(HttpResponseStatus status) {
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status, Unpooled.EMPTY_BUFFER);
+        response.headers().set(HttpHeaderNames.CONTENT_LENGTH, HttpHeaderValues.ZERO);
+        response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+        return response;
+    }
+}
@@ -0,0 +1,576 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.ByteBufUtil;
+import com.pp.netty.buffer.Unpooled;
+import com.pp.netty.channel.ChannelHandlerContext;
+import com.pp.netty.handler.codec.ByteToMessageDecoder;
+import com.pp.netty.handler.codec.DecoderException;
+import com.pp.netty.handler.codec.DecoderResult;
+import com.pp.netty.handler.codec.TooLongFrameException;
+import com.pp.netty.util.AsciiString;
+import com.pp.netty.util.internal.ObjectUtil;
+
+import java.util.List;
+
+/**
+ * @Author: PP-jessica
+ * @Description:把字节解码成HttpMessage和HttpContent的解码器。
+ * 一个HTTP消息会被解码成一个HttpMessage，后面跟着若干个HttpContent，最后一个是LastHttpContent。
+ * 解码是增量的，起始行和消息头没有接收完整的时候，已经扫描过的位置会被记下来，下次读到数据只扫描新的部分。
+ * 消息头接收完整之后，整个消息头块只拷贝一次，拷贝到一个字节数组中，起始行的各部分和每个消息头的名称和值都是
+ * 指向这个数组的AsciiString，不会解码成java的String，也不会为每个消息头单独拷贝。
+ * 消息体直接从累加器中切片，不拷贝
+ */
+public abstract class HttpObjectDecoder extends ByteToMessageDecoder {
+
+    public static final int DEFAULT_MAX_INITIAL_LINE_LENGTH = 4096;
+    public static final int DEFAULT_MAX_HEADER_SIZE = 8192;
+    public static final int DEFAULT_MAX_CHUNK_SIZE = 8192;
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+    private static final byte SP = ' ';
+    private static final byte HT = '\t';
+
+    private final int maxInitialLineLength;
+    private final int maxHeaderSize;
+    private final int maxChunkSize;
+
+    private HttpMessage message;
+    //固定长度的消息体还剩多少字节没有读
+    private long contentLength;
+    //当前的块还剩多少字节没有读
+    private long chunkSize;
+    //起始行之后下一行的开始位置，相对于readerIndex，消息头没接收完整的时候从这里继续扫描
+    private int headerScanOffset;
+    //起始行的长度，也就是消息头开始的位置
+    private int headerStart;
+    //已经扫描到的消息头行数，用来确定消息头容器的大小
+    private int headerLineCount;
+    //分块传输的尾部消息头
+    private HttpHeaders trailer;
+    private int trailerSize;
+
+    /**
+     * @Author: PP-jessica
+     * @Description:解码器的状态
+     */
+    private enum State {
+        SKIP_CONTROL_CHARS,
+        READ_INITIAL,
+        READ_HEADER,
+        READ_FIXED_LENGTH_CONTENT,
+        READ_CHUNK_SIZE,
+        READ_CHUNKED_CONTENT,
+        READ_CHUNK_DELIMITER,
+        READ_CHUNK_FOOTER,
+        BAD_MESSAGE
+    }
+
+    private State currentState = State.SKIP_CONTROL_CHARS;
+
+    protected HttpObjectDecoder() {
+        this(DEFAULT_MAX_INITIAL_LINE_LENGTH, DEFAULT_MAX_HEADER_SIZE, DEFAULT_MAX_CHUNK_SIZE);
+    }
+
+    protected HttpObjectDecoder(int maxInitialLineLength, int maxHeaderSize, int maxChunkSize) {
+        this.maxInitialLineLength = ObjectUtil.checkPositive(maxInitialLineLength, "maxInitialLineLength");
+        this.maxHeaderSize = ObjectUtil.checkPositive(maxHeaderSize, "maxHeaderSize");
+        this.maxChunkSize = ObjectUtil.checkPositive(maxChunkSize, "maxChunkSize");
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf buffer, List<Object> out) throws Exception {
+        switch (currentState) {
+            case SKIP_CONTROL_CHARS:
+                //在两个消息之间暂停解码，剩下的数据留在累加器中，等恢复之后再解码
+                if (suspendAtMessageBoundary()) {
+                    return;
+                }
+                if (!skipControlCharacters(buffer)) {
+                    return;
+                }
+                currentState = State.READ_INITIAL;
+            case READ_INITIAL:
+                try {
+                    int lineEnd = findLineEnd(buffer, 0, maxInitialLineLength);
+                    if (lineEnd < 0) {
+                        return;
+                    }
+                    headerScanOffset = lineEnd + 1;
+                    headerStart = headerScanOffset;
+                    headerLineCount = 0;
+                    currentState = State.READ_HEADER;
+                } catch (Exception e) {
+                    out.add(invalidMessage(buffer, e));
+                    return;
+                }
+            case READ_HEADER:
+                try {
+                    int blockLength = scanHeaders(buffer);
+                    if (blockLength < 0) {
+                        return;
+                    }
+                    //整个消息头块只拷贝这一次
+                    byte[] block = new byte[blockLength];
+                    buffer.readBytes(block);
+                    message = parseMessage(block);
+                    State nextState = contentState(message);
+                    out.add(message);
+                    if (nextState == State.SKIP_CONTROL_CHARS) {
+                        out.add(LastHttpContent.EMPTY_LAST_CONTENT);
+                        resetNow();
+                        return;
+                    }
+                    currentState = nextState;
+                    if (nextState != State.READ_FIXED_LENGTH_CONTENT) {
+                        return;
+                    }
+                } catch (Exception e) {
+                    out.add(invalidMessage(buffer, e));
+                    return;
+                }
+            case READ_FIXED_LENGTH_CONTENT: {
+                int toRead = (int) Math.min(Math.min(buffer.readableBytes(), maxChunkSize), contentLength);
+                if (toRead == 0) {
+                    return;
+                }
+                ByteBuf content = buffer.readRetainedSlice(toRead);
+                contentLength -= toRead;
+                if (contentLength == 0) {
+                    out.add(new DefaultLastHttpContent(content));
+                    resetNow();
+                } else {
+                    out.add(new DefaultHttpContent(content));
+                }
+                return;
+            }
+            case READ_CHUNK_SIZE:
+                try {
+                    int lineEnd = findLineEnd(buffer, 0, maxInitialLineLength);
+                    if (lineEnd < 0) {
+                        return;
+                    }
+                    long size = parseChunkSize(buffer, buffer.readerIndex(), buffer.readerIndex() + lineEnd);
+                    buffer.skipBytes(lineEnd + 1);
+                    if (size == 0) {
+                        currentState = State.READ_CHUNK_FOOTER;
+                        trailerSize = 0;
+                        break;
+                    }
+                    chunkSize = size;
+                    currentState = State.READ_CHUNKED_CONTENT;
+                } catch (Exception e) {
+                    out.add(invalidChunk(buffer, e));
+                    return;
+                }
+            case READ_CHUNKED_CONTENT: {
+                int toRead = (int) Math.min(Math.min(buffer.readableBytes(), maxChunkSize), chunkSize);
+                if (toRead == 0) {
+                    return;
+                }
+                out.add(new DefaultHttpContent(buffer.readRetainedSlice(toRead)));
+                chunkSize -= toRead;
+                if (chunkSize != 0) {
+                    return;
+                }
+                currentState = State.READ_CHUNK_DELIMITER;
+            }
+            case READ_CHUNK_DELIMITER: {
+                int lf = ByteBufUtil.indexOf(buffer, buffer.readerIndex(), buffer.writerIndex(), LF);
+                if (lf < 0) {
+                    buffer.skipBytes(buffer.readableBytes());
+                    return;
+                }
+                buffer.readerIndex(lf + 1);
+                currentState = State.READ_CHUNK_SIZE;
+                return;
+            }
+            case READ_CHUNK_FOOTER:
+                break;
+            case BAD_MESSAGE:
+                //这个连接上的数据已经没法再解析了，全部丢掉
+                buffer.skipBytes(buffer.readableBytes());
+                return;
+            default:
+                throw new Error("Shouldn't reach here.");
+        }
+        //走到这里说明正在读分块传输的尾部消息头
+        try {
+            LastHttpContent trailer = readTrailingHeaders(buffer);
+            if (trailer == null) {
+                return;
+            }
+            out.add(trailer);
+            resetNow();
+        } catch (Exception e) {
+            out.add(invalidChunk(buffer, e));
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:连接关闭的时候，如果消息体还没有接收完整，发出一个失败的LastHttpContent，让后面的handler知道消息不完整
+     */
+    @Override
+    protected void decodeLast(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        super.decodeLast(ctx, in, out);
+        if (message != null) {
+            switch (currentState) {
+                case READ_FIXED_LENGTH_CONTENT:
+                case READ_CHUNK_SIZE:
+                case READ_CHUNKED_CONTENT:
+                case READ_CHUNK_DELIMITER:
+                case READ_CHUNK_FOOTER:
+                    LastHttpContent chunk = new DefaultLastHttpContent(Unpooled.EMPTY_BUFFER);
+                    chunk.setDecoderResult(DecoderResult.failure(
+                            new DecoderException("Connection closed before received last content")));
+                    out.add(chunk);
+                    resetNow();
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:返回true的时候，解码器会停在下一个消息开始的位置，不再继续解码。HttpServerCodec用它保证流水线上的请求按顺序响应
+     */
+    protected boolean suspendAtMessageBoundary() {
+        return false;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:判断消息是不是一定没有消息体
+     */
+    protected boolean isContentAlwaysEmpty(HttpMessage msg) {
+        return false;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:用起始行的三部分创建消息，三部分都是指向消息头块的AsciiString
+     */
+    protected abstract HttpMessage createMessage(AsciiString first, AsciiString second, AsciiString third,
+                                                 HttpHeaders headers) throws Exception;
+
+    protected abstract HttpMessage createInvalidMessage();
+
+    private void resetNow() {
+        message = null;
+        trailer = null;
+        contentLength = 0;
+        chunkSize = 0;
+        headerScanOffset = 0;
+        headerStart = 0;
+        headerLineCount = 0;
+        currentState = State.SKIP_CONTROL_CHARS;
+    }
+
+    private HttpMessage invalidMessage(ByteBuf in, Exception cause) {
+        currentState = State.BAD_MESSAGE;
+        in.skipBytes(in.readableBytes());
+        HttpMessage msg = message;
+        if (msg == null) {
+            msg = createInvalidMessage();
+        }
+        msg.setDecoderResult(DecoderResult.failure(cause));
+        message = null;
+        return msg;
+    }
+
+    private HttpContent invalidChunk(ByteBuf in, Exception cause) {
+        currentState = State.BAD_MESSAGE;
+        in.skipBytes(in.readableBytes());
+        HttpContent chunk = new DefaultLastHttpContent(Unpooled.EMPTY_BUFFER);
+        chunk.setDecoderResult(DecoderResult.failure(cause));
+        message = null;
+        trailer = null;
+        return chunk;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:跳过消息之间的控制字符和空白字符，比如有些客户端会在POST请求的消息体后面多发一个CRLF
+     */
+    private static boolean skipControlCharacters(ByteBuf buffer) {
+        int i = buffer.readerIndex();
+        final int end = buffer.writerIndex();
+        while (i < end) {
+            int c = buffer.getUnsignedByte(i);
+            if (!Character.isISOControl(c) && !Character.isWhitespace(c)) {
+                buffer.readerIndex(i);
+                return true;
+            }
+            i++;
+        }
+        buffer.readerIndex(end);
+        return false;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:从readerIndex + offset开始查找行尾的LF，返回LF相对于readerIndex的位置，没找到返回-1。
+     * 一行超过了maxLength还没有找到行尾，就抛出TooLongFrameException
+     */
+    private static int findLineEnd(ByteBuf buffer, int offset, int maxLength) throws TooLongFrameException {
+        final int readerIndex = buffer.readerIndex();
+        final int searchEnd = (int) Math.min(buffer.writerIndex(), (long) readerIndex + offset + maxLength + 2);
+        int lf = ByteBufUtil.indexOf(buffer, readerIndex + offset, searchEnd, LF);
+        if (lf < 0) {
+            if (searchEnd - readerIndex - offset >= maxLength + 2) {
+                throw new TooLongFrameException("An HTTP line is larger than " + maxLength + " bytes.");
+            }
+            return -1;
+        }
+        return lf - readerIndex;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:从上次停下的位置继续逐行扫描消息头，直到遇到空行。找到了返回整个消息头块的长度(包括起始行和空行)，
+     * 没找到返回-1。扫描过程中不读取任何数据，readerIndex一直停在起始行的开头
+     */
+    private int scanHeaders(ByteBuf buffer) throws TooLongFrameException {
+        final int readerIndex = buffer.readerIndex();
+        for (;;) {
+            int lineStart = headerScanOffset;
+            int lineEnd = findLineEnd(buffer, lineStart, maxHeaderSize);
+            if (lineEnd < 0) {
+                checkHeaderSize(buffer.readableBytes());
+                return -1;
+            }
+            headerScanOffset = lineEnd + 1;
+            checkHeaderSize(headerScanOffset);
+            if (lineEnd == lineStart || (lineEnd == lineStart + 1 && buffer.getByte(readerIndex + lineStart) == CR)) {
+                return headerScanOffset;
+            }
+            headerLineCount++;
+        }
+    }
+
+    private void checkHeaderSize(int blockLength) throws TooLongFrameException {
+        //起始行的长度单独限制，这里只算消息头部分
+        if (blockLength - headerStart > maxHeaderSize + 2) {
+            throw new TooLongFrameException("HTTP header is larger than " + maxHeaderSize + " bytes.");
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:解析消息头块，起始行的各部分和消息头的名称、值都是指向block的AsciiString
+     */
+    private HttpMessage parseMessage(byte[] block) throws Exception {
+        int lineEnd = indexOf(block, 0, LF);
+        int end = trimCR(block, 0, lineEnd);
+        //起始行的三部分用空格分隔，第三部分可能包含空格，比如响应的原因短语
+        int aStart = skipWhitespace(block, 0, end);
+        int aEnd = findWhitespace(block, aStart, end);
+        int bStart = skipWhitespace(block, aEnd, end);
+        int bEnd = findWhitespace(block, bStart, end);
+        int cStart = skipWhitespace(block, bEnd, end);
+        int cEnd = trimTrailingWhitespace(block, cStart, end);
+        if (aStart == aEnd || bStart == bEnd || cStart == cEnd) {
+            throw new IllegalArgumentException("invalid initial line: " + new AsciiString(block, 0, end, false));
+        }
+        HttpHeaders headers = new DefaultHttpHeaders(Math.max(headerLineCount, 1));
+        HttpMessage msg = createMessage(
+                new AsciiString(block, aStart, aEnd - aStart, false),
+                new AsciiString(block, bStart, bEnd - bStart, false),
+                new AsciiString(block, cStart, cEnd - cStart, false), headers);
+        parseHeaders(block, lineEnd + 1, headers);
+        return msg;
+    }
+
+    private static void parseHeaders(byte[] block, int start, HttpHeaders headers) {
+        DefaultHttpHeaders defaultHeaders = headers instanceof DefaultHttpHeaders ? (DefaultHttpHeaders) headers : null;
+        AsciiString name = null;
+        AsciiString value = null;
+        int lineStart = start;
+        for (;;) {
+            int lineEnd = indexOf(block, lineStart, LF);
+            int end = trimCR(block, lineStart, lineEnd);
+            if (end == lineStart) {
+                break;
+            }
+            byte first = block[lineStart];
+            if (name != null && (first == SP || first == HT)) {
+                //以空白字符开头的是上一个消息头的续行，这种写法已经被废弃了，很少见，直接拼接成一个新的值
+                AsciiString folded = trim(block, lineStart, end);
+                byte[] joined = new byte[value.length() + 1 + folded.length()];
+                System.arraycopy(value.array(), value.arrayOffset(), joined, 0, value.length());
+                joined[value.length()] = SP;
+                System.arraycopy(folded.array(), folded.arrayOffset(), joined, value.length() + 1, folded.length());
+                value = new AsciiString(joined, false);
+            } else {
+                if (name != null) {
+                    addHeader(headers, defaultHeaders, name, value);
+                }
+                int colon = indexOf(block, lineStart, (byte) ':');
+                if (colon < 0 || colon >= end) {
+                    throw new IllegalArgumentException("invalid header line: "
+                            + new AsciiString(block, lineStart, end - lineStart, false));
+                }
+                name = trim(block, lineStart, colon);
+                if (name.isEmpty()) {
+                    throw new IllegalArgumentException("empty header name");
+                }
+                value = trim(block, colon + 1, end);
+            }
+            lineStart = lineEnd + 1;
+        }
+        if (name != null) {
+            addHeader(headers, defaultHeaders, name, value);
+        }
+    }
+
+    private static void addHeader(HttpHeaders headers, DefaultHttpHeaders defaultHeaders, AsciiString name,
+                                  AsciiString value) {
+        if (defaultHeaders != null) {
+            defaultHeaders.add0(name, name.hashCode(), value);
+        } else {
+            headers.add(name, value);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:根据消息头决定接下来怎么读消息体。同时有Transfer-Encoding: chunked和Content-Length的时候，
+     * 按照RFC 7230以分块传输为准，并删掉Content-Length
+     */
+    private State contentState(HttpMessage msg) {
+        if (isContentAlwaysEmpty(msg)) {
+            return State.SKIP_CONTROL_CHARS;
+        }
+        HttpHeaders headers = msg.headers();
+        if (HttpUtil.isTransferEncodingChunked(msg)) {
+            headers.remove(HttpHeaderNames.CONTENT_LENGTH);
+            return State.READ_CHUNK_SIZE;
+        }
+        CharSequence value = headers.getCharSequence(HttpHeaderNames.CONTENT_LENGTH);
+        if (value == null) {
+            //请求没有Content-Length也不是分块传输，就是没有消息体
+            return State.SKIP_CONTROL_CHARS;
+        }
+        long length = AsciiString.of(value).trim().parseLong();
+        if (length < 0) {
+            throw new IllegalArgumentException("invalid Content-Length: " + value);
+        }
+        if (length == 0) {
+            return State.SKIP_CONTROL_CHARS;
+        }
+        contentLength = length;
+        return State.READ_FIXED_LENGTH_CONTENT;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:直接从字节解析十六进制的块大小，分号后面的块扩展直接忽略
+     */
+    private static long parseChunkSize(ByteBuf buffer, int start, int end) {
+        long size = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.getByte(i);
+            int digit;
+            if (b >= '0' && b <= '9') {
+                digit = b - '0';
+            } else if (b >= 'a' && b <= 'f') {
+                digit = b - 'a' + 10;
+            } else if (b >= 'A' && b <= 'F') {
+                digit = b - 'A' + 10;
+            } else if (b == ';' || b == SP || b == HT || b == CR) {
+                break;
+            } else {
+                throw new NumberFormatException("invalid chunk size");
+            }
+            if (++digits > 15) {
+                throw new NumberFormatException("chunk size too large");
+            }
+            size = (size << 4) | digit;
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("empty chunk size");
+        }
+        return size;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:逐行读取尾部消息头，读到空行返回LastHttpContent，数据不够返回null。尾部消息头很少见，每行单独拷贝
+     */
+    private LastHttpContent readTrailingHeaders(ByteBuf buffer) throws TooLongFrameException {
+        for (;;) {
+            int lineEnd = findLineEnd(buffer, 0, maxHeaderSize);
+            if (lineEnd < 0) {
+                return null;
+            }
+            trailerSize += lineEnd + 1;
+            if (trailerSize > maxHeaderSize + 2) {
+                throw new TooLongFrameException("HTTP header is larger than " + maxHeaderSize + " bytes.");
+            }
+            byte[] line = new byte[lineEnd + 1];
+            buffer.readBytes(line);
+            if (trimCR(line, 0, lineEnd) == 0) {
+                HttpHeaders trailingHeaders = trailer;
+                if (trailingHeaders == null) {
+                    return LastHttpContent.EMPTY_LAST_CONTENT;
+                }
+                return new DefaultLastHttpContent(Unpooled.EMPTY_BUFFER, trailingHeaders);
+            }
+            if (trailer == null) {
+                trailer = new DefaultHttpHeaders(4);
+            }
+            byte first = line[0];
+            if (first == SP || first == HT) {
+                //尾部消息头的续行直接忽略
+                continue;
+            }
+            parseHeaders(line, 0, trailer);
+        }
+    }
+
+    private static int indexOf(byte[] bytes, int from, byte value) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return bytes.length;
+    }
+
+    private static int trimCR(byte[] bytes, int start, int lineEnd) {
+        return lineEnd > start && bytes[lineEnd - 1] == CR ? lineEnd - 1 : lineEnd;
+    }
+
+    private static int skipWhitespace(byte[] bytes, int start, int end) {
+        while (start < end && (bytes[start] == SP || bytes[start] == HT)) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int findWhitespace(byte[] bytes, int start, int end) {
+        while (start < end && bytes[start] != SP && bytes[start] != HT) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimTrailingWhitespace(byte[] bytes, int start, int end) {
+        while (end > start && (bytes[end - 1] == SP || bytes[end - 1] == HT)) {
+            end--;
+        }
+        return end;
+    }
+
+    private static AsciiString trim(byte[] bytes, int start, int end) {
+        start = skipWhitespace(bytes, start, end);
+        end = trimTrailingWhitespace(bytes, start, end);
+        return new AsciiString(bytes, start, end - start, false);
+    }
+}
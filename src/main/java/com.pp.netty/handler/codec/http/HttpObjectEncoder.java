@@ -0,0 +1,245 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.Unpooled;
+import com.pp.netty.channel.ChannelHandlerContext;
+import com.pp.netty.handler.codec.MessageToMessageEncoder;
+import com.pp.netty.util.AsciiString;
+import com.pp.netty.util.internal.StringUtil;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Author: PP-jessica
+ * @Description:把HttpMessage和HttpContent编码成字节的编码器。
+ * 起始行和消息头直接写字节，AsciiString类型的名称和值直接拷贝底层数组，不经过字符集编码。
+ * 消息头缓冲区的大小根据之前编码过的消息头大小估算，尽量一次分配到位。
+ * 消息头和消息体一起写出的时候，如果消息体不大，就直接拷贝到消息头的缓冲区中，一次写出
+ */
+public abstract class HttpObjectEncoder<H extends HttpMessage> extends MessageToMessageEncoder<Object> {
+
+    static final short CRLF_SHORT = ('\r' << 8) | '\n';
+    private static final int ZERO_CRLF_MEDIUM = ('0' << 16) | CRLF_SHORT;
+    private static final short COLON_AND_SPACE_SHORT = (':' << 8) | ' ';
+    private static final byte[] CRLF = { '\r', '\n' };
+    private static final byte[] ZERO_CRLF_CRLF = { '0', '\r', '\n', '\r', '\n' };
+    private static final byte[] HEX_DIGITS = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9',
+            'a', 'b', 'c', 'd', 'e', 'f' };
+    //新编码的消息头大小在估算值中所占的权重
+    private static final float HEADERS_WEIGHT_NEW = 1 / 5f;
+    private static final float HEADERS_WEIGHT_HISTORICAL = 1 - HEADERS_WEIGHT_NEW;
+    //小于这个大小的消息体直接拷贝到同一个缓冲区中，大的消息体单独写出，避免大块的拷贝
+    private static final int COPY_CONTENT_THRESHOLD = 1024;
+
+    private static final int ST_INIT = 0;
+    private static final int ST_CONTENT_NON_CHUNK = 1;
+    private static final int ST_CONTENT_CHUNK = 2;
+    private static final int ST_CONTENT_ALWAYS_EMPTY = 3;
+
+    private int state = ST_INIT;
+
+    //消息头大小的估算值，用来分配消息头的缓冲区
+    private float headersEncodedSizeAccumulator = 256;
+
+    protected HttpObjectEncoder() {
+        super(Object.class);
+    }
+
+    @Override
+    public boolean acceptOutboundMessage(Object msg) throws Exception {
+        return msg instanceof HttpObject;
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, Object msg, List<Object> out) throws Exception {
+        ByteBuf buf = null;
+        if (msg instanceof HttpMessage) {
+            if (state != ST_INIT) {
+                throw new IllegalStateException("unexpected message type: " + StringUtil.simpleClassName(msg)
+                        + ", state: " + state);
+            }
+            @SuppressWarnings({ "unchecked" })
+            H m = (H) msg;
+            buf = ctx.alloc().buffer((int) headersEncodedSizeAccumulator);
+            encodeInitialLine(buf, m);
+            state = isContentAlwaysEmpty(m) ? ST_CONTENT_ALWAYS_EMPTY :
+                    HttpUtil.isTransferEncodingChunked(m) ? ST_CONTENT_CHUNK : ST_CONTENT_NON_CHUNK;
+            sanitizeHeadersBeforeEncode(m, state == ST_CONTENT_ALWAYS_EMPTY);
+            encodeHeaders(m.headers(), buf);
+            buf.writeShort(CRLF_SHORT);
+            headersEncodedSizeAccumulator = HEADERS_WEIGHT_NEW * padSizeForAccumulation(buf.readableBytes())
+                    + HEADERS_WEIGHT_HISTORICAL * headersEncodedSizeAccumulator;
+        }
+        if (msg instanceof HttpContent) {
+            HttpContent chunk = (HttpContent) msg;
+            ByteBuf content = chunk.content();
+            int contentLength = content.readableBytes();
+            switch (state) {
+                case ST_INIT:
+                    throw new IllegalStateException("unexpected message type: " + StringUtil.simpleClassName(msg)
+                            + ", state: " + state);
+                case ST_CONTENT_NON_CHUNK:
+                    if (contentLength > 0) {
+                        if (buf != null && contentLength <= COPY_CONTENT_THRESHOLD) {
+                            //消息头和消息体在同一个消息中，消息体又不大，拷贝到一起只写出一个ByteBuf
+                            buf.writeBytes(content, content.readerIndex(), contentLength);
+                            out.add(buf);
+                        } else {
+                            if (buf != null) {
+                                out.add(buf);
+                            }
+                            out.add(content.retain());
+                        }
+                    } else {
+                        out.add(buf != null ? buf : Unpooled.EMPTY_BUFFER);
+                    }
+                    break;
+                case ST_CONTENT_ALWAYS_EMPTY:
+                    //HEAD请求的响应、204、304这些响应即使有消息体也不能写出去
+                    out.add(buf != null ? buf : Unpooled.EMPTY_BUFFER);
+                    break;
+                case ST_CONTENT_CHUNK:
+                    encodeChunkedContent(ctx, chunk, contentLength, buf, out);
+                    break;
+                default:
+                    throw new Error();
+            }
+            if (msg instanceof LastHttpContent) {
+                state = ST_INIT;
+            }
+        } else if (buf != null) {
+            out.add(buf);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:分块传输的编码，每一块的格式是"十六进制长度\r\n内容\r\n"，最后一块是"0\r\n尾部消息头\r\n"。
+     * 小的块直接拼接到一个缓冲区中，大的块只把长度和分隔符放在单独的缓冲区中，内容不拷贝
+     */
+    private void encodeChunkedContent(ChannelHandlerContext ctx, HttpContent chunk, int contentLength,
+                                      ByteBuf buf, List<Object> out) {
+        if (contentLength > 0) {
+            ByteBuf content = chunk.content();
+            boolean copy = contentLength <= COPY_CONTENT_THRESHOLD;
+            if (buf == null) {
+                buf = ctx.alloc().buffer(copy ? contentLength + 12 : 10);
+            }
+            writeHexLength(buf, contentLength);
+            buf.writeShort(CRLF_SHORT);
+            if (copy) {
+                buf.writeBytes(content, content.readerIndex(), contentLength);
+                buf.writeShort(CRLF_SHORT);
+                out.add(buf);
+            } else {
+                out.add(buf);
+                out.add(content.retain());
+                out.add(Unpooled.wrappedBuffer(CRLF));
+            }
+            buf = null;
+        }
+        if (chunk instanceof LastHttpContent) {
+            HttpHeaders trailers = ((LastHttpContent) chunk).trailingHeaders();
+            if (trailers.isEmpty()) {
+                if (buf != null) {
+                    buf.writeBytes(ZERO_CRLF_CRLF);
+                    out.add(buf);
+                } else {
+                    out.add(Unpooled.wrappedBuffer(ZERO_CRLF_CRLF));
+                }
+            } else {
+                if (buf == null) {
+                    buf = ctx.alloc().buffer((int) headersEncodedSizeAccumulator);
+                }
+                buf.writeMedium(ZERO_CRLF_MEDIUM);
+                encodeHeaders(trailers, buf);
+                buf.writeShort(CRLF_SHORT);
+                out.add(buf);
+            }
+        } else if (buf != null) {
+            out.add(buf);
+        } else if (contentLength == 0) {
+            //空的块不能写"0\r\n"，那是结束标志，但是编码器至少要输出一个消息
+            out.add(Unpooled.EMPTY_BUFFER);
+        }
+    }
+
+    private static void writeHexLength(ByteBuf buf, int length) {
+        int digits = (32 - Integer.numberOfLeadingZeros(length) + 3) >>> 2;
+        for (int shift = (digits - 1) << 2; shift >= 0; shift -= 4) {
+            buf.writeByte(HEX_DIGITS[(length >>> shift) & 0xF]);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:编码消息头之前修正消息头，子类可以重写
+     */
+    protected void sanitizeHeadersBeforeEncode(H msg, boolean isAlwaysEmpty) {
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:判断消息是不是一定没有消息体
+     */
+    protected boolean isContentAlwaysEmpty(H msg) {
+        return false;
+    }
+
+    protected abstract void encodeInitialLine(ByteBuf buf, H message) throws Exception;
+
+    /**
+     * @Author: PP-jessica
+     * @Description:编码消息头，DefaultHttpHeaders直接按下标访问，不创建迭代器和Entry
+     */
+    protected void encodeHeaders(HttpHeaders headers, ByteBuf buf) {
+        if (headers instanceof DefaultHttpHeaders) {
+            DefaultHttpHeaders defaultHeaders = (DefaultHttpHeaders) headers;
+            for (int i = 0, size = defaultHeaders.size(); i < size; i++) {
+                encodeHeader(defaultHeaders.nameAt(i), defaultHeaders.valueAt(i), buf);
+            }
+        } else {
+            for (Map.Entry<CharSequence, CharSequence> header: headers) {
+                encodeHeader(header.getKey(), header.getValue(), buf);
+            }
+        }
+    }
+
+    private static void encodeHeader(CharSequence name, CharSequence value, ByteBuf buf) {
+        final int nameLen = name.length();
+        final int valueLen = value.length();
+        buf.ensureWritable(nameLen + valueLen + 4);
+        writeAscii(buf, name);
+        buf.writeShort(COLON_AND_SPACE_SHORT);
+        writeAscii(buf, value);
+        buf.writeShort(CRLF_SHORT);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:按单字节字符写出，AsciiString直接拷贝底层数组
+     */
+    static void writeAscii(ByteBuf buf, CharSequence seq) {
+        if (seq instanceof AsciiString) {
+            AsciiString ascii = (AsciiString) seq;
+            buf.writeBytes(ascii.array(), ascii.arrayOffset(), ascii.length());
+            return;
+        }
+        final int length = seq.length();
+        buf.ensureWritable(length);
+        int writerIndex = buf.writerIndex();
+        for (int i = 0; i < length; i++) {
+            buf.setByte(writerIndex++, AsciiString.c2b(seq.charAt(i)));
+        }
+        buf.writerIndex(writerIndex);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:估算值多加一些余量，避免消息头稍微变大一点就要扩容
+     */
+    private static int padSizeForAccumulation(int readableBytes) {
+        return (readableBytes << 2) / 3;
+    }
+}
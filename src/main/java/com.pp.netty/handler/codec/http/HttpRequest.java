@@ -0,0 +1,19 @@
+package com.pp.netty.handler.codec.http;
+
+/**
+ * @Author: PP-jessica
+ * @Description:HTTP请求的请求行和消息头，不包含消息体
+ */
+public interface HttpRequest extends HttpMessage {
+
+    HttpMethod method();
+
+    HttpRequest setMethod(HttpMethod method);
+
+    String uri();
+
+    HttpRequest setUri(String uri);
+
+    @Override
+    HttpRequest setProtocolVersion(HttpVersion version);
+}
@@ -0,0 +1,33 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.util.AsciiString;
+
+/**
+ * @Author: PP-jessica
+ * @Description:HTTP请求的解码器。请求方法和协议版本绝大部分都是标准的，直接返回常量，只有uri会创建一个String
+ */
+public class HttpRequestDecoder extends HttpObjectDecoder {
+
+    public HttpRequestDecoder() {
+    }
+
+    public HttpRequestDecoder(int maxInitialLineLength, int maxHeaderSize, int maxChunkSize) {
+        super(maxInitialLineLength, maxHeaderSize, maxChunkSize);
+    }
+
+    @Override
+    protected HttpMessage createMessage(AsciiString first, AsciiString second, AsciiString third,
+                                        HttpHeaders headers) throws Exception {
+        return new DefaultHttpRequest(HttpVersion.valueOf(third), HttpMethod.valueOf(first), second.toString(),
+                headers);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:请求格式错误的时候创建的请求，后面的handler可以根据解码结果回复400
+     */
+    @Override
+    protected HttpMessage createInvalidMessage() {
+        return new DefaultHttpRequest(HttpVersion.HTTP_1_0, HttpMethod.GET, "/bad-request");
+    }
+}
@@ -0,0 +1,15 @@
+package com.pp.netty.handler.codec.http;
+
+/**
+ * @Author: PP-jessica
+ * @Description:HTTP响应的状态行和消息头，不包含消息体
+ */
+public interface HttpResponse extends HttpMessage {
+
+    HttpResponseStatus status();
+
+    HttpResponse setStatus(HttpResponseStatus status);
+
+    @Override
+    HttpResponse setProtocolVersion(HttpVersion version);
+}
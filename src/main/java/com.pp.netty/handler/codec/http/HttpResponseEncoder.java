@@ -0,0 +1,48 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.buffer.ByteBuf;
+
+/**
+ * @Author: PP-jessica
+ * @Description:HTTP响应的编码器
+ */
+public class HttpResponseEncoder extends HttpObjectEncoder<HttpResponse> {
+
+    private static final byte SP = ' ';
+
+    @Override
+    public boolean acceptOutboundMessage(Object msg) throws Exception {
+        return super.acceptOutboundMessage(msg) && !(msg instanceof HttpRequest);
+    }
+
+    @Override
+    protected void encodeInitialLine(ByteBuf buf, HttpResponse response) throws Exception {
+        response.protocolVersion().encode(buf);
+        buf.writeByte(SP);
+        response.status().encode(buf);
+        buf.writeShort(CRLF_SHORT);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:1xx、204、304的响应不能有消息体，这里把消息体相关的消息头也删掉
+     */
+    @Override
+    protected void sanitizeHeadersBeforeEncode(HttpResponse msg, boolean isAlwaysEmpty) {
+        if (isAlwaysEmpty) {
+            HttpResponseStatus status = msg.status();
+            if (status.isInformational() || status.code() == HttpResponseStatus.NO_CONTENT.code()) {
+                msg.headers().remove(HttpHeaderNames.CONTENT_LENGTH);
+                msg.headers().remove(HttpHeaderNames.TRANSFER_ENCODING);
+            }
+        }
+    }
+
+    @Override
+    protected boolean isContentAlwaysEmpty(HttpResponse msg) {
+        HttpResponseStatus status = msg.status();
+        return status.isInformational()
+                || status.code() == HttpResponseStatus.NO_CONTENT.code()
+                || status.code() == HttpResponseStatus.NOT_MODIFIED.code();
+    }
+}
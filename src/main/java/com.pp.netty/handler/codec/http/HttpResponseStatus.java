@@ -0,0 +1,219 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.util.AsciiString;
+import com.pp.netty.util.internal.ObjectUtil;
+
+/**
+ * @Author: PP-jessica
+ * @Description:HTTP响应的状态码和原因短语。常用的状态码都是常量，"状态码 原因短语"这段字节在创建的时候就编码好了，
+ * 编码器写状态行的时候直接拷贝字节数组
+ */
+public class HttpResponseStatus implements Comparable<HttpResponseStatus> {
+
+    public static final HttpResponseStatus CONTINUE = newStatus(100, "Continue");
+
+    public static final HttpResponseStatus SWITCHING_PROTOCOLS = newStatus(101, "Switching Protocols");
+
+    public static final HttpResponseStatus OK = newStatus(200, "OK");
+
+    public static final HttpResponseStatus CREATED = newStatus(201, "Created");
+
+    public static final HttpResponseStatus ACCEPTED = newStatus(202, "Accepted");
+
+    public static final HttpResponseStatus NO_CONTENT = newStatus(204, "No Content");
+
+    public static final HttpResponseStatus PARTIAL_CONTENT = newStatus(206, "Partial Content");
+
+    public static final HttpResponseStatus MOVED_PERMANENTLY = newStatus(301, "Moved Permanently");
+
+    public static final HttpResponseStatus FOUND = newStatus(302, "Found");
+
+    public static final HttpResponseStatus NOT_MODIFIED = newStatus(304, "Not Modified");
+
+    public static final HttpResponseStatus BAD_REQUEST = newStatus(400, "Bad Request");
+
+    public static final HttpResponseStatus UNAUTHORIZED = newStatus(401, "Unauthorized");
+
+    public static final HttpResponseStatus FORBIDDEN = newStatus(403, "Forbidden");
+
+    public static final HttpResponseStatus NOT_FOUND = newStatus(404, "Not Found");
+
+    public static final HttpResponseStatus METHOD_NOT_ALLOWED = newStatus(405, "Method Not Allowed");
+
+    public static final HttpResponseStatus REQUEST_TIMEOUT = newStatus(408, "Request Timeout");
+
+    public static final HttpResponseStatus REQUEST_ENTITY_TOO_LARGE = newStatus(413, "Request Entity Too Large");
+
+    public static final HttpResponseStatus REQUEST_URI_TOO_LONG = newStatus(414, "Request-URI Too Long");
+
+    public static final HttpResponseStatus EXPECTATION_FAILED = newStatus(417, "Expectation Failed");
+
+    public static final HttpResponseStatus UPGRADE_REQUIRED = newStatus(426, "Upgrade Required");
+
+    public static final HttpResponseStatus REQUEST_HEADER_FIELDS_TOO_LARGE =
+            newStatus(431, "Request Header Fields Too Large");
+
+    public static final HttpResponseStatus INTERNAL_SERVER_ERROR = newStatus(500, "Internal Server Error");
+
+    public static final HttpResponseStatus NOT_IMPLEMENTED = newStatus(501, "Not Implemented");
+
+    public static final HttpResponseStatus BAD_GATEWAY = newStatus(502, "Bad Gateway");
+
+    public static final HttpResponseStatus SERVICE_UNAVAILABLE = newStatus(503, "Service Unavailable");
+
+    public static final HttpResponseStatus GATEWAY_TIMEOUT = newStatus(504, "Gateway Timeout");
+
+    public static final HttpResponseStatus HTTP_VERSION_NOT_SUPPORTED = newStatus(505, "HTTP Version Not Supported");
+
+    private static HttpResponseStatus newStatus(int statusCode, String reasonPhrase) {
+        return new HttpResponseStatus(statusCode, reasonPhrase, true);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:返回状态码对应的常量，不是常量的状态码会创建一个新对象，原因短语是状态码的类别
+     */
+    public static HttpResponseStatus valueOf(int code) {
+        switch (code) {
+            case 100: return CONTINUE;
+            case 101: return SWITCHING_PROTOCOLS;
+            case 200: return OK;
+            case 201: return CREATED;
+            case 202: return ACCEPTED;
+            case 204: return NO_CONTENT;
+            case 206: return PARTIAL_CONTENT;
+            case 301: return MOVED_PERMANENTLY;
+            case 302: return FOUND;
+            case 304: return NOT_MODIFIED;
+            case 400: return BAD_REQUEST;
+            case 401: return UNAUTHORIZED;
+            case 403: return FORBIDDEN;
+            case 404: return NOT_FOUND;
+            case 405: return METHOD_NOT_ALLOWED;
+            case 408: return REQUEST_TIMEOUT;
+            case 413: return REQUEST_ENTITY_TOO_LARGE;
+            case 414: return REQUEST_URI_TOO_LONG;
+            case 417: return EXPECTATION_FAILED;
+            case 426: return UPGRADE_REQUIRED;
+            case 431: return REQUEST_HEADER_FIELDS_TOO_LARGE;
+            case 500: return INTERNAL_SERVER_ERROR;
+            case 501: return NOT_IMPLEMENTED;
+            case 502: return BAD_GATEWAY;
+            case 503: return SERVICE_UNAVAILABLE;
+            case 504: return GATEWAY_TIMEOUT;
+            case 505: return HTTP_VERSION_NOT_SUPPORTED;
+            default: return new HttpResponseStatus(code);
+        }
+    }
+
+    private final int code;
+
+    private final AsciiString codeAsText;
+
+    private final String reasonPhrase;
+
+    //"状态码 原因短语"的字节，只有常量才会提前编码
+    private final byte[] bytes;
+
+    private HttpResponseStatus(int code) {
+        this(code, defaultReasonPhrase(code), false);
+    }
+
+    public HttpResponseStatus(int code, String reasonPhrase) {
+        this(code, reasonPhrase, false);
+    }
+
+    private HttpResponseStatus(int code, String reasonPhrase, boolean bytes) {
+        ObjectUtil.checkPositiveOrZero(code, "code");
+        ObjectUtil.checkNotNull(reasonPhrase, "reasonPhrase");
+        for (int i = 0; i < reasonPhrase.length(); i++) {
+            char c = reasonPhrase.charAt(i);
+            if (c == '\n' || c == '\r') {
+                throw new IllegalArgumentException("reasonPhrase contains one of the following prohibited characters: "
+                        + "\\r\\n: " + reasonPhrase);
+            }
+        }
+        this.code = code;
+        String codeString = Integer.toString(code);
+        this.codeAsText = AsciiString.cached(codeString);
+        this.reasonPhrase = reasonPhrase;
+        this.bytes = bytes ? new AsciiString(codeString + ' ' + reasonPhrase).toByteArray() : null;
+    }
+
+    private static String defaultReasonPhrase(int code) {
+        if (code < 200) {
+            return "Informational";
+        }
+        if (code < 300) {
+            return "Successful";
+        }
+        if (code < 400) {
+            return "Redirection";
+        }
+        if (code < 500) {
+            return "Client Error";
+        }
+        if (code < 600) {
+            return "Server Error";
+        }
+        return "Unknown Status";
+    }
+
+    public int code() {
+        return code;
+    }
+
+    public AsciiString codeAsText() {
+        return codeAsText;
+    }
+
+    public String reasonPhrase() {
+        return reasonPhrase;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:1xx的状态码是临时响应，后面还会有真正的响应
+     */
+    public boolean isInformational() {
+        return code >= 100 && code < 200;
+    }
+
+    void encode(ByteBuf buf) {
+        if (bytes == null) {
+            buf.writeBytes(codeAsText.array(), codeAsText.arrayOffset(), codeAsText.length());
+            buf.writeByte(' ');
+            HttpObjectEncoder.writeAscii(buf, reasonPhrase);
+        } else {
+            buf.writeBytes(bytes);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return code();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof HttpResponseStatus)) {
+            return false;
+        }
+        return code() == ((HttpResponseStatus) o).code();
+    }
+
+    @Override
+    public int compareTo(HttpResponseStatus o) {
+        return code() - o.code();
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder(reasonPhrase.length() + 4)
+                .append(codeAsText)
+                .append(' ')
+                .append(reasonPhrase)
+                .toString();
+    }
+}
@@ -0,0 +1,314 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.Unpooled;
+import com.pp.netty.channel.ChannelDuplexHandler;
+import com.pp.netty.channel.ChannelFutureListener;
+import com.pp.netty.channel.ChannelHandlerContext;
+import com.pp.netty.channel.ChannelPromise;
+import com.pp.netty.util.ReferenceCountUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * @Author: PP-jessica
+ * @Description:HTTP服务端的编解码器，把HttpRequestDecoder和HttpResponseEncoder组合在一起，并且负责长连接和流水线。
+ *
+ * 流水线：客户端可以不等响应就连续发送多个请求，HTTP/1.1要求响应必须按照请求的顺序返回。
+ * 这里的做法是，一个请求解码完之后，如果它的响应还没有写完，解码器就停在下一个请求开始的位置，
+ * 剩下的数据留在解码器的累加器中。响应的LastHttpContent写出之后再恢复解码，这样即使handler是异步处理请求的，
+ * 响应的顺序也一定和请求一致。已经读到的请求不需要再等网络往返，流水线节省的时间一点也不少。
+ *
+ * 长连接：请求不是长连接，或者响应没有Content-Length也不是分块传输(只能靠关闭连接来表示消息体结束)，
+ * 就给响应加上Connection: close，响应写完之后关闭连接，之后读到的数据全部丢弃。
+ * 1xx的临时响应不算一个完整的响应。
+ *
+ * 解码器停住的时候，后面读到的数据都缓存在累加器中，这时候还没有开始解析，初始行和消息头的长度限制都不起作用。
+ * 缓存的数据超过maxPipelinedBytes之后就不再接收新的数据，等前面的响应写完之后回复503并关闭连接，
+ * 这样一个连接缓存的流水线请求最多只有maxPipelinedBytes字节
+ */
+public class HttpServerCodec extends ChannelDuplexHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpServerCodec.class);
+
+    public static final int DEFAULT_MAX_PIPELINED_BYTES = 65536;
+
+    //请求的方法，按请求的顺序排列，编码响应的时候要知道对应的请求是不是HEAD
+    private final Queue<HttpMethod> queue = new ArrayDeque<HttpMethod>();
+    //请求是不是长连接
+    private final Queue<Boolean> keepAliveQueue = new ArrayDeque<Boolean>();
+
+    private final HttpServerRequestDecoder decoder;
+    private final HttpServerResponseEncoder encoder = new HttpServerResponseEncoder();
+    //解码器停住的时候最多缓存多少字节的后续请求
+    private final int maxPipelinedBytes;
+
+    //已经解码出请求，响应还没写完的数量
+    private int pendingResponses;
+    //解码器是不是停在了两个请求之间
+    private boolean paused;
+    //正在恢复解码，防止恢复解码的过程中写响应又触发恢复解码
+    private boolean resuming;
+    //正在写一个响应，还没写到LastHttpContent
+    private boolean responseInProgress;
+    //正在写的是1xx的临时响应
+    private boolean informationalInProgress;
+    //当前的响应写完之后要关闭连接
+    private boolean closeAfterResponse;
+    //连接马上要关闭了，不再处理新的请求
+    private boolean closing;
+    //缓存的后续请求超过了maxPipelinedBytes，前面的响应写完之后要回复503
+    private boolean pipelineOverflow;
+
+    public HttpServerCodec() {
+        this(HttpObjectDecoder.DEFAULT_MAX_INITIAL_LINE_LENGTH, HttpObjectDecoder.DEFAULT_MAX_HEADER_SIZE,
+                HttpObjectDecoder.DEFAULT_MAX_CHUNK_SIZE);
+    }
+
+    public HttpServerCodec(int maxInitialLineLength, int maxHeaderSize, int maxChunkSize) {
+        this(maxInitialLineLength, maxHeaderSize, maxChunkSize,
+                Math.max(DEFAULT_MAX_PIPELINED_BYTES, maxInitialLineLength + maxHeaderSize + maxChunkSize));
+    }
+
+    public HttpServerCodec(int maxInitialLineLength, int maxHeaderSize, int maxChunkSize, int maxPipelinedBytes) {
+        decoder = new HttpServerRequestDecoder(maxInitialLineLength, maxHeaderSize, maxChunkSize);
+        //至少要能缓存下一个完整的消息头和一块消息体
+        int minPipelinedBytes = maxInitialLineLength + maxHeaderSize + maxChunkSize;
+        if (maxPipelinedBytes < minPipelinedBytes) {
+            throw new IllegalArgumentException(
+                    "maxPipelinedBytes: " + maxPipelinedBytes + " (expected: >= " + minPipelinedBytes + ')');
+        }
+        this.maxPipelinedBytes = maxPipelinedBytes;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (closing && msg instanceof ByteBuf) {
+            //响应写完就要关闭连接了，后面的请求不会再处理
+            ReferenceCountUtil.release(msg);
+            return;
+        }
+        if (paused && msg instanceof ByteBuf
+                && decoder.bufferedBytes() > maxPipelinedBytes - ((ByteBuf) msg).readableBytes()) {
+            ReferenceCountUtil.release(msg);
+            onPipelineOverflow(ctx);
+            return;
+        }
+        decoder.channelRead(ctx, msg);
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        decoder.channelReadComplete(ctx);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        decoder.channelInactive(ctx);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        //解码器中还没有解码的数据会传给后面的handler
+        decoder.handlerRemoved(ctx);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof HttpResponse) {
+            beginResponse((HttpResponse) msg);
+        }
+        boolean last = msg instanceof LastHttpContent && responseInProgress;
+        if (last && !informationalInProgress && closeAfterResponse) {
+            promise.addListener(ChannelFutureListener.CLOSE);
+        }
+        encoder.write(ctx, msg, promise);
+        if (last) {
+            if (informationalInProgress) {
+                informationalInProgress = false;
+            } else {
+                responseInProgress = false;
+                finishResponse(ctx);
+            }
+        }
+    }
+
+    private void beginResponse(HttpResponse response) {
+        if (response.status().isInformational()) {
+            //100 Continue这种临时响应，后面还会有真正的响应，不消耗请求
+            informationalInProgress = true;
+            responseInProgress = true;
+            encoder.head = false;
+            return;
+        }
+        HttpMethod method = queue.poll();
+        Boolean requestKeepAlive = keepAliveQueue.poll();
+        encoder.head = HttpMethod.HEAD.equals(method);
+        boolean keepAlive = requestKeepAlive != null && requestKeepAlive
+                && HttpUtil.isKeepAlive(response) && isSelfDefinedMessageLength(response, encoder.head);
+        if (!keepAlive) {
+            HttpUtil.setKeepAlive(response, false);
+        } else if (!response.protocolVersion().isKeepAliveDefault()) {
+            HttpUtil.setKeepAlive(response, true);
+        }
+        closeAfterResponse = !keepAlive;
+        responseInProgress = true;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:响应的消息体长度能不能自己确定，不能确定的话只能靠关闭连接表示响应结束
+     */
+    private static boolean isSelfDefinedMessageLength(HttpResponse response, boolean head) {
+        if (head || HttpUtil.isContentLengthSet(response) || HttpUtil.isTransferEncodingChunked(response)) {
+            return true;
+        }
+        HttpResponseStatus status = response.status();
+        return status.code() == HttpResponseStatus.NO_CONTENT.code()
+                || status.code() == HttpResponseStatus.NOT_MODIFIED.code();
+    }
+
+    private void finishResponse(ChannelHandlerContext ctx) {
+        if (pendingResponses > 0) {
+            pendingResponses--;
+        }
+        if (closeAfterResponse) {
+            closing = true;
+            return;
+        }
+        if (pipelineOverflow) {
+            if (pendingResponses == 0) {
+                sendServiceUnavailable(ctx);
+            }
+            return;
+        }
+        if (paused && pendingResponses == 0) {
+            resumeDecoding(ctx);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:解码器停住的时候缓存的数据太多了，之后读到的数据都丢弃。
+     * 这时候还有响应没写完，503要等它写完再回复，不然响应的顺序就乱了
+     */
+    private void onPipelineOverflow(ChannelHandlerContext ctx) {
+        logger.debug("{} Too many pipelined bytes buffered (max: {}), closing after pending responses.",
+                ctx.channel(), maxPipelinedBytes);
+        closing = true;
+        pipelineOverflow = true;
+        if (pendingResponses == 0 && !responseInProgress) {
+            sendServiceUnavailable(ctx);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:直接交给编码器写出503，这个响应不对应任何一个已经解码的请求，写完之后关闭连接
+     */
+    private void sendServiceUnavailable(ChannelHandlerContext ctx) {
+        pipelineOverflow = false;
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
+                HttpResponseStatus.SERVICE_UNAVAILABLE, Unpooled.EMPTY_BUFFER);
+        response.headers().set(HttpHeaderNames.CONTENT_LENGTH, HttpHeaderValues.ZERO);
+        response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+        ChannelPromise promise = ctx.newPromise();
+        promise.addListener(ChannelFutureListener.CLOSE);
+        encoder.head = false;
+        try {
+            encoder.write(ctx, response, promise);
+        } catch (Throwable t) {
+            logger.warn("Failed to send a 503 Service Unavailable.", t);
+            ctx.close();
+            return;
+        }
+        ctx.flush();
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:响应写完了，继续解码累加器中剩下的请求。解码出的请求可能在handler中同步地写完了响应，
+     * 又要恢复解码，这时候只是让外层的循环继续，不会递归调用
+     */
+    private void resumeDecoding(ChannelHandlerContext ctx) {
+        if (resuming) {
+            return;
+        }
+        resuming = true;
+        try {
+            while (paused && pendingResponses == 0 && !closing && !ctx.isRemoved()) {
+                paused = false;
+                //传一个空的ByteBuf进去，解码器会接着解码累加器中的数据
+                decoder.channelRead(ctx, Unpooled.EMPTY_BUFFER);
+            }
+            decoder.channelReadComplete(ctx);
+        } catch (Throwable t) {
+            logger.warn("Failed to resume decoding pipelined requests.", t);
+            ctx.fireExceptionCaught(t);
+        } finally {
+            resuming = false;
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:记录解码出的每个请求，并且在有响应没写完的时候停在请求之间
+     */
+    private final class HttpServerRequestDecoder extends HttpRequestDecoder {
+
+        HttpServerRequestDecoder(int maxInitialLineLength, int maxHeaderSize, int maxChunkSize) {
+            super(maxInitialLineLength, maxHeaderSize, maxChunkSize);
+        }
+
+        int bufferedBytes() {
+            return actualReadableBytes();
+        }
+
+        @Override
+        protected void decode(ChannelHandlerContext ctx, ByteBuf buffer, List<Object> out)
+                throws Exception {
+            int oldSize = out.size();
+            super.decode(ctx, buffer, out);
+            int size = out.size();
+            for (int i = oldSize; i < size; i++) {
+                Object obj = out.get(i);
+                if (obj instanceof HttpRequest) {
+                    HttpRequest request = (HttpRequest) obj;
+                    queue.add(request.method());
+                    keepAliveQueue.add(HttpUtil.isKeepAlive(request));
+                    pendingResponses++;
+                }
+            }
+        }
+
+        @Override
+        protected boolean suspendAtMessageBoundary() {
+            if (closing) {
+                return true;
+            }
+            if (pendingResponses > 0) {
+                paused = true;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:HEAD请求的响应没有消息体
+     */
+    private final class HttpServerResponseEncoder extends HttpResponseEncoder {
+
+        private boolean head;
+
+        @Override
+        protected boolean isContentAlwaysEmpty(HttpResponse msg) {
+            return head || super.isContentAlwaysEmpty(msg);
+        }
+    }
+}
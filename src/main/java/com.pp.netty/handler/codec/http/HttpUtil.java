@@ -0,0 +1,95 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.util.AsciiString;
+
+/**
+ * @Author: PP-jessica
+ * @Description:处理HTTP消息头的工具类，长连接、消息体长度、分块传输的判断都在这里
+ */
+public final class HttpUtil {
+
+    private HttpUtil() {
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:判断消息是不是长连接。Connection: close一定是短连接，HTTP/1.1默认是长连接，HTTP/1.0要显式地设置Connection: keep-alive
+     */
+    public static boolean isKeepAlive(HttpMessage message) {
+        HttpHeaders headers = message.headers();
+        if (headers.containsValue(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE, true)) {
+            return false;
+        }
+        return message.protocolVersion().isKeepAliveDefault()
+                || headers.containsValue(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE, true);
+    }
+
+    public static void setKeepAlive(HttpMessage message, boolean keepAlive) {
+        HttpHeaders h = message.headers();
+        if (message.protocolVersion().isKeepAliveDefault()) {
+            if (keepAlive) {
+                h.remove(HttpHeaderNames.CONNECTION);
+            } else {
+                h.set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+            }
+        } else {
+            if (keepAlive) {
+                h.set(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+            } else {
+                h.remove(HttpHeaderNames.CONNECTION);
+            }
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:返回Content-Length的值，没有这个消息头或者值不合法的时候返回defaultValue
+     */
+    public static long getContentLength(HttpMessage message, long defaultValue) {
+        return message.headers().getLong(HttpHeaderNames.CONTENT_LENGTH, defaultValue);
+    }
+
+    public static void setContentLength(HttpMessage message, long length) {
+        message.headers().set(HttpHeaderNames.CONTENT_LENGTH, length);
+    }
+
+    public static boolean isContentLengthSet(HttpMessage message) {
+        return message.headers().contains(HttpHeaderNames.CONTENT_LENGTH);
+    }
+
+    public static boolean isTransferEncodingChunked(HttpMessage message) {
+        return message.headers().containsValue(HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderValues.CHUNKED, true);
+    }
+
+    public static void setTransferEncodingChunked(HttpMessage message, boolean chunked) {
+        if (chunked) {
+            message.headers().set(HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+            message.headers().remove(HttpHeaderNames.CONTENT_LENGTH);
+        } else {
+            message.headers().remove(HttpHeaderNames.TRANSFER_ENCODING);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:判断请求是不是带了服务端不支持的Expect，HTTP/1.1只定义了100-continue这一种期望
+     */
+    static boolean isUnsupportedExpectation(HttpMessage message) {
+        if (!(message instanceof HttpRequest)
+                || message.protocolVersion().compareTo(HttpVersion.HTTP_1_1) < 0) {
+            return false;
+        }
+        CharSequence expectValue = message.headers().getCharSequence(HttpHeaderNames.EXPECT);
+        return expectValue != null && !AsciiString.contentEqualsIgnoreCase(HttpHeaderValues.CONTINUE, expectValue);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:判断请求是不是带了Expect: 100-continue，只有HTTP/1.1才支持
+     */
+    public static boolean is100ContinueExpected(HttpMessage message) {
+        return message instanceof HttpRequest
+                && message.protocolVersion().compareTo(HttpVersion.HTTP_1_1) >= 0
+                && message.headers().contains(HttpHeaderNames.EXPECT, HttpHeaderValues.CONTINUE, true);
+    }
+}
@@ -0,0 +1,146 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.util.AsciiString;
+import com.pp.netty.util.internal.ObjectUtil;
+
+/**
+ * @Author: PP-jessica
+ * @Description:HTTP协议的版本。HTTP/1.1默认是长连接，HTTP/1.0默认是短连接
+ */
+public class HttpVersion implements Comparable<HttpVersion> {
+
+    private static final String HTTP_1_0_STRING = "HTTP/1.0";
+    private static final String HTTP_1_1_STRING = "HTTP/1.1";
+
+    public static final HttpVersion HTTP_1_0 = new HttpVersion("HTTP", 1, 0, false);
+
+    public static final HttpVersion HTTP_1_1 = new HttpVersion("HTTP", 1, 1, true);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:解码器调用的方法，绝大部分请求都是这两个版本，直接比较字节返回常量，不用解析
+     */
+    static HttpVersion valueOf(AsciiString text) {
+        if (text.length() == 8 && text.byteAt(0) == 'H' && text.byteAt(5) == '1' && text.byteAt(6) == '.') {
+            if (text.contentEquals(HTTP_1_1_STRING)) {
+                return HTTP_1_1;
+            }
+            if (text.contentEquals(HTTP_1_0_STRING)) {
+                return HTTP_1_0;
+            }
+        }
+        return valueOf(text.toString());
+    }
+
+    public static HttpVersion valueOf(String text) {
+        ObjectUtil.checkNotNull(text, "text");
+        text = text.trim();
+        if (HTTP_1_1_STRING.equals(text)) {
+            return HTTP_1_1;
+        }
+        if (HTTP_1_0_STRING.equals(text)) {
+            return HTTP_1_0;
+        }
+        return new HttpVersion(text, true);
+    }
+
+    private final String protocolName;
+    private final int majorVersion;
+    private final int minorVersion;
+    private final String text;
+    private final boolean keepAliveDefault;
+    //编码的时候直接写这个数组
+    private final byte[] bytes;
+
+    public HttpVersion(String text, boolean keepAliveDefault) {
+        ObjectUtil.checkNotNull(text, "text");
+        text = text.trim().toUpperCase();
+        int slash = text.indexOf('/');
+        int dot = text.indexOf('.', slash + 1);
+        if (slash <= 0 || dot < 0) {
+            throw new IllegalArgumentException("invalid version format: " + text);
+        }
+        try {
+            protocolName = text.substring(0, slash);
+            majorVersion = Integer.parseInt(text.substring(slash + 1, dot));
+            minorVersion = Integer.parseInt(text.substring(dot + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid version format: " + text);
+        }
+        this.text = protocolName + '/' + majorVersion + '.' + minorVersion;
+        this.keepAliveDefault = keepAliveDefault;
+        bytes = null;
+    }
+
+    private HttpVersion(String protocolName, int majorVersion, int minorVersion, boolean keepAliveDefault) {
+        this.protocolName = protocolName;
+        this.majorVersion = majorVersion;
+        this.minorVersion = minorVersion;
+        text = protocolName + '/' + majorVersion + '.' + minorVersion;
+        this.keepAliveDefault = keepAliveDefault;
+        bytes = new AsciiString(text).toByteArray();
+    }
+
+    public String protocolName() {
+        return protocolName;
+    }
+
+    public int majorVersion() {
+        return majorVersion;
+    }
+
+    public int minorVersion() {
+        return minorVersion;
+    }
+
+    public String text() {
+        return text;
+    }
+
+    public boolean isKeepAliveDefault() {
+        return keepAliveDefault;
+    }
+
+    void encode(ByteBuf buf) {
+        if (bytes == null) {
+            HttpObjectEncoder.writeAscii(buf, text);
+        } else {
+            buf.writeBytes(bytes);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return text();
+    }
+
+    @Override
+    public int hashCode() {
+        return (protocolName().hashCode() * 31 + majorVersion()) * 31 + minorVersion();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof HttpVersion)) {
+            return false;
+        }
+        HttpVersion that = (HttpVersion) o;
+        return minorVersion() == that.minorVersion() &&
+                majorVersion() == that.majorVersion() &&
+                protocolName().equals(that.protocolName());
+    }
+
+    @Override
+    public int compareTo(HttpVersion o) {
+        int v = protocolName().compareTo(o.protocolName());
+        if (v != 0) {
+            return v;
+        }
+        v = majorVersion() - o.majorVersion();
+        if (v != 0) {
+            return v;
+        }
+        return minorVersion() - o.minorVersion();
+    }
+}
@@ -0,0 +1,110 @@
+package com.pp.netty.handler.codec.http;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.Unpooled;
+import com.pp.netty.handler.codec.DecoderResult;
+
+/**
+ * @Author: PP-jessica
+ * @Description:HTTP消息的最后一部分消息体，分块传输的时候还会带上尾部的消息头。
+ * 编解码器靠它判断一个HTTP消息结束了
+ */
+public interface LastHttpContent extends HttpContent {
+
+    /**
+     * @Author: PP-jessica
+     * @Description:没有内容的LastHttpContent，没有消息体的请求和响应都用它表示结束，不用每次都创建对象
+     */
+    LastHttpContent EMPTY_LAST_CONTENT = new LastHttpContent() {
+
+        @Override
+        public ByteBuf content() {
+            return Unpooled.EMPTY_BUFFER;
+        }
+
+        @Override
+        public LastHttpContent copy() {
+            return EMPTY_LAST_CONTENT;
+        }
+
+        @Override
+        public LastHttpContent duplicate() {
+            return this;
+        }
+
+        @Override
+        public LastHttpContent retainedDuplicate() {
+            return this;
+        }
+
+        @Override
+        public LastHttpContent replace(ByteBuf content) {
+            return new DefaultLastHttpContent(content);
+        }
+
+        @Override
+        public HttpHeaders trailingHeaders() {
+            return EmptyHttpHeaders.INSTANCE;
+        }
+
+        @Override
+        public DecoderResult decoderResult() {
+            return DecoderResult.SUCCESS;
+        }
+
+        @Override
+        public void setDecoderResult(DecoderResult result) {
+            throw new UnsupportedOperationException("read only");
+        }
+
+        @Override
+        public int refCnt() {
+            return 1;
+        }
+
+        @Override
+        public LastHttpContent retain() {
+            return this;
+        }
+
+        @Override
+        public LastHttpContent retain(int increment) {
+            return this;
+        }
+
+        @Override
+        public boolean release() {
+            return false;
+        }
+
+        @Override
+        public boolean release(int decrement) {
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return "EmptyLastHttpContent";
+        }
+    };
+
+    HttpHeaders trailingHeaders();
+
+    @Override
+    LastHttpContent copy();
+
+    @Override
+    LastHttpContent duplicate();
+
+    @Override
+    LastHttpContent retainedDuplicate();
+
+    @Override
+    LastHttpContent replace(ByteBuf content);
+
+    @Override
+    LastHttpContent retain();
+
+    @Override
+    LastHttpContent retain(int increment);
+}
@@ -0,0 +1,55 @@
+package com.pp.netty.handler.codec.http.websocketx;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.Unpooled;
+
+/**
+ * @Author: PP-jessica
+ * @Description:二进制帧
+ */
+public class BinaryWebSocketFrame extends WebSocketFrame {
+
+    public BinaryWebSocketFrame() {
+        super(Unpooled.buffer(0));
+    }
+
+    public BinaryWebSocketFrame(ByteBuf binaryData) {
+        super(binaryData);
+    }
+
+    public BinaryWebSocketFrame(boolean finalFragment, int rsv, ByteBuf binaryData) {
+        super(finalFragment, rsv, binaryData);
+    }
+
+    @Override
+    public BinaryWebSocketFrame copy() {
+        return (BinaryWebSocketFrame) super.copy();
+    }
+
+    @Override
+    public BinaryWebSocketFrame duplicate() {
+        return (BinaryWebSocketFrame) super.duplicate();
+    }
+
+    @Override
+    public BinaryWebSocketFrame retainedDuplicate() {
+        return (BinaryWebSocketFrame) super.retainedDuplicate();
+    }
+
+    @Override
+    public BinaryWebSocketFrame replace(ByteBuf content) {
+        return new BinaryWebSocketFrame(isFinalFragment(), rsv(), content);
+    }
+
+    @Override
+    public BinaryWebSocketFrame retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public BinaryWebSocketFrame retain(int increment) {
+        super.retain(increment);
+        return this;
+    }
+}
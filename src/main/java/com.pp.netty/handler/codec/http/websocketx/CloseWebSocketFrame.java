@@ -0,0 +1,101 @@
+package com.pp.netty.handler.codec.http.websocketx;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.Unpooled;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @Author: PP-jessica
+ * @Description:关闭帧，负载的前两个字节是状态码，后面是UTF-8编码的关闭原因，负载也可以是空的
+ */
+public class CloseWebSocketFrame extends WebSocketFrame {
+
+    //正常关闭
+    public static final int NORMAL_CLOSURE = 1000;
+    //收到的帧不符合协议
+    public static final int PROTOCOL_ERROR = 1002;
+    //收到的消息超过了能处理的长度
+    public static final int MESSAGE_TOO_BIG = 1009;
+
+    public CloseWebSocketFrame() {
+        super(Unpooled.buffer(0));
+    }
+
+    public CloseWebSocketFrame(int statusCode, String reasonText) {
+        this(true, 0, statusCode, reasonText);
+    }
+
+    public CloseWebSocketFrame(boolean finalFragment, int rsv, int statusCode, String reasonText) {
+        super(finalFragment, rsv, newBinaryData(statusCode, reasonText));
+    }
+
+    public CloseWebSocketFrame(ByteBuf binaryData) {
+        super(binaryData);
+    }
+
+    public CloseWebSocketFrame(boolean finalFragment, int rsv, ByteBuf binaryData) {
+        super(finalFragment, rsv, binaryData);
+    }
+
+    private static ByteBuf newBinaryData(int statusCode, String reasonText) {
+        byte[] reason = reasonText == null ? new byte[0] : reasonText.getBytes(StandardCharsets.UTF_8);
+        ByteBuf binaryData = Unpooled.buffer(2 + reason.length);
+        binaryData.writeShort(statusCode);
+        binaryData.writeBytes(reason);
+        return binaryData;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:关闭的状态码，负载中没有状态码的时候返回-1
+     */
+    public int statusCode() {
+        ByteBuf binaryData = content();
+        if (binaryData.readableBytes() < 2) {
+            return -1;
+        }
+        return binaryData.getUnsignedShort(binaryData.readerIndex());
+    }
+
+    public String reasonText() {
+        ByteBuf binaryData = content();
+        if (binaryData.readableBytes() <= 2) {
+            return "";
+        }
+        return binaryData.toString(binaryData.readerIndex() + 2, binaryData.readableBytes() - 2,
+                StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public CloseWebSocketFrame copy() {
+        return (CloseWebSocketFrame) super.copy();
+    }
+
+    @Override
+    public CloseWebSocketFrame duplicate() {
+        return (CloseWebSocketFrame) super.duplicate();
+    }
+
+    @Override
+    public CloseWebSocketFrame retainedDuplicate() {
+        return (CloseWebSocketFrame) super.retainedDuplicate();
+    }
+
+    @Override
+    public CloseWebSocketFrame replace(ByteBuf content) {
+        return new CloseWebSocketFrame(isFinalFragment(), rsv(), content);
+    }
+
+    @Override
+    public CloseWebSocketFrame retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public CloseWebSocketFrame retain(int increment) {
+        super.retain(increment);
+        return this;
+    }
+}
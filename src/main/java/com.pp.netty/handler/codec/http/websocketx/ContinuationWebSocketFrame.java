@@ -0,0 +1,80 @@
+package com.pp.netty.handler.codec.http.websocketx;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.Unpooled;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @Author: PP-jessica
+ * @Description:延续帧，一个分片消息除了第一个分片之外的分片都是延续帧
+ */
+public class ContinuationWebSocketFrame extends WebSocketFrame {
+
+    public ContinuationWebSocketFrame() {
+        super(Unpooled.buffer(0));
+    }
+
+    public ContinuationWebSocketFrame(ByteBuf binaryData) {
+        super(binaryData);
+    }
+
+    public ContinuationWebSocketFrame(boolean finalFragment, int rsv, ByteBuf binaryData) {
+        super(finalFragment, rsv, binaryData);
+    }
+
+    public ContinuationWebSocketFrame(String text) {
+        this(true, 0, text);
+    }
+
+    public ContinuationWebSocketFrame(boolean finalFragment, int rsv, String text) {
+        super(finalFragment, rsv, fromText(text));
+    }
+
+    private static ByteBuf fromText(String text) {
+        if (text == null || text.isEmpty()) {
+            return Unpooled.EMPTY_BUFFER;
+        }
+        return Unpooled.copiedBuffer(text, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:按UTF-8解码出文本
+     */
+    public String text() {
+        return content().toString(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public ContinuationWebSocketFrame copy() {
+        return (ContinuationWebSocketFrame) super.copy();
+    }
+
+    @Override
+    public ContinuationWebSocketFrame duplicate() {
+        return (ContinuationWebSocketFrame) super.duplicate();
+    }
+
+    @Override
+    public ContinuationWebSocketFrame retainedDuplicate() {
+        return (ContinuationWebSocketFrame) super.retainedDuplicate();
+    }
+
+    @Override
+    public ContinuationWebSocketFrame replace(ByteBuf content) {
+        return new ContinuationWebSocketFrame(isFinalFragment(), rsv(), content);
+    }
+
+    @Override
+    public ContinuationWebSocketFrame retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public ContinuationWebSocketFrame retain(int increment) {
+        super.retain(increment);
+        return this;
+    }
+}
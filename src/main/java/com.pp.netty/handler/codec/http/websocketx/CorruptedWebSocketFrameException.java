@@ -0,0 +1,27 @@
+package com.pp.netty.handler.codec.http.websocketx;
+
+import com.pp.netty.handler.codec.CorruptedFrameException;
+
+/**
+ * @Author: PP-jessica
+ * @Description:收到的WebSocket帧不符合协议时抛出的异常，closeStatus是回复给对端的关闭帧使用的状态码
+ */
+public class CorruptedWebSocketFrameException extends CorruptedFrameException {
+
+    private static final long serialVersionUID = 3918055132492988338L;
+
+    private final int closeStatus;
+
+    public CorruptedWebSocketFrameException(String message) {
+        this(CloseWebSocketFrame.PROTOCOL_ERROR, message);
+    }
+
+    public CorruptedWebSocketFrameException(int closeStatus, String message) {
+        super(message);
+        this.closeStatus = closeStatus;
+    }
+
+    public int closeStatus() {
+        return closeStatus;
+    }
+}
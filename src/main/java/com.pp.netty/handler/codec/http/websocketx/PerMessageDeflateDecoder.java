@@ -0,0 +1,114 @@
+package com.pp.netty.handler.codec.http.websocketx;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.channel.ChannelFutureListener;
+import com.pp.netty.channel.ChannelHandlerContext;
+import com.pp.netty.handler.codec.MessageToMessageDecoder;
+import com.pp.netty.util.internal.ObjectUtil;
+
+import java.util.List;
+import java.util.zip.Inflater;
+
+/**
+ * @Author: PP-jessica
+ * @Description:per-message deflate扩展(RFC 7692)的解压解码器，解压RSV1置位的消息，解压后的帧清掉RSV1。
+ *
+ * 客户端可能使用context takeover，后面的消息会引用前面消息的数据，所以Inflater是每个连接一个，
+ * 连接关闭或者handler被移除的时候释放。消息的最后一个分片要补上发送端去掉的00 00 ff ff再解压。
+ * 解压出的帧超过maxDecompressedLength就回复1009关闭连接，防止很小的压缩数据解压出大量的内存。
+ * 分片消息的总长度由后面的WebSocketFrameAggregator限制
+ */
+public class PerMessageDeflateDecoder extends MessageToMessageDecoder<WebSocketFrame> {
+
+    private final int maxDecompressedLength;
+
+    private Inflater inflater;
+
+    //正在解压一个分片消息，后面的延续帧也要解压
+    private boolean decompressing;
+
+    public PerMessageDeflateDecoder(int maxDecompressedLength) {
+        super(WebSocketFrame.class);
+        this.maxDecompressedLength = ObjectUtil.checkPositive(maxDecompressedLength, "maxDecompressedLength");
+    }
+
+    @Override
+    public boolean acceptInboundMessage(Object msg) throws Exception {
+        if (msg instanceof TextWebSocketFrame || msg instanceof BinaryWebSocketFrame) {
+            return (((WebSocketFrame) msg).rsv() & PerMessageDeflateEncoder.RSV1) != 0;
+        }
+        return msg instanceof ContinuationWebSocketFrame && decompressing;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, WebSocketFrame msg, List<Object> out) throws Exception {
+        if (inflater == null) {
+            inflater = new Inflater(true);
+        }
+        int maxLength = maxDecompressedLength;
+        ByteBuf decompressed = ctx.alloc().heapBuffer(Math.max(256, msg.content().readableBytes() << 1));
+        boolean release = true;
+        try {
+            boolean fits = WebSocketUtil.inflate(inflater, msg.content(), decompressed, maxLength);
+            if (fits && msg.isFinalFragment()) {
+                fits = WebSocketUtil.inflate(inflater, PerMessageDeflateEncoder.FRAME_TAIL, decompressed, maxLength);
+            }
+            if (!fits) {
+                tooLong(ctx);
+                return;
+            }
+            WebSocketFrame outMsg;
+            if (msg instanceof TextWebSocketFrame) {
+                outMsg = new TextWebSocketFrame(msg.isFinalFragment(),
+                        msg.rsv() & ~PerMessageDeflateEncoder.RSV1, decompressed);
+            } else if (msg instanceof BinaryWebSocketFrame) {
+                outMsg = new BinaryWebSocketFrame(msg.isFinalFragment(),
+                        msg.rsv() & ~PerMessageDeflateEncoder.RSV1, decompressed);
+            } else {
+                outMsg = new ContinuationWebSocketFrame(msg.isFinalFragment(), msg.rsv(), decompressed);
+            }
+            decompressing = !msg.isFinalFragment();
+            out.add(outMsg);
+            release = false;
+        } finally {
+            if (release) {
+                decompressed.release();
+            }
+        }
+    }
+
+    private void tooLong(ChannelHandlerContext ctx) {
+        decompressing = false;
+        String reason = "Max decompressed frame length of " + maxDecompressedLength + " has been exceeded.";
+        if (ctx.channel().isActive()) {
+            ctx.writeAndFlush(new CloseWebSocketFrame(CloseWebSocketFrame.MESSAGE_TOO_BIG, reason))
+                    .addListener(ChannelFutureListener.CLOSE);
+        }
+        throw new CorruptedWebSocketFrameException(CloseWebSocketFrame.MESSAGE_TOO_BIG, reason);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        try {
+            super.channelInactive(ctx);
+        } finally {
+            cleanup();
+        }
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        try {
+            super.handlerRemoved(ctx);
+        } finally {
+            cleanup();
+        }
+    }
+
+    private void cleanup() {
+        if (inflater != null) {
+            inflater.end();
+            inflater = null;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.pp.netty.handler.codec.http.websocketx;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.channel.ChannelHandlerContext;
+import com.pp.netty.handler.codec.MessageToMessageEncoder;
+
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * @Author: PP-jessica
+ * @Description:per-message deflate扩展(RFC 7692)的压缩编码器，压缩数据帧的负载，消息的第一个帧设置RSV1。
+ *
+ * Deflater是每个NioEventLoop一个，这个线程上的所有连接共用，不用每个连接都占用一份zlib的内存。
+ * 每个帧压缩完之后都会reset，所以握手的时候协商的是server_no_context_takeover，
+ * 每个消息都是独立压缩的，不依赖之前的消息，共用的Deflater中不会留下别的连接的数据。
+ * 一个消息的每个分片都用SYNC_FLUSH刷出来，最后一个分片去掉末尾的00 00 ff ff。
+ * 负载小于minCompressSize的单帧消息不压缩，压缩小消息得不偿失
+ */
+public class PerMessageDeflateEncoder extends MessageToMessageEncoder<WebSocketFrame> {
+
+    static final int RSV1 = 0x04;
+
+    static final byte[] FRAME_TAIL = {0x00, 0x00, (byte) 0xff, (byte) 0xff};
+
+    public static final int DEFAULT_COMPRESSION_LEVEL = 6;
+
+    public static final int DEFAULT_MIN_COMPRESS_SIZE = 64;
+
+    //每个线程每种压缩级别一个Deflater，用到的时候才创建
+    private static final ThreadLocal<Deflater[]> DEFLATERS = new ThreadLocal<Deflater[]>() {
+        @Override
+        protected Deflater[] initialValue() {
+            return new Deflater[Deflater.BEST_COMPRESSION + 1];
+        }
+    };
+
+    private final int compressionLevel;
+
+    private final int minCompressSize;
+
+    //正在压缩一个分片消息，后面的延续帧也要压缩
+    private boolean compressing;
+
+    public PerMessageDeflateEncoder() {
+        this(DEFAULT_COMPRESSION_LEVEL, DEFAULT_MIN_COMPRESS_SIZE);
+    }
+
+    public PerMessageDeflateEncoder(int compressionLevel, int minCompressSize) {
+        super(WebSocketFrame.class);
+        if (compressionLevel < 0 || compressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException(
+                    "compressionLevel: " + compressionLevel + " (expected: 0-" + Deflater.BEST_COMPRESSION + ')');
+        }
+        this.compressionLevel = compressionLevel;
+        this.minCompressSize = minCompressSize;
+    }
+
+    @Override
+    public boolean acceptOutboundMessage(Object msg) throws Exception {
+        if (msg instanceof TextWebSocketFrame || msg instanceof BinaryWebSocketFrame) {
+            WebSocketFrame frame = (WebSocketFrame) msg;
+            if ((frame.rsv() & RSV1) != 0) {
+                //已经是压缩过的
+                return false;
+            }
+            return !frame.isFinalFragment() || frame.content().readableBytes() >= minCompressSize;
+        }
+        return msg instanceof ContinuationWebSocketFrame && compressing;
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, WebSocketFrame msg, List<Object> out) throws Exception {
+        ByteBuf data = msg.content();
+        ByteBuf compressed = ctx.alloc().heapBuffer(Math.max(64, data.readableBytes() >>> 1));
+        boolean release = true;
+        try {
+            Deflater deflater = deflater();
+            try {
+                WebSocketUtil.deflate(deflater, data, compressed);
+            } finally {
+                deflater.reset();
+            }
+            if (msg.isFinalFragment()) {
+                //SYNC_FLUSH一定以00 00 ff ff结尾，消息的最后一个分片要去掉它，对端解压的时候会自己补上
+                compressed.writerIndex(compressed.writerIndex() - FRAME_TAIL.length);
+                if (!compressed.isReadable()) {
+                    compressed.writeByte(0);
+                }
+            }
+            WebSocketFrame outMsg;
+            if (msg instanceof TextWebSocketFrame) {
+                outMsg = new TextWebSocketFrame(msg.isFinalFragment(), msg.rsv() | RSV1, compressed);
+            } else if (msg instanceof BinaryWebSocketFrame) {
+                outMsg = new BinaryWebSocketFrame(msg.isFinalFragment(), msg.rsv() | RSV1, compressed);
+            } else {
+                outMsg = new ContinuationWebSocketFrame(msg.isFinalFragment(), msg.rsv(), compressed);
+            }
+            compressing = !msg.isFinalFragment();
+            out.add(outMsg);
+            release = false;
+        } finally {
+            if (release) {
+                compressed.release();
+            }
+        }
+    }
+
+    private Deflater deflater() {
+        Deflater[] deflaters = DEFLATERS.get();
+        Deflater deflater = deflaters[compressionLevel];
+        if (deflater == null) {
+            //nowrap为true，输出的是不带zlib头和校验和的原始deflate数据
+            deflater = new Deflater(compressionLevel, true);
+            deflaters[compressionLevel] = deflater;
+        }
+        return deflater;
+    }
+}
@@ -0,0 +1,55 @@
+package com.pp.netty.handler.codec.http.websocketx;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.Unpooled;
+
+/**
+ * @Author: PP-jessica
+ * @Description:Ping帧，收到之后要回复一个负载相同的Pong帧
+ */
+public class PingWebSocketFrame extends WebSocketFrame {
+
+    public PingWebSocketFrame() {
+        super(Unpooled.buffer(0));
+    }
+
+    public PingWebSocketFrame(ByteBuf binaryData) {
+        super(binaryData);
+    }
+
+    public PingWebSocketFrame(boolean finalFragment, int rsv, ByteBuf binaryData) {
+        super(finalFragment, rsv, binaryData);
+    }
+
+    @Override
+    public PingWebSocketFrame copy() {
+        return (PingWebSocketFrame) super.copy();
+    }
+
+    @Override
+    public PingWebSocketFrame duplicate() {
+        return (PingWebSocketFrame) super.duplicate();
+    }
+
+    @Override
+    public PingWebSocketFrame retainedDuplicate() {
+        return (PingWebSocketFrame) super.retainedDuplicate();
+    }
+
+    @Override
+    public PingWebSocketFrame replace(ByteBuf content) {
+        return new PingWebSocketFrame(isFinalFragment(), rsv(), content);
+    }
+
+    @Override
+    public PingWebSocketFrame retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public PingWebSocketFrame retain(int increment) {
+        super.retain(increment);
+        return this;
+    }
+}
@@ -0,0 +1,55 @@
+package com.pp.netty.handler.codec.http.websocketx;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.Unpooled;
+
+/**
+ * @Author: PP-jessica
+ * @Description:Pong帧
+ */
+public class PongWebSocketFrame extends WebSocketFrame {
+
+    public PongWebSocketFrame() {
+        super(Unpooled.buffer(0));
+    }
+
+    public PongWebSocketFrame(ByteBuf binaryData) {
+        super(binaryData);
+    }
+
+    public PongWebSocketFrame(boolean finalFragment, int rsv, ByteBuf binaryData) {
+        super(finalFragment, rsv, binaryData);
+    }
+
+    @Override
+    public PongWebSocketFrame copy() {
+        return (PongWebSocketFrame) super.copy();
+    }
+
+    @Override
+    public PongWebSocketFrame duplicate() {
+        return (PongWebSocketFrame) super.duplicate();
+    }
+
+    @Override
+    public PongWebSocketFrame retainedDuplicate() {
+        return (PongWebSocketFrame) super.retainedDuplicate();
+    }
+
+    @Override
+    public PongWebSocketFrame replace(ByteBuf content) {
+        return new PongWebSocketFrame(isFinalFragment(), rsv(), content);
+    }
+
+    @Override
+    public PongWebSocketFrame retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public PongWebSocketFrame retain(int increment) {
+        super.retain(increment);
+        return this;
+    }
+}
@@ -0,0 +1,80 @@
+package com.pp.netty.handler.codec.http.websocketx;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.Unpooled;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @Author: PP-jessica
+ * @Description:文本帧，负载是UTF-8编码的文本
+ */
+public class TextWebSocketFrame extends WebSocketFrame {
+
+    public TextWebSocketFrame() {
+        super(Unpooled.buffer(0));
+    }
+
+    public TextWebSocketFrame(ByteBuf binaryData) {
+        super(binaryData);
+    }
+
+    public TextWebSocketFrame(boolean finalFragment, int rsv, ByteBuf binaryData) {
+        super(finalFragment, rsv, binaryData);
+    }
+
+    public TextWebSocketFrame(String text) {
+        this(true, 0, text);
+    }
+
+    public TextWebSocketFrame(boolean finalFragment, int rsv, String text) {
+        super(finalFragment, rsv, fromText(text));
+    }
+
+    private static ByteBuf fromText(String text) {
+        if (text == null || text.isEmpty()) {
+            return Unpooled.EMPTY_BUFFER;
+        }
+        return Unpooled.copiedBuffer(text, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:按UTF-8解码出文本
+     */
+    public String text() {
+        return content().toString(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public TextWebSocketFrame copy() {
+        return (TextWebSocketFrame) super.copy();
+    }
+
+    @Override
+    public TextWebSocketFrame duplicate() {
+        return (TextWebSocketFrame) super.duplicate();
+    }
+
+    @Override
+    public TextWebSocketFrame retainedDuplicate() {
+        return (TextWebSocketFrame) super.retainedDuplicate();
+    }
+
+    @Override
+    public TextWebSocketFrame replace(ByteBuf content) {
+        return new TextWebSocketFrame(isFinalFragment(), rsv(), content);
+    }
+
+    @Override
+    public TextWebSocketFrame retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public TextWebSocketFrame retain(int increment) {
+        super.retain(increment);
+        return this;
+    }
+}
@@ -0,0 +1,70 @@
+package com.pp.netty.handler.codec.http.websocketx;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.DefaultByteBufHolder;
+import com.pp.netty.util.internal.StringUtil;
+
+/**
+ * @Author: PP-jessica
+ * @Description:WebSocket帧的抽象父类，帧的负载就是持有的ByteBuf。
+ * finalFragment表示是不是一个消息的最后一个分片，rsv是帧头中的三个扩展位，比如per-message deflate用的是RSV1
+ */
+public abstract class WebSocketFrame extends DefaultByteBufHolder {
+
+    private final boolean finalFragment;
+
+    private final int rsv;
+
+    protected WebSocketFrame(ByteBuf binaryData) {
+        this(true, 0, binaryData);
+    }
+
+    protected WebSocketFrame(boolean finalFragment, int rsv, ByteBuf binaryData) {
+        super(binaryData);
+        this.finalFragment = finalFragment;
+        this.rsv = rsv;
+    }
+
+    public boolean isFinalFragment() {
+        return finalFragment;
+    }
+
+    public int rsv() {
+        return rsv;
+    }
+
+    @Override
+    public WebSocketFrame copy() {
+        return (WebSocketFrame) super.copy();
+    }
+
+    @Override
+    public WebSocketFrame duplicate() {
+        return (WebSocketFrame) super.duplicate();
+    }
+
+    @Override
+    public WebSocketFrame retainedDuplicate() {
+        return (WebSocketFrame) super.retainedDuplicate();
+    }
+
+    @Override
+    public abstract WebSocketFrame replace(ByteBuf content);
+
+    @Override
+    public WebSocketFrame retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public WebSocketFrame retain(int increment) {
+        super.retain(increment);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return StringUtil.simpleClassName(this) + "(data: " + contentToString() + ')';
+    }
+}
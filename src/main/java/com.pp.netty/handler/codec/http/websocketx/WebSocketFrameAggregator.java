@@ -0,0 +1,86 @@
+package com.pp.netty.handler.codec.http.websocketx;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.channel.ChannelFutureListener;
+import com.pp.netty.channel.ChannelHandlerContext;
+import com.pp.netty.channel.ChannelPipeline;
+import com.pp.netty.handler.codec.MessageAggregator;
+
+/**
+ * @Author: PP-jessica
+ * @Description:把分片的WebSocket消息聚合成一个完整的文本帧或者二进制帧。
+ * 没有分片的数据帧和控制帧原样传给下一个handler，控制帧可以插在分片消息的中间。
+ * 不加这个handler的话，分片消息就是一个一个帧流式地交给后面的handler
+ */
+public class WebSocketFrameAggregator
+        extends MessageAggregator<WebSocketFrame, WebSocketFrame, ContinuationWebSocketFrame, WebSocketFrame> {
+
+    public WebSocketFrameAggregator(int maxContentLength) {
+        super(maxContentLength, WebSocketFrame.class);
+    }
+
+    @Override
+    protected boolean isStartMessage(WebSocketFrame msg) throws Exception {
+        return msg instanceof TextWebSocketFrame || msg instanceof BinaryWebSocketFrame;
+    }
+
+    @Override
+    protected boolean isContentMessage(WebSocketFrame msg) throws Exception {
+        return msg instanceof ContinuationWebSocketFrame;
+    }
+
+    @Override
+    protected boolean isLastContentMessage(ContinuationWebSocketFrame msg) throws Exception {
+        return isContentMessage(msg) && msg.isFinalFragment();
+    }
+
+    @Override
+    protected boolean isAggregated(WebSocketFrame msg) throws Exception {
+        if (msg.isFinalFragment()) {
+            return !isContentMessage(msg);
+        }
+        return !isStartMessage(msg) && !isContentMessage(msg);
+    }
+
+    @Override
+    protected boolean isContentLengthInvalid(WebSocketFrame start, int maxContentLength) {
+        return false;
+    }
+
+    @Override
+    protected Object newContinueResponse(WebSocketFrame start, int maxContentLength, ChannelPipeline pipeline) {
+        return null;
+    }
+
+    @Override
+    protected boolean closeAfterContinueResponse(Object msg) throws Exception {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected boolean ignoreContentAfterContinueResponse(Object msg) throws Exception {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected WebSocketFrame beginAggregation(WebSocketFrame start, ByteBuf content) throws Exception {
+        if (start instanceof TextWebSocketFrame) {
+            return new TextWebSocketFrame(true, start.rsv(), content);
+        }
+        if (start instanceof BinaryWebSocketFrame) {
+            return new BinaryWebSocketFrame(true, start.rsv(), content);
+        }
+        throw new Error();
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:消息超长的时候已经聚合的内容已经释放了，回复1009关闭连接
+     */
+    @Override
+    protected void handleOversizedMessage(ChannelHandlerContext ctx, WebSocketFrame oversized) throws Exception {
+        ctx.writeAndFlush(new CloseWebSocketFrame(CloseWebSocketFrame.MESSAGE_TOO_BIG,
+                "Max message length of " + maxContentLength() + " has been exceeded."))
+                .addListener(ChannelFutureListener.CLOSE);
+    }
+}
@@ -0,0 +1,293 @@
+package com.pp.netty.handler.codec.http.websocketx;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.Unpooled;
+import com.pp.netty.channel.ChannelFutureListener;
+import com.pp.netty.channel.ChannelHandlerContext;
+import com.pp.netty.handler.codec.ByteToMessageDecoder;
+import com.pp.netty.util.internal.ObjectUtil;
+
+import java.util.List;
+
+/**
+ * @Author: PP-jessica
+ * @Description:服务端的WebSocket帧解码器，按照RFC 6455解析帧头，把负载解码成对应类型的WebSocketFrame。
+ *
+ * 客户端发来的帧的负载都是用4字节的掩码异或过的，这里的反掩码是流式的：负载还没有收全的时候，
+ * 每次读到新数据就把新到的这部分在累加器中原地反掩码，刚从socket读进来的数据还在缓存里，
+ * 负载收全之后不用再从头遍历一遍。反掩码每次处理8个字节，把4字节的掩码拼成一个long，用getLong和setLong异或，
+ * 对直接内存的ByteBuf就是直接对堆外内存读写8个字节，剩下不足8个字节的部分再逐个字节处理。
+ * 解码出的帧的负载是累加器的切片，不拷贝数据。
+ *
+ * 收到不符合协议的帧，会回复一个关闭帧然后关闭连接，之后收到的数据都丢弃
+ */
+public class WebSocketFrameDecoder extends ByteToMessageDecoder {
+
+    static final byte OPCODE_CONT = 0x0;
+    static final byte OPCODE_TEXT = 0x1;
+    static final byte OPCODE_BINARY = 0x2;
+    static final byte OPCODE_CLOSE = 0x8;
+    static final byte OPCODE_PING = 0x9;
+    static final byte OPCODE_PONG = 0xA;
+
+    //帧的负载默认最大64K
+    public static final int DEFAULT_MAX_FRAME_PAYLOAD_LENGTH = 65536;
+
+    private enum State {
+        READING_FIRST,
+        READING_SECOND,
+        READING_SIZE,
+        MASKING_KEY,
+        PAYLOAD,
+        CORRUPT
+    }
+
+    private final long maxFramePayloadLength;
+    //是否允许帧头中的扩展位，协商了扩展(比如per-message deflate)才能为true
+    private final boolean allowExtensions;
+    //服务端收到的帧必须是掩码过的
+    private final boolean expectMaskedFrames;
+
+    private State state = State.READING_FIRST;
+    //分片消息已经收到了几个分片，0表示当前不在一个分片消息中
+    private int fragmentedFramesCount;
+    private boolean frameFinalFlag;
+    private boolean frameMasked;
+    private int frameRsv;
+    private int frameOpcode;
+    private int framePayloadLen1;
+    private long framePayloadLength;
+    private int maskingKey;
+    //当前帧的负载已经反掩码了多少字节
+    private int unmaskedBytes;
+    //收到了关闭帧，之后的数据都不再处理
+    private boolean receivedClosingHandshake;
+
+    public WebSocketFrameDecoder() {
+        this(DEFAULT_MAX_FRAME_PAYLOAD_LENGTH, false);
+    }
+
+    public WebSocketFrameDecoder(int maxFramePayloadLength, boolean allowExtensions) {
+        this(maxFramePayloadLength, allowExtensions, true);
+    }
+
+    public WebSocketFrameDecoder(int maxFramePayloadLength, boolean allowExtensions, boolean expectMaskedFrames) {
+        this.maxFramePayloadLength = ObjectUtil.checkPositive(maxFramePayloadLength, "maxFramePayloadLength");
+        this.allowExtensions = allowExtensions;
+        this.expectMaskedFrames = expectMaskedFrames;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        if (receivedClosingHandshake) {
+            //关闭帧之后不会再有数据了，收到了也直接丢弃
+            in.skipBytes(actualReadableBytes());
+            return;
+        }
+        switch (state) {
+            case READING_FIRST:
+                if (!in.isReadable()) {
+                    return;
+                }
+                framePayloadLength = 0;
+                unmaskedBytes = 0;
+                byte b = in.readByte();
+                frameFinalFlag = (b & 0x80) != 0;
+                frameRsv = (b & 0x70) >> 4;
+                frameOpcode = b & 0x0F;
+                state = State.READING_SECOND;
+            case READING_SECOND:
+                if (!in.isReadable()) {
+                    return;
+                }
+                b = in.readByte();
+                frameMasked = (b & 0x80) != 0;
+                framePayloadLen1 = b & 0x7F;
+                validateFrameHeader(ctx, in);
+                if (state == State.CORRUPT) {
+                    return;
+                }
+                state = State.READING_SIZE;
+            case READING_SIZE:
+                if (framePayloadLen1 == 126) {
+                    if (in.readableBytes() < 2) {
+                        return;
+                    }
+                    framePayloadLength = in.readUnsignedShort();
+                    if (framePayloadLength < 126) {
+                        protocolViolation(ctx, in, "invalid data frame length (not using minimal length encoding)");
+                        return;
+                    }
+                } else if (framePayloadLen1 == 127) {
+                    if (in.readableBytes() < 8) {
+                        return;
+                    }
+                    framePayloadLength = in.readLong();
+                    if (framePayloadLength < 65536) {
+                        //负数说明最高位是1，也是不合法的
+                        protocolViolation(ctx, in, "invalid data frame length (not using minimal length encoding)");
+                        return;
+                    }
+                } else {
+                    framePayloadLength = framePayloadLen1;
+                }
+                if (framePayloadLength > maxFramePayloadLength) {
+                    protocolViolation(ctx, in, new CorruptedWebSocketFrameException(
+                            CloseWebSocketFrame.MESSAGE_TOO_BIG,
+                            "Max frame length of " + maxFramePayloadLength + " has been exceeded."));
+                    return;
+                }
+                state = State.MASKING_KEY;
+            case MASKING_KEY:
+                if (frameMasked) {
+                    if (in.readableBytes() < 4) {
+                        return;
+                    }
+                    maskingKey = in.readInt();
+                }
+                state = State.PAYLOAD;
+            case PAYLOAD:
+                int payloadLength = (int) framePayloadLength;
+                int readable = in.readableBytes();
+                if (frameMasked) {
+                    //新到的数据先反掩码，负载收全之前也不用等
+                    int available = Math.min(readable, payloadLength);
+                    if (available > unmaskedBytes) {
+                        int start = in.readerIndex();
+                        unmask(in, start + unmaskedBytes, start + available, unmaskedBytes);
+                        unmaskedBytes = available;
+                    }
+                }
+                if (readable < payloadLength) {
+                    return;
+                }
+                ByteBuf payload = payloadLength == 0 ? Unpooled.EMPTY_BUFFER : in.readRetainedSlice(payloadLength);
+                state = State.READING_FIRST;
+                out.add(newFrame(payload));
+                return;
+            case CORRUPT:
+                in.skipBytes(actualReadableBytes());
+                return;
+            default:
+                throw new Error("Shouldn't reach here.");
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:按操作码创建帧，同时维护分片消息的状态
+     */
+    private WebSocketFrame newFrame(ByteBuf payload) {
+        switch (frameOpcode) {
+            case OPCODE_PING:
+                return new PingWebSocketFrame(frameFinalFlag, frameRsv, payload);
+            case OPCODE_PONG:
+                return new PongWebSocketFrame(frameFinalFlag, frameRsv, payload);
+            case OPCODE_CLOSE:
+                receivedClosingHandshake = true;
+                return new CloseWebSocketFrame(frameFinalFlag, frameRsv, payload);
+            default:
+                break;
+        }
+        //控制帧可以插在分片消息的中间，只有数据帧才影响分片的计数
+        if (frameFinalFlag) {
+            fragmentedFramesCount = 0;
+        } else {
+            fragmentedFramesCount++;
+        }
+        switch (frameOpcode) {
+            case OPCODE_TEXT:
+                return new TextWebSocketFrame(frameFinalFlag, frameRsv, payload);
+            case OPCODE_BINARY:
+                return new BinaryWebSocketFrame(frameFinalFlag, frameRsv, payload);
+            case OPCODE_CONT:
+                return new ContinuationWebSocketFrame(frameFinalFlag, frameRsv, payload);
+            default:
+                payload.release();
+                throw new UnsupportedOperationException("Cannot decode web socket frame with opcode: " + frameOpcode);
+        }
+    }
+
+    private void validateFrameHeader(ChannelHandlerContext ctx, ByteBuf in) {
+        if (frameRsv != 0 && !allowExtensions) {
+            protocolViolation(ctx, in, "RSV != 0 and no extension negotiated, RSV:" + frameRsv);
+            return;
+        }
+        if (expectMaskedFrames && !frameMasked) {
+            protocolViolation(ctx, in, "received a frame that is not masked as expected");
+            return;
+        }
+        if (frameOpcode > 7) {
+            //控制帧不能分片，负载不能超过125字节
+            if (!frameFinalFlag) {
+                protocolViolation(ctx, in, "fragmented control frame");
+                return;
+            }
+            if (framePayloadLen1 > 125) {
+                protocolViolation(ctx, in, "control frame with payload length > 125 octets");
+                return;
+            }
+            if (!(frameOpcode == OPCODE_CLOSE || frameOpcode == OPCODE_PING || frameOpcode == OPCODE_PONG)) {
+                protocolViolation(ctx, in, "control frame using reserved opcode " + frameOpcode);
+                return;
+            }
+            if (frameOpcode == OPCODE_CLOSE && framePayloadLen1 == 1) {
+                protocolViolation(ctx, in, "received close control frame with payload len 1");
+            }
+        } else {
+            if (!(frameOpcode == OPCODE_CONT || frameOpcode == OPCODE_TEXT || frameOpcode == OPCODE_BINARY)) {
+                protocolViolation(ctx, in, "data frame using reserved opcode " + frameOpcode);
+                return;
+            }
+            if (fragmentedFramesCount == 0 && frameOpcode == OPCODE_CONT) {
+                protocolViolation(ctx, in, "received continuation data frame outside fragmented message");
+                return;
+            }
+            if (fragmentedFramesCount != 0 && frameOpcode != OPCODE_CONT) {
+                protocolViolation(ctx, in, "received non-continuation data frame while inside fragmented message");
+            }
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:对[from, to)范围内的字节原地反掩码，offset是from在负载中的位置，用来确定从掩码的哪个字节开始。
+     * 先把掩码按offset旋转对齐，再拼成long每次异或8个字节，8是4的倍数，循环中掩码不用再旋转
+     */
+    private void unmask(ByteBuf buf, int from, int to, int offset) {
+        int intMask = Integer.rotateLeft(maskingKey, (offset & 3) << 3);
+        if (intMask == 0) {
+            return;
+        }
+        long longMask = ((long) intMask << 32) | (intMask & 0xFFFFFFFFL);
+        int i = from;
+        for (int end = to - 7; i < end; i += 8) {
+            buf.setLong(i, buf.getLong(i) ^ longMask);
+        }
+        for (; i < to; i++) {
+            buf.setByte(i, buf.getByte(i) ^ (intMask >>> 24));
+            intMask = Integer.rotateLeft(intMask, 8);
+        }
+    }
+
+    private void protocolViolation(ChannelHandlerContext ctx, ByteBuf in, String reason) {
+        protocolViolation(ctx, in, new CorruptedWebSocketFrameException(reason));
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:帧不符合协议，丢弃剩下的数据，回复关闭帧之后关闭连接，再把异常抛给后面的handler
+     */
+    private void protocolViolation(ChannelHandlerContext ctx, ByteBuf in, CorruptedWebSocketFrameException ex) {
+        state = State.CORRUPT;
+        int readableBytes = in.readableBytes();
+        if (readableBytes > 0) {
+            in.skipBytes(readableBytes);
+        }
+        if (ctx.channel().isActive()) {
+            ctx.writeAndFlush(new CloseWebSocketFrame(ex.closeStatus(), ex.getMessage()))
+                    .addListener(ChannelFutureListener.CLOSE);
+        }
+        throw ex;
+    }
+}
@@ -0,0 +1,88 @@
+package com.pp.netty.handler.codec.http.websocketx;
+
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.channel.ChannelHandlerContext;
+import com.pp.netty.handler.codec.MessageToMessageEncoder;
+import com.pp.netty.handler.codec.TooLongFrameException;
+
+import java.util.List;
+
+/**
+ * @Author: PP-jessica
+ * @Description:服务端的WebSocket帧编码器。服务端发出的帧不需要掩码，帧头最多10个字节。
+ * 负载比较小的帧直接拷贝到帧头后面，一个ByteBuf写出去；负载比较大的帧帧头单独一个ByteBuf，
+ * 负载retain之后原样写出去，不拷贝，由socket的gathering write一次写出
+ */
+public class WebSocketFrameEncoder extends MessageToMessageEncoder<WebSocketFrame> {
+
+    //负载小于这个值的时候拷贝到帧头的ByteBuf中，少写一个ByteBuf
+    private static final int GATHERING_WRITE_THRESHOLD = 1024;
+
+    public WebSocketFrameEncoder() {
+        super(WebSocketFrame.class);
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, WebSocketFrame msg, List<Object> out) throws Exception {
+        final ByteBuf data = msg.content();
+        byte opcode;
+        if (msg instanceof TextWebSocketFrame) {
+            opcode = WebSocketFrameDecoder.OPCODE_TEXT;
+        } else if (msg instanceof PingWebSocketFrame) {
+            opcode = WebSocketFrameDecoder.OPCODE_PING;
+        } else if (msg instanceof PongWebSocketFrame) {
+            opcode = WebSocketFrameDecoder.OPCODE_PONG;
+        } else if (msg instanceof CloseWebSocketFrame) {
+            opcode = WebSocketFrameDecoder.OPCODE_CLOSE;
+        } else if (msg instanceof BinaryWebSocketFrame) {
+            opcode = WebSocketFrameDecoder.OPCODE_BINARY;
+        } else if (msg instanceof ContinuationWebSocketFrame) {
+            opcode = WebSocketFrameDecoder.OPCODE_CONT;
+        } else {
+            throw new UnsupportedOperationException("Cannot encode frame of type: " + msg.getClass().getName());
+        }
+        int length = data.readableBytes();
+        if (opcode >= WebSocketFrameDecoder.OPCODE_CLOSE && length > 125) {
+            throw new TooLongFrameException("invalid payload for control frame (payload length must be <= 125, was "
+                    + length + ')');
+        }
+        int b0 = 0;
+        if (msg.isFinalFragment()) {
+            b0 |= 1 << 7;
+        }
+        b0 |= msg.rsv() % 8 << 4;
+        b0 |= opcode % 128;
+        int headerLength = length <= 125 ? 2 : length <= 0xFFFF ? 4 : 10;
+        boolean release = true;
+        ByteBuf buf;
+        if (length < GATHERING_WRITE_THRESHOLD) {
+            buf = ctx.alloc().buffer(headerLength + length);
+        } else {
+            buf = ctx.alloc().buffer(headerLength);
+        }
+        try {
+            buf.writeByte(b0);
+            if (length <= 125) {
+                buf.writeByte(length);
+            } else if (length <= 0xFFFF) {
+                buf.writeByte(126);
+                buf.writeShort(length);
+            } else {
+                buf.writeByte(127);
+                buf.writeLong(length);
+            }
+            if (length < GATHERING_WRITE_THRESHOLD) {
+                buf.writeBytes(data, data.readerIndex(), length);
+                out.add(buf);
+            } else {
+                out.add(buf);
+                out.add(data.retain());
+            }
+            release = false;
+        } finally {
+            if (release) {
+                buf.release();
+            }
+        }
+    }
+}
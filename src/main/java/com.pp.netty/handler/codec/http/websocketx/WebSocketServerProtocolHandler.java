@@ -0,0 +1,286 @@
+package com.pp.netty.handler.codec.http.websocketx;
+
+import com.pp.netty.buffer.Unpooled;
+import com.pp.netty.channel.ChannelFutureListener;
+import com.pp.netty.channel.ChannelHandlerContext;
+import com.pp.netty.channel.ChannelInboundHandlerAdapter;
+import com.pp.netty.channel.ChannelPipeline;
+import com.pp.netty.handler.codec.CorruptedFrameException;
+import com.pp.netty.handler.codec.http.DefaultFullHttpResponse;
+import com.pp.netty.handler.codec.http.FullHttpRequest;
+import com.pp.netty.handler.codec.http.FullHttpResponse;
+import com.pp.netty.handler.codec.http.HttpHeaderNames;
+import com.pp.netty.handler.codec.http.HttpHeaderValues;
+import com.pp.netty.handler.codec.http.HttpHeaders;
+import com.pp.netty.handler.codec.http.HttpMethod;
+import com.pp.netty.handler.codec.http.HttpObjectAggregator;
+import com.pp.netty.handler.codec.http.HttpResponseStatus;
+import com.pp.netty.handler.codec.http.HttpServerCodec;
+import com.pp.netty.handler.codec.http.HttpVersion;
+import com.pp.netty.util.internal.ObjectUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * @Author: PP-jessica
+ * @Description:服务端的WebSocket协议处理器，要放在HttpServerCodec和HttpObjectAggregator的后面。
+ *
+ * 收到websocketPath上的升级请求后完成握手：在HttpServerCodec的位置加上WebSocket帧的编解码器，
+ * 协商了per-message deflate的话再加上压缩和解压的handler，maxAggregatedContentLength大于0的话再加上分片聚合器，
+ * 写出101响应之后移除HTTP的编解码器和聚合器，编解码器中还没有解码的数据会交给WebSocket帧解码器，
+ * 最后向后面的handler触发一个HandshakeComplete事件。不是升级请求的HTTP请求直接交给后面的handler。
+ *
+ * 握手之后自动回复Ping，收到关闭帧就回复关闭帧然后关闭连接，数据帧交给后面的handler。
+ * maxAggregatedContentLength为0的时候分片消息是流式交付的，后面的handler会依次收到第一个分片和后面的延续帧。
+ * 握手、编解码、压缩都在channel自己的NioEventLoop中进行，不会切换线程
+ */
+public class WebSocketServerProtocolHandler extends ChannelInboundHandlerAdapter {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketServerProtocolHandler.class);
+
+    private static final String WEBSOCKET_VERSION = "13";
+
+    private static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+    private static final String SERVER_NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+    private static final String CLIENT_NO_CONTEXT_TAKEOVER = "client_no_context_takeover";
+    private static final String SERVER_MAX_WINDOW_BITS = "server_max_window_bits";
+    private static final String CLIENT_MAX_WINDOW_BITS = "client_max_window_bits";
+    //Deflater的窗口固定是15位，不能满足客户端要求的更小的窗口
+    private static final int MAX_WINDOW_BITS = 15;
+
+    private final String websocketPath;
+    //支持的子协议，逗号分隔，为null表示不支持子协议
+    private final String subprotocols;
+    private final boolean allowCompression;
+    private final int maxFramePayloadLength;
+    private final int maxAggregatedContentLength;
+
+    private boolean handshakeComplete;
+
+    public WebSocketServerProtocolHandler(String websocketPath) {
+        this(websocketPath, null, false, WebSocketFrameDecoder.DEFAULT_MAX_FRAME_PAYLOAD_LENGTH, 0);
+    }
+
+    public WebSocketServerProtocolHandler(String websocketPath, String subprotocols, boolean allowCompression,
+                                          int maxFramePayloadLength, int maxAggregatedContentLength) {
+        this.websocketPath = ObjectUtil.checkNotNull(websocketPath, "websocketPath");
+        this.subprotocols = subprotocols;
+        this.allowCompression = allowCompression;
+        this.maxFramePayloadLength = ObjectUtil.checkPositive(maxFramePayloadLength, "maxFramePayloadLength");
+        this.maxAggregatedContentLength =
+                ObjectUtil.checkPositiveOrZero(maxAggregatedContentLength, "maxAggregatedContentLength");
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (!handshakeComplete) {
+            if (msg instanceof FullHttpRequest && isWebSocketPath(((FullHttpRequest) msg).uri())) {
+                FullHttpRequest req = (FullHttpRequest) msg;
+                try {
+                    handshake(ctx, req);
+                } finally {
+                    req.release();
+                }
+                return;
+            }
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        if (msg instanceof PingWebSocketFrame) {
+            //Pong的负载和Ping一样，直接把Ping的负载交给Pong写出去
+            ctx.writeAndFlush(new PongWebSocketFrame(((PingWebSocketFrame) msg).content()));
+        } else if (msg instanceof PongWebSocketFrame) {
+            ((PongWebSocketFrame) msg).release();
+        } else if (msg instanceof CloseWebSocketFrame) {
+            //把对端的关闭帧原样发回去，完成关闭握手之后关闭连接
+            ctx.writeAndFlush(msg).addListener(ChannelFutureListener.CLOSE);
+        } else {
+            ctx.fireChannelRead(msg);
+        }
+    }
+
+    private boolean isWebSocketPath(String uri) {
+        return uri.equals(websocketPath)
+                || (uri.startsWith(websocketPath) && uri.length() > websocketPath.length()
+                && uri.charAt(websocketPath.length()) == '?');
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:校验升级请求，回复101，把pipeline中的HTTP编解码器换成WebSocket的编解码器
+     */
+    private void handshake(ChannelHandlerContext ctx, FullHttpRequest req) {
+        HttpHeaders headers = req.headers();
+        String key = headers.get(HttpHeaderNames.SEC_WEBSOCKET_KEY);
+        if (!HttpMethod.GET.equals(req.method()) || key == null
+                || !headers.containsValue(HttpHeaderNames.UPGRADE, HttpHeaderValues.WEBSOCKET, true)
+                || !headers.containsValue(HttpHeaderNames.CONNECTION, HttpHeaderValues.UPGRADE, true)) {
+            sendErrorResponse(ctx, HttpResponseStatus.BAD_REQUEST);
+            return;
+        }
+        if (!WEBSOCKET_VERSION.equals(headers.get(HttpHeaderNames.SEC_WEBSOCKET_VERSION))) {
+            sendErrorResponse(ctx, HttpResponseStatus.UPGRADE_REQUIRED);
+            return;
+        }
+        ChannelPipeline p = ctx.pipeline();
+        ChannelHandlerContext codecCtx = p.context(HttpServerCodec.class);
+        if (codecCtx == null) {
+            throw new IllegalStateException("No HttpServerCodec in the pipeline");
+        }
+        FullHttpResponse res = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
+                HttpResponseStatus.SWITCHING_PROTOCOLS, Unpooled.EMPTY_BUFFER);
+        res.headers().set(HttpHeaderNames.UPGRADE, HttpHeaderValues.WEBSOCKET);
+        res.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.UPGRADE);
+        res.headers().set(HttpHeaderNames.SEC_WEBSOCKET_ACCEPT, WebSocketUtil.calculateAccept(key));
+        String selectedSubprotocol = selectSubprotocol(headers.get(HttpHeaderNames.SEC_WEBSOCKET_PROTOCOL));
+        if (selectedSubprotocol != null) {
+            res.headers().set(HttpHeaderNames.SEC_WEBSOCKET_PROTOCOL, selectedSubprotocol);
+        }
+        boolean compress = allowCompression
+                && acceptDeflateOffer(headers.getAll(HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS));
+        if (compress) {
+            //每个消息都独立压缩，共用的Deflater才不会留下上一个消息的数据
+            res.headers().set(HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS,
+                    PERMESSAGE_DEFLATE + "; " + SERVER_NO_CONTEXT_TAKEOVER);
+        }
+
+        //编码器要在解码器的前面，解码器回复的关闭帧才会经过编码器
+        String codecName = codecCtx.name();
+        p.addAfter(codecName, "wsencoder", new WebSocketFrameEncoder());
+        p.addAfter("wsencoder", "wsdecoder", new WebSocketFrameDecoder(maxFramePayloadLength, compress));
+        String last = "wsdecoder";
+        if (compress) {
+            int maxDecompressedLength = maxAggregatedContentLength > 0
+                    ? Math.max(maxAggregatedContentLength, maxFramePayloadLength) : maxFramePayloadLength;
+            p.addAfter(last, "wsdeflateencoder", new PerMessageDeflateEncoder());
+            p.addAfter("wsdeflateencoder", "wsdeflatedecoder", new PerMessageDeflateDecoder(maxDecompressedLength));
+            last = "wsdeflatedecoder";
+        }
+        if (maxAggregatedContentLength > 0) {
+            p.addAfter(last, "wsaggregator", new WebSocketFrameAggregator(maxAggregatedContentLength));
+        }
+        handshakeComplete = true;
+
+        //101响应经过HttpServerCodec编码，在当前线程中同步写出，之后才能移除编解码器
+        ctx.writeAndFlush(res).addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+        HttpObjectAggregator aggregator = p.get(HttpObjectAggregator.class);
+        if (aggregator != null) {
+            p.remove(aggregator);
+        }
+        ctx.fireUserEventTriggered(new HandshakeComplete(req.uri(), headers, selectedSubprotocol));
+        //移除编解码器的时候，紧跟着升级请求到达的WebSocket帧会交给wsdecoder
+        p.remove(codecCtx.handler());
+        if (logger.isDebugEnabled()) {
+            logger.debug("{} WebSocket handshake complete, compression: {}", ctx.channel(), compress);
+        }
+    }
+
+    private String selectSubprotocol(String requestedSubprotocols) {
+        if (requestedSubprotocols == null || subprotocols == null) {
+            return null;
+        }
+        String[] requested = requestedSubprotocols.split(",");
+        String[] supported = subprotocols.split(",");
+        for (String r : requested) {
+            r = r.trim();
+            for (String s : supported) {
+                if (r.equals(s.trim())) {
+                    return r;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:从客户端的扩展请求中找到能接受的permessage-deflate。
+     * 服务端固定使用15位的窗口，并且总是不保留上下文，客户端要求服务端使用更小的窗口的请求不能接受
+     */
+    private static boolean acceptDeflateOffer(List<String> extensionHeaders) {
+        for (String header : extensionHeaders) {
+            for (String offer : header.split(",")) {
+                String[] params = offer.split(";");
+                if (!PERMESSAGE_DEFLATE.equalsIgnoreCase(params[0].trim())) {
+                    continue;
+                }
+                boolean acceptable = true;
+                for (int i = 1; i < params.length && acceptable; i++) {
+                    String param = params[i].trim();
+                    String name = param;
+                    String value = null;
+                    int eq = param.indexOf('=');
+                    if (eq >= 0) {
+                        name = param.substring(0, eq).trim();
+                        value = param.substring(eq + 1).trim().replace("\"", "");
+                    }
+                    if (SERVER_MAX_WINDOW_BITS.equalsIgnoreCase(name)) {
+                        acceptable = String.valueOf(MAX_WINDOW_BITS).equals(value);
+                    } else if (!SERVER_NO_CONTEXT_TAKEOVER.equalsIgnoreCase(name)
+                            && !CLIENT_NO_CONTEXT_TAKEOVER.equalsIgnoreCase(name)
+                            && !CLIENT_MAX_WINDOW_BITS.equalsIgnoreCase(name)) {
+                        acceptable = false;
+                    }
+                }
+                if (acceptable) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void sendErrorResponse(ChannelHandlerContext ctx, HttpResponseStatus status) {
+        FullHttpResponse res = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status, Unpooled.EMPTY_BUFFER);
+        res.headers().set(HttpHeaderNames.CONTENT_LENGTH, HttpHeaderValues.ZERO);
+        if (status == HttpResponseStatus.UPGRADE_REQUIRED) {
+            res.headers().set(HttpHeaderNames.SEC_WEBSOCKET_VERSION, WEBSOCKET_VERSION);
+        }
+        ctx.writeAndFlush(res);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:帧不符合协议的时候，解码器已经回复了关闭帧，这里只要把异常传下去并关闭连接
+     */
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        if (handshakeComplete && cause instanceof CorruptedFrameException) {
+            logger.debug("Closing WebSocket connection because of a corrupted frame.", cause);
+            ctx.close();
+            return;
+        }
+        ctx.fireExceptionCaught(cause);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:握手完成之后触发的用户事件，后面的handler收到它之后就可以开始收发WebSocket帧了
+     */
+    public static final class HandshakeComplete {
+
+        private final String requestUri;
+        private final HttpHeaders requestHeaders;
+        private final String selectedSubprotocol;
+
+        HandshakeComplete(String requestUri, HttpHeaders requestHeaders, String selectedSubprotocol) {
+            this.requestUri = requestUri;
+            this.requestHeaders = requestHeaders;
+            this.selectedSubprotocol = selectedSubprotocol;
+        }
+
+        public String requestUri() {
+            return requestUri;
+        }
+
+        public HttpHeaders requestHeaders() {
+            return requestHeaders;
+        }
+
+        public String selectedSubprotocol() {
+            return selectedSubprotocol;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.pp.netty.handler.codec.http.websocketx;
+
+import com.pp.netty.buffer.ByteBuf;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * @Author: PP-jessica
+ * @Description:WebSocket用到的工具方法。
+ * 这里的ThreadLocal都是每个线程一个，channel的所有操作都在自己的单线程执行器中进行，
+ * 所以同一个NioEventLoop上的所有连接可以复用同一个对象，不需要加锁，也不需要切换线程
+ */
+final class WebSocketUtil {
+
+    //握手时拼在Sec-WebSocket-Key后面的固定字符串
+    private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    //直接内存的ByteBuf没有数组，压缩和解压之前要分段拷贝到这个数组中
+    private static final int SCRATCH_SIZE = 8192;
+
+    private static final ThreadLocal<MessageDigest> SHA1 = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            try {
+                return MessageDigest.getInstance("SHA1");
+            } catch (NoSuchAlgorithmException e) {
+                throw new InternalError("SHA-1 not supported on this platform - Outdated?");
+            }
+        }
+    };
+
+    private static final ThreadLocal<byte[]> SCRATCH = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[SCRATCH_SIZE];
+        }
+    };
+
+    private WebSocketUtil() {
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:根据客户端的Sec-WebSocket-Key计算Sec-WebSocket-Accept，也就是key拼上GUID之后的SHA-1再做base64
+     */
+    static String calculateAccept(String key) {
+        MessageDigest digest = SHA1.get();
+        digest.reset();
+        byte[] sha1 = digest.digest((key + WEBSOCKET_GUID).getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().encodeToString(sha1);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把data中可读的字节交给Deflater压缩，压缩出的数据写到out中。
+     * 堆内存的ByteBuf直接用它的数组作为输入，直接内存的ByteBuf分段拷贝到线程私有的数组中，最后一段用SYNC_FLUSH刷出来
+     */
+    static void deflate(Deflater deflater, ByteBuf data, ByteBuf out) {
+        int readerIndex = data.readerIndex();
+        int length = data.readableBytes();
+        if (data.hasArray()) {
+            deflater.setInput(data.array(), data.arrayOffset() + readerIndex, length);
+            drain(deflater, out, Deflater.SYNC_FLUSH);
+            return;
+        }
+        byte[] scratch = SCRATCH.get();
+        int offset = 0;
+        do {
+            int n = Math.min(scratch.length, length - offset);
+            data.getBytes(readerIndex + offset, scratch, 0, n);
+            offset += n;
+            deflater.setInput(scratch, 0, n);
+            drain(deflater, out, offset == length ? Deflater.SYNC_FLUSH : Deflater.NO_FLUSH);
+        } while (offset < length);
+    }
+
+    private static void drain(Deflater deflater, ByteBuf out, int flush) {
+        if (flush == Deflater.NO_FLUSH) {
+            while (!deflater.needsInput()) {
+                deflateOnce(deflater, out, flush);
+            }
+            return;
+        }
+        //SYNC_FLUSH的时候输出空间被写满了，说明可能还有数据没刷出来，要扩容再来一次
+        while (deflateOnce(deflater, out, flush)) {
+        }
+    }
+
+    private static boolean deflateOnce(Deflater deflater, ByteBuf out, int flush) {
+        out.ensureWritable(256);
+        int writable = out.writableBytes();
+        int writerIndex = out.writerIndex();
+        int n = deflater.deflate(out.array(), out.arrayOffset() + writerIndex, writable, flush);
+        out.writerIndex(writerIndex + n);
+        return n == writable;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把data中可读的字节交给Inflater解压，解压出的数据写到out中，out的总长度超过maxLength就返回false
+     */
+    static boolean inflate(Inflater inflater, ByteBuf data, ByteBuf out, int maxLength) throws Exception {
+        int readerIndex = data.readerIndex();
+        int length = data.readableBytes();
+        if (data.hasArray()) {
+            inflater.setInput(data.array(), data.arrayOffset() + readerIndex, length);
+            return drain(inflater, out, maxLength);
+        }
+        byte[] scratch = SCRATCH.get();
+        int offset = 0;
+        while (offset < length) {
+            int n = Math.min(scratch.length, length - offset);
+            data.getBytes(readerIndex + offset, scratch, 0, n);
+            offset += n;
+            inflater.setInput(scratch, 0, n);
+            if (!drain(inflater, out, maxLength)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean inflate(Inflater inflater, byte[] data, ByteBuf out, int maxLength) throws Exception {
+        inflater.setInput(data);
+        return drain(inflater, out, maxLength);
+    }
+
+    private static boolean drain(Inflater inflater, ByteBuf out, int maxLength) throws Exception {
+        for (;;) {
+            out.ensureWritable(Math.max(256, inflater.getRemaining() << 1));
+            int writerIndex = out.writerIndex();
+            int n = inflater.inflate(out.array(), out.arrayOffset() + writerIndex, out.writableBytes());
+            out.writerIndex(writerIndex + n);
+            if (out.readableBytes() > maxLength) {
+                return false;
+            }
+            if (n == 0) {
+                if (inflater.needsInput() || inflater.finished()) {
+                    return true;
+                }
+                if (inflater.needsDictionary()) {
+                    throw new CorruptedWebSocketFrameException("decompression requires a preset dictionary");
+                }
+            }
+        }
+    }
+}
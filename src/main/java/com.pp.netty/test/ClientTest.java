@@ -1,17 +1,38 @@
 package com.pp.netty.test;
 
 import com.pp.netty.bootstrap.Bootstrap;
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.Unpooled;
+import com.pp.netty.channel.ChannelHandlerContext;
+import com.pp.netty.channel.ChannelInboundHandlerAdapter;
 import com.pp.netty.channel.nio.NioEventLoopGroup;
 import com.pp.netty.channel.socket.NioSocketChannel;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 public class ClientTest {
     public static void main(String[] args) throws IOException {
         NioEventLoopGroup workerGroup = new NioEventLoopGroup(1);
         Bootstrap bootstrap = new Bootstrap();
         bootstrap.group(workerGroup).
-                channel(NioSocketChannel.class);
+                channel(NioSocketChannel.class).
+                handler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+                        ctx.writeAndFlush(Unpooled.copiedBuffer("我是客户端".getBytes(StandardCharsets.UTF_8)));
+                    }
+
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+                        ByteBuf byteBuf = (ByteBuf) msg;
+                        try {
+                            System.out.println("客户端收到消息:" + byteBuf.toString(StandardCharsets.UTF_8));
+                        } finally {
+                            byteBuf.release();
+                        }
+                    }
+                });
         bootstrap.connect("127.0.0.1",8080);
     }
 
@@ -1,12 +1,18 @@
 package com.pp.netty.test;
 
 import com.pp.netty.bootstrap.ServerBootstrap;
+import com.pp.netty.buffer.ByteBuf;
 import com.pp.netty.channel.Channel;
 import com.pp.netty.channel.ChannelFuture;
+import com.pp.netty.channel.ChannelHandlerContext;
+import com.pp.netty.channel.ChannelInboundHandlerAdapter;
+import com.pp.netty.channel.ChannelInitializer;
 import com.pp.netty.channel.nio.NioEventLoopGroup;
 import com.pp.netty.channel.socket.NioServerSocketChannel;
+import com.pp.netty.channel.socket.NioSocketChannel;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 public class ServerTest {
     public static void main(String[] args) throws IOException, InterruptedException {
@@ -15,6 +21,20 @@ public class ServerTest {
         NioEventLoopGroup workerGroup = new NioEventLoopGroup(2);
         ChannelFuture channelFuture = serverBootstrap.group(bossGroup,workerGroup).
                 channel(NioServerSocketChannel.class).
+                childHandler(new ChannelInitializer<NioSocketChannel>() {
+                    @Override
+                    protected void initChannel(NioSocketChannel ch) throws Exception {
+                        ch.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+                            @Override
+                            public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+                                ByteBuf byteBuf = (ByteBuf) msg;
+                                System.out.println("服务端收到消息:" + byteBuf.toString(StandardCharsets.UTF_8));
+                                //原样写回给客户端，写出去之后ByteBuf会被释放
+                                ctx.writeAndFlush(byteBuf);
+                            }
+                        });
+                    }
+                }).
                 bind(8080).addListener(future -> System.out.println("我绑定成功了")).sync();
         Channel channel = channelFuture.channel();
         //        NioServerSocketChannel channel = new NioServerSocketChannel();
@@ -0,0 +1,70 @@
+package com.pp.netty.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @Author: PP-jessica
+ * @Description:常量的抽象实现类，AttributeKey和ChannelOption都继承了这个类
+ */
+public abstract class AbstractConstant<T extends AbstractConstant<T>> implements Constant<T> {
+
+    //id相同的时候用来比较大小的序号，所有常量共用一个
+    private static final AtomicLong uniqueIdGenerator = new AtomicLong();
+
+    private final int id;
+
+    private final String name;
+
+    private final long uniquifier;
+
+    protected AbstractConstant(int id, String name) {
+        this.id = id;
+        this.name = name;
+        this.uniquifier = uniqueIdGenerator.getAndIncrement();
+    }
+
+    @Override
+    public final String name() {
+        return name;
+    }
+
+    @Override
+    public final int id() {
+        return id;
+    }
+
+    @Override
+    public final String toString() {
+        return name();
+    }
+
+    @Override
+    public final int hashCode() {
+        return super.hashCode();
+    }
+
+    @Override
+    public final boolean equals(Object obj) {
+        return super.equals(obj);
+    }
+
+    @Override
+    public final int compareTo(T o) {
+        if (this == o) {
+            return 0;
+        }
+        @SuppressWarnings("UnnecessaryLocalVariable")
+        AbstractConstant<T> other = o;
+        int returnCode = hashCode() - other.hashCode();
+        if (returnCode != 0) {
+            return returnCode;
+        }
+        if (uniquifier < other.uniquifier) {
+            return -1;
+        }
+        if (uniquifier > other.uniquifier) {
+            return 1;
+        }
+        throw new Error("failed to compare two different constants");
+    }
+}
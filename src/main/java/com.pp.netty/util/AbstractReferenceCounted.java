@@ -0,0 +1,83 @@
+package com.pp.netty.util;
+
+import com.pp.netty.util.internal.ObjectUtil;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * @Author: PP-jessica
+ * @Description:引用计数接口的抽象实现，和AbstractReferenceCountedByteBuf的逻辑一样，给不是ByteBuf的引用计数对象使用，
+ * 比如FileRegion。引用计数减到0的时候调用deallocate方法释放资源
+ */
+public abstract class AbstractReferenceCounted implements ReferenceCounted {
+
+    private static final AtomicIntegerFieldUpdater<AbstractReferenceCounted> REFCNT_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(AbstractReferenceCounted.class, "refCnt");
+
+    private volatile int refCnt;
+
+    protected AbstractReferenceCounted() {
+        REFCNT_UPDATER.set(this, 1);
+    }
+
+    @Override
+    public int refCnt() {
+        return refCnt;
+    }
+
+    @Override
+    public ReferenceCounted retain() {
+        return retain0(1);
+    }
+
+    @Override
+    public ReferenceCounted retain(int increment) {
+        return retain0(ObjectUtil.checkPositive(increment, "increment"));
+    }
+
+    private ReferenceCounted retain0(final int increment) {
+        for (;;) {
+            int refCnt = this.refCnt;
+            final int nextCnt = refCnt + increment;
+            if (refCnt <= 0 || nextCnt <= 0) {
+                throw new IllegalReferenceCountException(refCnt, increment);
+            }
+            if (REFCNT_UPDATER.compareAndSet(this, refCnt, nextCnt)) {
+                break;
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        return release0(1);
+    }
+
+    @Override
+    public boolean release(int decrement) {
+        return release0(ObjectUtil.checkPositive(decrement, "decrement"));
+    }
+
+    private boolean release0(int decrement) {
+        for (;;) {
+            int refCnt = this.refCnt;
+            if (refCnt < decrement) {
+                throw new IllegalReferenceCountException(refCnt, -decrement);
+            }
+            if (REFCNT_UPDATER.compareAndSet(this, refCnt, refCnt - decrement)) {
+                if (refCnt == decrement) {
+                    deallocate();
+                    return true;
+                }
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:引用计数减到0的时候调用，释放对象占用的资源
+     */
+    protected abstract void deallocate();
+}
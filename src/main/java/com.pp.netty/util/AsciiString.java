@@ -0,0 +1,438 @@
+package com.pp.netty.util;
+
+import com.pp.netty.util.internal.ObjectUtil;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @Author: PP-jessica
+ * @Description:单字节字符的字符串，直接用字节数组存储，一个字符只占一个字节。
+ * HTTP的请求行和消息头都是ASCII字符，解码的时候直接把字节包装成AsciiString，不用再解码成java的String，
+ * 多个AsciiString可以共用同一个字节数组，各自只记录自己的起始位置和长度。
+ * 注意AsciiString是不可变的，用数组构造的时候如果不拷贝，调用者就不能再修改这个数组了
+ */
+public final class AsciiString implements CharSequence, Comparable<CharSequence> {
+
+    public static final AsciiString EMPTY_STRING = cached("");
+
+    private static final char MAX_CHAR_VALUE = 255;
+
+    private final byte[] value;
+
+    private final int offset;
+
+    private final int length;
+
+    //哈希值，0表示还没有计算过
+    private int hash;
+
+    //toString的结果缓存起来，同一个消息头被多次转换成String的时候只创建一次
+    private String string;
+
+    public AsciiString(byte[] value) {
+        this(value, true);
+    }
+
+    public AsciiString(byte[] value, boolean copy) {
+        this(value, 0, value.length, copy);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:copy为false的时候直接引用传进来的数组，不拷贝
+     */
+    public AsciiString(byte[] value, int start, int length, boolean copy) {
+        ObjectUtil.checkNotNull(value, "value");
+        if (start < 0 || length < 0 || start > value.length - length) {
+            throw new IndexOutOfBoundsException("expected: 0 <= start(" + start + ") <= start + length(" + length +
+                    ") <= value.length(" + value.length + ')');
+        }
+        if (copy) {
+            this.value = new byte[length];
+            System.arraycopy(value, start, this.value, 0, length);
+            this.offset = 0;
+        } else {
+            this.value = value;
+            this.offset = start;
+        }
+        this.length = length;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把字符序列转换成AsciiString，大于255的字符会被替换成'?'
+     */
+    public AsciiString(CharSequence value) {
+        this(value, 0, ObjectUtil.checkNotNull(value, "value").length());
+    }
+
+    public AsciiString(CharSequence value, int start, int length) {
+        if (start < 0 || length < 0 || start > value.length() - length) {
+            throw new IndexOutOfBoundsException("expected: 0 <= start(" + start + ") <= start + length(" + length +
+                    ") <= value.length(" + value.length() + ')');
+        }
+        this.value = new byte[length];
+        for (int i = 0, j = start; i < length; i++, j++) {
+            this.value[i] = c2b(value.charAt(j));
+        }
+        this.offset = 0;
+        this.length = length;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:创建一个AsciiString并缓存字符串本身，常量用这个方法创建，toString的时候不用再创建String
+     */
+    public static AsciiString cached(String string) {
+        AsciiString asciiString = new AsciiString(string);
+        asciiString.string = string;
+        return asciiString;
+    }
+
+    public static AsciiString of(CharSequence string) {
+        return string instanceof AsciiString ? (AsciiString) string : new AsciiString(string);
+    }
+
+    public byte byteAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index: " + index + " must be in the range [0," + length + ")");
+        }
+        return value[index + offset];
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return b2c(byteAt(index));
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:返回底层的数组，注意数组可能比这个字符串长，要配合arrayOffset和length使用，不要修改它
+     */
+    public byte[] array() {
+        return value;
+    }
+
+    public int arrayOffset() {
+        return offset;
+    }
+
+    public boolean isEntireArrayUsed() {
+        return offset == 0 && length == value.length;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:拷贝出一个新的字节数组
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[length];
+        System.arraycopy(value, offset, bytes, 0, length);
+        return bytes;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:子串和原来的字符串共用同一个数组，不会拷贝
+     */
+    @Override
+    public AsciiString subSequence(int start, int end) {
+        if (start < 0 || start > end || end > length) {
+            throw new IndexOutOfBoundsException("expected: 0 <= start(" + start + ") <= end (" + end + ") <= length("
+                    + length + ')');
+        }
+        if (start == 0 && end == length) {
+            return this;
+        }
+        if (end == start) {
+            return EMPTY_STRING;
+        }
+        return new AsciiString(value, start + offset, end - start, false);
+    }
+
+    public AsciiString subSequence(int start) {
+        return subSequence(start, length);
+    }
+
+    public int indexOf(char ch, int start) {
+        if (ch > MAX_CHAR_VALUE) {
+            return -1;
+        }
+        if (start < 0) {
+            start = 0;
+        }
+        final byte chAsByte = c2b0(ch);
+        final int len = offset + length;
+        for (int i = start + offset; i < len; ++i) {
+            if (value[i] == chAsByte) {
+                return i - offset;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:去掉首尾的空白字符，返回的是子串，不会拷贝
+     */
+    public AsciiString trim() {
+        int start = offset;
+        final int last = offset + length - 1;
+        int end = last;
+        while (start <= end && value[start] <= ' ') {
+            start++;
+        }
+        while (end >= start && value[end] <= ' ') {
+            end--;
+        }
+        if (start == offset && end == last) {
+            return this;
+        }
+        return new AsciiString(value, start, end - start + 1, false);
+    }
+
+    public boolean contentEquals(CharSequence a) {
+        if (this == a) {
+            return true;
+        }
+        if (a == null || a.length() != length) {
+            return false;
+        }
+        if (a instanceof AsciiString) {
+            AsciiString other = (AsciiString) a;
+            for (int i = offset, j = other.offset, end = offset + length; i < end; ++i, ++j) {
+                if (value[i] != other.value[j]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (int i = offset, j = 0; j < a.length(); ++i, ++j) {
+            if (b2c(value[i]) != a.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:忽略大小写比较，HTTP的消息头名称和很多消息头的值都是不区分大小写的
+     */
+    public boolean contentEqualsIgnoreCase(CharSequence string) {
+        if (this == string) {
+            return true;
+        }
+        if (string == null || string.length() != length) {
+            return false;
+        }
+        if (string instanceof AsciiString) {
+            AsciiString rhs = (AsciiString) string;
+            for (int i = offset, j = rhs.offset, end = offset + length; i < end; ++i, ++j) {
+                if (!equalsIgnoreCase(value[i], rhs.value[j])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (int i = offset, j = 0, end = length(); j < end; ++i, ++j) {
+            if (!equalsIgnoreCase(b2c(value[i]), string.charAt(j))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean contentEqualsIgnoreCase(CharSequence a, CharSequence b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        if (a instanceof AsciiString) {
+            return ((AsciiString) a).contentEqualsIgnoreCase(b);
+        }
+        if (b instanceof AsciiString) {
+            return ((AsciiString) b).contentEqualsIgnoreCase(a);
+        }
+        if (a.length() != b.length()) {
+            return false;
+        }
+        for (int i = 0; i < a.length(); ++i) {
+            if (!equalsIgnoreCase(a.charAt(i), b.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean contentEquals(CharSequence a, CharSequence b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        if (a instanceof AsciiString) {
+            return ((AsciiString) a).contentEquals(b);
+        }
+        if (b instanceof AsciiString) {
+            return ((AsciiString) b).contentEquals(a);
+        }
+        if (a.length() != b.length()) {
+            return false;
+        }
+        for (int i = 0; i < a.length(); ++i) {
+            if (a.charAt(i) != b.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:直接从字节解析出整数，不用先转换成String
+     */
+    public int parseInt() {
+        long result = parseLong();
+        if (result < Integer.MIN_VALUE || result > Integer.MAX_VALUE) {
+            throw new NumberFormatException(toString());
+        }
+        return (int) result;
+    }
+
+    public long parseLong() {
+        final int end = offset + length;
+        int i = offset;
+        if (i == end) {
+            throw new NumberFormatException("empty string");
+        }
+        boolean negative = value[i] == '-';
+        if (negative || value[i] == '+') {
+            i++;
+            if (i == end) {
+                throw new NumberFormatException(toString());
+            }
+        }
+        long result = 0;
+        for (; i < end; i++) {
+            int digit = value[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException(toString());
+            }
+            //先检查乘10会不会溢出，再检查加上这一位会不会溢出
+            if (result > (Long.MAX_VALUE - digit) / 10) {
+                throw new NumberFormatException(toString());
+            }
+            result = result * 10 + digit;
+        }
+        return negative ? -result : result;
+    }
+
+    @Override
+    public int compareTo(CharSequence string) {
+        if (this == string) {
+            return 0;
+        }
+        int result;
+        int length1 = length();
+        int length2 = string.length();
+        int minLength = Math.min(length1, length2);
+        for (int i = 0, j = arrayOffset(); i < minLength; i++, j++) {
+            result = b2c(value[j]) - string.charAt(i);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return length1 - length2;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:哈希值不区分大小写，这样忽略大小写相等的两个字符串哈希值也相等，可以直接用作消息头名称的哈希
+     */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = hashCodeIgnoreCase(value, offset, length);
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:相等的前提是两个都是AsciiString并且内容完全相同，和String比较请用contentEquals
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null || obj.getClass() != AsciiString.class) {
+            return false;
+        }
+        if (this == obj) {
+            return true;
+        }
+        AsciiString other = (AsciiString) obj;
+        return length() == other.length() && hashCode() == other.hashCode() && contentEquals(other);
+    }
+
+    @Override
+    public String toString() {
+        String cache = string;
+        if (cache == null) {
+            cache = length == 0 ? "" : new String(value, offset, length, StandardCharsets.ISO_8859_1);
+            string = cache;
+        }
+        return cache;
+    }
+
+    private static int hashCodeIgnoreCase(byte[] bytes, int offset, int length) {
+        int h = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            h = 31 * h + toLowerCase(bytes[i]);
+        }
+        return h;
+    }
+
+    private static boolean equalsIgnoreCase(byte a, byte b) {
+        return a == b || toLowerCase(a) == toLowerCase(b);
+    }
+
+    private static boolean equalsIgnoreCase(char a, char b) {
+        return a == b || toLowerCase(a) == toLowerCase(b);
+    }
+
+    private static byte toLowerCase(byte b) {
+        return isUpperCase(b) ? (byte) (b + 32) : b;
+    }
+
+    private static char toLowerCase(char c) {
+        return isUpperCase(c) ? (char) (c + 32) : c;
+    }
+
+    private static boolean isUpperCase(byte value) {
+        return value >= 'A' && value <= 'Z';
+    }
+
+    private static boolean isUpperCase(char value) {
+        return value >= 'A' && value <= 'Z';
+    }
+
+    public static byte c2b(char c) {
+        return (byte) ((c > MAX_CHAR_VALUE) ? '?' : c);
+    }
+
+    private static byte c2b0(char c) {
+        return (byte) c;
+    }
+
+    public static char b2c(byte b) {
+        return (char) (b & 0xFF);
+    }
+}
@@ -0,0 +1,24 @@
+package com.pp.netty.util;
+
+/**
+ * @Author: PP-jessica
+ * @Description:存放在AttributeMap中的属性，值的修改都是原子的
+ */
+public interface Attribute<T> {
+
+    AttributeKey<T> key();
+
+    T get();
+
+    void set(T value);
+
+    T getAndSet(T value);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:属性值为null的时候才设置，返回原来的值
+     */
+    T setIfAbsent(T value);
+
+    boolean compareAndSet(T oldValue, T newValue);
+}
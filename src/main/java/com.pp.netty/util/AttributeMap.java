@@ -0,0 +1,16 @@
+package com.pp.netty.util;
+
+/**
+ * @Author: PP-jessica
+ * @Description:可以存放属性的对象，channel就实现了这个接口
+ */
+public interface AttributeMap {
+
+    /**
+     * @Author: PP-jessica
+     * @Description:得到key对应的属性，不存在就创建一个值为null的属性，所以该方法不会返回null
+     */
+    <T> Attribute<T> attr(AttributeKey<T> key);
+
+    <T> boolean hasAttr(AttributeKey<T> key);
+}
@@ -0,0 +1,57 @@
+package com.pp.netty.util;
+
+/**
+ * @Author: PP-jessica
+ * @Description:遍历ByteBuf中的字节时使用的处理器，返回false表示停止遍历
+ */
+public interface ByteProcessor {
+
+    //找到指定的字节就停止
+    class IndexOfProcessor implements ByteProcessor {
+        private final byte byteToFind;
+
+        public IndexOfProcessor(byte byteToFind) {
+            this.byteToFind = byteToFind;
+        }
+
+        @Override
+        public boolean process(byte value) {
+            return value != byteToFind;
+        }
+    }
+
+    //找到\0就停止
+    ByteProcessor FIND_NUL = new IndexOfProcessor((byte) 0);
+
+    //找到\r就停止
+    ByteProcessor FIND_CR = new IndexOfProcessor((byte) '\r');
+
+    //找到\n就停止
+    ByteProcessor FIND_LF = new IndexOfProcessor((byte) '\n');
+
+    //找到\r或者\n就停止
+    ByteProcessor FIND_CRLF = new ByteProcessor() {
+        @Override
+        public boolean process(byte value) {
+            return value != '\r' && value != '\n';
+        }
+    };
+
+    //找到空格或者制表符就停止
+    ByteProcessor FIND_LINEAR_WHITESPACE = new ByteProcessor() {
+        @Override
+        public boolean process(byte value) {
+            return value != ' ' && value != '\t';
+        }
+    };
+
+    //找到不是空格也不是制表符的字节就停止
+    ByteProcessor FIND_NON_LINEAR_WHITESPACE = new ByteProcessor() {
+        @Override
+        public boolean process(byte value) {
+            return value == ' ' || value == '\t';
+        }
+    };
+
+    boolean process(byte value) throws Exception;
+}
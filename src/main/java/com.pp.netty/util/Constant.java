@@ -0,0 +1,16 @@
+package com.pp.netty.util;
+
+/**
+ * @Author: PP-jessica
+ * @Description:常量的接口，由ConstantPool创建和管理，同一个池中名字相同的常量只有一个，所以可以直接用==比较
+ */
+public interface Constant<T extends Constant<T>> extends Comparable<T> {
+
+    /**
+     * @Author: PP-jessica
+     * @Description:常量的唯一id，按创建的顺序递增
+     */
+    int id();
+
+    String name();
+}
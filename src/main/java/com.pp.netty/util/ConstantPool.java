@@ -0,0 +1,87 @@
+package com.pp.netty.util;
+
+import com.pp.netty.util.internal.ObjectUtil;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Author: PP-jessica
+ * @Description:常量池，根据名字创建常量并缓存起来，同一个名字得到的一定是同一个常量对象
+ */
+public abstract class ConstantPool<T extends Constant<T>> {
+
+    private final ConcurrentMap<String, T> constants = new ConcurrentHashMap<String, T>();
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:根据类名和名字得到常量，名字是firstNameComponent的类名加上#再加上secondNameComponent
+     */
+    public T valueOf(Class<?> firstNameComponent, String secondNameComponent) {
+        return valueOf(
+                ObjectUtil.checkNotNull(firstNameComponent, "firstNameComponent").getName() +
+                '#' +
+                ObjectUtil.checkNotNull(secondNameComponent, "secondNameComponent"));
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:得到名字对应的常量，不存在就创建一个
+     */
+    public T valueOf(String name) {
+        return getOrCreate(checkNotNullAndNotEmpty(name));
+    }
+
+    private T getOrCreate(String name) {
+        T constant = constants.get(name);
+        if (constant == null) {
+            final T tempConstant = newConstant(nextId(), name);
+            constant = constants.putIfAbsent(name, tempConstant);
+            if (constant == null) {
+                return tempConstant;
+            }
+        }
+        return constant;
+    }
+
+    public boolean exists(String name) {
+        return constants.containsKey(checkNotNullAndNotEmpty(name));
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:创建一个新的常量，名字已经存在的话抛出异常
+     */
+    public T newInstance(String name) {
+        return createOrThrow(checkNotNullAndNotEmpty(name));
+    }
+
+    private T createOrThrow(String name) {
+        T constant = constants.get(name);
+        if (constant == null) {
+            final T tempConstant = newConstant(nextId(), name);
+            constant = constants.putIfAbsent(name, tempConstant);
+            if (constant == null) {
+                return tempConstant;
+            }
+        }
+        throw new IllegalArgumentException(String.format("'%s' is already in use", name));
+    }
+
+    private static String checkNotNullAndNotEmpty(String name) {
+        ObjectUtil.checkNotNull(name, "name");
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("empty name");
+        }
+        return name;
+    }
+
+    protected abstract T newConstant(int id, String name);
+
+    public final int nextId() {
+        return nextId.getAndIncrement();
+    }
+}
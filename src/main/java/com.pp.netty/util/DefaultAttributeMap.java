@@ -0,0 +1,78 @@
+package com.pp.netty.util;
+
+import com.pp.netty.util.internal.ObjectUtil;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * @Author: PP-jessica
+ * @Description:AttributeMap的默认实现。很多channel一个属性都不会设置，所以存放属性的map是懒加载的，第一次用到的时候才创建
+ */
+public class DefaultAttributeMap implements AttributeMap {
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<DefaultAttributeMap, ConcurrentMap> ATTRIBUTES_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(DefaultAttributeMap.class, ConcurrentMap.class, "attributes");
+
+    private volatile ConcurrentMap<AttributeKey<?>, DefaultAttribute<?>> attributes;
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> Attribute<T> attr(AttributeKey<T> key) {
+        ObjectUtil.checkNotNull(key, "key");
+        ConcurrentMap<AttributeKey<?>, DefaultAttribute<?>> attributes = this.attributes;
+        if (attributes == null) {
+            //多个线程同时创建的时候，只有一个能设置成功，其他线程用设置成功的那个map
+            attributes = new ConcurrentHashMap<AttributeKey<?>, DefaultAttribute<?>>(4);
+            if (!ATTRIBUTES_UPDATER.compareAndSet(this, null, attributes)) {
+                attributes = this.attributes;
+            }
+        }
+        DefaultAttribute<?> attr = attributes.get(key);
+        if (attr == null) {
+            DefaultAttribute<T> newAttr = new DefaultAttribute<T>(key);
+            attr = attributes.putIfAbsent(key, newAttr);
+            if (attr == null) {
+                return newAttr;
+            }
+        }
+        return (Attribute<T>) attr;
+    }
+
+    @Override
+    public <T> boolean hasAttr(AttributeKey<T> key) {
+        ObjectUtil.checkNotNull(key, "key");
+        ConcurrentMap<AttributeKey<?>, DefaultAttribute<?>> attributes = this.attributes;
+        return attributes != null && attributes.containsKey(key);
+    }
+
+    private static final class DefaultAttribute<T> extends AtomicReference<T> implements Attribute<T> {
+
+        private static final long serialVersionUID = -2661411462200283011L;
+
+        private final AttributeKey<T> key;
+
+        DefaultAttribute(AttributeKey<T> key) {
+            this.key = key;
+        }
+
+        @Override
+        public AttributeKey<T> key() {
+            return key;
+        }
+
+        @Override
+        public T setIfAbsent(T value) {
+            while (!compareAndSet(null, value)) {
+                T old = get();
+                if (old != null) {
+                    return old;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,674 @@
+package com.pp.netty.util;
+
+import com.pp.netty.util.concurrent.DefaultThreadFactory;
+import com.pp.netty.util.concurrent.ScheduledFuture;
+import com.pp.netty.util.concurrent.SingleThreadEventExecutor;
+import com.pp.netty.util.internal.ObjectUtil;
+import com.pp.netty.util.internal.PlatformDependent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @Author: PP-jessica
+ * @Description:时间轮。单线程执行器中的定时任务放在优先级队列中，添加和删除都是O(log n)的，
+ * 如果每个连接都有读超时、写超时、握手超时，几十万个连接就会有上百万个定时任务，这时候优先级队列就不够用了。
+ * 时间轮把时间分成一个个的刻度，每个刻度对应一个桶，定时任务根据截止时间放进对应的桶中，添加和取消都是O(1)的。
+ * 时间轮每走一个刻度，就把这个桶中所有到期的任务一起执行。代价是精度只能到一个刻度。
+ * 时间轮可以使用自己的工作线程驱动，也可以交给一个指定的单线程执行器，用执行器的定时任务每个刻度驱动一次
+ */
+public class HashedWheelTimer implements Timer {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    //时间轮工作线程的状态
+    public static final int WORKER_STATE_INIT = 0;
+    public static final int WORKER_STATE_STARTED = 1;
+    public static final int WORKER_STATE_SHUTDOWN = 2;
+
+    private static final AtomicIntegerFieldUpdater<HashedWheelTimer> WORKER_STATE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(HashedWheelTimer.class, "workerState");
+
+    //最小的刻度，1毫秒
+    private static final long MILLISECOND_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Worker worker = new Worker();
+
+    //使用自己的工作线程时才有值
+    private final Thread workerThread;
+
+    //使用单线程执行器驱动时才有值
+    private final SingleThreadEventExecutor executor;
+
+    //执行器中驱动时间轮的周期任务
+    private volatile ScheduledFuture<?> tickFuture;
+
+    @SuppressWarnings({ "unused", "FieldMayBeFinal" })
+    private volatile int workerState;
+
+    //一个刻度的纳秒数
+    private final long tickDuration;
+
+    //时间轮的桶数组，长度是2的幂
+    private final HashedWheelBucket[] wheel;
+
+    private final int mask;
+
+    private final CountDownLatch startTimeInitialized = new CountDownLatch(1);
+
+    //新添加的定时任务先放到这个队列中，由工作线程在每个刻度转移到桶里，这样添加任务的线程就不用和工作线程竞争桶了
+    private final Queue<HashedWheelTimeout> timeouts = PlatformDependent.newMpscQueue();
+
+    //被取消的定时任务也先放到这个队列中，由工作线程从桶里删除
+    private final Queue<HashedWheelTimeout> cancelledTimeouts = PlatformDependent.newMpscQueue();
+
+    //还没有执行也没有取消的定时任务个数
+    private final AtomicLong pendingTimeouts = new AtomicLong(0);
+
+    //最多允许多少个待执行的定时任务，小于等于0表示没有限制
+    private final long maxPendingTimeouts;
+
+    //时间轮启动的时间，所有定时任务的截止时间都是相对于这个时间的
+    private volatile long startTime;
+
+    public HashedWheelTimer() {
+        this(new DefaultThreadFactory(HashedWheelTimer.class));
+    }
+
+    public HashedWheelTimer(long tickDuration, TimeUnit unit) {
+        this(new DefaultThreadFactory(HashedWheelTimer.class), tickDuration, unit);
+    }
+
+    public HashedWheelTimer(long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        this(new DefaultThreadFactory(HashedWheelTimer.class), tickDuration, unit, ticksPerWheel);
+    }
+
+    public HashedWheelTimer(ThreadFactory threadFactory) {
+        this(threadFactory, 100, TimeUnit.MILLISECONDS);
+    }
+
+    public HashedWheelTimer(ThreadFactory threadFactory, long tickDuration, TimeUnit unit) {
+        this(threadFactory, tickDuration, unit, 512);
+    }
+
+    public HashedWheelTimer(ThreadFactory threadFactory, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        this(threadFactory, tickDuration, unit, ticksPerWheel, -1);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:使用自己的工作线程驱动时间轮
+     */
+    public HashedWheelTimer(ThreadFactory threadFactory, long tickDuration, TimeUnit unit,
+                            int ticksPerWheel, long maxPendingTimeouts) {
+        this(ObjectUtil.checkNotNull(threadFactory, "threadFactory"), null,
+                tickDuration, unit, ticksPerWheel, maxPendingTimeouts);
+    }
+
+    public HashedWheelTimer(SingleThreadEventExecutor executor, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        this(executor, tickDuration, unit, ticksPerWheel, -1);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:使用指定的单线程执行器驱动时间轮，这样就不用额外创建线程了，
+     * 时间轮中的任务也都会在这个执行器的线程中执行
+     */
+    public HashedWheelTimer(SingleThreadEventExecutor executor, long tickDuration, TimeUnit unit,
+                            int ticksPerWheel, long maxPendingTimeouts) {
+        this(null, ObjectUtil.checkNotNull(executor, "executor"),
+                tickDuration, unit, ticksPerWheel, maxPendingTimeouts);
+    }
+
+    private HashedWheelTimer(ThreadFactory threadFactory, SingleThreadEventExecutor executor, long tickDuration,
+                             TimeUnit unit, int ticksPerWheel, long maxPendingTimeouts) {
+        ObjectUtil.checkNotNull(unit, "unit");
+        ObjectUtil.checkPositive(tickDuration, "tickDuration");
+        ObjectUtil.checkPositive(ticksPerWheel, "ticksPerWheel");
+        wheel = createWheel(ticksPerWheel);
+        mask = wheel.length - 1;
+        long duration = unit.toNanos(tickDuration);
+        //防止刻度乘以桶的个数之后溢出
+        if (duration >= Long.MAX_VALUE / wheel.length) {
+            throw new IllegalArgumentException(String.format(
+                    "tickDuration: %d (expected: 0 < tickDuration in nanos < %d",
+                    tickDuration, Long.MAX_VALUE / wheel.length));
+        }
+        if (duration < MILLISECOND_NANOS) {
+            logger.warn("Configured tickDuration {} smaller then {}, using 1ms.", tickDuration, MILLISECOND_NANOS);
+            this.tickDuration = MILLISECOND_NANOS;
+        } else {
+            this.tickDuration = duration;
+        }
+        this.executor = executor;
+        workerThread = threadFactory == null ? null : threadFactory.newThread(worker);
+        this.maxPendingTimeouts = maxPendingTimeouts;
+    }
+
+    private static HashedWheelBucket[] createWheel(int ticksPerWheel) {
+        if (ticksPerWheel > 1073741824) {
+            throw new IllegalArgumentException(
+                    "ticksPerWheel may not be greater than 2^30: " + ticksPerWheel);
+        }
+        ticksPerWheel = normalizeTicksPerWheel(ticksPerWheel);
+        HashedWheelBucket[] wheel = new HashedWheelBucket[ticksPerWheel];
+        for (int i = 0; i < wheel.length; i ++) {
+            wheel[i] = new HashedWheelBucket();
+        }
+        return wheel;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把桶的个数调整为2的幂，这样就可以用位运算代替取余了
+     */
+    private static int normalizeTicksPerWheel(int ticksPerWheel) {
+        int normalizedTicksPerWheel = 1;
+        while (normalizedTicksPerWheel < ticksPerWheel) {
+            normalizedTicksPerWheel <<= 1;
+        }
+        return normalizedTicksPerWheel;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:启动时间轮，添加第一个定时任务的时候会自动调用
+     */
+    public void start() {
+        switch (WORKER_STATE_UPDATER.get(this)) {
+            case WORKER_STATE_INIT:
+                if (WORKER_STATE_UPDATER.compareAndSet(this, WORKER_STATE_INIT, WORKER_STATE_STARTED)) {
+                    if (workerThread != null) {
+                        workerThread.start();
+                    } else {
+                        startOnExecutor();
+                    }
+                }
+                break;
+            case WORKER_STATE_STARTED:
+                break;
+            case WORKER_STATE_SHUTDOWN:
+                throw new IllegalStateException("cannot be started once stopped");
+            default:
+                throw new Error("Invalid WorkerState");
+        }
+        //等待startTime被工作线程初始化
+        while (startTime == 0) {
+            try {
+                startTimeInitialized.await();
+            } catch (InterruptedException ignore) {
+                // Ignore - it will be ready very soon.
+            }
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:在执行器中用固定频率的定时任务驱动时间轮，每次执行走一个刻度
+     */
+    private void startOnExecutor() {
+        startTime = System.nanoTime();
+        if (startTime == 0) {
+            //0被用来表示还没有初始化
+            startTime = 1;
+        }
+        startTimeInitialized.countDown();
+        tickFuture = executor.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                if (WORKER_STATE_UPDATER.get(HashedWheelTimer.this) == WORKER_STATE_STARTED) {
+                    worker.processTick(System.nanoTime() - startTime);
+                }
+            }
+        }, tickDuration, tickDuration, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public Set<Timeout> stop() {
+        if (workerThread != null && Thread.currentThread() == workerThread) {
+            throw new IllegalStateException(
+                    HashedWheelTimer.class.getSimpleName() + ".stop() cannot be called from " +
+                            TimerTask.class.getSimpleName());
+        }
+        if (!WORKER_STATE_UPDATER.compareAndSet(this, WORKER_STATE_STARTED, WORKER_STATE_SHUTDOWN)) {
+            //时间轮还没启动，或者已经停止了
+            WORKER_STATE_UPDATER.set(this, WORKER_STATE_SHUTDOWN);
+            return Collections.emptySet();
+        }
+        if (workerThread != null) {
+            boolean interrupted = false;
+            while (workerThread.isAlive()) {
+                workerThread.interrupt();
+                try {
+                    workerThread.join(100);
+                } catch (InterruptedException ignored) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return worker.unprocessedTimeouts();
+        }
+        return stopOnExecutor();
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:取消驱动时间轮的周期任务，然后在执行器的线程中收集还没有执行的定时任务，
+     * 因为桶只能由驱动时间轮的线程访问
+     */
+    private Set<Timeout> stopOnExecutor() {
+        ScheduledFuture<?> tickFuture = this.tickFuture;
+        if (tickFuture != null) {
+            tickFuture.cancel(false);
+        }
+        Callable<Set<Timeout>> collect = new Callable<Set<Timeout>>() {
+            @Override
+            public Set<Timeout> call() {
+                worker.collectUnprocessedTimeouts();
+                return worker.unprocessedTimeouts();
+            }
+        };
+        if (executor.inEventLoop(Thread.currentThread())) {
+            worker.collectUnprocessedTimeouts();
+            return worker.unprocessedTimeouts();
+        }
+        ScheduledFuture<Set<Timeout>> future = executor.schedule(collect, 0, TimeUnit.NANOSECONDS);
+        future.awaitUninterruptibly();
+        Set<Timeout> unprocessed = future.getNow();
+        return unprocessed == null ? Collections.<Timeout>emptySet() : unprocessed;
+    }
+
+    @Override
+    public Timeout newTimeout(TimerTask task, long delay, TimeUnit unit) {
+        ObjectUtil.checkNotNull(task, "task");
+        ObjectUtil.checkNotNull(unit, "unit");
+        long pendingTimeoutsCount = pendingTimeouts.incrementAndGet();
+        //待执行的定时任务太多了，直接拒绝，防止内存被撑爆
+        if (maxPendingTimeouts > 0 && pendingTimeoutsCount > maxPendingTimeouts) {
+            pendingTimeouts.decrementAndGet();
+            throw new RejectedExecutionException("Number of pending timeouts ("
+                    + pendingTimeoutsCount + ") is greater than or equal to maximum allowed pending "
+                    + "timeouts (" + maxPendingTimeouts + ")");
+        }
+        start();
+        //计算截止时间，先放到队列中，下一个刻度由工作线程转移到桶里
+        long deadline = System.nanoTime() + unit.toNanos(delay) - startTime;
+        //防止溢出
+        if (delay > 0 && deadline < 0) {
+            deadline = Long.MAX_VALUE;
+        }
+        HashedWheelTimeout timeout = new HashedWheelTimeout(this, task, deadline);
+        timeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:还没有执行也没有取消的定时任务个数
+     */
+    public long pendingTimeouts() {
+        return pendingTimeouts.get();
+    }
+
+    private final class Worker implements Runnable {
+
+        private final Set<Timeout> unprocessedTimeouts = new HashSet<Timeout>();
+
+        //时间轮走过的刻度数
+        private long tick;
+
+        @Override
+        public void run() {
+            startTime = System.nanoTime();
+            if (startTime == 0) {
+                startTime = 1;
+            }
+            //通知调用start方法的线程，startTime已经初始化好了
+            startTimeInitialized.countDown();
+            do {
+                final long deadline = waitForNextTick();
+                if (deadline > 0) {
+                    processTick(deadline);
+                }
+            } while (WORKER_STATE_UPDATER.get(HashedWheelTimer.this) == WORKER_STATE_STARTED);
+            collectUnprocessedTimeouts();
+        }
+
+        /**
+         * @Author: PP-jessica
+         * @Description:时间轮走一个刻度。先处理取消的任务，再把新添加的任务放进桶里，最后把当前桶中到期的任务一起执行
+         */
+        void processTick(long deadline) {
+            int idx = (int) (tick & mask);
+            processCancelledTasks();
+            HashedWheelBucket bucket = wheel[idx];
+            transferTimeoutsToBuckets();
+            bucket.expireTimeouts(deadline);
+            tick++;
+        }
+
+        /**
+         * @Author: PP-jessica
+         * @Description:时间轮停止之后，把桶里和队列中还没有执行的任务都收集起来
+         */
+        void collectUnprocessedTimeouts() {
+            for (HashedWheelBucket bucket: wheel) {
+                bucket.clearTimeouts(unprocessedTimeouts);
+            }
+            for (;;) {
+                HashedWheelTimeout timeout = timeouts.poll();
+                if (timeout == null) {
+                    break;
+                }
+                if (!timeout.isCancelled()) {
+                    unprocessedTimeouts.add(timeout);
+                }
+            }
+            processCancelledTasks();
+        }
+
+        private void transferTimeoutsToBuckets() {
+            //每个刻度最多转移十万个任务，防止工作线程一直在转移任务
+            for (int i = 0; i < 100000; i++) {
+                HashedWheelTimeout timeout = timeouts.poll();
+                if (timeout == null) {
+                    break;
+                }
+                if (timeout.state() == HashedWheelTimeout.ST_CANCELLED) {
+                    continue;
+                }
+                //计算任务应该在第几个刻度执行，以及需要等时间轮转几圈
+                long calculated = timeout.deadline / tickDuration;
+                timeout.remainingRounds = (calculated - tick) / wheel.length;
+                //截止时间已经过了的任务放到当前的桶里，这一刻度就执行
+                final long ticks = Math.max(calculated, tick);
+                int stopIndex = (int) (ticks & mask);
+                HashedWheelBucket bucket = wheel[stopIndex];
+                bucket.addTimeout(timeout);
+            }
+        }
+
+        private void processCancelledTasks() {
+            for (;;) {
+                HashedWheelTimeout timeout = cancelledTimeouts.poll();
+                if (timeout == null) {
+                    break;
+                }
+                try {
+                    timeout.remove();
+                } catch (Throwable t) {
+                    logger.warn("An exception was thrown while process a cancellation task", t);
+                }
+            }
+        }
+
+        /**
+         * @Author: PP-jessica
+         * @Description:睡眠到下一个刻度，返回当前时间相对于startTime的纳秒数，时间轮被停止了就返回Long.MIN_VALUE
+         */
+        private long waitForNextTick() {
+            long deadline = tickDuration * (tick + 1);
+            for (;;) {
+                final long currentTime = System.nanoTime() - startTime;
+                long sleepTimeMs = (deadline - currentTime + 999999) / 1000000;
+                if (sleepTimeMs <= 0) {
+                    if (currentTime == Long.MIN_VALUE) {
+                        return -Long.MAX_VALUE;
+                    } else {
+                        return currentTime;
+                    }
+                }
+                try {
+                    Thread.sleep(sleepTimeMs);
+                } catch (InterruptedException ignored) {
+                    if (WORKER_STATE_UPDATER.get(HashedWheelTimer.this) == WORKER_STATE_SHUTDOWN) {
+                        return Long.MIN_VALUE;
+                    }
+                }
+            }
+        }
+
+        Set<Timeout> unprocessedTimeouts() {
+            return Collections.unmodifiableSet(unprocessedTimeouts);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:时间轮中的定时任务，同时也是桶中双向链表的节点
+     */
+    private static final class HashedWheelTimeout implements Timeout {
+
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<HashedWheelTimeout> STATE_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(HashedWheelTimeout.class, "state");
+
+        private final HashedWheelTimer timer;
+        private final TimerTask task;
+        private final long deadline;
+
+        @SuppressWarnings({"unused", "FieldMayBeFinal", "RedundantFieldInitialization" })
+        private volatile int state = ST_INIT;
+
+        //还需要等时间轮转几圈才执行，只有工作线程会访问
+        long remainingRounds;
+
+        //桶中的双向链表，只有工作线程会访问，所以不需要同步
+        HashedWheelTimeout next;
+        HashedWheelTimeout prev;
+
+        //任务所在的桶
+        HashedWheelBucket bucket;
+
+        HashedWheelTimeout(HashedWheelTimer timer, TimerTask task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public Timer timer() {
+            return timer;
+        }
+
+        @Override
+        public TimerTask task() {
+            return task;
+        }
+
+        /**
+         * @Author: PP-jessica
+         * @Description:取消任务只是修改状态并放进取消队列，真正从桶里删除是由工作线程在下一个刻度做的
+         */
+        @Override
+        public boolean cancel() {
+            if (!compareAndSetState(ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            //待执行的任务个数只在状态从初始状态改变的时候减一，这样取消和到期并发的时候也不会重复计算
+            timer.pendingTimeouts.decrementAndGet();
+            timer.cancelledTimeouts.add(this);
+            return true;
+        }
+
+        void remove() {
+            HashedWheelBucket bucket = this.bucket;
+            //还没有被放进桶里的任务会在转移的时候被丢弃
+            if (bucket != null) {
+                bucket.remove(this);
+            }
+        }
+
+        public boolean compareAndSetState(int expected, int state) {
+            return STATE_UPDATER.compareAndSet(this, expected, state);
+        }
+
+        public int state() {
+            return state;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state() == ST_CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state() == ST_EXPIRED;
+        }
+
+        public void expire() {
+            if (!compareAndSetState(ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            timer.pendingTimeouts.decrementAndGet();
+            try {
+                task.run(this);
+            } catch (Throwable t) {
+                logger.warn("An exception was thrown by {}.", TimerTask.class.getSimpleName(), t);
+            }
+        }
+
+        @Override
+        public String toString() {
+            final long currentTime = System.nanoTime();
+            long remaining = deadline - currentTime + timer.startTime;
+            StringBuilder buf = new StringBuilder(192)
+                    .append(getClass().getSimpleName())
+                    .append('(')
+                    .append("deadline: ");
+            if (remaining > 0) {
+                buf.append(remaining).append(" ns later");
+            } else if (remaining < 0) {
+                buf.append(-remaining).append(" ns ago");
+            } else {
+                buf.append("now");
+            }
+            if (isCancelled()) {
+                buf.append(", cancelled");
+            }
+            return buf.append(", task: ")
+                    .append(task())
+                    .append(')')
+                    .toString();
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:时间轮中的桶，用双向链表存放定时任务，添加和删除都是O(1)的
+     */
+    private static final class HashedWheelBucket {
+
+        private HashedWheelTimeout head;
+        private HashedWheelTimeout tail;
+
+        public void addTimeout(HashedWheelTimeout timeout) {
+            assert timeout.bucket == null;
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        /**
+         * @Author: PP-jessica
+         * @Description:执行桶中所有到期的任务，没到期的任务把剩余圈数减一
+         */
+        public void expireTimeouts(long deadline) {
+            HashedWheelTimeout timeout = head;
+            while (timeout != null) {
+                HashedWheelTimeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    next = remove(timeout);
+                    if (timeout.deadline <= deadline) {
+                        timeout.expire();
+                    } else {
+                        //任务被放进了错误的桶，这不应该发生
+                        throw new IllegalStateException(String.format(
+                                "timeout.deadline (%d) > deadline (%d)", timeout.deadline, deadline));
+                    }
+                } else if (timeout.isCancelled()) {
+                    next = remove(timeout);
+                } else {
+                    timeout.remainingRounds --;
+                }
+                timeout = next;
+            }
+        }
+
+        public HashedWheelTimeout remove(HashedWheelTimeout timeout) {
+            HashedWheelTimeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                if (timeout == tail) {
+                    tail = null;
+                    head = null;
+                } else {
+                    head = next;
+                }
+            } else if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+            return next;
+        }
+
+        public void clearTimeouts(Set<Timeout> set) {
+            for (;;) {
+                HashedWheelTimeout timeout = pollTimeout();
+                if (timeout == null) {
+                    return;
+                }
+                if (timeout.isExpired() || timeout.isCancelled()) {
+                    continue;
+                }
+                set.add(timeout);
+            }
+        }
+
+        private HashedWheelTimeout pollTimeout() {
+            HashedWheelTimeout head = this.head;
+            if (head == null) {
+                return null;
+            }
+            HashedWheelTimeout next = head.next;
+            if (next == null) {
+                tail = this.head =  null;
+            } else {
+                this.head = next;
+                next.prev = null;
+            }
+            head.next = null;
+            head.prev = null;
+            head.bucket = null;
+            return head;
+        }
+    }
+}
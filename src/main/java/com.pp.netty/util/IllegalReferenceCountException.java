@@ -0,0 +1,25 @@
+package com.pp.netty.util;
+
+/**
+ * @Author: PP-jessica
+ * @Description:访问引用计数已经为0的对象，或者引用计数溢出的时候抛出这个异常
+ */
+public class IllegalReferenceCountException extends IllegalStateException {
+
+    private static final long serialVersionUID = -2507492394288153468L;
+
+    public IllegalReferenceCountException() {
+    }
+
+    public IllegalReferenceCountException(int refCnt) {
+        this("refCnt: " + refCnt);
+    }
+
+    public IllegalReferenceCountException(int refCnt, int increment) {
+        this("refCnt: " + refCnt + ", " + (increment > 0? "increment: " + increment : "decrement: " + -increment));
+    }
+
+    public IllegalReferenceCountException(String message) {
+        super(message);
+    }
+}
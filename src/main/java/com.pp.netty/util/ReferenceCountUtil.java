@@ -0,0 +1,63 @@
+package com.pp.netty.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @Author: PP-jessica
+ * @Description:引用计数的工具类，消息在pipeline中传递的时候类型是Object，不一定实现了ReferenceCounted接口，
+ * 所以要先判断一下再调用retain和release
+ */
+public final class ReferenceCountUtil {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceCountUtil.class);
+
+    private ReferenceCountUtil() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T retain(T msg) {
+        if (msg instanceof ReferenceCounted) {
+            return (T) ((ReferenceCounted) msg).retain();
+        }
+        return msg;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T retain(T msg, int increment) {
+        if (msg instanceof ReferenceCounted) {
+            return (T) ((ReferenceCounted) msg).retain(increment);
+        }
+        return msg;
+    }
+
+    public static boolean release(Object msg) {
+        if (msg instanceof ReferenceCounted) {
+            return ((ReferenceCounted) msg).release();
+        }
+        return false;
+    }
+
+    public static boolean release(Object msg, int decrement) {
+        if (msg instanceof ReferenceCounted) {
+            return ((ReferenceCounted) msg).release(decrement);
+        }
+        return false;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:释放消息，释放失败也不抛出异常，只打印日志
+     */
+    public static void safeRelease(Object msg) {
+        try {
+            release(msg);
+        } catch (Throwable t) {
+            logger.warn("Failed to release a message: {}", msg, t);
+        }
+    }
+
+    public static int refCnt(Object msg) {
+        return msg instanceof ReferenceCounted ? ((ReferenceCounted) msg).refCnt() : -1;
+    }
+}
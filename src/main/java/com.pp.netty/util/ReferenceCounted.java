@@ -0,0 +1,23 @@
+package com.pp.netty.util;
+
+/**
+ * @Author: PP-jessica
+ * @Description:引用计数接口。对象创建的时候引用计数是1，retain加一，release减一，减到0的时候对象占用的资源就被释放了，
+ * 之后再访问这个对象就会抛出IllegalReferenceCountException
+ */
+public interface ReferenceCounted {
+
+    int refCnt();
+
+    ReferenceCounted retain();
+
+    ReferenceCounted retain(int increment);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:引用计数减一，减到0的时候释放资源并返回true
+     */
+    boolean release();
+
+    boolean release(int decrement);
+}
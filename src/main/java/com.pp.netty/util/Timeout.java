@@ -0,0 +1,18 @@
+package com.pp.netty.util;
+
+/**
+ * @Author: PP-jessica
+ * @Description:提交到时间轮之后返回的句柄，可以通过它取消定时任务
+ */
+public interface Timeout {
+
+    Timer timer();
+
+    TimerTask task();
+
+    boolean isExpired();
+
+    boolean isCancelled();
+
+    boolean cancel();
+}
@@ -0,0 +1,19 @@
+package com.pp.netty.util;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: PP-jessica
+ * @Description:定时器的接口，HashedWheelTimer是它的实现类
+ */
+public interface Timer {
+
+    Timeout newTimeout(TimerTask task, long delay, TimeUnit unit);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:停止定时器，返回还没有执行的定时任务
+     */
+    Set<Timeout> stop();
+}
@@ -0,0 +1,10 @@
+package com.pp.netty.util;
+
+/**
+ * @Author: PP-jessica
+ * @Description:时间轮中执行的定时任务
+ */
+public interface TimerTask {
+
+    void run(Timeout timeout) throws Exception;
+}
@@ -1,5 +1,6 @@
 package com.pp.netty.util.concurrent;
 
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -8,30 +9,44 @@ import java.util.concurrent.TimeUnit;
  * 但方法内部的具体方法，由子类来实现
  */
 public abstract class AbstractEventExecutorGroup implements EventExecutorGroup {
+
+    //优雅关闭默认的静默期和超时时间，单位是秒
+    static final long DEFAULT_SHUTDOWN_QUIET_PERIOD = 2;
+    static final long DEFAULT_SHUTDOWN_TIMEOUT = 15;
+
     //举个例子，该方法内部的next方法由MultithreadEventExecutorGroup类来实现，而submit方法，则由eventloop的实现类来实现
 //    @Override
 //    public Future<?> submit(Runnable task) {
 //        return next().submit(task);
 //    }
 
-
-    /**
-     * @Author: PP-jessica
-     * @Description:下面这三个方法也不在该类中，随着代码的进展，代码也会进一步完善
-     */
     @Override
-    public void shutdownGracefully() {
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return next().schedule(command, delay, unit);
+    }
 
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        return next().schedule(callable, delay, unit);
     }
 
     @Override
-    public boolean isTerminated() {
-        return false;
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        return next().scheduleAtFixedRate(command, initialDelay, period, unit);
     }
 
     @Override
-    public void awaitTermination(Integer integer, TimeUnit timeUnit) throws InterruptedException {
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        return next().scheduleWithFixedDelay(command, initialDelay, delay, unit);
+    }
 
+    /**
+     * @Author: PP-jessica
+     * @Description:优雅关闭默认的静默期是2秒，超时时间是15秒
+     */
+    @Override
+    public Future<?> shutdownGracefully() {
+        return shutdownGracefully(DEFAULT_SHUTDOWN_QUIET_PERIOD, DEFAULT_SHUTDOWN_TIMEOUT, TimeUnit.SECONDS);
     }
 
     @Override
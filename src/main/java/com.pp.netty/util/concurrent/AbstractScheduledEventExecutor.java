@@ -0,0 +1,220 @@
+package com.pp.netty.util.concurrent;
+
+import com.pp.netty.util.internal.DefaultPriorityQueue;
+import com.pp.netty.util.internal.ObjectUtil;
+
+import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: PP-jessica
+ * @Description:可以执行定时任务的执行器。定时任务都存放在一个按截止时间排序的优先级队列中，
+ * 这个队列只会被执行器自己的线程访问，所以不需要任何同步。别的线程提交定时任务时，会把添加定时任务的操作
+ * 封装成一个普通任务提交到任务队列中，由执行器的线程来把定时任务放进优先级队列
+ */
+public abstract class AbstractScheduledEventExecutor implements EventExecutor {
+
+    //定时任务的比较器，按照截止时间排序，截止时间相同按照任务id排序
+    private static final Comparator<ScheduledFutureTask<?>> SCHEDULED_FUTURE_TASK_COMPARATOR =
+            new Comparator<ScheduledFutureTask<?>>() {
+                @Override
+                public int compare(ScheduledFutureTask<?> o1, ScheduledFutureTask<?> o2) {
+                    return o1.compareTo(o2);
+                }
+            };
+
+    //定时任务队列，懒加载
+    DefaultPriorityQueue<ScheduledFutureTask<?>> scheduledTaskQueue;
+
+    protected AbstractScheduledEventExecutor() {
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:和执行器组一样，默认的静默期是2秒，超时时间是15秒
+     */
+    @Override
+    public Future<?> shutdownGracefully() {
+        return shutdownGracefully(AbstractEventExecutorGroup.DEFAULT_SHUTDOWN_QUIET_PERIOD,
+                AbstractEventExecutorGroup.DEFAULT_SHUTDOWN_TIMEOUT, TimeUnit.SECONDS);
+    }
+
+    protected static long nanoTime() {
+        return ScheduledFutureTask.nanoTime();
+    }
+
+    DefaultPriorityQueue<ScheduledFutureTask<?>> scheduledTaskQueue() {
+        if (scheduledTaskQueue == null) {
+            scheduledTaskQueue = new DefaultPriorityQueue<ScheduledFutureTask<?>>(
+                    SCHEDULED_FUTURE_TASK_COMPARATOR, 11);
+        }
+        return scheduledTaskQueue;
+    }
+
+    private static boolean isNullOrEmpty(DefaultPriorityQueue<ScheduledFutureTask<?>> queue) {
+        return queue == null || queue.isEmpty();
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:取消所有的定时任务，执行器关闭的时候调用
+     */
+    protected void cancelScheduledTasks() {
+        assert inEventLoop(Thread.currentThread());
+        DefaultPriorityQueue<ScheduledFutureTask<?>> scheduledTaskQueue = this.scheduledTaskQueue;
+        if (isNullOrEmpty(scheduledTaskQueue)) {
+            return;
+        }
+        final ScheduledFutureTask<?>[] scheduledTasks =
+                scheduledTaskQueue.toArray(new ScheduledFutureTask<?>[0]);
+        for (ScheduledFutureTask<?> task: scheduledTasks) {
+            task.cancelWithoutRemove(false);
+        }
+        scheduledTaskQueue.clear();
+    }
+
+    protected final Runnable pollScheduledTask() {
+        return pollScheduledTask(nanoTime());
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:取出一个已经到期的定时任务，如果队首的任务都没有到期，就返回null
+     */
+    protected final Runnable pollScheduledTask(long nanoTime) {
+        assert inEventLoop(Thread.currentThread());
+        DefaultPriorityQueue<ScheduledFutureTask<?>> scheduledTaskQueue = this.scheduledTaskQueue;
+        ScheduledFutureTask<?> scheduledTask = scheduledTaskQueue == null ? null : scheduledTaskQueue.peek();
+        if (scheduledTask == null) {
+            return null;
+        }
+        if (scheduledTask.deadlineNanos() <= nanoTime) {
+            scheduledTaskQueue.remove();
+            return scheduledTask;
+        }
+        return null;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:距离最近的定时任务到期还有多少纳秒，没有定时任务返回-1
+     */
+    protected final long nextScheduledTaskNano() {
+        ScheduledFutureTask<?> scheduledTask = peekScheduledTask();
+        if (scheduledTask == null) {
+            return -1;
+        }
+        return Math.max(0, scheduledTask.deadlineNanos() - nanoTime());
+    }
+
+    final ScheduledFutureTask<?> peekScheduledTask() {
+        DefaultPriorityQueue<ScheduledFutureTask<?>> scheduledTaskQueue = this.scheduledTaskQueue;
+        if (scheduledTaskQueue == null) {
+            return null;
+        }
+        return scheduledTaskQueue.peek();
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:判断是否有已经到期的定时任务
+     */
+    protected final boolean hasScheduledTasks() {
+        ScheduledFutureTask<?> scheduledTask = peekScheduledTask();
+        return scheduledTask != null && scheduledTask.deadlineNanos() <= nanoTime();
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        ObjectUtil.checkNotNull(command, "command");
+        ObjectUtil.checkNotNull(unit, "unit");
+        if (delay < 0) {
+            delay = 0;
+        }
+        return schedule(new ScheduledFutureTask<Void>(
+                this, command, null, ScheduledFutureTask.deadlineNanos(unit.toNanos(delay))));
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        ObjectUtil.checkNotNull(callable, "callable");
+        ObjectUtil.checkNotNull(unit, "unit");
+        if (delay < 0) {
+            delay = 0;
+        }
+        return schedule(new ScheduledFutureTask<V>(
+                this, callable, ScheduledFutureTask.deadlineNanos(unit.toNanos(delay))));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        ObjectUtil.checkNotNull(command, "command");
+        ObjectUtil.checkNotNull(unit, "unit");
+        if (initialDelay < 0) {
+            throw new IllegalArgumentException(
+                    String.format("initialDelay: %d (expected: >= 0)", initialDelay));
+        }
+        if (period <= 0) {
+            throw new IllegalArgumentException(
+                    String.format("period: %d (expected: > 0)", period));
+        }
+        return schedule(new ScheduledFutureTask<Void>(
+                this, PromiseTask.<Void>toCallable(command, null),
+                ScheduledFutureTask.deadlineNanos(unit.toNanos(initialDelay)), unit.toNanos(period)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        ObjectUtil.checkNotNull(command, "command");
+        ObjectUtil.checkNotNull(unit, "unit");
+        if (initialDelay < 0) {
+            throw new IllegalArgumentException(
+                    String.format("initialDelay: %d (expected: >= 0)", initialDelay));
+        }
+        if (delay <= 0) {
+            throw new IllegalArgumentException(
+                    String.format("delay: %d (expected: > 0)", delay));
+        }
+        //固定延时的任务，周期用负数表示
+        return schedule(new ScheduledFutureTask<Void>(
+                this, PromiseTask.<Void>toCallable(command, null),
+                ScheduledFutureTask.deadlineNanos(unit.toNanos(initialDelay)), -unit.toNanos(delay)));
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:如果是执行器自己的线程，直接把定时任务放进优先级队列，否则封装成普通任务提交到任务队列，
+     * 这样优先级队列就只会被一个线程访问了
+     */
+    <V> ScheduledFuture<V> schedule(final ScheduledFutureTask<V> task) {
+        if (inEventLoop(Thread.currentThread())) {
+            scheduledTaskQueue().add(task);
+        } else {
+            execute(new Runnable() {
+                @Override
+                public void run() {
+                    scheduledTaskQueue().add(task);
+                }
+            });
+        }
+        return task;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:删除定时任务，和添加定时任务一样，也只能由执行器的线程来操作优先级队列
+     */
+    final void removeScheduled(final ScheduledFutureTask<?> task) {
+        if (inEventLoop(Thread.currentThread())) {
+            scheduledTaskQueue().removeTyped(task);
+        } else {
+            execute(new Runnable() {
+                @Override
+                public void run() {
+                    removeScheduled(task);
+                }
+            });
+        }
+    }
+}
@@ -437,6 +437,7 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
         if (eventExecutor.inEventLoop(Thread.currentThread())){
             //如果执行任务的线程是单线程执行器，那么直接通知监听器执行方法
             notifyListener0(future, listener);
+            return;
         }
         //如果不是执行器的线程，则包装成runnable，交给执行器去通知监听器执行方法
         safeExecute(eventExecutor, new Runnable() {
@@ -457,7 +458,9 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
         //如果正在执行方法的线程就是执行器的线程，就立刻通知监听器执行方法
         if (executor.inEventLoop(Thread.currentThread())) {
             notifyListenersNow();
-            }
+            //已经通知过了，不需要再提交任务，否则执行器关闭之后提交任务会被拒绝
+            return;
+        }
         safeExecute(executor, new Runnable() {
             @Override
             public void run() {
@@ -533,6 +536,110 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
     }
 
 
+    /**
+     * @Author: PP-jessica
+     * @Description:通知所有的进度监听器，操作又有了新的进展。只有实现了ProgressiveFuture接口的子类才会调用该方法，
+     * 和notifyListeners一样，不是执行器的线程调用的话，就包装成任务交给执行器去通知
+     */
+    @SuppressWarnings("unchecked")
+    protected void notifyProgressiveListeners(final long progress, final long total) {
+        final Object listeners = progressiveListeners();
+        if (listeners == null) {
+            return;
+        }
+        final ProgressiveFuture<V> self = (ProgressiveFuture<V>) this;
+        EventExecutor executor = executor();
+        if (executor.inEventLoop(Thread.currentThread())) {
+            if (listeners instanceof GenericProgressiveFutureListener[]) {
+                notifyProgressiveListeners0(self, (GenericProgressiveFutureListener<?>[]) listeners, progress, total);
+            } else {
+                notifyProgressiveListener0(self, (GenericProgressiveFutureListener<ProgressiveFuture<V>>) listeners, progress, total);
+            }
+        } else {
+            if (listeners instanceof GenericProgressiveFutureListener[]) {
+                final GenericProgressiveFutureListener<?>[] array = (GenericProgressiveFutureListener<?>[]) listeners;
+                safeExecute(executor, new Runnable() {
+                    @Override
+                    public void run() {
+                        notifyProgressiveListeners0(self, array, progress, total);
+                    }
+                });
+            } else {
+                final GenericProgressiveFutureListener<ProgressiveFuture<V>> l =
+                        (GenericProgressiveFutureListener<ProgressiveFuture<V>>) listeners;
+                safeExecute(executor, new Runnable() {
+                    @Override
+                    public void run() {
+                        notifyProgressiveListener0(self, l, progress, total);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:从所有的监听器中挑出进度监听器。只有一个的时候直接返回监听器本身，有多个的时候返回一个拷贝出来的数组，
+     * 没有的话返回null。DefaultFutureListeners中记录了进度监听器的个数，没有进度监听器的时候就不用遍历了
+     */
+    @SuppressWarnings("rawtypes")
+    private synchronized Object progressiveListeners() {
+        Object listeners = this.listeners;
+        if (listeners == null) {
+            return null;
+        }
+        if (listeners instanceof DefaultFutureListeners) {
+            DefaultFutureListeners dfl = (DefaultFutureListeners) listeners;
+            int progressiveSize = dfl.progressiveSize();
+            switch (progressiveSize) {
+                case 0:
+                    return null;
+                case 1:
+                    for (GenericFutureListener<?> l: dfl.listeners()) {
+                        if (l instanceof GenericProgressiveFutureListener) {
+                            return l;
+                        }
+                    }
+                    return null;
+                default:
+                    break;
+            }
+            GenericFutureListener<?>[] array = dfl.listeners();
+            GenericProgressiveFutureListener<?>[] copy = new GenericProgressiveFutureListener[progressiveSize];
+            for (int i = 0, j = 0; j < progressiveSize; i ++) {
+                GenericFutureListener<?> l = array[i];
+                if (l instanceof GenericProgressiveFutureListener) {
+                    copy[j ++] = (GenericProgressiveFutureListener<?>) l;
+                }
+            }
+            return copy;
+        } else if (listeners instanceof GenericProgressiveFutureListener) {
+            return listeners;
+        } else {
+            return null;
+        }
+    }
+
+    private static void notifyProgressiveListeners0(
+            ProgressiveFuture<?> future, GenericProgressiveFutureListener<?>[] listeners, long progress, long total) {
+        for (GenericProgressiveFutureListener<?> l: listeners) {
+            if (l == null) {
+                break;
+            }
+            notifyProgressiveListener0(future, l, progress, total);
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static void notifyProgressiveListener0(
+            ProgressiveFuture future, GenericProgressiveFutureListener l, long progress, long total) {
+        try {
+            l.operationProgressed(future, progress, total);
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+    }
+
     private void addListener0(GenericFutureListener<? extends Future<? super V>> listener) {
         //listeners为null，则说明在这之前没有添加监听器，直接把该监听器赋值给属性即可
         if (listeners == null) {
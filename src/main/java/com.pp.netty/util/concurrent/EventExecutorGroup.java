@@ -1,11 +1,12 @@
 package com.pp.netty.util.concurrent;
 
+import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 /**
  * @Author: PP-jessica
- * @Description:循环组的接口,暂时先不继承ScheduledExecutorService接口了
+ * @Description:循环组的接口,暂时先不继承ScheduledExecutorService接口了，需要用到的定时任务和关闭的方法直接定义在这里
  */
 public interface EventExecutorGroup extends Executor {
 
@@ -13,11 +14,44 @@ public interface EventExecutorGroup extends Executor {
 
     /**
      * @Author: PP-jessica
-     * @Description:下面这三个方法暂时不实现，源码中并不在本接口中，这里只是为了不报错，暂时放在这里
+     * @Description:提交定时任务，返回的ScheduledFuture可以添加监听器，也可以取消定时任务
      */
-    void shutdownGracefully();
+    ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit);
+
+    <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit);
+
+    ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit);
+
+    ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:执行器是否正在关闭，或者已经关闭了
+     */
+    boolean isShuttingDown();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:使用默认的静默期和超时时间优雅关闭执行器
+     */
+    Future<?> shutdownGracefully();
+
+    /**
+     * @Author: PP-jessica
+     * @Description:优雅关闭执行器。在静默期内如果还有任务被提交，执行器会继续执行任务，直到有一个完整的静默期没有任务提交，
+     * 才真正关闭。但无论如何，超过了超时时间执行器都会关闭。返回的future就是终止future
+     */
+    Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:执行器终止的时候，这个future会被设置成功
+     */
+    Future<?> terminationFuture();
+
+    boolean isShutdown();
 
     boolean isTerminated();
 
-    void awaitTermination(Integer integer, TimeUnit timeUnit) throws InterruptedException;
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException;
 }
@@ -0,0 +1,195 @@
+package com.pp.netty.util.concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @Author: PP-jessica
+ * @Description:全局的单线程执行器，执行器组和单线程执行器的终止future都使用它来通知监听器。
+ * 因为执行器终止之后就不能再执行任务了，所以终止future的监听器不能交给执行器自己来通知。
+ * 这个执行器的线程是按需启动的，任务执行完并且1秒内没有新任务提交，线程就会退出，有新任务时再启动
+ */
+public final class GlobalEventExecutor extends AbstractScheduledEventExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(GlobalEventExecutor.class);
+
+    //检查是否可以让线程退出的时间间隔
+    private static final long SCHEDULE_QUIET_PERIOD_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    public static final GlobalEventExecutor INSTANCE = new GlobalEventExecutor();
+
+    final BlockingQueue<Runnable> taskQueue = new LinkedBlockingQueue<Runnable>();
+
+    //一个什么都不做的周期任务，它的作用是让线程每隔1秒醒来一次，检查是否还有任务，没有任务线程就退出
+    final ScheduledFutureTask<Void> quietPeriodTask = new ScheduledFutureTask<Void>(
+            this, PromiseTask.<Void>toCallable(new Runnable() {
+                @Override
+                public void run() {
+                    // NOOP
+                }
+            }, null), ScheduledFutureTask.deadlineNanos(SCHEDULE_QUIET_PERIOD_INTERVAL), -SCHEDULE_QUIET_PERIOD_INTERVAL);
+
+    private final ThreadFactory threadFactory =
+            new DefaultThreadFactory("globalEventExecutor", true, Thread.NORM_PRIORITY);
+
+    private final TaskRunner taskRunner = new TaskRunner();
+
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    volatile Thread thread;
+
+    //全局执行器永远不会终止，所以这个future永远不会完成
+    private final Future<?> terminationFuture = new DefaultPromise<Void>(this);
+
+    private GlobalEventExecutor() {
+        scheduledTaskQueue().add(quietPeriodTask);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:从任务队列中取出一个任务，如果有定时任务，最多只阻塞到最近的定时任务到期
+     */
+    Runnable takeTask() {
+        BlockingQueue<Runnable> taskQueue = this.taskQueue;
+        for (;;) {
+            ScheduledFutureTask<?> scheduledTask = peekScheduledTask();
+            if (scheduledTask == null) {
+                Runnable task = null;
+                try {
+                    task = taskQueue.take();
+                } catch (InterruptedException e) {
+                    // Ignore
+                }
+                return task;
+            } else {
+                long delayNanos = scheduledTask.delayNanos();
+                Runnable task = null;
+                if (delayNanos > 0) {
+                    try {
+                        task = taskQueue.poll(delayNanos, TimeUnit.NANOSECONDS);
+                    } catch (InterruptedException e) {
+                        return null;
+                    }
+                }
+                if (task == null) {
+                    //把到期的定时任务转移到任务队列中
+                    fetchFromScheduledTaskQueue();
+                    task = taskQueue.poll();
+                }
+                if (task != null) {
+                    return task;
+                }
+            }
+        }
+    }
+
+    private void fetchFromScheduledTaskQueue() {
+        long nanoTime = AbstractScheduledEventExecutor.nanoTime();
+        Runnable scheduledTask = pollScheduledTask(nanoTime);
+        while (scheduledTask != null) {
+            taskQueue.add(scheduledTask);
+            scheduledTask = pollScheduledTask(nanoTime);
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+        taskQueue.add(task);
+        if (!inEventLoop(Thread.currentThread())) {
+            startThread();
+        }
+    }
+
+    private void startThread() {
+        if (started.compareAndSet(false, true)) {
+            final Thread t = threadFactory.newThread(taskRunner);
+            thread = t;
+            t.start();
+        }
+    }
+
+    @Override
+    public boolean inEventLoop(Thread thread) {
+        return thread == this.thread;
+    }
+
+    @Override
+    public EventExecutor next() {
+        return this;
+    }
+
+    @Override
+    public EventExecutorGroup parent() {
+        return null;
+    }
+
+    @Override
+    public boolean isShuttingDown() {
+        return false;
+    }
+
+    @Override
+    public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+        return terminationFuture();
+    }
+
+    @Override
+    public Future<?> terminationFuture() {
+        return terminationFuture;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return false;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return false;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+        return false;
+    }
+
+    final class TaskRunner implements Runnable {
+        @Override
+        public void run() {
+            for (;;) {
+                Runnable task = takeTask();
+                if (task != null) {
+                    try {
+                        task.run();
+                    } catch (Throwable t) {
+                        logger.warn("Unexpected exception from the global event executor: ", t);
+                    }
+                    if (task != quietPeriodTask) {
+                        continue;
+                    }
+                }
+                //只剩下quietPeriodTask这一个定时任务，并且任务队列也空了，线程就可以退出了
+                if (taskQueue.isEmpty() && scheduledTaskQueue().size() == 1) {
+                    boolean stopped = started.compareAndSet(true, false);
+                    assert stopped;
+                    //退出之前再检查一次，如果有任务在这期间被提交，并且没有别的线程启动新线程，就继续执行
+                    if (taskQueue.isEmpty()) {
+                        break;
+                    }
+                    if (!started.compareAndSet(false, true)) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.pp.netty.util.concurrent;
 
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.concurrent.Executor;
@@ -8,12 +9,13 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
-public abstract class MultithreadEventExecutorGroup extends AbstractEventExecutorGroup{
+public abstract class MultithreadEventExecutorGroup extends AbstractEventExecutorGroup implements Iterable<EventExecutor> {
 
     private final EventExecutor[] children;
     private final Set<EventExecutor> readonlyChildren;
     private final AtomicInteger terminatedChildren = new AtomicInteger();
-    //private final Promise<?> terminationFuture = new DefaultPromise(GlobalEventExecutor.INSTANCE);
+    //所有的执行器都终止之后，执行器组的终止future才会被设置成功
+    private final Promise<?> terminationFuture = new DefaultPromise<Void>(GlobalEventExecutor.INSTANCE);
     private final EventExecutorChooserFactory.EventExecutorChooser chooser;
 
 
@@ -57,6 +59,7 @@ public abstract class MultithreadEventExecutorGroup extends AbstractEventExecuto
                         EventExecutor e = children[j];
                         try {
                             //判断正在关闭的执行器的状态，如果还没终止，就等待一些时间再终止
+                            //还没有启动的执行器在关闭的时候也会启动线程，走完关闭流程后终止，所以这里不会一直等下去
                             while (!e.isTerminated()) {
                                 e.awaitTermination(Integer.MAX_VALUE, TimeUnit.SECONDS);
                             }
@@ -71,6 +74,18 @@ public abstract class MultithreadEventExecutorGroup extends AbstractEventExecuto
         }
         //执行器选择器
         chooser = chooserFactory.newChooser(children);
+        //每个执行器终止的时候计数加一，全部终止之后设置执行器组的终止future
+        final FutureListener<Object> terminationListener = new FutureListener<Object>() {
+            @Override
+            public void operationComplete(Future<Object> future) throws Exception {
+                if (terminatedChildren.incrementAndGet() == children.length) {
+                    terminationFuture.setSuccess(null);
+                }
+            }
+        };
+        for (EventExecutor e: children) {
+            e.terminationFuture().addListener(terminationListener);
+        }
         Set<EventExecutor> childrenSet = new LinkedHashSet<EventExecutor>(children.length);
         Collections.addAll(childrenSet, children);
         readonlyChildren = Collections.unmodifiableSet(childrenSet);
@@ -86,12 +101,78 @@ public abstract class MultithreadEventExecutorGroup extends AbstractEventExecuto
     }
 
     @Override
-    public void shutdownGracefully() {
+    public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+        for (EventExecutor l: children) {
+            l.shutdownGracefully(quietPeriod, timeout, unit);
+        }
+        return terminationFuture();
+    }
+
+    @Override
+    public Future<?> terminationFuture() {
+        return terminationFuture;
+    }
+
+    @Override
+    public boolean isShuttingDown() {
+        for (EventExecutor l: children) {
+            if (!l.isShuttingDown()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isShutdown() {
         for (EventExecutor l: children) {
-            l.shutdownGracefully();
+            if (!l.isShutdown()) {
+                return false;
+            }
         }
+        return true;
     }
 
+    @Override
+    public boolean isTerminated() {
+        for (EventExecutor l: children) {
+            if (!l.isTerminated()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:依次等待每个执行器终止，所有执行器共用同一个截止时间
+     */
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        loop: for (EventExecutor l: children) {
+            for (;;) {
+                long timeLeft = deadline - System.nanoTime();
+                if (timeLeft <= 0) {
+                    break loop;
+                }
+                if (l.awaitTermination(timeLeft, TimeUnit.NANOSECONDS)) {
+                    break;
+                }
+            }
+        }
+        return isTerminated();
+    }
+
+
+    /**
+     * @Author: PP-jessica
+     * @Description:遍历组内所有的执行器，得到的是只读集合的迭代器
+     */
+    @Override
+    public Iterator<EventExecutor> iterator() {
+        return readonlyChildren.iterator();
+    }
 
     public final int executorCount() {
         return children.length;
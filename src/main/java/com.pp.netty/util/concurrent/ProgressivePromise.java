@@ -0,0 +1,50 @@
+package com.pp.netty.util.concurrent;
+
+/**
+ * @Author: PP-jessica
+ * @Description:可以报告操作进度的promise，操作每有一点进展，就调用setProgress或者tryProgress通知进度监听器
+ */
+public interface ProgressivePromise<V> extends Promise<V>, ProgressiveFuture<V> {
+
+    /**
+     * @Author: PP-jessica
+     * @Description:设置当前的进度，total为负数表示总量未知，进度不合法会抛出异常
+     */
+    ProgressivePromise<V> setProgress(long progress, long total);
+
+    /**
+     * @Author: PP-jessica
+     * @Description:尝试设置当前的进度，操作已经完成或者进度不合法的时候返回false
+     */
+    boolean tryProgress(long progress, long total);
+
+    @Override
+    ProgressivePromise<V> setSuccess(V result);
+
+    @Override
+    ProgressivePromise<V> setFailure(Throwable cause);
+
+    @Override
+    ProgressivePromise<V> addListener(GenericFutureListener<? extends Future<? super V>> listener);
+
+    @Override
+    ProgressivePromise<V> addListeners(GenericFutureListener<? extends Future<? super V>>... listeners);
+
+    @Override
+    ProgressivePromise<V> removeListener(GenericFutureListener<? extends Future<? super V>> listener);
+
+    @Override
+    ProgressivePromise<V> removeListeners(GenericFutureListener<? extends Future<? super V>>... listeners);
+
+    @Override
+    ProgressivePromise<V> await() throws InterruptedException;
+
+    @Override
+    ProgressivePromise<V> awaitUninterruptibly();
+
+    @Override
+    ProgressivePromise<V> sync() throws InterruptedException;
+
+    @Override
+    ProgressivePromise<V> syncUninterruptibly();
+}
@@ -0,0 +1,118 @@
+package com.pp.netty.util.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.RunnableFuture;
+
+/**
+ * @Author: PP-jessica
+ * @Description:在DefaultPromise中提到过的PromiseTask，它既是一个promise，又是一个可以被执行器执行的任务，
+ * 任务执行完毕后会把结果设置到自己身上，这样就可以通知监听器了
+ */
+class PromiseTask<V> extends DefaultPromise<V> implements RunnableFuture<V> {
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把runnable适配成callable，和jdk中Executors.callable方法的作用一样
+     */
+    static <T> Callable<T> toCallable(Runnable runnable, T result) {
+        return new RunnableAdapter<T>(runnable, result);
+    }
+
+    private static final class RunnableAdapter<T> implements Callable<T> {
+        final Runnable task;
+        final T result;
+
+        RunnableAdapter(Runnable task, T result) {
+            this.task = task;
+            this.result = result;
+        }
+
+        @Override
+        public T call() {
+            task.run();
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "Callable(task: " + task + ", result: " + result + ')';
+        }
+    }
+
+    protected final Callable<V> task;
+
+    PromiseTask(EventExecutor executor, Runnable runnable, V result) {
+        this(executor, toCallable(runnable, result));
+    }
+
+    PromiseTask(EventExecutor executor, Callable<V> callable) {
+        super(executor);
+        task = callable;
+    }
+
+    @Override
+    public final int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public final boolean equals(Object obj) {
+        return this == obj;
+    }
+
+    @Override
+    public void run() {
+        try {
+            //先把任务设置为不可取消，设置成功才执行任务
+            if (setUncancellableInternal()) {
+                V result = task.call();
+                setSuccessInternal(result);
+            }
+        } catch (Throwable e) {
+            setFailureInternal(e);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:PromiseTask的结果只能由它自己在执行任务之后设置，所以这几个方法都不对外开放
+     */
+    @Override
+    public final Promise<V> setFailure(Throwable cause) {
+        throw new IllegalStateException();
+    }
+
+    protected final Promise<V> setFailureInternal(Throwable cause) {
+        super.tryFailure(cause);
+        return this;
+    }
+
+    @Override
+    public final boolean tryFailure(Throwable cause) {
+        return false;
+    }
+
+    @Override
+    public final Promise<V> setSuccess(V result) {
+        throw new IllegalStateException();
+    }
+
+    protected final Promise<V> setSuccessInternal(V result) {
+        super.trySuccess(result);
+        return this;
+    }
+
+    @Override
+    public final boolean trySuccess(V result) {
+        return false;
+    }
+
+    @Override
+    public final boolean setUncancellable() {
+        throw new IllegalStateException();
+    }
+
+    protected final boolean setUncancellableInternal() {
+        return super.setUncancellable();
+    }
+}
@@ -0,0 +1,8 @@
+package com.pp.netty.util.concurrent;
+
+/**
+ * @Author: PP-jessica
+ * @Description:定时任务的future，同时具备netty中future添加监听器的能力和jdk中ScheduledFuture获取剩余延时的能力
+ */
+public interface ScheduledFuture<V> extends Future<V>, java.util.concurrent.ScheduledFuture<V> {
+}
@@ -0,0 +1,189 @@
+package com.pp.netty.util.concurrent;
+
+import com.pp.netty.util.internal.DefaultPriorityQueue;
+import com.pp.netty.util.internal.PriorityQueueNode;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @Author: PP-jessica
+ * @Description:定时任务，被放在单线程执行器的定时任务队列中，按照截止时间排序
+ */
+final class ScheduledFutureTask<V> extends PromiseTask<V> implements ScheduledFuture<V>, PriorityQueueNode {
+
+    //定时任务的id生成器，截止时间相同的时候，先提交的任务先执行
+    private static final AtomicLong nextTaskId = new AtomicLong();
+
+    //所有定时任务的时间都是相对于这个时间的，这样就不用担心System.nanoTime()返回负数了
+    private static final long START_TIME = System.nanoTime();
+
+    static long nanoTime() {
+        return System.nanoTime() - START_TIME;
+    }
+
+    static long deadlineNanos(long delay) {
+        long deadlineNanos = nanoTime() + delay;
+        //防止溢出
+        return deadlineNanos < 0 ? Long.MAX_VALUE : deadlineNanos;
+    }
+
+    private final long id = nextTaskId.getAndIncrement();
+
+    //任务的截止时间
+    private long deadlineNanos;
+
+    //0表示只执行一次，大于0表示以固定频率执行，小于0表示以固定延时执行
+    private final long periodNanos;
+
+    //在定时任务队列中的下标
+    private int queueIndex = INDEX_NOT_IN_QUEUE;
+
+    ScheduledFutureTask(AbstractScheduledEventExecutor executor, Runnable runnable, V result, long nanoTime) {
+        this(executor, toCallable(runnable, result), nanoTime);
+    }
+
+    ScheduledFutureTask(AbstractScheduledEventExecutor executor, Callable<V> callable, long nanoTime, long period) {
+        super(executor, callable);
+        if (period == 0) {
+            throw new IllegalArgumentException("period: 0 (expected: != 0)");
+        }
+        deadlineNanos = nanoTime;
+        periodNanos = period;
+    }
+
+    ScheduledFutureTask(AbstractScheduledEventExecutor executor, Callable<V> callable, long nanoTime) {
+        super(executor, callable);
+        deadlineNanos = nanoTime;
+        periodNanos = 0;
+    }
+
+    @Override
+    protected EventExecutor executor() {
+        return super.executor();
+    }
+
+    public long deadlineNanos() {
+        return deadlineNanos;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:距离截止时间还剩多少纳秒
+     */
+    public long delayNanos() {
+        return Math.max(0, deadlineNanos() - nanoTime());
+    }
+
+    public long delayNanos(long currentTimeNanos) {
+        return Math.max(0, deadlineNanos() - (currentTimeNanos - START_TIME));
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(delayNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed o) {
+        if (this == o) {
+            return 0;
+        }
+        ScheduledFutureTask<?> that = (ScheduledFutureTask<?>) o;
+        long d = deadlineNanos() - that.deadlineNanos();
+        if (d < 0) {
+            return -1;
+        } else if (d > 0) {
+            return 1;
+        } else if (id < that.id) {
+            return -1;
+        } else if (id == that.id) {
+            throw new Error();
+        } else {
+            return 1;
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:执行定时任务，这个方法一定是单线程执行器的线程调用的
+     */
+    @Override
+    public void run() {
+        assert executor().inEventLoop(Thread.currentThread());
+        try {
+            if (periodNanos == 0) {
+                //只执行一次的任务，执行完设置结果即可
+                if (setUncancellableInternal()) {
+                    V result = task.call();
+                    setSuccessInternal(result);
+                }
+            } else {
+                //周期任务，执行完之后计算下一次的截止时间，再放回定时任务队列
+                if (!isCancelled()) {
+                    task.call();
+                    //执行器已经关闭了，周期任务就不再放回定时任务队列了
+                    if (!executor().isShutdown()) {
+                        if (periodNanos > 0) {
+                            //固定频率，下一次的截止时间是上一次的截止时间加上周期
+                            deadlineNanos += periodNanos;
+                        } else {
+                            //固定延时，下一次的截止时间是现在加上延时
+                            deadlineNanos = nanoTime() - periodNanos;
+                        }
+                        if (!isCancelled()) {
+                            DefaultPriorityQueue<ScheduledFutureTask<?>> scheduledTaskQueue =
+                                    ((AbstractScheduledEventExecutor) executor()).scheduledTaskQueue;
+                            assert scheduledTaskQueue != null;
+                            scheduledTaskQueue.add(this);
+                        }
+                    }
+                }
+            }
+        } catch (Throwable cause) {
+            setFailureInternal(cause);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:取消定时任务，取消成功之后还要把任务从定时任务队列中删除
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean canceled = super.cancel(mayInterruptIfRunning);
+        if (canceled) {
+            ((AbstractScheduledEventExecutor) executor()).removeScheduled(this);
+        }
+        return canceled;
+    }
+
+    boolean cancelWithoutRemove(boolean mayInterruptIfRunning) {
+        return super.cancel(mayInterruptIfRunning);
+    }
+
+    @Override
+    public int priorityQueueIndex(DefaultPriorityQueue<?> queue) {
+        return queueIndex;
+    }
+
+    @Override
+    public void priorityQueueIndex(DefaultPriorityQueue<?> queue, int i) {
+        queueIndex = i;
+    }
+
+    @Override
+    protected StringBuilder toStringBuilder() {
+        StringBuilder buf = super.toStringBuilder();
+        buf.setCharAt(buf.length() - 1, ',');
+        return buf.append(" id: ")
+                .append(id)
+                .append(", deadline: ")
+                .append(deadlineNanos)
+                .append(", period: ")
+                .append(periodNanos)
+                .append(')');
+    }
+}
@@ -1,12 +1,14 @@
 package com.pp.netty.util.concurrent;
 
 import com.pp.netty.util.internal.ObjectUtil;
+import com.pp.netty.util.internal.PlatformDependent;
+import com.pp.netty.util.internal.ThreadExecutorMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
@@ -16,9 +18,9 @@ import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
  * @Author: PP-jessica
  * @Description:单线程执行器，实际上这个类就是一个单线程的线程池，netty中所有任务都是被该执行器执行的
  * 既然是执行器(虽然该执行器中只有一个无限循环的线程工作)，但执行器应该具备的属性也不可少，比如任务队列，拒绝策略等等
- * 暂时让该类最为执行器的顶层类,在源码中该类还有两层继承的类
+ * 该类继承了AbstractScheduledEventExecutor，所以也可以执行定时任务，在源码中该类还有一层继承的类
  */
-public abstract class SingleThreadEventExecutor implements EventExecutor {
+public abstract class SingleThreadEventExecutor extends AbstractScheduledEventExecutor {
 
     private static final Logger logger = LoggerFactory.getLogger(SingleThreadEventExecutor.class);
     //执行器的初始状态，未启动
@@ -27,6 +29,15 @@ public abstract class SingleThreadEventExecutor implements EventExecutor {
     //执行器启动后的状态
     private static final int ST_STARTED = 2;
 
+    //正在关闭的状态，这时候执行器仍然会接收并执行任务，直到静默期内没有新任务提交或者超时
+    private static final int ST_SHUTTING_DOWN = 3;
+
+    //已经关闭的状态，不再接收新的任务，只把剩下的任务执行完
+    private static final int ST_SHUTDOWN = 4;
+
+    //已经终止的状态，线程已经退出，资源也都释放了
+    private static final int ST_TERMINATED = 5;
+
     private volatile int state = ST_NOT_STARTED;
     //执行器的状态更新器,也是一个原子类，通过cas来改变执行器的状态值
     private static final AtomicIntegerFieldUpdater<SingleThreadEventExecutor> STATE_UPDATER =
@@ -35,6 +46,17 @@ public abstract class SingleThreadEventExecutor implements EventExecutor {
     //任务队列的容量，默认是Integer的最大值
     protected static final int DEFAULT_MAX_PENDING_EXECUTOR_TASKS = Integer.MAX_VALUE;
 
+    //没有定时任务时，单线程执行器的线程默认阻塞的时间，1秒
+    private static final long SCHEDULE_PURGE_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    //一个空任务，没有重写wakeup方法的执行器会向任务队列中放入这个任务，用来唤醒阻塞在任务队列上的线程
+    private static final Runnable WAKEUP_TASK = new Runnable() {
+        @Override
+        public void run() {
+            // Do nothing.
+        }
+    };
+
     private final Queue<Runnable> taskQueue;
 
     private volatile Thread thread;
@@ -49,6 +71,23 @@ public abstract class SingleThreadEventExecutor implements EventExecutor {
 
     private final RejectedExecutionHandler rejectedExecutionHandler;
 
+    //执行器的线程退出时，会让等待终止的线程继续执行
+    private final CountDownLatch threadLock = new CountDownLatch(1);
+
+    //最后一次执行任务的时间，用来判断静默期内是否有任务被执行
+    private long lastExecutionTime;
+
+    //优雅关闭的静默期和超时时间，单位都是纳秒
+    private volatile long gracefulShutdownQuietPeriod;
+
+    private volatile long gracefulShutdownTimeout;
+
+    //开始优雅关闭的时间
+    private long gracefulShutdownStartTime;
+
+    //执行器终止的时候会被设置成功，执行器终止之后就不能再通知监听器了，所以要交给全局执行器来通知
+    private final Promise<?> terminationFuture = new DefaultPromise<Void>(GlobalEventExecutor.INSTANCE);
+
     protected SingleThreadEventExecutor(EventExecutorGroup parent, Executor executor,
                                         boolean addTaskWakesUp, Queue<Runnable> taskQueue,
                                         RejectedExecutionHandler rejectedHandler) {
@@ -61,8 +100,13 @@ public abstract class SingleThreadEventExecutor implements EventExecutor {
     }
 
 
+    /**
+     * @Author: PP-jessica
+     * @Description:任务队列默认是jctools的mpsc队列，只有单线程执行器的线程会从队列中取任务
+     */
     protected Queue<Runnable> newTaskQueue(int maxPendingTasks) {
-        return new LinkedBlockingQueue<Runnable>(maxPendingTasks);
+        return maxPendingTasks == Integer.MAX_VALUE ? PlatformDependent.<Runnable>newMpscQueue()
+                : PlatformDependent.<Runnable>newMpscQueue(maxPendingTasks);
     }
 
     /**
@@ -80,14 +124,48 @@ public abstract class SingleThreadEventExecutor implements EventExecutor {
         if (task == null) {
             throw new NullPointerException("task");
         }
+        boolean inEventLoop = inEventLoop(Thread.currentThread());
         //把任务提交到任务队列中
         addTask(task);
-        //启动单线程执行器中的线程
-        startThread();
+        if (!inEventLoop) {
+            //启动单线程执行器中的线程
+            startThread();
+            //执行器已经关闭了，要把刚才添加的任务删掉并拒绝，如果任务队列不支持删除，那么任务也有可能在关闭之前被执行
+            if (isShutdown()) {
+                boolean reject = false;
+                try {
+                    if (removeTask(task)) {
+                        reject = true;
+                    }
+                } catch (UnsupportedOperationException e) {
+                    //jctools的队列不支持删除任务
+                }
+                if (reject) {
+                    reject();
+                }
+            }
+        }
+        //如果提交任务并不会唤醒执行器的线程，就要手动唤醒一下，否则单线程执行器可能还阻塞在selector上
+        if (!addTaskWakesUp) {
+            wakeup(inEventLoop);
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:唤醒单线程执行器的线程，NioEventLoop会重写这个方法去唤醒selector
+     */
+    protected void wakeup(boolean inEventLoop) {
+        if (!inEventLoop || state == ST_SHUTTING_DOWN) {
+            taskQueue.offer(WAKEUP_TASK);
+        }
     }
 
-    private void startThread() {
-        //暂时先不考虑特别全面的线程池状态，只关心线程是否已经启动
+    /**
+     * @Author: PP-jessica
+     * @Description:启动执行器的线程，已经启动过的话什么也不做。子类提交不经过taskQueue的任务时也要调用它，比如尾部任务
+     */
+    protected final void startThread() {
         //如果执行器的状态是未启动，就cas将其状态值变为已启动
         if (state == ST_NOT_STARTED) {
             if (STATE_UPDATER.compareAndSet(this, ST_NOT_STARTED, ST_STARTED)) {
@@ -105,6 +183,26 @@ public abstract class SingleThreadEventExecutor implements EventExecutor {
         }
     }
 
+    /**
+     * @Author: PP-jessica
+     * @Description:执行器还没启动就被关闭了，这时候也要启动线程，让线程走一遍关闭的流程，这样终止future才会被设置成功
+     */
+    private boolean ensureThreadStarted(int oldState) {
+        if (oldState == ST_NOT_STARTED) {
+            try {
+                doStartThread();
+            } catch (Throwable cause) {
+                STATE_UPDATER.set(this, ST_TERMINATED);
+                terminationFuture.tryFailure(cause);
+                if (!(cause instanceof Exception)) {
+                    throw new RuntimeException(cause);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void doStartThread() {
         //这里的executor是ThreadPerTaskExecutor，runnable -> threadFactory.newThread(command).start()
         //threadFactory中new出来的thread就是单线程线程池中的线程，它会调用nioeventloop中的run方法，无限循环，直到资源被释放
@@ -112,18 +210,88 @@ public abstract class SingleThreadEventExecutor implements EventExecutor {
             @Override
             public void run() {
                 //Thread.currentThread得到的就是正在执行任务的单线程执行器的线程，这里把它赋值给thread属性十分重要
-                //暂时先记住这一点
                 thread = Thread.currentThread();
+                ThreadExecutorMap.setCurrentEventExecutor(SingleThreadEventExecutor.this);
                 if (interrupted) {
                     thread.interrupt();
                 }
-                //线程开始轮询处理IO事件，父类中的关键字this代表的是子类对象，这里调用的是nioeventloop中的run方法
-                SingleThreadEventExecutor.this.run();
-                logger.info("单线程执行器的线程错误结束了！");
+                updateLastExecutionTime();
+                try {
+                    //线程开始轮询处理IO事件，父类中的关键字this代表的是子类对象，这里调用的是nioeventloop中的run方法
+                    //只有执行器开始关闭之后，run方法才会返回
+                    SingleThreadEventExecutor.this.run();
+                } catch (Throwable t) {
+                    logger.warn("Unexpected exception from an event executor: ", t);
+                } finally {
+                    //run方法因为异常退出的时候，状态可能还是已启动，这里要改成正在关闭
+                    for (;;) {
+                        int oldState = state;
+                        if (oldState >= ST_SHUTTING_DOWN || STATE_UPDATER.compareAndSet(
+                                SingleThreadEventExecutor.this, oldState, ST_SHUTTING_DOWN)) {
+                            break;
+                        }
+                    }
+                    try {
+                        //在静默期内继续执行任务，直到可以关闭
+                        for (;;) {
+                            if (confirmShutdown()) {
+                                break;
+                            }
+                        }
+                        //改成已关闭的状态，之后提交的任务都会被拒绝
+                        for (;;) {
+                            int oldState = state;
+                            if (oldState >= ST_SHUTDOWN || STATE_UPDATER.compareAndSet(
+                                    SingleThreadEventExecutor.this, oldState, ST_SHUTDOWN)) {
+                                break;
+                            }
+                        }
+                        //在状态改成已关闭之前提交的任务，在这里最后执行一次
+                        confirmShutdown();
+                    } finally {
+                        try {
+                            //释放资源，NioEventLoop会在这里关闭selector
+                            cleanup();
+                        } finally {
+                            STATE_UPDATER.set(SingleThreadEventExecutor.this, ST_TERMINATED);
+                            threadLock.countDown();
+                            int numUserTasks = drainTasks();
+                            if (numUserTasks > 0) {
+                                logger.warn("An event executor terminated with non-empty task queue ({})", numUserTasks);
+                            }
+                            terminationFuture.setSuccess(null);
+                        }
+                    }
+                }
             }
         });
     }
 
+    /**
+     * @Author: PP-jessica
+     * @Description:执行器终止之后，把任务队列中剩下的任务都清空，返回用户提交的任务的个数
+     */
+    final int drainTasks() {
+        int numTasks = 0;
+        for (;;) {
+            Runnable runnable = taskQueue.poll();
+            if (runnable == null) {
+                break;
+            }
+            if (WAKEUP_TASK != runnable) {
+                numTasks++;
+            }
+        }
+        return numTasks;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:执行器的线程退出之前会调用这个方法释放资源，由子类实现
+     */
+    protected void cleanup() {
+    }
+
     /**
      * @Author: PP-jessica
      * @Description:判断当前执行任务的线程是否是执行器的线程。这个方法至关重要，现在先有个印象
@@ -145,6 +313,10 @@ public abstract class SingleThreadEventExecutor implements EventExecutor {
         if (task == null) {
             throw new NullPointerException("task");
         }
+        //执行器已经关闭了，不再接收新的任务
+        if (isShutdown()) {
+            reject();
+        }
         //如果添加失败，执行拒绝策略
         if (!offerTask(task)) {
             reject(task);
@@ -156,15 +328,57 @@ public abstract class SingleThreadEventExecutor implements EventExecutor {
         return taskQueue.offer(task);
     }
 
-    protected void runAllTasks() {
-        runAllTasksFrom(taskQueue);
+    protected boolean removeTask(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+        return taskQueue.remove(task);
     }
 
-    protected void runAllTasksFrom(Queue<Runnable> taskQueue) {
+    /**
+     * @Author: PP-jessica
+     * @Description:把已经到期的定时任务从定时任务队列转移到普通任务队列中，如果普通任务队列满了，
+     * 就把定时任务放回定时任务队列，返回false，下一轮再转移
+     */
+    private boolean fetchFromScheduledTaskQueue() {
+        long nanoTime = AbstractScheduledEventExecutor.nanoTime();
+        Runnable scheduledTask  = pollScheduledTask(nanoTime);
+        while (scheduledTask != null) {
+            if (!taskQueue.offer(scheduledTask)) {
+                scheduledTaskQueue().add((ScheduledFutureTask<?>) scheduledTask);
+                return false;
+            }
+            scheduledTask  = pollScheduledTask(nanoTime);
+        }
+        return true;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:执行所有任务，包括已经到期的定时任务。因为转移定时任务时任务队列可能会满，
+     * 所以要循环转移和执行，直到到期的定时任务都被转移完
+     */
+    protected boolean runAllTasks() {
+        boolean fetchedAll;
+        boolean ranAtLeastOne = false;
+        do {
+            fetchedAll = fetchFromScheduledTaskQueue();
+            if (runAllTasksFrom(taskQueue)) {
+                ranAtLeastOne = true;
+            }
+        } while (!fetchedAll);
+        if (ranAtLeastOne) {
+            updateLastExecutionTime();
+        }
+        afterRunningAllTasks();
+        return ranAtLeastOne;
+    }
+
+    protected boolean runAllTasksFrom(Queue<Runnable> taskQueue) {
         //从任务对立中拉取任务,如果第一次拉取就为null，说明任务队列中没有任务，直接返回即可
         Runnable task = pollTaskFrom(taskQueue);
         if (task == null) {
-            return;
+            return false;
         }
         for (;;) {
             //执行任务队列中的任务
@@ -172,11 +386,69 @@ public abstract class SingleThreadEventExecutor implements EventExecutor {
             //执行完毕之后，拉取下一个任务，如果为null就直接返回
             task = pollTaskFrom(taskQueue);
             if (task == null) {
-                return;
+                return true;
             }
         }
     }
 
+    /**
+     * @Author: PP-jessica
+     * @Description:在给定的时间内执行任务队列中的任务，超时了就退出，剩下的任务留到下一轮循环再执行
+     * 因为System.nanoTime()本身也有开销，所以并不是每执行完一个任务就检查一次，而是每执行64个任务检查一次
+     */
+    protected boolean runAllTasks(long timeoutNanos) {
+        fetchFromScheduledTaskQueue();
+        Runnable task = pollTaskFrom(taskQueue);
+        if (task == null) {
+            afterRunningAllTasks();
+            return false;
+        }
+        //执行任务的截止时间
+        final long deadline = System.nanoTime() + timeoutNanos;
+        long runTasks = 0;
+        for (;;) {
+            safeExecute(task);
+            runTasks ++;
+            //0x3F就是63，runTasks是64的倍数的时候才检查是否超时
+            if ((runTasks & 0x3F) == 0) {
+                if (System.nanoTime() >= deadline) {
+                    break;
+                }
+            }
+            task = pollTaskFrom(taskQueue);
+            if (task == null) {
+                break;
+            }
+        }
+        updateLastExecutionTime();
+        afterRunningAllTasks();
+        return true;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:每一轮执行完任务队列中的任务之后都会调用这个方法，SingleThreadEventLoop会在这里执行尾部任务
+     */
+    protected void afterRunningAllTasks() {
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:距离最近的定时任务到期还有多少纳秒，没有定时任务就返回默认的1秒，
+     * NioEventLoop会用这个时间作为selector阻塞的超时时间
+     */
+    protected long delayNanos(long currentTimeNanos) {
+        ScheduledFutureTask<?> scheduledTask = peekScheduledTask();
+        if (scheduledTask == null) {
+            return SCHEDULE_PURGE_INTERVAL;
+        }
+        return scheduledTask.delayNanos(currentTimeNanos);
+    }
+
+    private void updateLastExecutionTime() {
+        lastExecutionTime = AbstractScheduledEventExecutor.nanoTime();
+    }
+
     private void safeExecute(Runnable task) {
         try {
             task.run();
@@ -186,7 +458,13 @@ public abstract class SingleThreadEventExecutor implements EventExecutor {
     }
 
     protected static Runnable pollTaskFrom(Queue<Runnable> taskQueue) {
-        return taskQueue.poll();
+        //唤醒任务只是用来唤醒线程的，不需要执行，直接跳过
+        for (;;) {
+            Runnable task = taskQueue.poll();
+            if (task != WAKEUP_TASK) {
+                return task;
+            }
+        }
     }
 
     protected static void reject() {
@@ -212,19 +490,140 @@ public abstract class SingleThreadEventExecutor implements EventExecutor {
         }
     }
 
+    /**
+     * @Author: PP-jessica
+     * @Description:优雅关闭执行器，这里只是把状态改成正在关闭并唤醒线程，真正的关闭流程是执行器的线程在run方法返回之后做的
+     */
     @Override
-    public void shutdownGracefully() {
+    public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+        ObjectUtil.checkPositiveOrZero(quietPeriod, "quietPeriod");
+        if (timeout < quietPeriod) {
+            throw new IllegalArgumentException(
+                    "timeout: " + timeout + " (expected >= quietPeriod (" + quietPeriod + "))");
+        }
+        ObjectUtil.checkNotNull(unit, "unit");
+        if (isShuttingDown()) {
+            return terminationFuture();
+        }
+        boolean inEventLoop = inEventLoop(Thread.currentThread());
+        boolean wakeup;
+        int oldState;
+        for (;;) {
+            if (isShuttingDown()) {
+                return terminationFuture();
+            }
+            int newState;
+            wakeup = true;
+            oldState = state;
+            if (inEventLoop) {
+                newState = ST_SHUTTING_DOWN;
+            } else {
+                switch (oldState) {
+                    case ST_NOT_STARTED:
+                    case ST_STARTED:
+                        newState = ST_SHUTTING_DOWN;
+                        break;
+                    default:
+                        newState = oldState;
+                        wakeup = false;
+                }
+            }
+            if (STATE_UPDATER.compareAndSet(this, oldState, newState)) {
+                break;
+            }
+        }
+        gracefulShutdownQuietPeriod = unit.toNanos(quietPeriod);
+        gracefulShutdownTimeout = unit.toNanos(timeout);
+        if (ensureThreadStarted(oldState)) {
+            return terminationFuture;
+        }
+        if (wakeup) {
+            taskQueue.offer(WAKEUP_TASK);
+            if (!addTaskWakesUp) {
+                wakeup(inEventLoop);
+            }
+        }
+        return terminationFuture();
+    }
 
+    /**
+     * @Author: PP-jessica
+     * @Description:确认是否可以关闭了。这个方法只能由执行器的线程调用，返回true表示可以关闭。
+     * 如果静默期内还有任务被执行，就返回false，让执行器的线程继续执行任务，超过了超时时间则无论如何都返回true
+     */
+    protected boolean confirmShutdown() {
+        if (!isShuttingDown()) {
+            return false;
+        }
+        if (!inEventLoop(Thread.currentThread())) {
+            throw new IllegalStateException("must be invoked from an event loop");
+        }
+        //定时任务直接取消，不会再执行了
+        cancelScheduledTasks();
+        if (gracefulShutdownStartTime == 0) {
+            gracefulShutdownStartTime = AbstractScheduledEventExecutor.nanoTime();
+        }
+        if (runAllTasks()) {
+            if (isShutdown()) {
+                return true;
+            }
+            //执行了任务，并且静默期为0，可以直接关闭
+            if (gracefulShutdownQuietPeriod == 0) {
+                return true;
+            }
+            taskQueue.offer(WAKEUP_TASK);
+            return false;
+        }
+        final long nanoTime = AbstractScheduledEventExecutor.nanoTime();
+        if (isShutdown() || nanoTime - gracefulShutdownStartTime > gracefulShutdownTimeout) {
+            return true;
+        }
+        //距离上一次执行任务还没有超过静默期，每100毫秒检查一次是否有新的任务
+        if (nanoTime - lastExecutionTime <= gracefulShutdownQuietPeriod) {
+            taskQueue.offer(WAKEUP_TASK);
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                // Ignore
+            }
+            return false;
+        }
+        //静默期内没有任务被执行，可以关闭了
+        return true;
     }
 
     @Override
-    public boolean isTerminated() {
-        return false;
+    public Future<?> terminationFuture() {
+        return terminationFuture;
+    }
+
+    @Override
+    public boolean isShuttingDown() {
+        return state >= ST_SHUTTING_DOWN;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return state >= ST_SHUTDOWN;
     }
 
     @Override
-    public void awaitTermination(Integer integer, TimeUnit timeUnit) throws InterruptedException{
+    public boolean isTerminated() {
+        return state == ST_TERMINATED;
+    }
 
+    /**
+     * @Author: PP-jessica
+     * @Description:等待执行器终止，执行器自己的线程不能调用这个方法，否则会永远等下去
+     */
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        ObjectUtil.checkNotNull(unit, "unit");
+        if (inEventLoop(Thread.currentThread())) {
+            throw new IllegalStateException("cannot await termination of the current thread");
+        }
+        threadLock.await(timeout, unit);
+        return isTerminated();
     }
 
     public Queue<Runnable> getTaskQueue() {
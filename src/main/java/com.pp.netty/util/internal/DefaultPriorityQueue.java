@@ -0,0 +1,207 @@
+package com.pp.netty.util.internal;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static com.pp.netty.util.internal.PriorityQueueNode.INDEX_NOT_IN_QUEUE;
+
+/**
+ * @Author: PP-jessica
+ * @Description:netty自己实现的优先级队列，底层是数组实现的小顶堆，和jdk的PriorityQueue最大的区别是，
+ * 每个节点都记录了自己在数组中的下标，所以remove和contains都是O(log n)和O(1)的，而jdk的实现是O(n)。
+ * 定时任务被取消的时候要从队列中删除，这个优化就很有用了。该类不是线程安全的，只能由单线程执行器自己的线程访问
+ */
+public final class DefaultPriorityQueue<T extends PriorityQueueNode> extends AbstractQueue<T> {
+
+    private static final PriorityQueueNode[] EMPTY_ARRAY = new PriorityQueueNode[0];
+
+    private final Comparator<T> comparator;
+
+    private T[] queue;
+
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public DefaultPriorityQueue(Comparator<T> comparator, int initialSize) {
+        this.comparator = ObjectUtil.checkNotNull(comparator, "comparator");
+        queue = (T[]) (initialSize != 0 ? new PriorityQueueNode[initialSize] : EMPTY_ARRAY);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof PriorityQueueNode)) {
+            return false;
+        }
+        PriorityQueueNode node = (PriorityQueueNode) o;
+        return contains(node, node.priorityQueueIndex(this));
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; ++i) {
+            T node = queue[i];
+            if (node != null) {
+                node.priorityQueueIndex(this, INDEX_NOT_IN_QUEUE);
+                queue[i] = null;
+            }
+        }
+        size = 0;
+    }
+
+    @Override
+    public boolean offer(T e) {
+        if (e.priorityQueueIndex(this) != INDEX_NOT_IN_QUEUE) {
+            throw new IllegalArgumentException("e.priorityQueueIndex(): " + e.priorityQueueIndex(this) +
+                    " (expected: " + INDEX_NOT_IN_QUEUE + ") + e: " + e);
+        }
+        //数组满了就扩容，小的时候翻倍，大了之后每次扩容50%
+        if (size >= queue.length) {
+            queue = Arrays.copyOf(queue, queue.length + ((queue.length < 64) ?
+                    (queue.length + 2) :
+                    (queue.length >>> 1)));
+        }
+        //新节点放在末尾，然后向上调整
+        bubbleUp(size++, e);
+        return true;
+    }
+
+    @Override
+    public T poll() {
+        if (size == 0) {
+            return null;
+        }
+        T result = queue[0];
+        result.priorityQueueIndex(this, INDEX_NOT_IN_QUEUE);
+        //把最后一个节点放到堆顶，然后向下调整
+        T last = queue[--size];
+        queue[size] = null;
+        if (size != 0) {
+            bubbleDown(0, last);
+        }
+        return result;
+    }
+
+    @Override
+    public T peek() {
+        return (size == 0) ? null : queue[0];
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean remove(Object o) {
+        final T node;
+        try {
+            node = (T) o;
+        } catch (ClassCastException e) {
+            return false;
+        }
+        return removeTyped(node);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:根据节点自己记录的下标直接删除，不需要遍历
+     */
+    public boolean removeTyped(T node) {
+        int i = node.priorityQueueIndex(this);
+        if (!contains(node, i)) {
+            return false;
+        }
+        node.priorityQueueIndex(this, INDEX_NOT_IN_QUEUE);
+        if (--size == 0 || size == i) {
+            queue[i] = null;
+            return true;
+        }
+        //用最后一个节点填补被删除节点的位置，先尝试向下调整，如果没有移动就再向上调整
+        T moved = queue[i] = queue[size];
+        queue[size] = null;
+        if (comparator.compare(node, moved) < 0) {
+            bubbleDown(i, moved);
+        } else {
+            bubbleUp(i, moved);
+        }
+        return true;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new PriorityQueueIterator();
+    }
+
+    private final class PriorityQueueIterator implements Iterator<T> {
+        private int index;
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        public T next() {
+            if (index >= size) {
+                throw new NoSuchElementException();
+            }
+            return queue[index++];
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("remove");
+        }
+    }
+
+    private boolean contains(PriorityQueueNode node, int i) {
+        return i >= 0 && i < size && node.equals(queue[i]);
+    }
+
+    private void bubbleDown(int k, T node) {
+        final int half = size >>> 1;
+        while (k < half) {
+            //找到左右子节点中较小的那个
+            int iChild = (k << 1) + 1;
+            T child = queue[iChild];
+            int rightChild = iChild + 1;
+            if (rightChild < size && comparator.compare(child, queue[rightChild]) > 0) {
+                child = queue[iChild = rightChild];
+            }
+            //当前节点已经比子节点小了，调整结束
+            if (comparator.compare(node, child) <= 0) {
+                break;
+            }
+            queue[k] = child;
+            child.priorityQueueIndex(this, k);
+            k = iChild;
+        }
+        queue[k] = node;
+        node.priorityQueueIndex(this, k);
+    }
+
+    private void bubbleUp(int k, T node) {
+        while (k > 0) {
+            int iParent = (k - 1) >>> 1;
+            T parent = queue[iParent];
+            //当前节点已经比父节点大了，调整结束
+            if (comparator.compare(node, parent) >= 0) {
+                break;
+            }
+            queue[k] = parent;
+            parent.priorityQueueIndex(this, k);
+            k = iParent;
+        }
+        queue[k] = node;
+        node.priorityQueueIndex(this, k);
+    }
+}
@@ -0,0 +1,221 @@
+package com.pp.netty.util.internal;
+
+import org.jctools.queues.MpscArrayQueue;
+import org.jctools.queues.MpscChunkedArrayQueue;
+import org.jctools.queues.MpscUnboundedArrayQueue;
+import org.jctools.queues.atomic.MpscAtomicArrayQueue;
+import org.jctools.queues.atomic.MpscChunkedAtomicArrayQueue;
+import org.jctools.queues.atomic.MpscUnboundedAtomicArrayQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sun.misc.Unsafe;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+
+/**
+ * @Author: PP-jessica
+ * @Description:netty中的平台相关工具类，源码中这个类非常庞大，这里只引入用得到的方法。
+ * 主要是得到jdk的Unsafe对象以及当前的java版本，NioEventLoop替换selector中的selectedKeys属性时要用到
+ * 还有就是创建jctools中的多生产者单消费者队列，单线程执行器的任务队列就是这种队列，以及释放直接内存
+ */
+public final class PlatformDependent {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlatformDependent.class);
+
+    private static final int JAVA_VERSION = javaVersion0();
+
+    private static final Unsafe UNSAFE = getUnsafe();
+
+    //释放直接内存的方法，java9以上是Unsafe的invokeCleaner方法，java8是DirectByteBuffer的cleaner方法
+    private static final Method INVOKE_CLEANER = invokeCleanerMethod();
+
+    //可以使用的最大直接内存，内存池要根据它来决定直接内存arena的数量
+    private static final long MAX_DIRECT_MEMORY = maxDirectMemory0();
+
+    //mpsc队列每次扩容时新分配的数组块的大小
+    private static final int MPSC_CHUNK_SIZE =  1024;
+    //有界mpsc队列的最小容量和最大容量
+    private static final int MIN_MAX_MPSC_CAPACITY =  MPSC_CHUNK_SIZE * 2;
+    private static final int MAX_ALLOWED_MPSC_CAPACITY = 1 << 30;
+
+    private PlatformDependent() {
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:得到当前的java版本，1.8返回8，9以上直接返回主版本号
+     */
+    public static int javaVersion() {
+        return JAVA_VERSION;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:判断是否可以使用Unsafe
+     */
+    public static boolean hasUnsafe() {
+        return UNSAFE != null;
+    }
+
+    public static long objectFieldOffset(Field field) {
+        return UNSAFE.objectFieldOffset(field);
+    }
+
+    public static void putObject(Object o, long offset, Object x) {
+        UNSAFE.putObject(o, offset, x);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:创建一个无界的mpsc队列，多个线程向队列中添加任务，只有单线程执行器的线程从队列中取任务，
+     * 这正是netty中任务队列的使用场景。jctools的mpsc队列offer时只有一次cas，poll时没有任何竞争，
+     * 比LinkedBlockingQueue每次都要加锁快得多
+     */
+    public static <T> Queue<T> newMpscQueue() {
+        return hasUnsafe() ? new MpscUnboundedArrayQueue<T>(MPSC_CHUNK_SIZE)
+                : new MpscUnboundedAtomicArrayQueue<T>(MPSC_CHUNK_SIZE);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:创建一个有界的mpsc队列，数组按块分配，用多少分配多少
+     */
+    public static <T> Queue<T> newMpscQueue(final int maxCapacity) {
+        final int capacity = Math.max(Math.min(maxCapacity, MAX_ALLOWED_MPSC_CAPACITY), MIN_MAX_MPSC_CAPACITY);
+        return hasUnsafe() ? new MpscChunkedArrayQueue<T>(MPSC_CHUNK_SIZE, capacity)
+                : new MpscChunkedAtomicArrayQueue<T>(MPSC_CHUNK_SIZE, capacity);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:创建一个容量固定的mpsc队列，数组一次分配好，适合容量比较小的场景，比如内存池的线程缓存
+     */
+    public static <T> Queue<T> newFixedMpscQueue(int capacity) {
+        return hasUnsafe() ? new MpscArrayQueue<T>(capacity) : new MpscAtomicArrayQueue<T>(capacity);
+    }
+
+    public static long maxDirectMemory() {
+        return MAX_DIRECT_MEMORY;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:立刻释放直接内存，不用等到ByteBuffer对象被垃圾回收。直接内存的ByteBuf引用计数减到0的时候会调用这个方法
+     */
+    public static void freeDirectBuffer(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect()) {
+            return;
+        }
+        try {
+            if (INVOKE_CLEANER == null) {
+                //java8的做法，得到DirectByteBuffer的cleaner再调用clean方法
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            } else {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            }
+        } catch (Throwable cause) {
+            //释放失败也没关系，等ByteBuffer被垃圾回收的时候直接内存也会被释放
+            logger.debug("Failed to free a direct buffer: {}", cause.getMessage());
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:从启动参数中解析-XX:MaxDirectMemorySize，没有设置的话jvm默认和最大堆内存一样大
+     */
+    private static long maxDirectMemory0() {
+        long maxDirectMemory = 0;
+        try {
+            List<String> vmArgs = ManagementFactory.getRuntimeMXBean().getInputArguments();
+            for (int i = vmArgs.size() - 1; i >= 0; i --) {
+                String arg = vmArgs.get(i);
+                if (!arg.startsWith("-XX:MaxDirectMemorySize=")) {
+                    continue;
+                }
+                String value = arg.substring("-XX:MaxDirectMemorySize=".length()).toLowerCase(Locale.ROOT);
+                long multiplier = 1;
+                char unit = value.charAt(value.length() - 1);
+                if (unit == 'k') {
+                    multiplier = 1024;
+                } else if (unit == 'm') {
+                    multiplier = 1024 * 1024;
+                } else if (unit == 'g') {
+                    multiplier = 1024 * 1024 * 1024;
+                }
+                if (multiplier != 1) {
+                    value = value.substring(0, value.length() - 1);
+                }
+                maxDirectMemory = Long.parseLong(value) * multiplier;
+                break;
+            }
+        } catch (Throwable ignored) {
+            // Ignore
+        }
+        if (maxDirectMemory <= 0) {
+            maxDirectMemory = Runtime.getRuntime().maxMemory();
+        }
+        logger.debug("maxDirectMemory: {} bytes", maxDirectMemory);
+        return maxDirectMemory;
+    }
+
+    private static Method invokeCleanerMethod() {
+        if (UNSAFE == null || JAVA_VERSION < 9) {
+            return null;
+        }
+        try {
+            return UNSAFE.getClass().getDeclaredMethod("invokeCleaner", ByteBuffer.class);
+        } catch (Throwable cause) {
+            return null;
+        }
+    }
+
+    private static int javaVersion0() {
+        String version = SystemPropertyUtil.get("java.specification.version", "1.8");
+        try {
+            //1.8这种格式的版本号，取小数点后面的数字
+            if (version.startsWith("1.")) {
+                return Integer.parseInt(version.substring(2));
+            }
+            return Integer.parseInt(version);
+        } catch (NumberFormatException e) {
+            return 8;
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:和UnsafeTest中的做法一样，反射得到theUnsafe属性
+     */
+    private static Unsafe getUnsafe() {
+        Object maybeUnsafe = AccessController.doPrivileged(new PrivilegedAction<Object>() {
+            @Override
+            public Object run() {
+                try {
+                    Field theUnsafe = Unsafe.class.getDeclaredField("theUnsafe");
+                    theUnsafe.setAccessible(true);
+                    return theUnsafe.get(null);
+                } catch (Throwable cause) {
+                    return cause;
+                }
+            }
+        });
+        if (maybeUnsafe instanceof Throwable) {
+            logger.info("sun.misc.Unsafe.theUnsafe: unavailable {}", ((Throwable) maybeUnsafe).getMessage());
+            return null;
+        }
+        return (Unsafe) maybeUnsafe;
+    }
+}
@@ -0,0 +1,16 @@
+package com.pp.netty.util.internal;
+
+/**
+ * @Author: PP-jessica
+ * @Description:可以放进DefaultPriorityQueue中的节点，节点自己记住在堆数组中的下标，
+ * 这样删除节点的时候就不用遍历整个数组去查找了
+ */
+public interface PriorityQueueNode {
+
+    //节点不在队列中时的下标
+    int INDEX_NOT_IN_QUEUE = -1;
+
+    int priorityQueueIndex(DefaultPriorityQueue<?> queue);
+
+    void priorityQueueIndex(DefaultPriorityQueue<?> queue, int i);
+}
@@ -0,0 +1,42 @@
+package com.pp.netty.util.internal;
+
+/**
+ * @Author: PP-jessica
+ * @Description:SWAR(SIMD Within A Register)工具类，把8个字节放在一个long中一次比较，查找字节的时候一次可以跳过8个字节。
+ * 原理是把要查找的字节复制8份组成一个模式，和数据异或之后，相等的字节就变成了0，再用位运算把值为0的字节的最高位置为1
+ */
+public final class SWARUtil {
+
+    private SWARUtil() {
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:把要查找的字节复制到long的每一个字节上
+     */
+    public static long compilePattern(byte byteToFind) {
+        return (byteToFind & 0xFFL) * 0x101010101010101L;
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:word中和模式相同的字节，在返回值中对应字节的最高位为1，其他位都是0。没有相同的字节时返回0。
+     * 先把每个字节的低7位加上0x7F，低7位不是0的话就会进位到最高位，再和原来的值或一下，只有值为0的字节的最高位还是0，
+     * 这种算法每个字节的计算都不会进位到相邻的字节，所以不会误判
+     */
+    public static long applyPattern(final long word, final long pattern) {
+        long input = word ^ pattern;
+        long tmp = (input & 0x7F7F7F7F7F7F7F7FL) + 0x7F7F7F7F7F7F7F7FL;
+        return ~(tmp | input | 0x7F7F7F7F7F7F7F7FL);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:根据applyPattern的返回值得到第一个匹配的字节在word中的下标。
+     * 大端读取的long，第一个字节在最高位，所以看前导0的个数，小端的看末尾0的个数
+     */
+    public static int getIndex(final long word, final boolean isBigEndian) {
+        final int zeros = isBigEndian ? Long.numberOfLeadingZeros(word) : Long.numberOfTrailingZeros(word);
+        return zeros >>> 3;
+    }
+}
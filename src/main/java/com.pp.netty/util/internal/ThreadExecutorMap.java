@@ -0,0 +1,28 @@
+package com.pp.netty.util.internal;
+
+import com.pp.netty.util.concurrent.EventExecutor;
+
+/**
+ * @Author: PP-jessica
+ * @Description:记录当前线程属于哪个单线程执行器。内存池要靠它判断当前线程是不是事件循环线程，
+ * 只有事件循环线程才会分配线程缓存，并且在执行器终止的时候把线程缓存中的内存还给内存池
+ */
+public final class ThreadExecutorMap {
+
+    private static final ThreadLocal<EventExecutor> mappings = new ThreadLocal<EventExecutor>();
+
+    private ThreadExecutorMap() {
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:得到当前线程所属的执行器，不是执行器的线程返回null
+     */
+    public static EventExecutor currentExecutor() {
+        return mappings.get();
+    }
+
+    public static void setCurrentEventExecutor(EventExecutor executor) {
+        mappings.set(executor);
+    }
+}
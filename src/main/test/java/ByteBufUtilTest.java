@@ -0,0 +1,189 @@
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.ByteBufUtil;
+import com.pp.netty.buffer.CompositeByteBuf;
+import com.pp.netty.buffer.PooledByteBufAllocator;
+import com.pp.netty.buffer.Unpooled;
+import com.pp.netty.util.internal.SWARUtil;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @Author: PP-jessica
+ * @Description:ByteBufUtil.indexOf和SWARUtil的测试，结果都和逐个字节比较的结果对照。
+ * 匹配的字节放在0到15的每一个位置上，查找的区域从每一个下标开始，这样前面按字节比较的length & 7个字节和后面按long比较的部分都能覆盖到
+ */
+public class ByteBufUtilTest {
+
+    private static final int CAPACITY = 32;
+
+    private static final byte[] VALUES = { 0x00, 0x01, 0x7F, (byte) 0x80, (byte) 0xFF, 'a' };
+
+    @Test
+    public void testIndexOfHeap() {
+        for (byte value : VALUES) {
+            ByteBuf buf = Unpooled.buffer(CAPACITY);
+            try {
+                checkIndexOf(buf, value);
+            } finally {
+                buf.release();
+            }
+        }
+    }
+
+    @Test
+    public void testIndexOfDirect() {
+        for (byte value : VALUES) {
+            ByteBuf buf = Unpooled.directBuffer(CAPACITY);
+            try {
+                checkIndexOf(buf, value);
+            } finally {
+                buf.release();
+            }
+        }
+    }
+
+    @Test
+    public void testIndexOfPooled() {
+        for (byte value : VALUES) {
+            ByteBuf heap = PooledByteBufAllocator.DEFAULT.heapBuffer(CAPACITY);
+            ByteBuf direct = PooledByteBufAllocator.DEFAULT.directBuffer(CAPACITY);
+            try {
+                checkIndexOf(heap, value);
+                checkIndexOf(direct, value);
+            } finally {
+                heap.release();
+                direct.release();
+            }
+        }
+    }
+
+    @Test
+    public void testIndexOfComposite() {
+        for (byte value : VALUES) {
+            //组件的长度故意不是8的倍数，读long的时候会跨过组件的边界
+            CompositeByteBuf buf = Unpooled.compositeBuffer();
+            buf.addComponent(true, Unpooled.buffer(5).writeZero(5));
+            buf.addComponent(true, Unpooled.directBuffer(11).writeZero(11));
+            buf.addComponent(true, Unpooled.buffer(3).writeZero(3));
+            buf.addComponent(true, Unpooled.directBuffer(13).writeZero(13));
+            try {
+                assertEquals(CAPACITY, buf.capacity());
+                checkIndexOf(buf, value);
+            } finally {
+                buf.release();
+            }
+        }
+    }
+
+    @Test
+    public void testIndexOfOutOfRange() {
+        ByteBuf buf = Unpooled.buffer(CAPACITY);
+        try {
+            fill(buf, (byte) 0);
+            buf.setByte(3, 0);
+            assertEquals(3, ByteBufUtil.indexOf(buf, -5, CAPACITY + 5, (byte) 0));
+            assertEquals(-1, ByteBufUtil.indexOf(buf, 3, 3, (byte) 0));
+            assertEquals(-1, ByteBufUtil.indexOf(buf, CAPACITY, CAPACITY + 5, (byte) 0));
+            assertEquals(3, ByteBufUtil.indexOf(buf, CAPACITY + 5, -5, (byte) 0));
+        } finally {
+            buf.release();
+        }
+    }
+
+    @Test
+    public void testApplyPattern() {
+        Random random = new Random(0);
+        byte[] bytes = new byte[8];
+        for (int n = 0; n < 100000; n++) {
+            byte value = (byte) random.nextInt();
+            long pattern = SWARUtil.compilePattern(value);
+            for (int i = 0; i < 8; i++) {
+                //大多数字节和要找的值只差一位，最容易出现进位或借位导致的误判
+                switch (random.nextInt(4)) {
+                    case 0:
+                        bytes[i] = value;
+                        break;
+                    case 1:
+                        bytes[i] = (byte) (value ^ (1 << random.nextInt(8)));
+                        break;
+                    default:
+                        bytes[i] = (byte) random.nextInt();
+                        break;
+                }
+            }
+            long word = toLong(bytes);
+            long expected = 0;
+            int firstIndex = 8;
+            for (int i = 0; i < 8; i++) {
+                if (bytes[i] == value) {
+                    expected |= 0x80L << ((7 - i) << 3);
+                    firstIndex = Math.min(firstIndex, i);
+                }
+            }
+            long result = SWARUtil.applyPattern(word, pattern);
+            assertEquals(expected, result);
+            if (result != 0) {
+                assertEquals(firstIndex, SWARUtil.getIndex(result, true));
+                assertEquals(7 - lastIndexOf(bytes, value), SWARUtil.getIndex(result, false));
+            }
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:匹配的字节依次放在0到15的位置上，对[from, to)的所有组合都和逐字节查找的结果比较。
+     * 匹配位置后面再放一个相同的字节，确保返回的是第一个
+     */
+    private static void checkIndexOf(ByteBuf buf, byte value) {
+        for (int match = 0; match < 16; match++) {
+            fill(buf, value);
+            buf.setByte(match, value);
+            buf.setByte(match + 9, value);
+            for (int from = 0; from <= CAPACITY; from++) {
+                for (int to = from; to <= CAPACITY; to++) {
+                    assertEquals("match: " + match + ", from: " + from + ", to: " + to,
+                            referenceIndexOf(buf, from, to, value), ByteBufUtil.indexOf(buf, from, to, value));
+                }
+            }
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:用和value只差一位的字节填满缓冲区，这些字节都不应该被当成匹配
+     */
+    private static void fill(ByteBuf buf, byte value) {
+        for (int i = 0; i < buf.capacity(); i++) {
+            buf.setByte(i, value ^ (1 << (i & 7)));
+        }
+    }
+
+    private static int referenceIndexOf(ByteBuf buf, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (buf.getByte(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(byte[] bytes, byte value) {
+        for (int i = bytes.length - 1; i >= 0; i--) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long toLong(byte[] bytes) {
+        long word = 0;
+        for (byte b : bytes) {
+            word = (word << 8) | (b & 0xFF);
+        }
+        return word;
+    }
+}
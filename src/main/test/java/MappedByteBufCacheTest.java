@@ -0,0 +1,276 @@
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.MappedByteBufCache;
+import com.pp.netty.util.IllegalReferenceCountException;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Author: PP-jessica
+ * @Description:MappedByteBufCache的测试，覆盖按个数和字节数的LRU淘汰、淘汰之后映射的引用计数、
+ * 文件修改之后重新映射、只读，以及多个线程同时读同一个映射
+ */
+public class MappedByteBufCacheTest {
+
+    private static final int FILE_SIZE = 64 * 1024;
+
+    @Test
+    public void testSharedMapping() throws Exception {
+        File file = newFile(FILE_SIZE, 0);
+        MappedByteBufCache cache = new MappedByteBufCache(1 << 20, 4);
+        try {
+            ByteBuf a = cache.acquire(file);
+            ByteBuf b = cache.acquire(file);
+            //缓存一个，两个duplicate各一个
+            assertEquals(3, a.refCnt());
+            assertEquals(1, cache.size());
+            assertEquals(FILE_SIZE, cache.mappedBytes());
+            assertEquals(FILE_SIZE, a.readableBytes());
+            assertArrayEquals(content(FILE_SIZE, 0), readAll(a));
+            assertEquals(FILE_SIZE, b.readableBytes());
+            a.release();
+            b.release();
+        } finally {
+            cache.clear();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testEvictByMaxEntries() throws Exception {
+        File file = newFile(FILE_SIZE, 0);
+        MappedByteBufCache cache = new MappedByteBufCache(1 << 20, 2);
+        try {
+            cache.acquire(file, 0, 1024).release();
+            cache.acquire(file, 1024, 1024).release();
+            //访问一下第一个，第二个就成了最近最少使用的
+            cache.acquire(file, 0, 1024).release();
+            ByteBuf third = cache.acquire(file, 2048, 1024);
+            assertEquals(2, cache.size());
+            assertEquals(2048, cache.mappedBytes());
+            assertFalse(cache.remove(file, 1024, 1024));
+            assertTrue(cache.remove(file, 0, 1024));
+            assertEquals(1, cache.size());
+            assertArrayEquals(Arrays.copyOfRange(content(FILE_SIZE, 0), 2048, 3072), readAll(third));
+            third.release();
+        } finally {
+            cache.clear();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testEvictByMaxMappedBytes() throws Exception {
+        File file = newFile(FILE_SIZE, 0);
+        MappedByteBufCache cache = new MappedByteBufCache(3000, 16);
+        try {
+            cache.acquire(file, 0, 1024).release();
+            cache.acquire(file, 1024, 1024).release();
+            assertEquals(2048, cache.mappedBytes());
+            cache.acquire(file, 2048, 1024).release();
+            assertEquals(2, cache.size());
+            assertEquals(2048, cache.mappedBytes());
+            assertFalse(cache.remove(file, 0, 1024));
+            //一个映射就超过了上限也会留下，不然缓存就没有意义了
+            cache.acquire(file, 0, 4096).release();
+            assertEquals(1, cache.size());
+            assertEquals(4096, cache.mappedBytes());
+        } finally {
+            cache.clear();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testEvictedMappingLivesUntilLastRelease() throws Exception {
+        File file = newFile(FILE_SIZE, 0);
+        MappedByteBufCache cache = new MappedByteBufCache(1 << 20, 1);
+        try {
+            ByteBuf first = cache.acquire(file, 0, 1024);
+            ByteBuf second = first.retainedDuplicate();
+            assertEquals(3, first.refCnt());
+            //淘汰之后缓存释放了自己的引用计数，还在用的duplicate仍然可以读
+            cache.acquire(file, 1024, 1024).release();
+            assertEquals(2, first.refCnt());
+            assertArrayEquals(Arrays.copyOfRange(content(FILE_SIZE, 0), 0, 1024), readAll(first));
+            first.release();
+            assertEquals(1, second.refCnt());
+            assertEquals(content(FILE_SIZE, 0)[100], second.getByte(100));
+            assertTrue(second.release());
+            assertEquals(0, second.refCnt());
+            try {
+                second.getByte(100);
+                throw new AssertionError("mapping should be released");
+            } catch (IllegalReferenceCountException expected) {
+                //映射已经解除了
+            }
+        } finally {
+            cache.clear();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testRemapWhenModified() throws Exception {
+        File file = newFile(FILE_SIZE, 0);
+        MappedByteBufCache cache = new MappedByteBufCache(1 << 20, 4);
+        try {
+            ByteBuf old = cache.acquire(file);
+            write(file, content(FILE_SIZE, 3));
+            assertTrue(file.setLastModified(file.lastModified() + 10000));
+            ByteBuf updated = cache.acquire(file);
+            assertEquals(1, old.refCnt());
+            assertEquals(2, updated.refCnt());
+            assertEquals(1, cache.size());
+            assertEquals(FILE_SIZE, cache.mappedBytes());
+            assertArrayEquals(content(FILE_SIZE, 3), readAll(updated));
+            old.release();
+            updated.release();
+        } finally {
+            cache.clear();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testReadOnly() throws Exception {
+        File file = newFile(1024, 0);
+        MappedByteBufCache cache = new MappedByteBufCache(1 << 20, 4);
+        ByteBuf buf = cache.acquire(file);
+        try {
+            assertTrue(buf.isReadOnly());
+            assertTrue(buf.slice(0, 10).isReadOnly());
+            try {
+                buf.setByte(0, 1);
+                throw new AssertionError("setByte should fail");
+            } catch (ReadOnlyBufferException expected) {
+                //映射是只读的
+            }
+            try {
+                buf.setBytes(0, new byte[10]);
+                throw new AssertionError("setBytes should fail");
+            } catch (ReadOnlyBufferException expected) {
+                //映射是只读的
+            }
+            try {
+                buf.writeByte(1);
+                throw new AssertionError("writeByte should fail");
+            } catch (ReadOnlyBufferException expected) {
+                //映射是只读的
+            }
+            buf.clear();
+            try {
+                buf.writeBytes(new byte[10]);
+                throw new AssertionError("writeBytes should fail");
+            } catch (ReadOnlyBufferException expected) {
+                //映射是只读的
+            }
+        } finally {
+            buf.release();
+            cache.clear();
+            file.delete();
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:多个线程同时从同一个映射的不同位置拷贝数据，每次拷贝的结果都要和文件的内容一致
+     */
+    @Test
+    public void testConcurrentReads() throws Exception {
+        final byte[] expected = content(FILE_SIZE, 0);
+        final File file = newFile(FILE_SIZE, 0);
+        final MappedByteBufCache cache = new MappedByteBufCache(1 << 20, 4);
+        final int threads = 4;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                final int seed = t;
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Random random = new Random(seed);
+                        byte[] dst = new byte[1024];
+                        ByteBuffer nioDst = ByteBuffer.allocate(1024);
+                        try {
+                            start.await();
+                            for (int i = 0; i < 20000 && failure.get() == null; i++) {
+                                ByteBuf buf = cache.acquire(file);
+                                try {
+                                    int offset = random.nextInt(FILE_SIZE - dst.length);
+                                    if ((i & 1) == 0) {
+                                        buf.getBytes(offset, dst, 0, dst.length);
+                                    } else {
+                                        nioDst.clear();
+                                        buf.readerIndex(offset);
+                                        buf.readBytes(nioDst);
+                                        nioDst.flip();
+                                        nioDst.get(dst);
+                                    }
+                                    assertArrayEquals(Arrays.copyOfRange(expected, offset, offset + dst.length), dst);
+                                } finally {
+                                    buf.release();
+                                }
+                            }
+                        } catch (Throwable cause) {
+                            failure.compareAndSet(null, cause);
+                        } finally {
+                            done.countDown();
+                        }
+                    }
+                }).start();
+            }
+            start.countDown();
+            done.await();
+            if (failure.get() != null) {
+                throw new AssertionError(failure.get());
+            }
+        } finally {
+            cache.clear();
+            file.delete();
+        }
+    }
+
+    private static File newFile(int size, int seed) throws IOException {
+        File file = File.createTempFile("mapped", ".bin");
+        file.deleteOnExit();
+        write(file, content(size, seed));
+        return file;
+    }
+
+    private static void write(File file, byte[] content) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static byte[] content(int size, int seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] readAll(ByteBuf buf) {
+        byte[] bytes = new byte[buf.readableBytes()];
+        buf.getBytes(buf.readerIndex(), bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,212 @@
+import com.pp.netty.buffer.ByteBuf;
+import com.pp.netty.buffer.Unpooled;
+import com.pp.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import com.pp.netty.handler.codec.http.websocketx.WebSocketFrame;
+import com.pp.netty.handler.codec.http.websocketx.WebSocketFrameDecoder;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @Author: PP-jessica
+ * @Description:WebSocketFrameDecoder反掩码的测试。负载分成若干段送给解码器，每一段都从负载中模4的不同位置开始，
+ * 每送一段就检查已经到达的负载有没有被正确地反掩码，结果和逐个字节异或掩码的结果对照。
+ * 反掩码用getLong和setLong一次处理8个字节，堆内存和直接内存的实现不一样，所以累积缓冲区两种都要测
+ */
+public class WebSocketFrameDecoderTest {
+
+    private static final int[] MASKS = { 0x37FA213D, 0x00FF00FF, 0x01000000, 0x80000001, 0 };
+
+    @Test
+    public void testUnmaskInSplitsHeap() throws Exception {
+        checkUnmaskInSplits(false);
+    }
+
+    @Test
+    public void testUnmaskInSplitsDirect() throws Exception {
+        checkUnmaskInSplits(true);
+    }
+
+    @Test
+    public void testUnmaskBackToBackFramesHeap() throws Exception {
+        checkUnmaskBackToBackFrames(false);
+    }
+
+    @Test
+    public void testUnmaskBackToBackFramesDirect() throws Exception {
+        checkUnmaskBackToBackFrames(true);
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:负载长度不是8的倍数，第二段从掩码的第3个字节开始反掩码，前面按long异或，最后剩下的几个字节逐个异或
+     */
+    @Test
+    public void testUnmaskUnalignedTail() throws Exception {
+        byte[] payload = new byte[29];
+        new Random(2).nextBytes(payload);
+        for (int mask : MASKS) {
+            byte[] frame = encodeMasked(payload, mask);
+            int headerLength = frame.length - payload.length;
+            checkDecode(payload, frame, mask, headerLength + 3, payload.length - 3, false);
+            checkDecode(payload, frame, mask, headerLength + 3, payload.length - 3, true);
+        }
+    }
+
+    private static void checkUnmaskInSplits(boolean direct) throws Exception {
+        Random random = new Random(0);
+        int[] lengths = { 0, 1, 2, 3, 4, 5, 7, 8, 9, 15, 16, 17, 31, 33, 125, 126, 127, 300, 1029 };
+        for (int mask : MASKS) {
+            for (int length : lengths) {
+                byte[] payload = new byte[length];
+                random.nextBytes(payload);
+                byte[] frame = encodeMasked(payload, mask);
+                int headerLength = frame.length - length;
+                //第一段多带skew个负载字节，后面每段step个字节，这样每一段的起始位置模4的值都能覆盖到
+                for (int skew = 0; skew < 4; skew++) {
+                    for (int step = 1; step <= 9; step++) {
+                        checkDecode(payload, frame, mask, Math.min(frame.length, headerLength + skew), step, direct);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void checkUnmaskBackToBackFrames(boolean direct) throws Exception {
+        Random random = new Random(1);
+        //第二个帧的负载在缓冲区中的起始位置不是4的倍数，反掩码的进度要在帧之间清零
+        byte[] first = new byte[13];
+        byte[] second = new byte[22];
+        random.nextBytes(first);
+        random.nextBytes(second);
+        byte[] a = encodeMasked(first, MASKS[0]);
+        byte[] b = encodeMasked(second, MASKS[1]);
+        ByteBuf in = newCumulation(a.length + b.length, direct);
+        in.writeBytes(a);
+        in.writeBytes(b, 0, 11);
+        TestDecoder decoder = new TestDecoder();
+        List<Object> out = new ArrayList<Object>();
+        try {
+            decoder.decode(in, out);
+            decoder.decode(in, out);
+            in.writeBytes(b, 11, b.length - 11);
+            decoder.decode(in, out);
+            assertEquals(2, out.size());
+            assertArrayEquals(first, content(out.get(0)));
+            assertArrayEquals(second, content(out.get(1)));
+        } finally {
+            release(out);
+            in.release();
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:先送firstSplit个字节，之后每次送step个字节。每送一次都检查已经到达的负载是不是已经反掩码好了
+     */
+    private static void checkDecode(byte[] payload, byte[] frame, int mask, int firstSplit, int step,
+                                    boolean direct) throws Exception {
+        String message = "length: " + payload.length + ", mask: " + Integer.toHexString(mask)
+                + ", firstSplit: " + firstSplit + ", step: " + step + ", direct: " + direct;
+        int headerLength = frame.length - payload.length;
+        TestDecoder decoder = new TestDecoder();
+        ByteBuf in = newCumulation(frame.length, direct);
+        List<Object> out = new ArrayList<Object>();
+        try {
+            assertEquals(message, direct, in.isDirect());
+            int written = 0;
+            int split = firstSplit;
+            while (written < frame.length) {
+                in.writeBytes(frame, written, split - written);
+                written = split;
+                decoder.decode(in, out);
+                if (out.isEmpty() && written > headerLength) {
+                    //头部已经读完了，readerIndex指向负载的开头
+                    int arrived = written - headerLength;
+                    byte[] unmasked = new byte[arrived];
+                    in.getBytes(in.readerIndex(), unmasked);
+                    assertArrayEquals(message + ", arrived: " + arrived, copyOf(payload, arrived), unmasked);
+                }
+                split = Math.min(frame.length, split + step);
+            }
+            assertEquals(message, 1, out.size());
+            assertTrue(message, out.get(0) instanceof BinaryWebSocketFrame);
+            assertArrayEquals(message, payload, content(out.get(0)));
+            assertEquals(message, 0, in.readableBytes());
+        } finally {
+            release(out);
+            in.release();
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:按照协议的格式编码一个带掩码的二进制帧，负载逐个字节和掩码异或
+     */
+    private static byte[] encodeMasked(byte[] payload, int mask) {
+        int length = payload.length;
+        ByteBuf buf = Unpooled.buffer(length + 14);
+        try {
+            buf.writeByte(0x82);
+            if (length < 126) {
+                buf.writeByte(0x80 | length);
+            } else if (length < 65536) {
+                buf.writeByte(0x80 | 126);
+                buf.writeShort(length);
+            } else {
+                buf.writeByte(0x80 | 127);
+                buf.writeLong(length);
+            }
+            buf.writeInt(mask);
+            for (int i = 0; i < length; i++) {
+                int maskByte = mask >>> ((3 - (i & 3)) << 3);
+                buf.writeByte((payload[i] ^ maskByte) & 0xFF);
+            }
+            byte[] frame = new byte[buf.readableBytes()];
+            buf.readBytes(frame);
+            return frame;
+        } finally {
+            buf.release();
+        }
+    }
+
+    private static ByteBuf newCumulation(int capacity, boolean direct) {
+        return direct ? Unpooled.directBuffer(capacity) : Unpooled.buffer(capacity);
+    }
+
+    private static byte[] content(Object frame) {
+        ByteBuf content = ((WebSocketFrame) frame).content();
+        byte[] bytes = new byte[content.readableBytes()];
+        content.getBytes(content.readerIndex(), bytes);
+        return bytes;
+    }
+
+    private static byte[] copyOf(byte[] bytes, int length) {
+        byte[] copy = new byte[Math.min(bytes.length, length)];
+        System.arraycopy(bytes, 0, copy, 0, copy.length);
+        return copy;
+    }
+
+    private static void release(List<Object> out) {
+        for (Object o : out) {
+            ((WebSocketFrame) o).release();
+        }
+    }
+
+    /**
+     * @Author: PP-jessica
+     * @Description:decode是protected的，用子类直接调用。不传ChannelHandlerContext，只有协议出错的时候才会用到它
+     */
+    private static final class TestDecoder extends WebSocketFrameDecoder {
+
+        void decode(ByteBuf in, List<Object> out) throws Exception {
+            decode(null, in, out);
+        }
+    }
+}